@@ -0,0 +1,45 @@
+#!/bin/bash
+#
+# Compara hilos de plataforma (pool de Tomcat, 200 hilos) contra hilos virtuales con la
+# misma imagen Java 21 y el mismo pool de conexiones, a 1000 peticiones simultáneas:
+#
+#   ./comparar_hilos.sh [--tasa 800] [--duracion 120]
+#
+# Cada modo se levanta de cero sobre la misma base (se puebla una sola vez). Los resultados
+# quedan en resultados-plataforma.json y resultados-virtual.json.
+#
+
+set -e
+
+cd "$(dirname "$0")"
+
+export JAVA_VERSION=21 MAVEN_PERFILES=java21 DB_POOL_MAXIMO=${DB_POOL_MAXIMO:-20}
+ARGUMENTOS=(--hilos 1000 --tasa 800 --duracion 120 "$@")
+
+for modo in plataforma virtual; do
+    if [ "$modo" = "virtual" ]; then
+        export SPRING_PROFILES_ACTIVE=virtual CARGA_SIN_SEMILLA=1
+    else
+        export SPRING_PROFILES_ACTIVE=
+    fi
+    # run.sh recrea el contenedor de la API porque cambió su entorno
+    echo "🧵 Hilos de $modo"
+    ./run.sh "${ARGUMENTOS[@]}" --salida "resultados-$modo.json"
+done
+
+python3 - <<'PY'
+import json
+
+def total(archivo):
+    with open(archivo, encoding='utf-8') as f:
+        resultado = json.load(f)
+    ok = sum(o['ok'] for o in resultado['operaciones'])
+    errores = sum(o['errores'] for o in resultado['operaciones'])
+    p99 = max((o['p99'] or 0) for o in resultado['operaciones'])
+    return ok / resultado['duracion'], errores, p99
+
+print(f"\n{'modo':<12}{'req/s':>10}{'errores':>10}{'p99 máx ms':>14}")
+for modo in ('plataforma', 'virtual'):
+    throughput, errores, p99 = total(f'resultados-{modo}.json')
+    print(f"{modo:<12}{throughput:>10.1f}{errores:>10}{p99:>14.1f}")
+PY
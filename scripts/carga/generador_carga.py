@@ -0,0 +1,235 @@
+#!/usr/bin/env python3
+"""
+Generador de carga GraphQL para GestorAPI.
+
+Reproduce una mezcla ponderada de operaciones (operaciones.jsonl) a una tasa fija y
+reporta, por operación, throughput y latencias p50/p95/p99.
+
+La carga es de lazo abierto: cada petición tiene su instante programado (inicio + i / tasa)
+y su latencia se mide desde ese instante, no desde que un hilo quedó libre. Si el servidor
+se atrasa, las peticiones esperan en cola y esa espera cuenta en la latencia, en lugar de
+bajar la tasa sin que se note (omisión coordinada).
+
+Las variables con valor "@cliente", "@producto", "@pedido", "@repartidor" o "@sku" se
+reemplazan en cada petición por un valor al azar de los existentes en la base.
+
+Uso:
+    python3 generador_carga.py --tasa 50 --duracion 60 [--salida resultados.json]
+"""
+
+import argparse
+import http.client
+import json
+import os
+import random
+import sys
+import threading
+import time
+from concurrent.futures import ThreadPoolExecutor
+from urllib.parse import urlparse
+
+import psycopg2
+
+sys.path.insert(0, os.path.join(os.path.dirname(os.path.abspath(__file__)), '..'))
+from seed_database import DB_CONFIG  # noqa: E402
+
+CONSULTAS_VALORES = {
+    '@cliente': "SELECT id FROM clientes WHERE activo",
+    '@producto': "SELECT id FROM productos WHERE activo",
+    '@pedido': "SELECT id FROM pedidos",
+    '@repartidor': "SELECT id FROM usuarios WHERE rol = 'REPARTIDOR'",
+    '@sku': "SELECT sku FROM productos",
+}
+
+LOGIN = "mutation($email: String!, $password: String!) { login(email: $email, password: $password) { token } }"
+
+
+def leer_operaciones(ruta):
+    with open(ruta, encoding='utf-8') as archivo:
+        return [json.loads(linea) for linea in archivo if linea.strip()]
+
+
+def cargar_valores():
+    """Ids y SKUs existentes, para que las consultas apunten a datos reales"""
+    conn = psycopg2.connect(**DB_CONFIG)
+    cursor = conn.cursor()
+    valores = {}
+    for marcador, consulta in CONSULTAS_VALORES.items():
+        cursor.execute(consulta)
+        valores[marcador] = [str(fila[0]) for fila in cursor.fetchall()]
+        if not valores[marcador]:
+            print(f"❌ No hay datos para {marcador}; ¿se ejecutó preparar_base.py?")
+            sys.exit(1)
+    conn.close()
+    return valores
+
+
+def resolver(plantilla, valores):
+    if isinstance(plantilla, dict):
+        return {clave: resolver(valor, valores) for clave, valor in plantilla.items()}
+    if isinstance(plantilla, list):
+        return [resolver(valor, valores) for valor in plantilla]
+    if isinstance(plantilla, str) and plantilla in valores:
+        return random.choice(valores[plantilla])
+    return plantilla
+
+
+class ClienteGraphQL:
+    """Una conexión keep-alive por hilo"""
+
+    def __init__(self, url, token=None):
+        self.url = urlparse(url)
+        self.token = token
+        self.local = threading.local()
+
+    def _conexion(self):
+        if not hasattr(self.local, 'conexion'):
+            self.local.conexion = http.client.HTTPConnection(self.url.hostname, self.url.port or 80, timeout=30)
+        return self.local.conexion
+
+    def ejecutar(self, query, variables):
+        # En bytes: un str lo codificaría http.client como ISO-8859-1
+        cuerpo = json.dumps({'query': query, 'variables': variables}).encode('utf-8')
+        cabeceras = {'Content-Type': 'application/json'}
+        if self.token:
+            cabeceras['Authorization'] = f'Bearer {self.token}'
+        conexion = self._conexion()
+        try:
+            conexion.request('POST', self.url.path or '/graphql', cuerpo, cabeceras)
+            respuesta = conexion.getresponse()
+            datos = respuesta.read()
+        except (http.client.HTTPException, OSError):
+            conexion.close()
+            del self.local.conexion
+            raise
+        if respuesta.status != 200:
+            raise RuntimeError(f'HTTP {respuesta.status}')
+        resultado = json.loads(datos)
+        if resultado.get('errors'):
+            raise RuntimeError(resultado['errors'][0].get('message', 'error GraphQL'))
+        return resultado['data']
+
+
+class Estadisticas:
+
+    def __init__(self):
+        self.lock = threading.Lock()
+        self.latencias = {}
+        self.errores = {}
+        self.ejemplos_error = {}
+
+    def registrar(self, nombre, milisegundos, error=None):
+        with self.lock:
+            if error is None:
+                self.latencias.setdefault(nombre, []).append(milisegundos)
+            else:
+                self.errores[nombre] = self.errores.get(nombre, 0) + 1
+                self.ejemplos_error.setdefault(nombre, str(error))
+
+    def resumen(self, segundos):
+        filas = []
+        for nombre in sorted(set(self.latencias) | set(self.errores)):
+            latencias = sorted(self.latencias.get(nombre, []))
+            filas.append({
+                'operacion': nombre,
+                'ok': len(latencias),
+                'errores': self.errores.get(nombre, 0),
+                'throughput': len(latencias) / segundos,
+                'p50': percentil(latencias, 50),
+                'p95': percentil(latencias, 95),
+                'p99': percentil(latencias, 99),
+                'max': latencias[-1] if latencias else None,
+                'ejemploError': self.ejemplos_error.get(nombre),
+            })
+        return filas
+
+
+def percentil(ordenados, p):
+    """Percentil por rango más cercano"""
+    if not ordenados:
+        return None
+    indice = max(0, -(-p * len(ordenados) // 100) - 1)
+    return ordenados[indice]
+
+
+def ejecutar_carga(cliente, operaciones, valores, tasa, duracion, hilos, estadisticas):
+    pesos = [op['peso'] for op in operaciones]
+    total = int(tasa * duracion)
+    inicio = time.perf_counter()
+
+    def peticion(operacion, programada):
+        try:
+            cliente.ejecutar(operacion['query'], resolver(operacion.get('variables', {}), valores))
+            error = None
+        except Exception as e:  # noqa: BLE001  cualquier fallo cuenta como error de la operación
+            error = e
+        estadisticas.registrar(operacion['nombre'], (time.perf_counter() - programada) * 1000, error)
+
+    with ThreadPoolExecutor(max_workers=hilos) as ejecutor:
+        for i in range(total):
+            programada = inicio + i / tasa
+            espera = programada - time.perf_counter()
+            if espera > 0:
+                time.sleep(espera)
+            ejecutor.submit(peticion, random.choices(operaciones, weights=pesos)[0], programada)
+    return time.perf_counter() - inicio
+
+
+def imprimir(filas, segundos):
+    print(f"\n{'operación':<24}{'ok':>8}{'err':>6}{'req/s':>9}{'p50 ms':>10}{'p95 ms':>10}{'p99 ms':>10}")
+    print('-' * 77)
+
+    def ms(valor):
+        return f"{valor:10.1f}" if valor is not None else f"{'-':>10}"
+
+    for fila in filas:
+        print(f"{fila['operacion']:<24}{fila['ok']:>8}{fila['errores']:>6}{fila['throughput']:>9.1f}"
+              f"{ms(fila['p50'])}{ms(fila['p95'])}{ms(fila['p99'])}")
+    total = sum(f['ok'] for f in filas)
+    print('-' * 77)
+    print(f"{'total':<24}{total:>8}{sum(f['errores'] for f in filas):>6}{total / segundos:>9.1f}")
+    for fila in filas:
+        if fila['ejemploError']:
+            print(f"⚠️  {fila['operacion']}: {fila['ejemploError']}")
+
+
+def main():
+    parser = argparse.ArgumentParser(description='Carga GraphQL de lazo abierto contra GestorAPI')
+    parser.add_argument('--url', default='http://localhost:8081/graphql')
+    parser.add_argument('--operaciones', default=os.path.join(os.path.dirname(os.path.abspath(__file__)), 'operaciones.jsonl'))
+    parser.add_argument('--tasa', type=float, default=50, help='peticiones por segundo')
+    parser.add_argument('--duracion', type=float, default=60, help='segundos de medición')
+    parser.add_argument('--calentamiento', type=float, default=15, help='segundos de carga previa que no se miden')
+    parser.add_argument('--hilos', type=int, default=64, help='peticiones simultáneas como máximo')
+    parser.add_argument('--email', default='admin@distria.com')
+    parser.add_argument('--password', default='admin123')
+    parser.add_argument('--semilla', type=int, default=42)
+    parser.add_argument('--salida', help='archivo JSON donde guardar los resultados')
+    args = parser.parse_args()
+
+    random.seed(args.semilla)
+    operaciones = leer_operaciones(args.operaciones)
+    valores = cargar_valores()
+
+    token = ClienteGraphQL(args.url).ejecutar(LOGIN, {'email': args.email, 'password': args.password})['login']['token']
+    cliente = ClienteGraphQL(args.url, token)
+
+    if args.calentamiento > 0:
+        print(f"🔥 Calentamiento: {args.calentamiento:.0f} s a {args.tasa:.0f} req/s")
+        ejecutar_carga(cliente, operaciones, valores, args.tasa, args.calentamiento, args.hilos, Estadisticas())
+
+    print(f"📈 Medición: {args.duracion:.0f} s a {args.tasa:.0f} req/s, {len(operaciones)} operaciones")
+    estadisticas = Estadisticas()
+    segundos = ejecutar_carga(cliente, operaciones, valores, args.tasa, args.duracion, args.hilos, estadisticas)
+    filas = estadisticas.resumen(segundos)
+    imprimir(filas, segundos)
+
+    if args.salida:
+        with open(args.salida, 'w', encoding='utf-8') as archivo:
+            json.dump({'tasa': args.tasa, 'duracion': segundos, 'hilos': args.hilos,
+                       'operaciones': filas}, archivo, indent=2, ensure_ascii=False)
+        print(f"\n💾 Resultados en {args.salida}")
+
+
+if __name__ == "__main__":
+    main()
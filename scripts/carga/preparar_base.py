@@ -0,0 +1,67 @@
+#!/usr/bin/env python3
+"""
+Prepara el Postgres local para las pruebas de carga: completa el esquema que creó
+Hibernate y lo puebla con seed_database.py (800 clientes, 600 productos, 3500 pedidos,
+semilla 42, siempre los mismos datos).
+
+En una base existente la migración V7 deja cada id con su secuencia *_seq como default.
+Aquí la base está vacía: V7 solo crea las secuencias (las tablas aún no existen) y
+Hibernate crea después las tablas con id sin valor por defecto, mientras que
+seed_database.py inserta sin id. Antes de poblar, cada id toma su secuencia como default,
+igual que en V7; después, cada secuencia se reposiciona en MAX(id) + 50 para que el primer
+bloque que reserve la aplicación no choque con los datos insertados.
+
+Se ejecuta con la aplicación ya levantada (es ella la que crea el esquema).
+"""
+
+import os
+import sys
+import time
+
+import psycopg2
+
+sys.path.insert(0, os.path.join(os.path.dirname(os.path.abspath(__file__)), '..'))
+import seed_database  # noqa: E402  (lee DB_HOST, DB_PORT, ... del entorno)
+
+TABLAS_CON_SECUENCIA = ['usuarios', 'clientes', 'productos', 'inventarios',
+                        'movimientos_inventario', 'pedidos', 'items_pedido', 'rutas_entrega']
+ESPERA_ESQUEMA_SEGUNDOS = 180
+
+
+def esperar_esquema(cursor):
+    """Espera a que Hibernate haya creado tablas y secuencias"""
+    limite = time.time() + ESPERA_ESQUEMA_SEGUNDOS
+    while True:
+        cursor.execute("SELECT count(*) FROM unnest(%s) AS t WHERE to_regclass(t) IS NULL",
+                       ([*TABLAS_CON_SECUENCIA, *[t + '_seq' for t in TABLAS_CON_SECUENCIA]],))
+        if cursor.fetchone()[0] == 0:
+            return
+        if time.time() > limite:
+            print("❌ El esquema no apareció; ¿está levantada la aplicación?")
+            sys.exit(1)
+        time.sleep(2)
+
+
+def main():
+    conn = psycopg2.connect(**seed_database.DB_CONFIG)
+    conn.autocommit = True
+    cursor = conn.cursor()
+
+    print("⏳ Esperando el esquema creado por la aplicación...")
+    esperar_esquema(cursor)
+    for tabla in TABLAS_CON_SECUENCIA:
+        cursor.execute(f"ALTER TABLE {tabla} ALTER COLUMN id SET DEFAULT nextval('{tabla}_seq')")
+
+    seed_database.poblar_base_datos()
+
+    for tabla in TABLAS_CON_SECUENCIA:
+        cursor.execute(f"SELECT setval('{tabla}_seq', COALESCE(MAX(id), 0) + 50, false) FROM {tabla}")
+    cursor.execute("ANALYZE")
+    print("✅ Secuencias reposicionadas y estadísticas actualizadas")
+
+    cursor.close()
+    conn.close()
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,41 @@
+#!/bin/bash
+#
+# Prueba de carga completa contra un stack local:
+#   1. levanta Postgres 16 y GestorAPI (docker compose)
+#   2. puebla la base con el perfil de seed_database.py
+#   3. reproduce la mezcla de operaciones.jsonl y reporta p50/p95/p99 por operación
+#
+# Uso: ./run.sh [argumentos de generador_carga.py]
+#   ./run.sh --tasa 100 --duracion 120 --salida resultados.json
+#
+# Con CARGA_SIN_SEMILLA=1 reutiliza los datos ya cargados; con CARGA_BAJAR=1 baja
+# el stack al terminar.
+#
+
+set -e
+
+cd "$(dirname "$0")"
+
+export DB_HOST=localhost DB_PORT=5433 DB_NAME=gestorapi DB_USER=gestorapi DB_PASSWORD=gestorapi
+
+echo "🐳 Levantando Postgres y GestorAPI..."
+docker compose up -d --build
+
+echo "⏳ Esperando a GestorAPI..."
+for _ in $(seq 1 90); do
+    if curl -sf http://localhost:8081/actuator/health > /dev/null; then
+        break
+    fi
+    sleep 2
+done
+curl -sf http://localhost:8081/actuator/health > /dev/null || { echo "❌ GestorAPI no respondió"; exit 1; }
+
+if [ "${CARGA_SIN_SEMILLA:-0}" != "1" ]; then
+    python3 preparar_base.py
+fi
+
+python3 generador_carga.py "$@"
+
+if [ "${CARGA_BAJAR:-0}" = "1" ]; then
+    docker compose down -v
+fi
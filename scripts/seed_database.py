@@ -7,6 +7,7 @@ Autor: DistrIA Team
 Fecha: 2024
 """
 
+import os
 import random
 import sys
 from datetime import datetime, timedelta
@@ -19,12 +20,14 @@ from faker import Faker
 # ============================================================================
 # CONFIGURACIÓN DE BASE DE DATOS
 # ============================================================================
+# Por defecto la base de Render; las variables DB_* permiten apuntar a otra
+# (scripts/carga la usa con el Postgres local)
 DB_CONFIG = {
-    'host': 'dpg-d49a9fk9c44c73bilt60-a.oregon-postgres.render.com',
-    'port': 5432,
-    'database': 'gestorapi_ij3r',
-    'user': 'admin',
-    'password': 'GimjVfMKs8ca2LSryY24otdIMJWl38W2'
+    'host': os.environ.get('DB_HOST', 'dpg-d49a9fk9c44c73bilt60-a.oregon-postgres.render.com'),
+    'port': int(os.environ.get('DB_PORT', 5432)),
+    'database': os.environ.get('DB_NAME', 'gestorapi_ij3r'),
+    'user': os.environ.get('DB_USER', 'admin'),
+    'password': os.environ.get('DB_PASSWORD', 'GimjVfMKs8ca2LSryY24otdIMJWl38W2')
 }
 
 # ============================================================================
@@ -225,7 +228,7 @@ def poblar_base_datos():
     
     try:
         # Conectar a la base de datos
-        print("\n📡 Conectando a PostgreSQL en Render...")
+        print(f"\n📡 Conectando a PostgreSQL en {DB_CONFIG['host']}...")
         conn = psycopg2.connect(**DB_CONFIG)
         conn.autocommit = False
         cursor = conn.cursor()
@@ -545,11 +548,11 @@ def poblar_base_datos():
             pedidos_ruta = pedidos_disponibles[:num_pedidos_ruta]
             pedidos_disponibles = pedidos_disponibles[num_pedidos_ruta:]
             
-            for pedido_id in pedidos_ruta:
+            for orden, pedido_id in enumerate(pedidos_ruta):
                 cursor.execute("""
-                    INSERT INTO ruta_pedidos (ruta_id, pedido_id)
-                    VALUES (%s, %s)
-                """, (ruta_id, pedido_id))
+                    INSERT INTO ruta_pedidos (ruta_id, pedido_id, orden)
+                    VALUES (%s, %s, %s)
+                """, (ruta_id, pedido_id, orden))
             
             if len(pedidos_disponibles) < 3:
                 break
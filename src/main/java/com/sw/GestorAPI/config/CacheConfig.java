@@ -0,0 +1,34 @@
+package com.sw.GestorAPI.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cachés en memoria (Caffeine) del proceso
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTOS = "productos";
+    public static final String PRODUCTOS_POR_SKU = "productosPorSku";
+
+    /**
+     * Las escrituras y desalojos se aplican al confirmar la transacción que los hizo: un
+     * producto modificado en una transacción que luego se revierte nunca llega a la caché.
+     * Las métricas (cache.gets, cache.puts, cache.evictions) las publica Actuator a partir
+     * del recordStats de la especificación.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${gestorapi.cache.productos.spec}") String especificacion) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager(PRODUCTOS, PRODUCTOS_POR_SKU);
+        caffeine.setCacheSpecification(especificacion);
+        caffeine.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
@@ -0,0 +1,53 @@
+package com.sw.GestorAPI.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.graphql.data.pagination.CursorEncoder;
+import org.springframework.graphql.data.pagination.CursorStrategy;
+import org.springframework.graphql.data.pagination.EncodingCursorStrategy;
+import org.springframework.graphql.data.query.JsonKeysetCursorStrategy;
+import org.springframework.graphql.data.query.ScrollPositionCursorStrategy;
+import org.springframework.http.codec.CodecConfigurer;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Configuración de los cursores de las consultas *Connection (paginación keyset)
+ */
+@Configuration
+public class CursorConfig {
+
+    /**
+     * Igual a la estrategia por defecto de Spring GraphQL, pero permitiendo también claves
+     * numéricas: el keyset de nuestras consultas termina siempre en el id (Long), que la
+     * validación por defecto (solo java.time, Date y Calendar) rechaza al leer el cursor.
+     */
+    @Bean
+    public EncodingCursorStrategy<ScrollPosition> cursorStrategy() {
+        BasicPolymorphicTypeValidator validator = BasicPolymorphicTypeValidator.builder()
+                .allowIfBaseType(Map.class)
+                .allowIfSubType("java.time.")
+                .allowIfSubType(Calendar.class)
+                .allowIfSubType(Date.class)
+                .allowIfSubType(Number.class)
+                .build();
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        mapper.activateDefaultTyping(validator, ObjectMapper.DefaultTyping.NON_FINAL);
+
+        CodecConfigurer codecs = ServerCodecConfigurer.create();
+        codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(mapper));
+        codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(mapper));
+
+        return CursorStrategy.withEncoder(
+                new ScrollPositionCursorStrategy(new JsonKeysetCursorStrategy(codecs)), CursorEncoder.base64());
+    }
+}
@@ -0,0 +1,62 @@
+package com.sw.GestorAPI.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Migraciones sobre la base existente y sobre una vacía.
+ *
+ * V1-V5 alteran tablas que crea Hibernate y ya se aplicaron en la base existente: no se tocan,
+ * porque cambiar su contenido cambia el checksum que Flyway valida. En una base vacía no hay
+ * nada que alterar, así que se toma V5 como línea base y solo corren las siguientes, que
+ * comprueban si la tabla existe (to_regclass); Hibernate crea después el esquema completo.
+ *
+ * afterMigrate.sql crea lo que Hibernate no sabe declarar (índices parciales). En una base
+ * vacía corre antes de que existan las tablas, así que se repite al terminar el arranque.
+ */
+@Slf4j
+@Configuration
+public class FlywayConfig {
+
+    private volatile boolean baseVacia;
+
+    @Bean
+    public FlywayMigrationStrategy migracionDesdeBaseVacia() {
+        return flyway -> {
+            if (flyway.info().applied().length == 0 && !existeTabla(flyway, "inventarios")) {
+                baseVacia = true;
+                log.info("Base de datos vacía: Flyway toma la versión {} como línea base",
+                        flyway.getConfiguration().getBaselineVersion());
+                flyway.baseline();
+            }
+            flyway.migrate();
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void completarEsquemaDeHibernate(ApplicationReadyEvent evento) {
+        Flyway flyway = evento.getApplicationContext().getBeanProvider(Flyway.class).getIfAvailable();
+        if (baseVacia && flyway != null) {
+            // Sin migraciones pendientes, migrate solo vuelve a ejecutar los callbacks
+            flyway.migrate();
+        }
+    }
+
+    private static boolean existeTabla(Flyway flyway, String tabla) {
+        try (Connection conexion = flyway.getConfiguration().getDataSource().getConnection();
+             ResultSet tablas = conexion.getMetaData().getTables(null, null, tabla, new String[]{"TABLE"})) {
+            return tablas.next();
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo inspeccionar el esquema antes de migrar", e);
+        }
+    }
+}
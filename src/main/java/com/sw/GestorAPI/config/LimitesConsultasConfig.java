@@ -0,0 +1,34 @@
+package com.sw.GestorAPI.config;
+
+import com.sw.GestorAPI.graphql.DocumentosPreparados;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.AbortExecutionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Límites que se verifican antes de ejecutar una operación GraphQL. El costo y el presupuesto
+ * por cliente los aplica PresupuestoConsultas; las consultas persistidas y la lista de consultas
+ * registradas, DocumentosPreparados
+ */
+@Configuration
+public class LimitesConsultasConfig {
+
+    @Bean
+    public MaxQueryDepthInstrumentation profundidadMaxima(@Value("${gestorapi.graphql.profundidad-maxima:15}") int maxima) {
+        return new MaxQueryDepthInstrumentation(maxima) {
+            @Override
+            protected AbortExecutionException mkAbortException(int profundidad, int maximo) {
+                return new AbortExecutionException(
+                        "La consulta es demasiado profunda (" + profundidad + " niveles, máximo " + maximo + ")");
+            }
+        };
+    }
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer documentosGraphQL(DocumentosPreparados documentosPreparados) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentosPreparados));
+    }
+}
@@ -0,0 +1,53 @@
+package com.sw.GestorAPI.config;
+
+import com.sw.GestorAPI.graphql.ContadorSql;
+import com.sw.GestorAPI.graphql.InstrumentacionMetricas;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.hibernate.Interceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Métricas de las operaciones GraphQL (InstrumentacionMetricas), publicadas en /actuator/prometheus
+ */
+@Configuration
+public class MetricasConfig {
+
+    /** Nombres de operación distintos que se registran; los siguientes se descartan */
+    private static final int MAXIMO_OPERACIONES = 200;
+
+    /**
+     * Cuenta las sentencias y entidades de Hibernate en el ContadorSql de la operación en curso
+     */
+    @Bean
+    public HibernatePropertiesCustomizer contadorSqlHibernate() {
+        StatementInspector inspector = sql -> {
+            ContadorSql.registrarSentencia();
+            return sql;
+        };
+        Interceptor interceptor = new Interceptor() {
+            @Override
+            public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+                ContadorSql.registrarEntidad();
+                return false;
+            }
+        };
+        return propiedades -> {
+            propiedades.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+            propiedades.put(AvailableSettings.INTERCEPTOR, interceptor);
+        };
+    }
+
+    /**
+     * El nombre de la operación lo elige el cliente: se acota cuántos distintos se registran
+     */
+    @Bean
+    public MeterFilter limiteOperacionesGraphQL() {
+        return MeterFilter.maximumAllowableTags(
+                InstrumentacionMetricas.OPERACION, "operacion", MAXIMO_OPERACIONES, MeterFilter.deny());
+    }
+}
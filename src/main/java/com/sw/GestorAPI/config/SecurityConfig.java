@@ -1,6 +1,7 @@
 package com.sw.GestorAPI.config;
 
 import com.sw.GestorAPI.security.JwtAuthenticationFilter;
+import com.sw.GestorAPI.security.MetricasScrapeFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -30,6 +31,7 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final MetricasScrapeFilter metricasScrapeFilter;
 
     /**
      * Configura la cadena de filtros de seguridad
@@ -45,15 +47,21 @@ public class SecurityConfig {
                         .requestMatchers(
                                 "/graphql",
                                 "/graphiql",
-                                "/actuator/**",
                                 "/actuator/health",
+                                "/actuator/health/**",
                                 "/actuator/info"
                         ).permitAll()
+                        // metrics y prometheus publican latencias y errores por operación y por SQL;
+                        // Prometheus entra con el token de scrape (MetricasScrapeFilter)
+                        .requestMatchers(MetricasScrapeFilter.ENDPOINT).hasAnyRole("ADMIN", "METRICAS")
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         // Cualquier otra petición requiere autenticación
                         .anyRequest().permitAll() // Por ahora todo público para desarrollo
                 )
-                // Registrar filtro JWT para poblar SecurityContext en /graphql
+                // Registrar filtro JWT para poblar SecurityContext en /graphql, /api y /actuator
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                // Antes del JWT: el token de scrape no es un JWT y no debe intentar verificarse
+                .addFilterBefore(metricasScrapeFilter, JwtAuthenticationFilter.class)
         ;
 
         return http.build();
@@ -0,0 +1,94 @@
+package com.sw.GestorAPI.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sw.GestorAPI.dto.FilaPedidoImportacion;
+import com.sw.GestorAPI.dto.ImportacionPedidosResponse;
+import com.sw.GestorAPI.service.ImportacionPedidosService;
+import com.sw.GestorAPI.service.LectorImportacionPedidos;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Carga masiva de pedidos desde archivos NDJSON o CSV (ver {@link LectorImportacionPedidos}).
+ *
+ * El archivo se lee del cuerpo de la petición a medida que se procesa y la respuesta es NDJSON:
+ * una línea con el resultado de cada pedido, escrita en cuanto se confirma su lote, y una línea
+ * final con el resumen. Ni el archivo ni el reporte se mantienen completos en memoria.
+ */
+@RestController
+@RequestMapping("/api/pedidos")
+@RequiredArgsConstructor
+@Slf4j
+public class ImportacionPedidosController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ImportacionPedidosService importacionPedidosService;
+    private final LectorImportacionPedidos lector;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(value = "/importar", consumes = {NDJSON, "text/csv"}, produces = NDJSON)
+    @PreAuthorize("hasRole('ADMIN')")
+    public void importar(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                         @RequestParam(required = false) Integer tamanoLote,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Reader reader = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+        Iterator<FilaPedidoImportacion> filas = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.valueOf("text/csv"))
+                ? lector.leerCsv(reader)
+                : lector.leerNdjson(reader);
+
+        try {
+            // Lee el encabezado (CSV) antes de empezar a responder, para poder devolver 400
+            filas.hasNext();
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            return;
+        }
+
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        PrintWriter salida = response.getWriter();
+
+        ImportacionPedidosResponse resumen = importacionPedidosService.importar(filas, tamanoLote, resultado -> {
+            escribir(salida, resultado);
+            salida.flush();
+        });
+        escribir(salida, Map.of("resumen", Map.of(
+                "total", resumen.getTotal(),
+                "creados", resumen.getCreados(),
+                "fallidos", resumen.getFallidos())));
+        salida.flush();
+        log.info("Importación de pedidos: {} filas, {} creados, {} fallidos",
+                resumen.getTotal(), resumen.getCreados(), resumen.getFallidos());
+    }
+
+    private void escribir(PrintWriter salida, Object valor) {
+        try {
+            salida.write(objectMapper.writeValueAsString(valor));
+            salida.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.sw.GestorAPI.dto;
+
+import com.sw.GestorAPI.entity.Cliente;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ClienteCercanoResponse {
+    private Cliente cliente;
+    private double distanciaKm;
+}
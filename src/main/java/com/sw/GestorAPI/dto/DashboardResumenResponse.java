@@ -0,0 +1,31 @@
+package com.sw.GestorAPI.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class DashboardResumenResponse {
+    private List<ConteoPorEstado> pedidosPorEstado;
+    private List<ConteoPorEstado> rutasPorEstado;
+    private long inventariosStockBajo;
+    private List<VentaDia> ventasPorDia;
+
+    @Data
+    @AllArgsConstructor
+    public static class ConteoPorEstado {
+        private String estado;
+        private long cantidad;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class VentaDia {
+        private String fecha;
+        private long pedidos;
+        private BigDecimal ingresos;
+    }
+}
@@ -0,0 +1,34 @@
+package com.sw.GestorAPI.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Un pedido leído de un archivo de importación (una línea NDJSON o un grupo de líneas CSV)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FilaPedidoImportacion {
+
+    // Número de línea en el archivo (o posición en la lista) para el reporte
+    private int fila;
+
+    // Identificador del pedido en el sistema de origen, opcional
+    private String referencia;
+
+    private Long clienteId;
+    private String direccionEntrega;
+    private String observaciones;
+    private List<ItemPedidoInput> items;
+
+    // Error de formato detectado al leer la fila; si existe, la fila se rechaza sin validarla
+    private String errorLectura;
+}
@@ -0,0 +1,15 @@
+package com.sw.GestorAPI.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ImportacionPedidosResponse {
+    private int total;
+    private int creados;
+    private int fallidos;
+    private List<ResultadoFilaImportacion> filas;
+}
@@ -0,0 +1,15 @@
+package com.sw.GestorAPI.dto;
+
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.entity.RutaEntrega;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PlanificacionRutasResponse {
+    private List<RutaEntrega> rutas;
+    private List<Pedido> pedidosSinAsignar;
+}
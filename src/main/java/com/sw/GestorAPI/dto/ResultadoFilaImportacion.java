@@ -0,0 +1,26 @@
+package com.sw.GestorAPI.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de una fila importada: el pedido creado o el motivo del rechazo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoFilaImportacion {
+    private int fila;
+    private String referencia;
+    private Long pedidoId;
+    private String error;
+
+    public static ResultadoFilaImportacion creado(FilaPedidoImportacion fila, Long pedidoId) {
+        return new ResultadoFilaImportacion(fila.getFila(), fila.getReferencia(), pedidoId, null);
+    }
+
+    public static ResultadoFilaImportacion rechazado(FilaPedidoImportacion fila, String error) {
+        return new ResultadoFilaImportacion(fila.getFila(), fila.getReferencia(), null, error);
+    }
+}
@@ -0,0 +1,14 @@
+package com.sw.GestorAPI.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ZonaRepartoResponse {
+    private String zona;
+    private double latitud;
+    private double longitud;
+    private int clientes;
+    private long pedidosPendientes;
+}
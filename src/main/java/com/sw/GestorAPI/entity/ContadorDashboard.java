@@ -0,0 +1,28 @@
+package com.sw.GestorAPI.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contador del dashboard (pedidos.PENDIENTE, rutas.EN_CURSO, inventarios.stock_bajo...).
+ * Se lee y actualiza por SQL en ResumenDashboardRepository; la entidad define la tabla
+ */
+@Entity
+@Table(name = "contadores_dashboard")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContadorDashboard {
+
+    @Id
+    @Column(length = 64)
+    private String clave;
+
+    @Column(nullable = false)
+    private Long valor;
+}
@@ -5,7 +5,9 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -19,10 +21,14 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+// Solo las columnas modificadas: editar ubicación o stock mínimo no debe pisar la cantidad
+// que los descuentos atómicos cambian por SQL
+@DynamicUpdate
 public class Inventario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventarios_seq")
+    @SequenceGenerator(name = "inventarios_seq", sequenceName = "inventarios_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "El producto es obligatorio")
@@ -50,6 +56,13 @@ public class Inventario {
     @Column(nullable = false)
     private Boolean activo = true;
 
+    // Si es true las reservas se aceptan en memoria (StockEnMemoriaService) y la cantidad
+    // de esta fila se actualiza después, por lotes
+    @Builder.Default
+    @ColumnDefault("false")
+    @Column(name = "reserva_en_memoria", nullable = false)
+    private Boolean reservaEnMemoria = false;
+
     @CreationTimestamp
     @Column(name = "fecha_creacion", nullable = false, updatable = false)
     private LocalDateTime fechaCreacion;
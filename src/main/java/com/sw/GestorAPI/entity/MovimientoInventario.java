@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -22,7 +23,8 @@ import java.time.LocalDateTime;
 public class MovimientoInventario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimientos_inventario_seq")
+    @SequenceGenerator(name = "movimientos_inventario_seq", sequenceName = "movimientos_inventario_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "El producto es obligatorio")
@@ -59,6 +61,13 @@ public class MovimientoInventario {
     @Column(name = "cantidad_nueva", nullable = false)
     private Integer cantidadNueva;
 
+    // false mientras el delta de este movimiento aún no se sumó a inventarios.cantidad
+    // (reservas en memoria pendientes de volcar)
+    @Builder.Default
+    @ColumnDefault("true")
+    @Column(nullable = false)
+    private Boolean aplicado = true;
+
     // Método de conveniencia para obtener el delta según el tipo
     public Integer getDelta() {
         return switch (tipo) {
@@ -18,7 +18,8 @@ import java.util.List;
 @Table(name = "pedidos", indexes = {
         @Index(name = "idx_pedido_cliente", columnList = "cliente_id"),
         @Index(name = "idx_pedido_estado", columnList = "estado"),
-        @Index(name = "idx_pedido_fecha", columnList = "fecha_pedido")
+        @Index(name = "idx_pedido_fecha", columnList = "fecha_pedido"),
+        @Index(name = "idx_pedido_zona", columnList = "zona")
 })
 @Data
 @NoArgsConstructor
@@ -29,7 +30,8 @@ import java.util.List;
 public class Pedido {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pedidos_seq")
+    @SequenceGenerator(name = "pedidos_seq", sequenceName = "pedidos_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "El cliente es obligatorio")
@@ -59,6 +61,10 @@ public class Pedido {
     @Column(name = "fecha_entrega")
     private LocalDateTime fechaEntrega;
 
+    // Zona de reparto (prefijo de geohash) del cliente mientras el pedido está pendiente
+    @Column(length = 12)
+    private String zona;
+
     @Builder.Default
     @Column(nullable = false)
     private Boolean activo = true;
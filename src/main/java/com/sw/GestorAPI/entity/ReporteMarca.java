@@ -0,0 +1,27 @@
+package com.sw.GestorAPI.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Marca de agua de un acumulado de reportes: último id de movimientos_inventario incluido
+ */
+@Entity
+@Table(name = "reporte_marcas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReporteMarca {
+
+    @Id
+    @Column(length = 64)
+    private String nombre;
+
+    @Column(name = "ultimo_id", nullable = false)
+    private Long ultimoId;
+}
@@ -0,0 +1,53 @@
+package com.sw.GestorAPI.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Unidades de un producto en un día: entradas, salidas y vendidas (salidas de pedidos menos las
+ * devueltas al cancelarlos). Se lee y actualiza por SQL en ReporteAcumuladoRepository
+ */
+@Entity
+@Table(name = "reporte_movimientos_diarios", indexes = {
+        @Index(name = "idx_reporte_movimientos_fecha", columnList = "fecha")
+})
+@IdClass(ReporteMovimientoDiario.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReporteMovimientoDiario {
+
+    @Id
+    @Column(name = "producto_id")
+    private Long productoId;
+
+    @Id
+    private LocalDate fecha;
+
+    @Column(name = "unidades_entrada", nullable = false)
+    private Long unidadesEntrada;
+
+    @Column(name = "unidades_salida", nullable = false)
+    private Long unidadesSalida;
+
+    @Column(name = "unidades_vendidas", nullable = false)
+    private Long unidadesVendidas;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private Long productoId;
+        private LocalDate fecha;
+    }
+}
@@ -0,0 +1,48 @@
+package com.sw.GestorAPI.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Unidades vendidas e ingresos de un cliente en un mes (mes = primer día), netos de
+ * cancelaciones. Se lee y actualiza por SQL en ReporteAcumuladoRepository
+ */
+@Entity
+@Table(name = "reporte_ventas_clientes_mensuales")
+@IdClass(ReporteVentaClienteMensual.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReporteVentaClienteMensual {
+
+    @Id
+    @Column(name = "cliente_id")
+    private Long clienteId;
+
+    @Id
+    private LocalDate mes;
+
+    @Column(nullable = false)
+    private Long unidades;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresos;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private Long clienteId;
+        private LocalDate mes;
+    }
+}
@@ -27,7 +27,8 @@ import java.util.List;
 public class RutaEntrega {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rutas_entrega_seq")
+    @SequenceGenerator(name = "rutas_entrega_seq", sequenceName = "rutas_entrega_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "El repartidor es obligatorio")
@@ -62,11 +63,13 @@ public class RutaEntrega {
     @Column(name = "fecha_actualizacion")
     private LocalDateTime fechaActualizacion;
 
+    // En orden de visita (ver OptimizadorRutas)
     @Builder.Default
     @ManyToMany
     @JoinTable(name = "ruta_pedidos",
             joinColumns = @JoinColumn(name = "ruta_id"),
             inverseJoinColumns = @JoinColumn(name = "pedido_id"))
+    @OrderColumn(name = "orden")
     private List<Pedido> pedidos = new ArrayList<>();
 
     public void addPedido(Pedido p) {
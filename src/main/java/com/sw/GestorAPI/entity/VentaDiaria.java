@@ -0,0 +1,33 @@
+package com.sw.GestorAPI.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pedidos no cancelados e ingresos de un día (por fecha del pedido).
+ * Se lee y actualiza por SQL en ResumenDashboardRepository; la entidad define la tabla
+ */
+@Entity
+@Table(name = "ventas_diarias")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaDiaria {
+
+    @Id
+    private LocalDate fecha;
+
+    @Column(nullable = false)
+    private Long pedidos;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresos;
+}
@@ -0,0 +1,78 @@
+package com.sw.GestorAPI.graphql;
+
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.ItemPedido;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.entity.Usuario;
+import com.sw.GestorAPI.service.ClienteService;
+import com.sw.GestorAPI.service.PedidoService;
+import com.sw.GestorAPI.service.ProductoService;
+import com.sw.GestorAPI.service.RutaEntregaService;
+import com.sw.GestorAPI.service.UsuarioService;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Registra los DataLoaders que resuelven las asociaciones LAZY de una página completa
+ * con una sola consulta IN (...) por asociación, en lugar de una consulta por fila.
+ *
+ * Las claves son siempre IDs (Long) y no las entidades: el hashCode generado por Lombok
+ * recorre las asociaciones y forzaría la carga de los proxies que se quieren evitar.
+ */
+@Component
+public class BatchLoaders {
+
+    public static final String CLIENTES = "clientes";
+    public static final String PRODUCTOS = "productos";
+    public static final String USUARIOS = "usuarios";
+    public static final String ITEMS_POR_PEDIDO = "itemsPorPedido";
+    public static final String PEDIDOS_POR_RUTA = "pedidosPorRuta";
+
+    public BatchLoaders(BatchLoaderRegistry registry,
+                        ClienteService clienteService,
+                        ProductoService productoService,
+                        UsuarioService usuarioService,
+                        PedidoService pedidoService,
+                        RutaEntregaService rutaEntregaService) {
+
+        registry.forTypePair(Long.class, Cliente.class).withName(CLIENTES)
+                .registerMappedBatchLoader((ids, env) ->
+                        Mono.fromCallable(() -> porId(clienteService.obtenerPorIds(ids), Cliente::getId)));
+
+        registry.forTypePair(Long.class, Producto.class).withName(PRODUCTOS)
+                .registerMappedBatchLoader((ids, env) ->
+                        Mono.fromCallable(() -> porId(productoService.obtenerPorIds(ids), Producto::getId)));
+
+        registry.forTypePair(Long.class, Usuario.class).withName(USUARIOS)
+                .registerMappedBatchLoader((ids, env) ->
+                        Mono.fromCallable(() -> porId(usuarioService.obtenerUsuariosPorIds(ids), Usuario::getId)));
+
+        registry.<Long, List<ItemPedido>>forName(ITEMS_POR_PEDIDO)
+                .registerMappedBatchLoader((ids, env) -> Mono.fromCallable(() -> {
+                    Map<Long, List<ItemPedido>> items = pedidoService.listarItemsPorPedidos(ids).stream()
+                            .collect(Collectors.groupingBy(i -> i.getPedido().getId()));
+                    // Los pedidos sin items deben resolverse como lista vacía, no como null
+                    ids.forEach(id -> items.putIfAbsent(id, new ArrayList<>()));
+                    return items;
+                }));
+
+        registry.<Long, List<Pedido>>forName(PEDIDOS_POR_RUTA)
+                .registerMappedBatchLoader((ids, env) -> Mono.fromCallable(() -> {
+                    Map<Long, List<Pedido>> pedidos = rutaEntregaService.listarPedidosPorRutas(ids);
+                    ids.forEach(id -> pedidos.putIfAbsent(id, new ArrayList<>()));
+                    return pedidos;
+                }));
+    }
+
+    private static <T> Map<Long, T> porId(List<T> entidades, Function<T, Long> id) {
+        return entidades.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+}
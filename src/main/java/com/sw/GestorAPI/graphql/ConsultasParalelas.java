@@ -0,0 +1,76 @@
+package com.sw.GestorAPI.graphql;
+
+import graphql.language.OperationDefinition;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta en paralelo los campos raíz de una consulta con varios, como el dashboard
+ * (pedidosPorEstado ×5, inventariosStockBajo, rutasActivas, clientesActivos): graphql-java
+ * invoca los fetchers uno tras otro, pero si devuelven CompletableFuture los espera juntos y la
+ * latencia pasa a ser la del más lento en lugar de la suma.
+ *
+ * Cada campo corre en un hilo de este pool con su propia transacción de solo lectura y, por lo
+ * tanto, su propia conexión. Las asociaciones de las entidades devueltas se resuelven con los
+ * DataLoaders de BatchLoaders, así que no dependen de la sesión de la petición (open-in-view).
+ * Una consulta con un único campo raíz se ejecuta en el hilo de la petición, como antes.
+ *
+ * El pool (gestorapi.graphql.consultas-paralelas.hilos) debe quedar por debajo del pool de
+ * conexiones; si su cola se llena, el campo se ejecuta en el hilo de la petición.
+ */
+@Component
+public class ConsultasParalelas implements DisposableBean {
+
+    private final ThreadPoolTaskExecutor ejecutor = new ThreadPoolTaskExecutor();
+    private final TransactionTemplate soloLectura;
+
+    public ConsultasParalelas(PlatformTransactionManager transactionManager,
+                              @Value("${gestorapi.graphql.consultas-paralelas.hilos:8}") int hilos) {
+        ejecutor.setCorePoolSize(hilos);
+        ejecutor.setMaxPoolSize(hilos);
+        ejecutor.setQueueCapacity(hilos * 16);
+        ejecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        ejecutor.setThreadNamePrefix("graphql-consulta-");
+        ejecutor.initialize();
+
+        this.soloLectura = new TransactionTemplate(transactionManager);
+        this.soloLectura.setReadOnly(true);
+    }
+
+    /**
+     * Ejecuta la consulta de un campo raíz: en paralelo si la operación tiene otros campos raíz
+     */
+    public <T> CompletableFuture<T> leer(DataFetchingEnvironment env, Supplier<T> consulta) {
+        OperationDefinition operacion = env.getOperationDefinition();
+        boolean variosCampos = operacion.getOperation() == OperationDefinition.Operation.QUERY
+                && operacion.getSelectionSet().getSelections().size() > 1;
+        return variosCampos ? enParalelo(consulta) : CompletableFuture.completedFuture(consulta.get());
+    }
+
+    <T> CompletableFuture<T> enParalelo(Supplier<T> consulta) {
+        // Las sentencias del campo se siguen contando en la operación (InstrumentacionMetricas)
+        ContadorSql contador = ContadorSql.actual();
+        return CompletableFuture.supplyAsync(() -> {
+            ContadorSql previo = contador != null ? contador.activar() : ContadorSql.actual();
+            try {
+                return soloLectura.execute(status -> consulta.get());
+            } finally {
+                ContadorSql.restaurar(previo);
+            }
+        }, ejecutor);
+    }
+
+    @Override
+    public void destroy() {
+        ejecutor.shutdown();
+    }
+}
@@ -0,0 +1,69 @@
+package com.sw.GestorAPI.graphql;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sentencias SQL preparadas y entidades cargadas por Hibernate durante una operación GraphQL.
+ *
+ * El contador activo vive en un ThreadLocal: InstrumentacionMetricas lo activa al empezar la
+ * operación y en cada data fetcher, de modo que también cuenta lo que se ejecuta en otros hilos
+ * mientras dura un fetcher. Las consultas por JdbcTemplate no pasan por Hibernate y no se cuentan.
+ */
+public final class ContadorSql {
+
+    private static final ThreadLocal<ContadorSql> ACTUAL = new ThreadLocal<>();
+
+    private final AtomicInteger sentencias = new AtomicInteger();
+    private final AtomicInteger entidades = new AtomicInteger();
+
+    public int getSentencias() {
+        return sentencias.get();
+    }
+
+    public int getEntidades() {
+        return entidades.get();
+    }
+
+    /**
+     * Contador activo en el hilo actual, o null si no hay una operación en curso
+     */
+    public static ContadorSql actual() {
+        return ACTUAL.get();
+    }
+
+    /**
+     * Activa este contador en el hilo actual y devuelve el que estaba, para restaurarlo después
+     */
+    public ContadorSql activar() {
+        ContadorSql previo = ACTUAL.get();
+        ACTUAL.set(this);
+        return previo;
+    }
+
+    public static void restaurar(ContadorSql previo) {
+        if (previo == null) {
+            ACTUAL.remove();
+        } else {
+            ACTUAL.set(previo);
+        }
+    }
+
+    /**
+     * Quita este contador del hilo actual si sigue activo en él
+     */
+    public void desactivar() {
+        if (ACTUAL.get() == this) {
+            ACTUAL.remove();
+        }
+    }
+
+    public static void registrarSentencia() {
+        ContadorSql actual = ACTUAL.get();
+        if (actual != null) actual.sentencias.incrementAndGet();
+    }
+
+    public static void registrarEntidad() {
+        ContadorSql actual = ACTUAL.get();
+        if (actual != null) actual.entidades.incrementAndGet();
+    }
+}
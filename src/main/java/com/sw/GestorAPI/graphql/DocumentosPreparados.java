@@ -0,0 +1,152 @@
+package com.sw.GestorAPI.graphql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ErrorType;
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Documentos GraphQL ya parseados y validados, por SHA-256 del texto de la consulta.
+ *
+ * Una consulta que ya se vio no vuelve a parsearse ni validarse contra el esquema. Los clientes
+ * pueden además usar Automatic Persisted Queries (extensión persistedQuery de Apollo): envían
+ * solo el hash y, si el servidor no lo conoce (PersistedQueryNotFound), reintentan con hash y
+ * texto una única vez.
+ *
+ * Con gestorapi.graphql.consultas-persistidas.solo-registradas solo se ejecutan las consultas del
+ * manifiesto (formato apollo-persisted-query-manifest: operations con id = SHA-256 y body),
+ * tanto si llegan por hash como con el texto completo.
+ */
+@Slf4j
+@Component
+public class DocumentosPreparados implements PreparsedDocumentProvider {
+
+    private final Cache<String, PreparsedDocumentEntry> documentos;
+    private final Map<String, String> registradas;
+    private final boolean soloRegistradas;
+    private final ApolloPersistedQuerySupport consultasPersistidas;
+
+    public DocumentosPreparados(ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${gestorapi.graphql.documentos.maximo:2000}") long maximo,
+                                @Value("${gestorapi.graphql.consultas-persistidas.solo-registradas:false}") boolean soloRegistradas,
+                                @Value("${gestorapi.graphql.consultas-persistidas.manifiesto:classpath:graphql/consultas-persistidas.json}") Resource manifiesto) {
+        this.documentos = Caffeine.newBuilder().maximumSize(maximo).recordStats().build();
+        this.registradas = leerManifiesto(objectMapper, manifiesto);
+        this.soloRegistradas = soloRegistradas;
+        this.consultasPersistidas = new ApolloPersistedQuerySupport(new CachePersistidas());
+        // Mismas etiquetas que las cachés que registra Actuator (cache, cache.manager, name): Prometheus
+        // rechaza un mismo nombre de métrica con otro juego de etiquetas
+        CaffeineCacheMetrics.monitor(meterRegistry, documentos, "documentosGraphQL",
+                Tags.of("cache.manager", "graphql", "name", "documentosGraphQL"));
+
+        if (soloRegistradas) {
+            log.info("GraphQL en modo de consultas registradas: {} operaciones permitidas", registradas.size());
+        }
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        if (executionInput.getExtensions().containsKey("persistedQuery")) {
+            return consultasPersistidas.getDocumentAsync(executionInput, parseAndValidateFunction);
+        }
+        String hash = sha256(executionInput.getQuery());
+        if (soloRegistradas && !registradas.containsKey(hash)) {
+            return CompletableFuture.completedFuture(new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+                    .message("Consulta no registrada: " + hash)
+                    .errorType(ErrorType.OperationNotSupported)
+                    .build()));
+        }
+        return CompletableFuture.completedFuture(
+                documentos.get(hash, k -> parseAndValidateFunction.apply(executionInput)));
+    }
+
+    /**
+     * Resuelve el hash de la extensión persistedQuery. ApolloPersistedQuerySupport verifica que el
+     * hash corresponda al texto antes de parsearlo
+     */
+    private class CachePersistidas implements PersistedQueryCache {
+
+        @Override
+        public CompletableFuture<PreparsedDocumentEntry> getPersistedQueryDocumentAsync(Object persistedQueryId,
+                                                                                       ExecutionInput executionInput,
+                                                                                       PersistedQueryCacheMiss onCacheMiss) {
+            String hash = persistedQueryId.toString();
+            PreparsedDocumentEntry documento = documentos.getIfPresent(hash);
+            if (documento != null) {
+                return CompletableFuture.completedFuture(documento);
+            }
+            String texto = executionInput.getQuery();
+            if (soloRegistradas) {
+                texto = registradas.get(hash);
+                if (texto == null) {
+                    throw new PersistedQueryNotFound(hash);
+                }
+            }
+            documento = onCacheMiss.apply(texto);
+            if (!documento.hasErrors()) {
+                documentos.put(hash, documento);
+            }
+            return CompletableFuture.completedFuture(documento);
+        }
+    }
+
+    private static Map<String, String> leerManifiesto(ObjectMapper objectMapper, Resource manifiesto) {
+        Map<String, String> consultas = new HashMap<>();
+        if (!manifiesto.exists()) {
+            return consultas;
+        }
+        try (InputStream entrada = manifiesto.getInputStream()) {
+            for (JsonNode operacion : objectMapper.readTree(entrada).path("operations")) {
+                String id = operacion.path("id").asText();
+                String cuerpo = operacion.path("body").asText();
+                if (!id.equals(sha256(cuerpo))) {
+                    throw new IllegalStateException("El id de la operación " + operacion.path("name").asText()
+                            + " del manifiesto no es el SHA-256 de su body");
+                }
+                consultas.put(id, cuerpo);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el manifiesto de consultas persistidas", e);
+        }
+        return consultas;
+    }
+
+    static String sha256(String texto) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(texto.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
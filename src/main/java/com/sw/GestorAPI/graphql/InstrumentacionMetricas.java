@@ -0,0 +1,148 @@
+package com.sw.GestorAPI.graphql;
+
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.language.OperationDefinition;
+import graphql.schema.DataFetcher;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas por operación GraphQL y por data fetcher:
+ *
+ * - gestorapi.graphql.operacion (timer; operacion, tipo, resultado)
+ * - gestorapi.graphql.operacion.sentencias y .entidades (resumen por operación): sentencias SQL
+ *   y entidades que cargó Hibernate, ver ContadorSql
+ * - gestorapi.graphql.campo (timer; tipo, campo), solo para los fetchers que no son simples getters
+ *
+ * Las operaciones más lentas que gestorapi.graphql.operacion-lenta se registran en el log con su
+ * número de sentencias: un N+1 se ve como una cantidad de sentencias que crece con la página.
+ */
+@Slf4j
+@Component
+public class InstrumentacionMetricas extends SimplePerformantInstrumentation {
+
+    public static final String OPERACION = "gestorapi.graphql.operacion";
+    public static final String CAMPO = "gestorapi.graphql.campo";
+
+    private final MeterRegistry registry;
+    private final Duration umbralLenta;
+
+    public InstrumentacionMetricas(MeterRegistry registry,
+                                   @Value("${gestorapi.graphql.operacion-lenta:500ms}") Duration umbralLenta) {
+        this.registry = registry;
+        this.umbralLenta = umbralLenta;
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new EstadoOperacion();
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters,
+                                                                  InstrumentationState state) {
+        EstadoOperacion estado = (EstadoOperacion) state;
+        estado.nombre = parameters.getOperation();
+        estado.inicio = System.nanoTime();
+
+        return SimpleInstrumentationContext.whenCompleted((result, t) -> {
+            estado.contador.desactivar();
+            registrar(estado, t == null && result.getErrors().isEmpty());
+        });
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        EstadoOperacion estado = (EstadoOperacion) state;
+        OperationDefinition operacion = parameters.getExecutionContext().getOperationDefinition();
+        if (operacion.getName() != null) {
+            estado.nombre = operacion.getName();
+        }
+        estado.tipo = operacion.getOperation().name().toLowerCase();
+
+        // La ejecución puede empezar después de que beginExecution retorne: el contador se activa
+        // aquí, en el hilo que ejecuta la operación y despacha los DataLoaders
+        estado.contador.activar();
+        return SimpleInstrumentationContext.whenCompleted((result, t) -> estado.contador.desactivar());
+    }
+
+    @Override
+    public DataFetcher<?> instrumentDataFetcher(DataFetcher<?> dataFetcher, InstrumentationFieldFetchParameters parameters,
+                                                InstrumentationState state) {
+        if (parameters.isTrivialDataFetcher()) {
+            return dataFetcher;
+        }
+        ContadorSql contador = ((EstadoOperacion) state).contador;
+        return env -> {
+            Timer timer = Timer.builder(CAMPO)
+                    .tag("tipo", env.getExecutionStepInfo().getObjectType().getName())
+                    .tag("campo", env.getFieldDefinition().getName())
+                    .register(registry);
+            // El fetcher puede correr en un hilo distinto al de la operación
+            ContadorSql previo = contador.activar();
+            long inicio = System.nanoTime();
+            try {
+                Object valor = dataFetcher.get(env);
+                if (valor instanceof CompletionStage<?> pendiente) {
+                    return pendiente.whenComplete((v, t) -> timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS));
+                }
+                timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                return valor;
+            } finally {
+                ContadorSql.restaurar(previo);
+            }
+        };
+    }
+
+    private void registrar(EstadoOperacion estado, boolean exitosa) {
+        long nanos = System.nanoTime() - estado.inicio;
+        String nombre = estado.nombre != null ? estado.nombre : "anonima";
+        int sentencias = estado.contador.getSentencias();
+        int entidades = estado.contador.getEntidades();
+
+        Timer.builder(OPERACION)
+                .tag("operacion", nombre)
+                .tag("tipo", estado.tipo)
+                .tag("resultado", exitosa ? "ok" : "error")
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(OPERACION + ".sentencias")
+                .tag("operacion", nombre)
+                .register(registry)
+                .record(sentencias);
+        DistributionSummary.builder(OPERACION + ".entidades")
+                .tag("operacion", nombre)
+                .register(registry)
+                .record(entidades);
+
+        if (nanos > umbralLenta.toNanos()) {
+            log.warn("Operación GraphQL lenta: {} ({}) en {} ms, {} sentencias SQL, {} entidades cargadas",
+                    nombre, estado.tipo, TimeUnit.NANOSECONDS.toMillis(nanos), sentencias, entidades);
+        }
+    }
+
+    private static final class EstadoOperacion implements InstrumentationState {
+        private final ContadorSql contador = new ContadorSql();
+        private String nombre;
+        // Si la consulta no pasa la validación nunca llega a ejecutarse y no se conoce el tipo
+        private String tipo = "desconocido";
+        private long inicio;
+    }
+}
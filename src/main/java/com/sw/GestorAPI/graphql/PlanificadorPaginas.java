@@ -0,0 +1,82 @@
+package com.sw.GestorAPI.graphql;
+
+import graphql.schema.DataFetchingFieldSelectionSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.OptionalInt;
+import java.util.function.Function;
+
+/**
+ * Decide cómo ejecutar una consulta paginada según los campos que pidió el cliente.
+ *
+ * Si la selección no incluye totalElements ni totalPages se ejecuta la variante Slice,
+ * que no lanza el segundo SELECT COUNT(*). Las asociaciones de content ya se resuelven
+ * bajo demanda con los DataLoaders de {@link BatchLoaders}, por lo que no hace falta
+ * un entity graph: lo que no se selecciona nunca se consulta.
+ *
+ * También acota el tamaño de página: un size mayor que gestorapi.graphql.tamano-maximo-pagina
+ * se recorta a ese máximo (la respuesta informa el size efectivo).
+ */
+@Component
+public class PlanificadorPaginas {
+
+    public static final int TAMANO_POR_DEFECTO = 10;
+
+    private final int tamanoMaximo;
+
+    public PlanificadorPaginas(@Value("${gestorapi.graphql.tamano-maximo-pagina:100}") int tamanoMaximo) {
+        this.tamanoMaximo = tamanoMaximo;
+    }
+
+    public Pageable pagina(Integer page, Integer size) {
+        return PageRequest.of(page == null ? 0 : page, size == null ? TAMANO_POR_DEFECTO : Math.min(size, tamanoMaximo));
+    }
+
+    /**
+     * Cantidad de elementos de una consulta *Connection (first/last), con el mismo máximo
+     */
+    public int cantidad(OptionalInt pedida) {
+        return Math.min(pedida.orElse(TAMANO_POR_DEFECTO), tamanoMaximo);
+    }
+
+    /**
+     * Tamaño de una lista con argumento limite: entre 1 y el tamaño máximo de página
+     */
+    public int limite(Integer pedido) {
+        return Math.max(1, Math.min(pedido == null ? TAMANO_POR_DEFECTO : pedido, tamanoMaximo));
+    }
+
+    public int getTamanoMaximo() {
+        return tamanoMaximo;
+    }
+
+    public boolean requiereConteo(DataFetchingFieldSelectionSet seleccion) {
+        return seleccion == null || seleccion.contains("totalElements") || seleccion.contains("totalPages");
+    }
+
+    public <T> Slice<T> ejecutar(DataFetchingFieldSelectionSet seleccion,
+                                 Pageable pageable,
+                                 Function<Pageable, Page<T>> conConteo,
+                                 Function<Pageable, Slice<T>> sinConteo) {
+        return requiereConteo(seleccion) ? conConteo.apply(pageable) : sinConteo.apply(pageable);
+    }
+
+    /**
+     * Total de elementos, o -1 si no se calculó (el campo no fue seleccionado)
+     */
+    public int totalElementos(Slice<?> resultado) {
+        return resultado instanceof Page<?> page ? (int) page.getTotalElements() : -1;
+    }
+
+    /**
+     * Total de páginas, o -1 si no se calculó (el campo no fue seleccionado)
+     */
+    public int totalPaginas(Slice<?> resultado) {
+        return resultado instanceof Page<?> page ? page.getTotalPages() : -1;
+    }
+}
@@ -0,0 +1,166 @@
+package com.sw.GestorAPI.graphql;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionResult;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.analysis.QueryComplexityCalculator;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.schema.GraphQLOutputType;
+import graphql.schema.GraphQLTypeUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Costo de cada operación GraphQL, calculado antes de ejecutarla.
+ *
+ * Cada campo cuesta 1 si es un objeto o lista y 0 si es un escalar (gestorapi.graphql.costo.campos
+ * permite otro valor por campo, como 'Query.buscarProductosPorNombre'). El costo de los hijos se
+ * multiplica por el tamaño de página (size, first, last o limite, con el mismo tope que aplican
+ * los resolvers) o, en las listas sin tamaño como RutaEntrega.pedidos, por
+ * gestorapi.graphql.costo.lista-sin-tamano.
+ *
+ * Se rechaza la operación si su costo supera gestorapi.graphql.complejidad-maxima o si el cliente
+ * (usuario autenticado o, si no lo hay, su IP) ya consumió en el minuto en curso su
+ * gestorapi.graphql.presupuesto-por-minuto.
+ */
+@Slf4j
+@Component
+public class PresupuestoConsultas extends SimplePerformantInstrumentation implements WebGraphQlInterceptor {
+
+    static final String CLIENTE = PresupuestoConsultas.class.getName() + ".cliente";
+    private static final String[] TAMANOS = {"size", "first", "last", "limite"};
+
+    private final PlanificadorPaginas planificadorPaginas;
+    private final Map<String, Integer> costos;
+    private final int listaSinTamano;
+    private final int complejidadMaxima;
+    private final int presupuestoPorMinuto;
+    private final Cache<String, AtomicInteger> consumoPorMinuto = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(2))
+            .maximumSize(100_000)
+            .build();
+
+    public PresupuestoConsultas(PlanificadorPaginas planificadorPaginas,
+                                @Value("#{${gestorapi.graphql.costo.campos:{:}}}") Map<String, Integer> costos,
+                                @Value("${gestorapi.graphql.costo.lista-sin-tamano:5}") int listaSinTamano,
+                                @Value("${gestorapi.graphql.complejidad-maxima:2000}") int complejidadMaxima,
+                                @Value("${gestorapi.graphql.presupuesto-por-minuto:20000}") int presupuestoPorMinuto) {
+        this.planificadorPaginas = planificadorPaginas;
+        this.costos = Map.copyOf(costos);
+        this.listaSinTamano = listaSinTamano;
+        this.complejidadMaxima = complejidadMaxima;
+        this.presupuestoPorMinuto = presupuestoPorMinuto;
+    }
+
+    /**
+     * Identifica al cliente mientras el contexto de seguridad y la dirección remota están a mano
+     */
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        String cliente = usuarioAutenticado();
+        if (cliente == null) {
+            InetSocketAddress remota = request.getRemoteAddress();
+            cliente = remota != null ? "ip:" + remota.getHostString() : "anonimo";
+        }
+        String identificado = cliente;
+        request.configureExecutionInput((input, builder) ->
+                builder.graphQLContext(Map.of(CLIENTE, identificado)).build());
+        return chain.next(request);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        ExecutionContext contexto = parameters.getExecutionContext();
+        int costo = QueryComplexityCalculator.newCalculator()
+                .fieldComplexityCalculator(this::costoCampo)
+                .schema(contexto.getGraphQLSchema())
+                .document(contexto.getDocument())
+                .operationName(contexto.getExecutionInput().getOperationName())
+                .variables(contexto.getCoercedVariables())
+                .build()
+                .calculate();
+
+        String cliente = contexto.getGraphQLContext().get(CLIENTE);
+        if (cliente == null) {
+            String usuario = usuarioAutenticado();
+            cliente = usuario != null ? usuario : "anonimo";
+        }
+
+        if (costo > complejidadMaxima) {
+            log.warn("Operación rechazada por costo: cliente={}, costo={}, máximo={}", cliente, costo, complejidadMaxima);
+            throw new AbortExecutionException("La consulta es demasiado costosa (" + costo + ", máximo "
+                    + complejidadMaxima + "): reduzca el tamaño de página o los campos anidados");
+        }
+        cobrar(cliente, costo);
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    private void cobrar(String cliente, int costo) {
+        long minuto = TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+        AtomicInteger consumido = consumoPorMinuto.get(cliente + "@" + minuto, k -> new AtomicInteger());
+        if (consumido.addAndGet(costo) > presupuestoPorMinuto) {
+            consumido.addAndGet(-costo);
+            log.warn("Operación rechazada por presupuesto: cliente={}, costo={}", cliente, costo);
+            throw new AbortExecutionException("Se agotó el presupuesto de consultas por minuto ("
+                    + presupuestoPorMinuto + "); intente nuevamente en unos segundos");
+        }
+    }
+
+    int costoCampo(FieldComplexityEnvironment env, int complejidadHijos) {
+        // La introspección (GraphiQL, generadores de código) no toca la base
+        if (env.getFieldDefinition().getName().startsWith("__")) {
+            return 0;
+        }
+        GraphQLOutputType tipo = env.getFieldDefinition().getType();
+        String campo = env.getParentType().getName() + "." + env.getFieldDefinition().getName();
+        int propio = costos.getOrDefault(campo, GraphQLTypeUtil.isLeaf(GraphQLTypeUtil.unwrapAll(tipo)) ? 0 : 1);
+        return propio + multiplicador(env, tipo) * complejidadHijos;
+    }
+
+    private int multiplicador(FieldComplexityEnvironment env, GraphQLOutputType tipo) {
+        boolean paginado = false;
+        for (String argumento : TAMANOS) {
+            if (env.getArguments().get(argumento) instanceof Integer tamano) {
+                return Math.max(1, Math.min(tamano, planificadorPaginas.getTamanoMaximo()));
+            }
+            paginado |= env.getFieldDefinition().getArgument(argumento) != null;
+        }
+        if (paginado) {
+            return PlanificadorPaginas.TAMANO_POR_DEFECTO;
+        }
+        // content de una página y edges de una conexión ya están contados en el size/first del padre
+        String padre = env.getParentType().getName();
+        boolean envoltorioDePagina = padre.endsWith("Page") || padre.endsWith("Connection");
+        return GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(tipo)) && !envoltorioDePagina ? listaSinTamano : 1;
+    }
+
+    private static String usuarioAutenticado() {
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacion == null || !autenticacion.isAuthenticated() || autenticacion instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return "usuario:" + autenticacion.getName();
+    }
+}
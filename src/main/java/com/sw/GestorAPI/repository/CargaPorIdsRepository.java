@@ -0,0 +1,38 @@
+package com.sw.GestorAPI.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Carga entidades por id con Session.byMultipleIds. A diferencia de findAllById, que siempre
+ * ejecuta un IN (...) con todos los ids, primero busca en el contexto de persistencia y en la
+ * caché de segundo nivel y solo consulta los ids que falten.
+ */
+@Repository
+public class CargaPorIdsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public <T> List<T> cargar(Class<T> tipo, Collection<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        List<T> entidades = entityManager.unwrap(Session.class)
+                .byMultipleIds(tipo)
+                // Sin un CacheMode explícito, multiLoad no consulta la caché de segundo nivel
+                .with(CacheMode.NORMAL)
+                .enableSessionCheck(true)
+                .enableOrderedReturn(false)
+                .multiLoad(new ArrayList<>(ids));
+        return entidades.stream().filter(Objects::nonNull).toList();
+    }
+}
@@ -1,11 +1,16 @@
 package com.sw.GestorAPI.repository;
 
 import com.sw.GestorAPI.entity.Cliente;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -24,6 +29,7 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     /**
      * Busca un cliente por email
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Cliente> findByEmail(String email);
 
     /**
@@ -34,5 +40,13 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     /**
      * Busca un cliente activo por email (para autenticación)
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Cliente> findByEmailAndActivoTrue(String email);
+
+    /**
+     * (id, latitud, longitud) de los clientes activos con ubicación, para el índice espacial
+     */
+    @Query("SELECT c.id, c.latitudCliente, c.longitudCliente FROM Cliente c "
+            + "WHERE c.activo = true AND c.latitudCliente IS NOT NULL AND c.longitudCliente IS NOT NULL")
+    List<Object[]> findUbicacionesActivas();
 }
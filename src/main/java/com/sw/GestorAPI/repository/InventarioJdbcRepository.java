@@ -0,0 +1,198 @@
+package com.sw.GestorAPI.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Operaciones de inventario en JDBC para los UPDATE condicionales y por lotes sobre
+ * cantidades, que JPA no puede expresar sin leer y bloquear cada fila antes
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventarioJdbcRepository {
+
+    // Las filas con reserva_en_memoria no se tocan: su stock lo lleva el contador en memoria, y el
+    // UPDATE vuelve a evaluar la marca después de esperar el bloqueo de una activación en curso
+    private static final String DESCONTAR_SQL =
+            "UPDATE inventarios SET cantidad = cantidad - ?, fecha_ultima_actualizacion = ? " +
+            "WHERE producto_id = ? AND cantidad >= ? AND reserva_en_memoria = FALSE";
+
+    private static final String AJUSTAR_SQL =
+            "UPDATE inventarios SET cantidad = cantidad + ?, fecha_ultima_actualizacion = ? " +
+            "WHERE producto_id = ? AND cantidad + ? >= 0 AND reserva_en_memoria = FALSE";
+
+    private static final String BLOQUEAR_SQL =
+            "SELECT reserva_en_memoria FROM inventarios WHERE producto_id = ? FOR UPDATE";
+
+    private static final String RESERVA_EN_MEMORIA_SQL =
+            "SELECT reserva_en_memoria FROM inventarios WHERE producto_id = ?";
+
+    private static final String CANTIDADES_SQL =
+            "SELECT producto_id, cantidad FROM inventarios WHERE producto_id IN (%s)";
+
+    private static final String NIVELES_SQL =
+            "SELECT producto_id, cantidad, stock_minimo, activo FROM inventarios WHERE producto_id IN (%s)";
+
+    private static final String DELTA_SQL = "CASE WHEN tipo = 'SALIDA' THEN -cantidad ELSE cantidad END";
+
+    private static final String PENDIENTES_SQL =
+            "SELECT id, producto_id, " + DELTA_SQL + " FROM movimientos_inventario " +
+            "WHERE aplicado = FALSE ORDER BY id LIMIT ?";
+
+    private static final String SUMAR_CANTIDAD_SQL =
+            "UPDATE inventarios SET cantidad = cantidad + ?, fecha_ultima_actualizacion = ? WHERE producto_id = ?";
+
+    private static final String MARCAR_APLICADO_SQL =
+            "UPDATE movimientos_inventario SET aplicado = TRUE WHERE id = ?";
+
+    private static final String CANTIDADES_CON_PENDIENTES_SQL =
+            "SELECT i.producto_id, i.cantidad + COALESCE((SELECT SUM(" + DELTA_SQL + ") " +
+            "FROM movimientos_inventario m WHERE m.producto_id = i.producto_id AND m.aplicado = FALSE), 0) " +
+            "FROM inventarios i WHERE i.producto_id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final MotorBaseDatos motor;
+
+    /**
+     * Suma delta a la cantidad de forma atómica en la base de datos (sin leer-modificar-escribir
+     * en Java) y devuelve el nivel resultante. El UPDATE solo aplica si el resultado no queda
+     * negativo; si no aplica (stock insuficiente, sin inventario o con reserva_en_memoria) devuelve vacío.
+     * La cantidad anterior es siempre resultado - delta, porque la fila queda bloqueada por esta
+     * transacción desde el UPDATE hasta el commit.
+     */
+    public Optional<Nivel> ajustarCantidad(Long productoId, int delta) {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        // PostgreSQL: UPDATE ... RETURNING. Otras bases (H2 en pruebas): FINAL TABLE, equivalente
+        String sql = motor.esPostgres()
+                ? AJUSTAR_SQL + " RETURNING cantidad, stock_minimo, activo"
+                : "SELECT cantidad, stock_minimo, activo FROM FINAL TABLE (" + AJUSTAR_SQL + ")";
+        List<Nivel> resultado = jdbcTemplate.query(sql,
+                (rs, i) -> new Nivel(rs.getInt(1), rs.getInt(2), rs.getBoolean(3)), delta, ahora, productoId, delta);
+        return resultado.stream().findFirst();
+    }
+
+    /**
+     * Bloquea la fila de inventario del producto hasta el fin de la transacción y devuelve su
+     * marca reserva_en_memoria, o vacío si el producto no tiene inventario
+     */
+    public Optional<Boolean> bloquearFila(Long productoId) {
+        return jdbcTemplate.query(BLOQUEAR_SQL, (rs, i) -> rs.getBoolean(1), productoId).stream().findFirst();
+    }
+
+    /**
+     * Marca reserva_en_memoria confirmada del producto (false si no tiene inventario)
+     */
+    public boolean tieneReservaEnMemoria(Long productoId) {
+        return jdbcTemplate.query(RESERVA_EN_MEMORIA_SQL, (rs, i) -> rs.getBoolean(1), productoId)
+                .stream().findFirst().orElse(false);
+    }
+
+    /**
+     * Cantidades actuales de varios productos en una sola consulta
+     */
+    public Map<Long, Integer> obtenerCantidades(Collection<Long> productoIds) {
+        Map<Long, Integer> cantidades = new HashMap<>();
+        if (productoIds.isEmpty()) return cantidades;
+        String marcadores = String.join(",", Collections.nCopies(productoIds.size(), "?"));
+        jdbcTemplate.query(String.format(CANTIDADES_SQL, marcadores),
+                rs -> { cantidades.put(rs.getLong(1), rs.getInt(2)); },
+                productoIds.toArray());
+        return cantidades;
+    }
+
+    /**
+     * Cantidad, stock mínimo y estado de varios productos en una sola consulta
+     */
+    public Map<Long, Nivel> obtenerNiveles(Collection<Long> productoIds) {
+        Map<Long, Nivel> niveles = new HashMap<>();
+        if (productoIds.isEmpty()) return niveles;
+        String marcadores = String.join(",", Collections.nCopies(productoIds.size(), "?"));
+        jdbcTemplate.query(String.format(NIVELES_SQL, marcadores),
+                rs -> { niveles.put(rs.getLong(1), new Nivel(rs.getInt(2), rs.getInt(3), rs.getBoolean(4))); },
+                productoIds.toArray());
+        return niveles;
+    }
+
+    /**
+     * Descuenta stock con un UPDATE condicional por línea, enviado en un solo batch.
+     * Cada posición del resultado es 1 si se descontó, 0 si no había stock suficiente o la fila
+     * tiene reserva_en_memoria.
+     */
+    public int[] descontarStock(List<Long> productoIds, List<Integer> cantidades) {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.batchUpdate(DESCONTAR_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(@NonNull PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, cantidades.get(i));
+                ps.setTimestamp(2, ahora);
+                ps.setLong(3, productoIds.get(i));
+                ps.setInt(4, cantidades.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return productoIds.size();
+            }
+        });
+    }
+
+    /**
+     * Cantidad real de cada producto: la de inventarios más los movimientos aún no aplicados.
+     * Es el punto de partida de los contadores en memoria al arrancar o al activarlos.
+     */
+    public Map<Long, Integer> obtenerCantidadesConPendientes(Collection<Long> productoIds) {
+        Map<Long, Integer> cantidades = new HashMap<>();
+        if (productoIds.isEmpty()) return cantidades;
+        String marcadores = String.join(",", Collections.nCopies(productoIds.size(), "?"));
+        jdbcTemplate.query(String.format(CANTIDADES_CON_PENDIENTES_SQL, marcadores),
+                rs -> { cantidades.put(rs.getLong(1), rs.getInt(2)); },
+                productoIds.toArray());
+        return cantidades;
+    }
+
+    /**
+     * Movimientos cuyo delta aún no se sumó a inventarios, en orden de id
+     */
+    public List<MovimientoPendiente> obtenerMovimientosPendientes(int limite) {
+        return jdbcTemplate.query(PENDIENTES_SQL,
+                (rs, i) -> new MovimientoPendiente(rs.getLong(1), rs.getLong(2), rs.getInt(3)), limite);
+    }
+
+    /**
+     * Suma el delta neto de cada producto a su inventario (un UPDATE por producto, en un batch)
+     * y marca como aplicados los movimientos que lo componen (otro batch)
+     */
+    public void aplicarPendientes(Map<Long, Integer> deltas, List<Long> movimientoIds) {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        List<Map.Entry<Long, Integer>> entradas = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(SUMAR_CANTIDAD_SQL, entradas, entradas.size(), (ps, e) -> {
+            ps.setInt(1, e.getValue());
+            ps.setTimestamp(2, ahora);
+            ps.setLong(3, e.getKey());
+        });
+        jdbcTemplate.batchUpdate(MARCAR_APLICADO_SQL, movimientoIds, movimientoIds.size(),
+                (ps, id) -> ps.setLong(1, id));
+    }
+
+    public record MovimientoPendiente(Long id, Long productoId, int delta) {
+    }
+
+    public record Nivel(int cantidad, int stockMinimo, boolean activo) {
+    }
+}
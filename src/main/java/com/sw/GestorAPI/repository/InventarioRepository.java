@@ -3,11 +3,14 @@ package com.sw.GestorAPI.repository;
 import com.sw.GestorAPI.entity.Inventario;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,6 +18,9 @@ public interface InventarioRepository extends JpaRepository<Inventario, Long> {
 
     Optional<Inventario> findByProductoId(Long productoId);
 
+    @Query("SELECT i FROM Inventario i JOIN FETCH i.producto WHERE i.producto.id IN :productoIds")
+    List<Inventario> findByProductoIdIn(@Param("productoIds") Collection<Long> productoIds);
+
     Page<Inventario> findByActivoTrue(Pageable pageable);
 
     @Query("SELECT i FROM Inventario i WHERE i.producto.nombre LIKE %:nombre% AND i.activo = true")
@@ -24,4 +30,19 @@ public interface InventarioRepository extends JpaRepository<Inventario, Long> {
     Page<Inventario> findInventariosConStockBajo(Pageable pageable);
 
     boolean existsByProductoId(Long productoId);
+
+    @Query("SELECT i.producto.id FROM Inventario i WHERE i.reservaEnMemoria = true")
+    List<Long> findProductoIdsConReservaEnMemoria();
+
+    // Variantes Slice: no ejecutan el SELECT COUNT(*) adicional
+
+    Slice<Inventario> findSliceBy(Pageable pageable);
+
+    Slice<Inventario> findSliceByActivoTrue(Pageable pageable);
+
+    @Query("SELECT i FROM Inventario i WHERE i.producto.nombre LIKE %:nombre% AND i.activo = true")
+    Slice<Inventario> findSliceByProductoNombreContainingIgnoreCase(@Param("nombre") String nombre, Pageable pageable);
+
+    @Query("SELECT i FROM Inventario i WHERE i.cantidad <= i.stockMinimo AND i.activo = true")
+    Slice<Inventario> findSliceInventariosConStockBajo(Pageable pageable);
 }
@@ -0,0 +1,17 @@
+package com.sw.GestorAPI.repository;
+
+import com.sw.GestorAPI.entity.ItemPedido;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ItemPedidoRepository extends JpaRepository<ItemPedido, Long> {
+
+    /**
+     * Busca los items de varios pedidos en una sola consulta (IN)
+     */
+    List<ItemPedido> findByPedidoIdIn(Collection<Long> pedidoIds);
+}
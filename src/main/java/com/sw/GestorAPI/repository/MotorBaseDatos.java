@@ -0,0 +1,30 @@
+package com.sw.GestorAPI.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Motor de la base conectada, para los repositorios JDBC que eligen entre la sintaxis de
+ * PostgreSQL (ON CONFLICT, RETURNING) y la de H2 en los tests (MERGE, FINAL TABLE)
+ */
+@Component
+@RequiredArgsConstructor
+public class MotorBaseDatos {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    /**
+     * Si la base es PostgreSQL; se consulta una vez en la primera llamada
+     */
+    public boolean esPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) con ->
+                    "PostgreSQL".equalsIgnoreCase(con.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
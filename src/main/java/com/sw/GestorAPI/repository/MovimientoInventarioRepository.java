@@ -2,12 +2,18 @@ package com.sw.GestorAPI.repository;
 
 import com.sw.GestorAPI.entity.MovimientoInventario;
 import com.sw.GestorAPI.enums.TipoMovimiento;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,6 +23,13 @@ public interface MovimientoInventarioRepository extends JpaRepository<Movimiento
 
     Page<MovimientoInventario> findByProductoId(Long productoId, Pageable pageable);
 
+    Slice<MovimientoInventario> findSliceByProductoId(Long productoId, Pageable pageable);
+
+    // Paginación keyset (cursor) sobre (fecha_movimiento, id), sin OFFSET ni COUNT(*)
+    Window<MovimientoInventario> findByProductoIdOrderByFechaMovimientoDescIdDesc(Long productoId,
+                                                                                ScrollPosition position,
+                                                                                Limit limit);
+
     Page<MovimientoInventario> findByTipo(TipoMovimiento tipo, Pageable pageable);
 
     Page<MovimientoInventario> findByPedidoId(Long pedidoId, Pageable pageable);
@@ -27,4 +40,12 @@ public interface MovimientoInventarioRepository extends JpaRepository<Movimiento
                                                            Pageable pageable);
 
     List<MovimientoInventario> findByPedidoIdOrderByFechaMovimientoDesc(Long pedidoId);
+
+    /**
+     * Desvincula los movimientos del pedido antes de eliminarlo; el id sigue en el motivo
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE MovimientoInventario m SET m.pedido = null WHERE m.pedido.id = :pedidoId")
+    int desvincularPedido(@Param("pedidoId") Long pedidoId);
 }
@@ -2,14 +2,20 @@ package com.sw.GestorAPI.repository;
 
 import com.sw.GestorAPI.entity.Pedido;
 import com.sw.GestorAPI.enums.EstadoPedido;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -49,11 +55,82 @@ public interface PedidoRepository extends JpaRepository<Pedido, Long> {
     @Query("SELECT p FROM Pedido p WHERE p.estado IN ('PENDIENTE', 'EN_PROCESO', 'EN_CAMINO') AND p.activo = true")
     Page<Pedido> findPedidosEnProceso(Pageable pageable);
 
+    // Variantes Slice: no ejecutan el SELECT COUNT(*) adicional
+
+    Slice<Pedido> findSliceBy(Pageable pageable);
+
+    Slice<Pedido> findSliceByActivoTrue(Pageable pageable);
+
+    Slice<Pedido> findSliceByEstado(EstadoPedido estado, Pageable pageable);
+
+    Slice<Pedido> findSliceByClienteId(Long clienteId, Pageable pageable);
+
+    /**
+     * Paginación keyset (cursor): busca a partir de (fecha_pedido, id) usando idx_pedido_fecha,
+     * sin OFFSET ni COUNT(*), por lo que cualquier página cuesta lo mismo que la primera
+     */
+    Window<Pedido> findByOrderByFechaPedidoDescIdDesc(ScrollPosition position, Limit limit);
+
     /**
      * Cuenta pedidos por estado
      */
     long countByEstado(EstadoPedido estado);
 
+    /**
+     * Pedidos por id con su cliente (y sus coordenadas) en una sola consulta
+     */
+    @Query("SELECT p FROM Pedido p JOIN FETCH p.cliente WHERE p.id IN :ids")
+    List<Pedido> findConClienteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Pedidos activos en un estado que no están en ninguna ruta vigente (las canceladas no
+     * cuentan), con su cliente, del más antiguo al más nuevo
+     */
+    @Query("SELECT p FROM Pedido p JOIN FETCH p.cliente WHERE p.estado = :estado AND p.activo = true "
+            + "AND NOT EXISTS (SELECT 1 FROM RutaEntrega r JOIN r.pedidos rp "
+            + "WHERE rp = p AND r.estado <> com.sw.GestorAPI.enums.EstadoRuta.CANCELADA) "
+            + "ORDER BY p.fechaPedido, p.id")
+    List<Pedido> findSinRutaConCliente(@Param("estado") EstadoPedido estado);
+
+    /**
+     * Primeros pedidos activos en alguno de los estados de los clientes dados, del más antiguo al
+     * más nuevo
+     */
+    @Query("SELECT p FROM Pedido p WHERE p.cliente.id IN :clienteIds AND p.estado IN :estados "
+            + "AND p.activo = true ORDER BY p.fechaPedido, p.id")
+    List<Pedido> findByClienteIdInAndEstadoIn(@Param("clienteIds") Collection<Long> clienteIds,
+                                              @Param("estados") Collection<EstadoPedido> estados,
+                                              Limit limite);
+
+    /**
+     * Pedidos activos de una zona en alguno de los estados, del más antiguo al más nuevo
+     */
+    @Query("SELECT p FROM Pedido p WHERE p.zona = :zona AND p.estado IN :estados AND p.activo = true "
+            + "ORDER BY p.fechaPedido, p.id")
+    List<Pedido> findByZonaAndEstadoIn(@Param("zona") String zona, @Param("estados") Collection<EstadoPedido> estados);
+
+    /**
+     * (zona, cantidad) de los pedidos activos con zona en alguno de los estados
+     */
+    @Query("SELECT p.zona, COUNT(p) FROM Pedido p WHERE p.estado IN :estados AND p.activo = true "
+            + "AND p.zona IS NOT NULL GROUP BY p.zona")
+    List<Object[]> contarPorZona(@Param("estados") Collection<EstadoPedido> estados);
+
+    /**
+     * (id, cliente, zona) de los pedidos activos en alguno de los estados
+     */
+    @Query("SELECT p.id, p.cliente.id, p.zona FROM Pedido p WHERE p.estado IN :estados AND p.activo = true")
+    List<Object[]> findZonasByEstadoIn(@Param("estados") Collection<EstadoPedido> estados);
+
+    @Modifying
+    @Query("UPDATE Pedido p SET p.zona = :zona WHERE p.id IN :ids")
+    int actualizarZona(@Param("zona") String zona, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Pedido p SET p.zona = :zona WHERE p.cliente.id IN :clienteIds AND p.estado IN :estados AND p.activo = true")
+    int actualizarZonaPorClientes(@Param("zona") String zona, @Param("clienteIds") Collection<Long> clienteIds,
+                                  @Param("estados") Collection<EstadoPedido> estados);
+
     /**
      * Busca pedidos de un cliente específico ordenados por fecha
      */
@@ -1,13 +1,18 @@
 package com.sw.GestorAPI.repository;
 
 import com.sw.GestorAPI.entity.Producto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
+    // Consulta cacheada (región de consultas de Hibernate): se invalida con cualquier escritura en productos
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Producto> findBySku(String sku);
     Page<Producto> findByActivoTrue(Pageable pageable);
     Page<Producto> findByNombreContainingIgnoreCase(String nombre, Pageable pageable);
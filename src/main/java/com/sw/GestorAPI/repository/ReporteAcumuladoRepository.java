@@ -0,0 +1,249 @@
+package com.sw.GestorAPI.repository;
+
+import com.sw.GestorAPI.entity.ReporteMovimientoDiario;
+import com.sw.GestorAPI.entity.ReporteVentaClienteMensual;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Acumulados de reportes (reporte_movimientos_diarios, reporte_ventas_clientes_mensuales) y su
+ * marca de agua sobre movimientos_inventario.id.
+ *
+ * Las escrituras son upserts por lotes en orden de clave, como en ResumenDashboardRepository.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReporteAcumuladoRepository {
+
+    // Por movimiento: el cliente del pedido y el subtotal y las unidades de sus líneas de ese
+    // producto, para repartir el importe entre salidas y devoluciones parciales
+    private static final String MOVIMIENTOS_SQL =
+            "SELECT m.id, m.producto_id, m.fecha_movimiento, m.tipo, m.cantidad, m.pedido_id, p.cliente_id, " +
+            "(SELECT SUM(i.subtotal) FROM items_pedido i WHERE i.pedido_id = m.pedido_id AND i.producto_id = m.producto_id), " +
+            "(SELECT SUM(i.cantidad) FROM items_pedido i WHERE i.pedido_id = m.pedido_id AND i.producto_id = m.producto_id) " +
+            "FROM movimientos_inventario m LEFT JOIN pedidos p ON p.id = m.pedido_id ";
+
+    private static final String NUEVOS_SQL =
+            MOVIMIENTOS_SQL + "WHERE m.id > ? AND m.fecha_movimiento < ? ORDER BY m.id LIMIT ?";
+
+    private static final String DESDE_FECHA_SQL =
+            MOVIMIENTOS_SQL + "WHERE m.fecha_movimiento >= ? AND m.id <= ?";
+
+    // Antes de guardarse pedido_id el pedido solo quedaba en el motivo: "<motivo> (Pedido ID: N)"
+    private static final Pattern PEDIDO_EN_MOTIVO = Pattern.compile("\\(Pedido ID: (\\d+)\\)");
+
+    private static final String SIN_PEDIDO_SQL =
+            "SELECT id, motivo FROM movimientos_inventario " +
+            "WHERE id > ? AND id <= ? AND pedido_id IS NULL AND motivo LIKE '%(Pedido ID: %'";
+
+    // Los pedidos ya eliminados no se vinculan
+    private static final String VINCULAR_PEDIDO_SQL =
+            "UPDATE movimientos_inventario SET pedido_id = ? WHERE id = ? " +
+            "AND EXISTS (SELECT 1 FROM pedidos p WHERE p.id = ?)";
+
+    private static final String MARCA_POSTGRES_SQL =
+            "INSERT INTO reporte_marcas (nombre, ultimo_id) VALUES (?, 0) ON CONFLICT (nombre) DO NOTHING";
+
+    // H2 (pruebas) no tiene ON CONFLICT: MERGE estándar, equivalente
+    private static final String MARCA_MERGE_SQL =
+            "MERGE INTO reporte_marcas r USING (VALUES (CAST(? AS VARCHAR(64)))) AS d (nombre) ON r.nombre = d.nombre " +
+            "WHEN NOT MATCHED THEN INSERT (nombre, ultimo_id) VALUES (d.nombre, 0)";
+
+    private static final String DIARIO_POSTGRES_SQL =
+            "INSERT INTO reporte_movimientos_diarios (producto_id, fecha, unidades_entrada, unidades_salida, unidades_vendidas) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (producto_id, fecha) DO UPDATE SET " +
+            "unidades_entrada = reporte_movimientos_diarios.unidades_entrada + EXCLUDED.unidades_entrada, " +
+            "unidades_salida = reporte_movimientos_diarios.unidades_salida + EXCLUDED.unidades_salida, " +
+            "unidades_vendidas = reporte_movimientos_diarios.unidades_vendidas + EXCLUDED.unidades_vendidas";
+
+    private static final String DIARIO_MERGE_SQL =
+            "MERGE INTO reporte_movimientos_diarios r USING (VALUES (CAST(? AS BIGINT), CAST(? AS DATE), " +
+            "CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT))) AS d (producto_id, fecha, entrada, salida, vendidas) " +
+            "ON r.producto_id = d.producto_id AND r.fecha = d.fecha " +
+            "WHEN MATCHED THEN UPDATE SET unidades_entrada = r.unidades_entrada + d.entrada, " +
+            "unidades_salida = r.unidades_salida + d.salida, unidades_vendidas = r.unidades_vendidas + d.vendidas " +
+            "WHEN NOT MATCHED THEN INSERT (producto_id, fecha, unidades_entrada, unidades_salida, unidades_vendidas) " +
+            "VALUES (d.producto_id, d.fecha, d.entrada, d.salida, d.vendidas)";
+
+    private static final String MENSUAL_POSTGRES_SQL =
+            "INSERT INTO reporte_ventas_clientes_mensuales (cliente_id, mes, unidades, ingresos) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (cliente_id, mes) DO UPDATE SET " +
+            "unidades = reporte_ventas_clientes_mensuales.unidades + EXCLUDED.unidades, " +
+            "ingresos = reporte_ventas_clientes_mensuales.ingresos + EXCLUDED.ingresos";
+
+    private static final String MENSUAL_MERGE_SQL =
+            "MERGE INTO reporte_ventas_clientes_mensuales r USING (VALUES (CAST(? AS BIGINT), CAST(? AS DATE), " +
+            "CAST(? AS BIGINT), CAST(? AS NUMERIC(14, 2)))) AS d (cliente_id, mes, unidades, ingresos) " +
+            "ON r.cliente_id = d.cliente_id AND r.mes = d.mes " +
+            "WHEN MATCHED THEN UPDATE SET unidades = r.unidades + d.unidades, ingresos = r.ingresos + d.ingresos " +
+            "WHEN NOT MATCHED THEN INSERT (cliente_id, mes, unidades, ingresos) VALUES (d.cliente_id, d.mes, d.unidades, d.ingresos)";
+
+    private static final String MAS_VENDIDOS_SQL =
+            "SELECT producto_id, SUM(unidades_vendidas) FROM reporte_movimientos_diarios WHERE fecha BETWEEN ? AND ? " +
+            "GROUP BY producto_id HAVING SUM(unidades_vendidas) > 0 ORDER BY 2 DESC, producto_id LIMIT ?";
+
+    private static final RowMapper<Movimiento> MOVIMIENTO = ReporteAcumuladoRepository::movimiento;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final MotorBaseDatos motor;
+
+    /**
+     * Lee la marca de agua bloqueándola hasta el fin de la transacción (la crea en 0 si no
+     * existe): dos actualizaciones concurrentes no pueden sumar los mismos movimientos
+     */
+    public long bloquearMarca(String nombre) {
+        jdbcTemplate.update(motor.esPostgres() ? MARCA_POSTGRES_SQL : MARCA_MERGE_SQL, nombre);
+        Long ultimoId = jdbcTemplate.queryForObject(
+                "SELECT ultimo_id FROM reporte_marcas WHERE nombre = ? FOR UPDATE", Long.class, nombre);
+        return ultimoId != null ? ultimoId : 0;
+    }
+
+    public void fijarMarca(String nombre, long ultimoId) {
+        jdbcTemplate.update("UPDATE reporte_marcas SET ultimo_id = ? WHERE nombre = ?", ultimoId, nombre);
+    }
+
+    /**
+     * Movimientos posteriores a la marca y anteriores a hasta, en orden de id
+     */
+    public List<Movimiento> leerNuevos(long despuesDe, LocalDateTime hasta, int limite) {
+        return jdbcTemplate.query(NUEVOS_SQL, MOVIMIENTO, despuesDe, Timestamp.valueOf(hasta), limite);
+    }
+
+    /**
+     * Completa pedido_id en los movimientos con id en (despuesDe, hastaId] que solo tienen el
+     * pedido en el motivo, y devuelve cuántos vinculó
+     */
+    public int vincularPedidosDelMotivo(long despuesDe, long hastaId) {
+        List<Long[]> vinculos = new ArrayList<>();
+        jdbcTemplate.query(SIN_PEDIDO_SQL, rs -> {
+            Matcher matcher = PEDIDO_EN_MOTIVO.matcher(rs.getString(2));
+            if (matcher.find()) {
+                long pedidoId = Long.parseLong(matcher.group(1));
+                vinculos.add(new Long[]{pedidoId, rs.getLong(1), pedidoId});
+            }
+        }, despuesDe, hastaId);
+        if (vinculos.isEmpty()) return 0;
+        int[][] filas = jdbcTemplate.batchUpdate(VINCULAR_PEDIDO_SQL, vinculos, vinculos.size(), (ps, v) -> {
+            ps.setLong(1, v[0]);
+            ps.setLong(2, v[1]);
+            ps.setLong(3, v[2]);
+        });
+        // SUCCESS_NO_INFO (-2) cuenta como vinculado
+        return (int) Arrays.stream(filas).flatMapToInt(Arrays::stream).filter(f -> f != 0).count();
+    }
+
+    /**
+     * Recorre sin cargarlos en memoria los movimientos desde una fecha ya incluidos por la marca
+     */
+    public void recorrerDesde(LocalDate desde, long hastaId, Consumer<Movimiento> consumidor) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(DESDE_FECHA_SQL);
+            ps.setFetchSize(1000);
+            ps.setTimestamp(1, Timestamp.valueOf(desde.atStartOfDay()));
+            ps.setLong(2, hastaId);
+            return ps;
+        }, rs -> { consumidor.accept(movimiento(rs, 0)); });
+    }
+
+    /**
+     * Borra los acumulados desde el primer día de un mes (diarios y mensuales)
+     */
+    public void borrarDesde(LocalDate inicioMes) {
+        jdbcTemplate.update("DELETE FROM reporte_movimientos_diarios WHERE fecha >= ?", Date.valueOf(inicioMes));
+        jdbcTemplate.update("DELETE FROM reporte_ventas_clientes_mensuales WHERE mes >= ?", Date.valueOf(inicioMes));
+    }
+
+    public void sumarDiarios(Collection<ReporteMovimientoDiario> deltas) {
+        if (deltas.isEmpty()) return;
+        List<ReporteMovimientoDiario> ordenados = new ArrayList<>(deltas);
+        ordenados.sort(Comparator.comparing(ReporteMovimientoDiario::getProductoId)
+                .thenComparing(ReporteMovimientoDiario::getFecha));
+        jdbcTemplate.batchUpdate(motor.esPostgres() ? DIARIO_POSTGRES_SQL : DIARIO_MERGE_SQL, ordenados, ordenados.size(),
+                (ps, d) -> {
+                    ps.setLong(1, d.getProductoId());
+                    ps.setDate(2, Date.valueOf(d.getFecha()));
+                    ps.setLong(3, d.getUnidadesEntrada());
+                    ps.setLong(4, d.getUnidadesSalida());
+                    ps.setLong(5, d.getUnidadesVendidas());
+                });
+    }
+
+    public void sumarMensuales(Collection<ReporteVentaClienteMensual> deltas) {
+        if (deltas.isEmpty()) return;
+        List<ReporteVentaClienteMensual> ordenados = new ArrayList<>(deltas);
+        ordenados.sort(Comparator.comparing(ReporteVentaClienteMensual::getClienteId)
+                .thenComparing(ReporteVentaClienteMensual::getMes));
+        jdbcTemplate.batchUpdate(motor.esPostgres() ? MENSUAL_POSTGRES_SQL : MENSUAL_MERGE_SQL, ordenados, ordenados.size(),
+                (ps, m) -> {
+                    ps.setLong(1, m.getClienteId());
+                    ps.setDate(2, Date.valueOf(m.getMes()));
+                    ps.setLong(3, m.getUnidades());
+                    ps.setBigDecimal(4, m.getIngresos());
+                });
+    }
+
+    public List<ReporteMovimientoDiario> listarDiarios(Long productoId, LocalDate desde, LocalDate hasta) {
+        return jdbcTemplate.query(
+                "SELECT producto_id, fecha, unidades_entrada, unidades_salida, unidades_vendidas " +
+                "FROM reporte_movimientos_diarios WHERE producto_id = ? AND fecha BETWEEN ? AND ? ORDER BY fecha",
+                (rs, i) -> new ReporteMovimientoDiario(rs.getLong(1), rs.getDate(2).toLocalDate(),
+                        rs.getLong(3), rs.getLong(4), rs.getLong(5)),
+                productoId, Date.valueOf(desde), Date.valueOf(hasta));
+    }
+
+    public List<ReporteVentaClienteMensual> listarMensuales(Long clienteId, LocalDate desde, LocalDate hasta) {
+        return jdbcTemplate.query(
+                "SELECT cliente_id, mes, unidades, ingresos FROM reporte_ventas_clientes_mensuales " +
+                "WHERE cliente_id = ? AND mes BETWEEN ? AND ? ORDER BY mes",
+                (rs, i) -> new ReporteVentaClienteMensual(rs.getLong(1), rs.getDate(2).toLocalDate(),
+                        rs.getLong(3), rs.getBigDecimal(4)),
+                clienteId, Date.valueOf(desde.withDayOfMonth(1)), Date.valueOf(hasta));
+    }
+
+    public List<ProductoVendido> listarMasVendidos(LocalDate desde, LocalDate hasta, int limite) {
+        return jdbcTemplate.query(MAS_VENDIDOS_SQL,
+                (rs, i) -> new ProductoVendido(rs.getLong(1), rs.getLong(2)),
+                Date.valueOf(desde), Date.valueOf(hasta), limite);
+    }
+
+    private static Movimiento movimiento(ResultSet rs, int fila) throws SQLException {
+        long pedidoId = rs.getLong(6);
+        boolean conPedido = !rs.wasNull();
+        long clienteId = rs.getLong(7);
+        boolean conCliente = !rs.wasNull();
+        return new Movimiento(rs.getLong(1), rs.getLong(2), rs.getTimestamp(3).toLocalDateTime().toLocalDate(),
+                rs.getString(4), rs.getInt(5), conPedido ? pedidoId : null, conCliente ? clienteId : null,
+                rs.getBigDecimal(8), rs.getLong(9));
+    }
+
+    /**
+     * Movimiento de inventario con lo necesario para acumularlo: subtotalLinea y unidadesLinea son
+     * la suma de las líneas del pedido con ese producto (null y 0 si no es de un pedido)
+     */
+    public record Movimiento(long id, long productoId, LocalDate fecha, String tipo, int cantidad,
+                             Long pedidoId, Long clienteId, BigDecimal subtotalLinea, long unidadesLinea) {
+    }
+
+    public record ProductoVendido(Long productoId, long unidades) {
+    }
+}
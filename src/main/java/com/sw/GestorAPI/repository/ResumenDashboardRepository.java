@@ -0,0 +1,176 @@
+package com.sw.GestorAPI.repository;
+
+import com.sw.GestorAPI.entity.VentaDiaria;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Contadores del dashboard (contadores_dashboard y ventas_diarias) y las consultas de
+ * agregación sobre las tablas de origen con las que se reconcilian.
+ *
+ * Las escrituras son upserts por lotes en orden de clave, para que transacciones concurrentes
+ * bloqueen las filas en el mismo orden.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ResumenDashboardRepository {
+
+    private static final String CONTADOR_POSTGRES_SQL =
+            "INSERT INTO contadores_dashboard (clave, valor) VALUES (?, ?) " +
+            "ON CONFLICT (clave) DO UPDATE SET valor = %s";
+
+    // H2 (pruebas) no tiene ON CONFLICT ... DO UPDATE: MERGE estándar, equivalente
+    private static final String CONTADOR_MERGE_SQL =
+            "MERGE INTO contadores_dashboard c " +
+            "USING (VALUES (CAST(? AS VARCHAR(64)), CAST(? AS BIGINT))) AS d (clave, valor) ON c.clave = d.clave " +
+            "WHEN MATCHED THEN UPDATE SET valor = %s " +
+            "WHEN NOT MATCHED THEN INSERT (clave, valor) VALUES (d.clave, d.valor)";
+
+    private static final String VENTA_POSTGRES_SQL =
+            "INSERT INTO ventas_diarias (fecha, pedidos, ingresos) VALUES (?, ?, ?) " +
+            "ON CONFLICT (fecha) DO UPDATE SET pedidos = %s, ingresos = %s";
+
+    private static final String VENTA_MERGE_SQL =
+            "MERGE INTO ventas_diarias v " +
+            "USING (VALUES (CAST(? AS DATE), CAST(? AS BIGINT), CAST(? AS NUMERIC(14, 2)))) AS d (fecha, pedidos, ingresos) " +
+            "ON v.fecha = d.fecha " +
+            "WHEN MATCHED THEN UPDATE SET pedidos = %s, ingresos = %s " +
+            "WHEN NOT MATCHED THEN INSERT (fecha, pedidos, ingresos) VALUES (d.fecha, d.pedidos, d.ingresos)";
+
+    private static final String BLOQUEAR_CONTADORES_SQL =
+            "SELECT clave, valor FROM contadores_dashboard ORDER BY clave FOR UPDATE";
+
+    private static final String PEDIDOS_POR_ESTADO_SQL = "SELECT estado, COUNT(*) FROM pedidos GROUP BY estado";
+
+    private static final String RUTAS_POR_ESTADO_SQL = "SELECT estado, COUNT(*) FROM rutas_entrega GROUP BY estado";
+
+    private static final String STOCK_BAJO_SQL =
+            "SELECT COUNT(*) FROM inventarios WHERE cantidad <= stock_minimo AND activo = TRUE";
+
+    private static final String VENTAS_POR_DIA_SQL =
+            "SELECT CAST(fecha_pedido AS DATE), COUNT(*), COALESCE(SUM(total), 0) FROM pedidos " +
+            "WHERE estado <> 'CANCELADO' AND fecha_pedido >= ? GROUP BY CAST(fecha_pedido AS DATE)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final MotorBaseDatos motor;
+
+    /**
+     * Suma cada delta a su contador, creándolo si no existe
+     */
+    public void sumarContadores(Map<String, Long> deltas) {
+        escribirContadores(deltas, true);
+    }
+
+    /**
+     * Reemplaza el valor de cada contador
+     */
+    public void fijarContadores(Map<String, Long> valores) {
+        escribirContadores(valores, false);
+    }
+
+    /**
+     * Suma pedidos e ingresos de cada día a ventas_diarias, creando el día si no existe
+     */
+    public void sumarVentas(Collection<VentaDiaria> deltas) {
+        escribirVentas(deltas, true);
+    }
+
+    /**
+     * Reemplaza las ventas desde la fecha indicada: los días sin pedidos quedan en cero
+     */
+    public void fijarVentas(LocalDate desde, Collection<VentaDiaria> ventas) {
+        jdbcTemplate.update("UPDATE ventas_diarias SET pedidos = 0, ingresos = 0 WHERE fecha >= ?", Date.valueOf(desde));
+        escribirVentas(ventas, false);
+    }
+
+    public Map<String, Long> leerContadores() {
+        Map<String, Long> contadores = new TreeMap<>();
+        jdbcTemplate.query("SELECT clave, valor FROM contadores_dashboard",
+                rs -> { contadores.put(rs.getString(1), rs.getLong(2)); });
+        return contadores;
+    }
+
+    /**
+     * Lee los contadores bloqueándolos hasta el fin de la transacción: las transacciones que
+     * quieran sumarles algo esperan, y las que ya lo hicieron están confirmadas
+     */
+    public Map<String, Long> bloquearContadores() {
+        Map<String, Long> contadores = new TreeMap<>();
+        jdbcTemplate.query(BLOQUEAR_CONTADORES_SQL, rs -> { contadores.put(rs.getString(1), rs.getLong(2)); });
+        return contadores;
+    }
+
+    public List<VentaDiaria> leerVentas(LocalDate desde) {
+        return jdbcTemplate.query(
+                "SELECT fecha, pedidos, ingresos FROM ventas_diarias WHERE fecha >= ? AND pedidos > 0 ORDER BY fecha",
+                (rs, i) -> new VentaDiaria(rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getBigDecimal(3)),
+                Date.valueOf(desde));
+    }
+
+    public Map<String, Long> contarPedidosPorEstado() {
+        return contarPorEstado(PEDIDOS_POR_ESTADO_SQL);
+    }
+
+    public Map<String, Long> contarRutasPorEstado() {
+        return contarPorEstado(RUTAS_POR_ESTADO_SQL);
+    }
+
+    public long contarStockBajo() {
+        Long cantidad = jdbcTemplate.queryForObject(STOCK_BAJO_SQL, Long.class);
+        return cantidad != null ? cantidad : 0;
+    }
+
+    public List<VentaDiaria> calcularVentas(LocalDate desde) {
+        return jdbcTemplate.query(VENTAS_POR_DIA_SQL,
+                (rs, i) -> new VentaDiaria(rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getBigDecimal(3)),
+                Timestamp.valueOf(desde.atStartOfDay()));
+    }
+
+    private Map<String, Long> contarPorEstado(String sql) {
+        Map<String, Long> conteos = new TreeMap<>();
+        jdbcTemplate.query(sql, rs -> { conteos.put(rs.getString(1), rs.getLong(2)); });
+        return conteos;
+    }
+
+    private void escribirContadores(Map<String, Long> valores, boolean sumar) {
+        if (valores.isEmpty()) return;
+        String sql = motor.esPostgres()
+                ? CONTADOR_POSTGRES_SQL.formatted(sumar ? "contadores_dashboard.valor + EXCLUDED.valor" : "EXCLUDED.valor")
+                : CONTADOR_MERGE_SQL.formatted(sumar ? "c.valor + d.valor" : "d.valor");
+        List<Map.Entry<String, Long>> ordenados = new ArrayList<>(new TreeMap<>(valores).entrySet());
+        jdbcTemplate.batchUpdate(sql, ordenados, ordenados.size(), (ps, e) -> {
+            ps.setString(1, e.getKey());
+            ps.setLong(2, e.getValue());
+        });
+    }
+
+    private void escribirVentas(Collection<VentaDiaria> ventas, boolean sumar) {
+        if (ventas.isEmpty()) return;
+        String sql = motor.esPostgres()
+                ? VENTA_POSTGRES_SQL.formatted(
+                        sumar ? "ventas_diarias.pedidos + EXCLUDED.pedidos" : "EXCLUDED.pedidos",
+                        sumar ? "ventas_diarias.ingresos + EXCLUDED.ingresos" : "EXCLUDED.ingresos")
+                : VENTA_MERGE_SQL.formatted(
+                        sumar ? "v.pedidos + d.pedidos" : "d.pedidos",
+                        sumar ? "v.ingresos + d.ingresos" : "d.ingresos");
+        List<VentaDiaria> ordenadas = new ArrayList<>(ventas);
+        ordenadas.sort((a, b) -> a.getFecha().compareTo(b.getFecha()));
+        jdbcTemplate.batchUpdate(sql, ordenadas, ordenadas.size(), (ps, v) -> {
+            ps.setDate(1, Date.valueOf(v.getFecha()));
+            ps.setLong(2, v.getPedidos());
+            ps.setBigDecimal(3, v.getIngresos() != null ? v.getIngresos() : BigDecimal.ZERO);
+        });
+    }
+}
@@ -2,15 +2,47 @@ package com.sw.GestorAPI.repository;
 
 import com.sw.GestorAPI.entity.RutaEntrega;
 import com.sw.GestorAPI.enums.EstadoRuta;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface RutaEntregaRepository extends JpaRepository<RutaEntrega, Long> {
     Page<RutaEntrega> findByActivoTrue(Pageable pageable);
     Page<RutaEntrega> findByRepartidorId(Long repartidorId, Pageable pageable);
     Page<RutaEntrega> findByEstado(EstadoRuta estado, Pageable pageable);
     Page<RutaEntrega> findByRepartidorIdAndEstado(Long repartidorId, EstadoRuta estado, Pageable pageable);
+
+    // Variantes Slice: no ejecutan el SELECT COUNT(*) adicional
+    Slice<RutaEntrega> findSliceBy(Pageable pageable);
+    Slice<RutaEntrega> findSliceByActivoTrue(Pageable pageable);
+    Slice<RutaEntrega> findSliceByRepartidorId(Long repartidorId, Pageable pageable);
+    Slice<RutaEntrega> findSliceByEstado(EstadoRuta estado, Pageable pageable);
+
+    // Paginación keyset (cursor) sobre (fecha_ruta, id), sin OFFSET ni COUNT(*)
+    Window<RutaEntrega> findByOrderByFechaRutaDescIdDesc(ScrollPosition position, Limit limit);
+
+    /**
+     * Devuelve pares (rutaId, pedido) de varias rutas en una sola consulta, en orden de visita
+     */
+    @Query("SELECT r.id, p FROM RutaEntrega r JOIN r.pedidos p WHERE r.id IN :rutaIds ORDER BY r.id, INDEX(p)")
+    List<Object[]> findPedidosByRutaIdIn(@Param("rutaIds") Collection<Long> rutaIds);
+
+    /**
+     * Repartidores que ya tienen una ruta no cancelada en la fecha
+     */
+    @Query("SELECT DISTINCT r.repartidor.id FROM RutaEntrega r WHERE r.fechaRuta = :fecha "
+            + "AND r.estado <> com.sw.GestorAPI.enums.EstadoRuta.CANCELADA")
+    List<Long> findRepartidorIdsConRuta(@Param("fecha") LocalDate fecha);
 }
@@ -2,7 +2,14 @@ package com.sw.GestorAPI.repository;
 
 import com.sw.GestorAPI.entity.Usuario;
 import com.sw.GestorAPI.enums.Rol;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -20,6 +27,7 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
      * @param email Email del usuario
      * @return Optional con el usuario si existe
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Usuario> findByEmail(String email);
 
     /**
@@ -49,6 +57,23 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
      */
     List<Usuario> findByRolAndActivoTrue(Rol rol);
 
+    /**
+     * Usuarios activos por rol, bloqueados (SELECT ... FOR UPDATE) en orden de id hasta el fin
+     * de la transacción: dos planificaciones simultáneas no reparten los mismos repartidores
+     * @param rol Rol a filtrar
+     * @return Lista de usuarios activos con ese rol, ordenada por id
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Usuario> findByRolAndActivoTrueOrderById(Rol rol);
+
+    /**
+     * Administradores activos con la ubicación de la empresa cargada, el primero por id
+     * @return Lista de administradores con ubicación (el depósito de las rutas es el primero)
+     */
+    @Query("SELECT u FROM Usuario u WHERE u.rol = com.sw.GestorAPI.enums.Rol.ADMIN AND u.activo = true " +
+           "AND u.latitudEmpresa IS NOT NULL AND u.longitudEmpresa IS NOT NULL ORDER BY u.id")
+    List<Usuario> findAdministradoresConUbicacion(Limit limit);
+
     /**
      * Busca usuarios por nombre completo (parcial, case insensitive)
      * @param nombre Nombre a buscar
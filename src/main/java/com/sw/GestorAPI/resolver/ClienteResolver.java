@@ -3,15 +3,18 @@ package com.sw.GestorAPI.resolver;
 import com.sw.GestorAPI.dto.ActualizarClienteInput;
 import com.sw.GestorAPI.dto.ActualizarUbicacionClienteInput;
 import com.sw.GestorAPI.dto.AuthClienteResponse;
+import com.sw.GestorAPI.dto.ClienteCercanoResponse;
 import com.sw.GestorAPI.dto.ClientePageResponse;
 import com.sw.GestorAPI.dto.CrearClienteInput;
 import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.graphql.ConsultasParalelas;
+import com.sw.GestorAPI.graphql.PlanificadorPaginas;
 import com.sw.GestorAPI.security.JwtService;
 import com.sw.GestorAPI.service.ClienteService;
+import graphql.schema.DataFetchingEnvironment;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
@@ -20,12 +23,17 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.lang.NonNull;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @Controller
 @RequiredArgsConstructor
 @Slf4j
 public class ClienteResolver {
 
     private final ClienteService clienteService;
+    private final PlanificadorPaginas planificadorPaginas;
+    private final ConsultasParalelas consultasParalelas;
     private final JwtService jwtService;
 
     // =====================
@@ -34,7 +42,7 @@ public class ClienteResolver {
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
     public ClientePageResponse clientes(@Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
+        Pageable pageable = planificadorPaginas.pagina(page, size);
         Page<Cliente> result = clienteService.listar(pageable);
         return new ClientePageResponse(
                 result.getContent(),
@@ -47,16 +55,18 @@ public class ClienteResolver {
 
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
-    public ClientePageResponse clientesActivos(@Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
-        Page<Cliente> result = clienteService.listarActivos(pageable);
-        return new ClientePageResponse(
-                result.getContent(),
-                (int) result.getTotalElements(),
-                result.getTotalPages(),
-                result.getNumber(),
-                result.getSize()
-        );
+    public CompletableFuture<ClientePageResponse> clientesActivos(@Argument Integer page, @Argument Integer size, DataFetchingEnvironment env) {
+        return consultasParalelas.leer(env, () -> {
+            Pageable pageable = planificadorPaginas.pagina(page, size);
+            Page<Cliente> result = clienteService.listarActivos(pageable);
+            return new ClientePageResponse(
+                    result.getContent(),
+                    (int) result.getTotalElements(),
+                    result.getTotalPages(),
+                    result.getNumber(),
+                    result.getSize()
+            );
+        });
     }
 
     @QueryMapping
@@ -73,12 +83,19 @@ public class ClienteResolver {
                 .orElse(null);
     }
 
+    @QueryMapping
+    @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
+    public List<ClienteCercanoResponse> clientesCercanos(@Argument double lat, @Argument double lng, @Argument double radioKm,
+                                                         @Argument Integer limite) {
+        return clienteService.clientesCercanos(lat, lng, radioKm, planificadorPaginas.limite(limite));
+    }
+
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
     public ClientePageResponse buscarClientesPorNombre(@Argument @NonNull String nombre,
                                                        @Argument Integer page,
                                                        @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
+        Pageable pageable = planificadorPaginas.pagina(page, size);
         Page<Cliente> result = clienteService.buscarPorNombre(nombre, pageable);
         return new ClientePageResponse(
                 result.getContent(),
@@ -0,0 +1,25 @@
+package com.sw.GestorAPI.resolver;
+
+import com.sw.GestorAPI.dto.DashboardResumenResponse;
+import com.sw.GestorAPI.service.ResumenDashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+
+@Controller
+@RequiredArgsConstructor
+public class DashboardResolver {
+
+    private final ResumenDashboardService resumenDashboardService;
+
+    // =====================
+    // QUERIES (ADMIN, REPARTIDOR)
+    // =====================
+    @QueryMapping
+    @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
+    public DashboardResumenResponse dashboardResumen(@Argument Integer dias) {
+        return resumenDashboardService.obtenerResumen(dias);
+    }
+}
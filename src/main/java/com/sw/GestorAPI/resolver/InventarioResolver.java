@@ -6,19 +6,30 @@ import com.sw.GestorAPI.dto.InventarioPageResponse;
 import com.sw.GestorAPI.dto.MovimientoPageResponse;
 import com.sw.GestorAPI.entity.Inventario;
 import com.sw.GestorAPI.entity.MovimientoInventario;
+import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.graphql.ConsultasParalelas;
+import com.sw.GestorAPI.graphql.PlanificadorPaginas;
 import com.sw.GestorAPI.service.InventarioService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.graphql.data.query.ScrollSubrange;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.lang.NonNull;
+import org.dataloader.DataLoader;
+
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequiredArgsConstructor
@@ -26,19 +37,22 @@ import org.springframework.lang.NonNull;
 public class InventarioResolver {
 
     private final InventarioService inventarioService;
+    private final PlanificadorPaginas planificadorPaginas;
+    private final ConsultasParalelas consultasParalelas;
 
     // =====================
     // QUERIES (ADMIN, REPARTIDOR)
     // =====================
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
-    public InventarioPageResponse inventarios(@Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
-        Page<Inventario> result = inventarioService.listar(pageable);
+    public InventarioPageResponse inventarios(@Argument Integer page, @Argument Integer size, DataFetchingFieldSelectionSet seleccion) {
+        Pageable pageable = planificadorPaginas.pagina(page, size);
+        Slice<Inventario> result = planificadorPaginas.ejecutar(seleccion, pageable,
+                inventarioService::listar, inventarioService::listarSinTotal);
         return new InventarioPageResponse(
                 result.getContent(),
-                (int) result.getTotalElements(),
-                result.getTotalPages(),
+                planificadorPaginas.totalElementos(result),
+                planificadorPaginas.totalPaginas(result),
                 result.getNumber(),
                 result.getSize()
         );
@@ -46,13 +60,14 @@ public class InventarioResolver {
 
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
-    public InventarioPageResponse inventariosActivos(@Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
-        Page<Inventario> result = inventarioService.listarActivos(pageable);
+    public InventarioPageResponse inventariosActivos(@Argument Integer page, @Argument Integer size, DataFetchingFieldSelectionSet seleccion) {
+        Pageable pageable = planificadorPaginas.pagina(page, size);
+        Slice<Inventario> result = planificadorPaginas.ejecutar(seleccion, pageable,
+                inventarioService::listarActivos, inventarioService::listarActivosSinTotal);
         return new InventarioPageResponse(
                 result.getContent(),
-                (int) result.getTotalElements(),
-                result.getTotalPages(),
+                planificadorPaginas.totalElementos(result),
+                planificadorPaginas.totalPaginas(result),
                 result.getNumber(),
                 result.getSize()
         );
@@ -67,27 +82,31 @@ public class InventarioResolver {
 
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
-    public InventarioPageResponse inventariosStockBajo(@Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
-        Page<Inventario> result = inventarioService.listarStockBajo(pageable);
-        return new InventarioPageResponse(
-                result.getContent(),
-                (int) result.getTotalElements(),
-                result.getTotalPages(),
-                result.getNumber(),
-                result.getSize()
-        );
+    public CompletableFuture<InventarioPageResponse> inventariosStockBajo(@Argument Integer page, @Argument Integer size, DataFetchingFieldSelectionSet seleccion, DataFetchingEnvironment env) {
+        return consultasParalelas.leer(env, () -> {
+            Pageable pageable = planificadorPaginas.pagina(page, size);
+            Slice<Inventario> result = planificadorPaginas.ejecutar(seleccion, pageable,
+                    inventarioService::listarStockBajo, inventarioService::listarStockBajoSinTotal);
+            return new InventarioPageResponse(
+                    result.getContent(),
+                    planificadorPaginas.totalElementos(result),
+                    planificadorPaginas.totalPaginas(result),
+                    result.getNumber(),
+                    result.getSize()
+            );
+        });
     }
 
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
-    public InventarioPageResponse buscarInventariosPorNombre(@Argument @NonNull String nombre, @Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
-        Page<Inventario> result = inventarioService.buscarPorNombreProducto(nombre, pageable);
+    public InventarioPageResponse buscarInventariosPorNombre(@Argument @NonNull String nombre, @Argument Integer page, @Argument Integer size, DataFetchingFieldSelectionSet seleccion) {
+        Pageable pageable = planificadorPaginas.pagina(page, size);
+        Slice<Inventario> result = planificadorPaginas.ejecutar(seleccion, pageable,
+                p -> inventarioService.buscarPorNombreProducto(nombre, p), p -> inventarioService.buscarPorNombreProductoSinTotal(nombre, p));
         return new InventarioPageResponse(
                 result.getContent(),
-                (int) result.getTotalElements(),
-                result.getTotalPages(),
+                planificadorPaginas.totalElementos(result),
+                planificadorPaginas.totalPaginas(result),
                 result.getNumber(),
                 result.getSize()
         );
@@ -95,18 +114,39 @@ public class InventarioResolver {
 
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
-    public MovimientoPageResponse movimientosPorProducto(@Argument @NonNull Long productoId, @Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
-        Page<MovimientoInventario> result = inventarioService.listarMovimientosPorProducto(productoId, pageable);
+    public MovimientoPageResponse movimientosPorProducto(@Argument @NonNull Long productoId, @Argument Integer page, @Argument Integer size, DataFetchingFieldSelectionSet seleccion) {
+        Pageable pageable = planificadorPaginas.pagina(page, size);
+        Slice<MovimientoInventario> result = planificadorPaginas.ejecutar(seleccion, pageable,
+                p -> inventarioService.listarMovimientosPorProducto(productoId, p), p -> inventarioService.listarMovimientosPorProductoSinTotal(productoId, p));
         return new MovimientoPageResponse(
                 result.getContent(),
-                (int) result.getTotalElements(),
-                result.getTotalPages(),
+                planificadorPaginas.totalElementos(result),
+                planificadorPaginas.totalPaginas(result),
                 result.getNumber(),
                 result.getSize()
         );
     }
 
+    @QueryMapping
+    @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
+    public Window<MovimientoInventario> movimientosPorProductoConnection(@Argument @NonNull Long productoId, ScrollSubrange subrange) {
+        ScrollPosition position = subrange.position().orElse(ScrollPosition.keyset());
+        return inventarioService.listarVentanaMovimientosPorProducto(productoId, position, planificadorPaginas.cantidad(subrange.count()));
+    }
+
+    // =====================
+    // CAMPOS (DataLoader, una consulta por página)
+    // =====================
+    @SchemaMapping(typeName = "Inventario", field = "producto")
+    public CompletableFuture<Producto> producto(Inventario inventario, DataLoader<Long, Producto> productos) {
+        return productos.load(inventario.getProducto().getId());
+    }
+
+    @SchemaMapping(typeName = "MovimientoInventario", field = "producto")
+    public CompletableFuture<Producto> producto(MovimientoInventario movimiento, DataLoader<Long, Producto> productos) {
+        return productos.load(movimiento.getProducto().getId());
+    }
+
     // =====================
     // MUTATIONS (SOLO ADMIN)
     // =====================
@@ -132,4 +172,10 @@ public class InventarioResolver {
     public Inventario desactivarInventario(@Argument @NonNull Long productoId) {
         return inventarioService.desactivarInventario(productoId);
     }
+
+    @MutationMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public Inventario configurarReservaEnMemoria(@Argument @NonNull Long productoId, @Argument boolean activa) {
+        return inventarioService.configurarReservaEnMemoria(productoId, activa);
+    }
 }
@@ -1,25 +1,45 @@
 package com.sw.GestorAPI.resolver;
 
+import com.sw.GestorAPI.dto.CoordenadaInput;
 import com.sw.GestorAPI.dto.CrearPedidoInput;
+import com.sw.GestorAPI.dto.FilaPedidoImportacion;
+import com.sw.GestorAPI.dto.ImportacionPedidosResponse;
 import com.sw.GestorAPI.dto.ItemPedidoInput;
 import com.sw.GestorAPI.dto.PedidoPageResponse;
+import com.sw.GestorAPI.dto.ResultadoFilaImportacion;
+import com.sw.GestorAPI.dto.ZonaRepartoResponse;
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.ItemPedido;
 import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.entity.Producto;
 import com.sw.GestorAPI.enums.EstadoPedido;
+import com.sw.GestorAPI.graphql.ConsultasParalelas;
+import com.sw.GestorAPI.graphql.PlanificadorPaginas;
+import com.sw.GestorAPI.service.ImportacionPedidosService;
 import com.sw.GestorAPI.service.PedidoService;
+import com.sw.GestorAPI.service.ZonaRepartoService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.graphql.data.query.ScrollSubrange;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.lang.NonNull;
+import org.dataloader.DataLoader;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Controller
@@ -28,19 +48,24 @@ import java.util.stream.Collectors;
 public class PedidoResolver {
 
     private final PedidoService pedidoService;
+    private final PlanificadorPaginas planificadorPaginas;
+    private final ConsultasParalelas consultasParalelas;
+    private final ImportacionPedidosService importacionPedidosService;
+    private final ZonaRepartoService zonaRepartoService;
 
     // =====================
     // QUERIES (ADMIN, REPARTIDOR)
     // =====================
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
-    public PedidoPageResponse pedidos(@Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
-        Page<Pedido> result = pedidoService.listar(pageable);
+    public PedidoPageResponse pedidos(@Argument Integer page, @Argument Integer size, DataFetchingFieldSelectionSet seleccion) {
+        Pageable pageable = planificadorPaginas.pagina(page, size);
+        Slice<Pedido> result = planificadorPaginas.ejecutar(seleccion, pageable,
+                pedidoService::listar, pedidoService::listarSinTotal);
         return new PedidoPageResponse(
                 result.getContent(),
-                (int) result.getTotalElements(),
-                result.getTotalPages(),
+                planificadorPaginas.totalElementos(result),
+                planificadorPaginas.totalPaginas(result),
                 result.getNumber(),
                 result.getSize()
         );
@@ -48,13 +73,14 @@ public class PedidoResolver {
 
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
-    public PedidoPageResponse pedidosActivos(@Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
-        Page<Pedido> result = pedidoService.listarActivos(pageable);
+    public PedidoPageResponse pedidosActivos(@Argument Integer page, @Argument Integer size, DataFetchingFieldSelectionSet seleccion) {
+        Pageable pageable = planificadorPaginas.pagina(page, size);
+        Slice<Pedido> result = planificadorPaginas.ejecutar(seleccion, pageable,
+                pedidoService::listarActivos, pedidoService::listarActivosSinTotal);
         return new PedidoPageResponse(
                 result.getContent(),
-                (int) result.getTotalElements(),
-                result.getTotalPages(),
+                planificadorPaginas.totalElementos(result),
+                planificadorPaginas.totalPaginas(result),
                 result.getNumber(),
                 result.getSize()
         );
@@ -62,32 +88,61 @@ public class PedidoResolver {
 
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
-    public PedidoPageResponse pedidosPorEstado(@Argument @NonNull EstadoPedido estado, @Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
-        Page<Pedido> result = pedidoService.listarPorEstado(estado, pageable);
-        return new PedidoPageResponse(
-                result.getContent(),
-                (int) result.getTotalElements(),
-                result.getTotalPages(),
-                result.getNumber(),
-                result.getSize()
-        );
+    public CompletableFuture<PedidoPageResponse> pedidosPorEstado(@Argument @NonNull EstadoPedido estado, @Argument Integer page, @Argument Integer size, DataFetchingFieldSelectionSet seleccion, DataFetchingEnvironment env) {
+        return consultasParalelas.leer(env, () -> {
+            Pageable pageable = planificadorPaginas.pagina(page, size);
+            Slice<Pedido> result = planificadorPaginas.ejecutar(seleccion, pageable,
+                    p -> pedidoService.listarPorEstado(estado, p), p -> pedidoService.listarPorEstadoSinTotal(estado, p));
+            return new PedidoPageResponse(
+                    result.getContent(),
+                    planificadorPaginas.totalElementos(result),
+                    planificadorPaginas.totalPaginas(result),
+                    result.getNumber(),
+                    result.getSize()
+            );
+        });
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
+    public List<Pedido> pedidosPendientesEnZona(@Argument @Valid List<CoordenadaInput> poligono, @Argument Integer limite) {
+        return pedidoService.listarPendientesEnZona(poligono, planificadorPaginas.limite(limite));
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
+    public List<ZonaRepartoResponse> zonasReparto() {
+        return zonaRepartoService.listarZonas();
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
+    public List<Pedido> pedidosPendientesPorZona(@Argument @NonNull String zona) {
+        return zonaRepartoService.listarPendientesPorZona(zona);
     }
 
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
-    public PedidoPageResponse pedidosPorCliente(@Argument @NonNull Long clienteId, @Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
-        Page<Pedido> result = pedidoService.listarPorCliente(clienteId, pageable);
+    public PedidoPageResponse pedidosPorCliente(@Argument @NonNull Long clienteId, @Argument Integer page, @Argument Integer size, DataFetchingFieldSelectionSet seleccion) {
+        Pageable pageable = planificadorPaginas.pagina(page, size);
+        Slice<Pedido> result = planificadorPaginas.ejecutar(seleccion, pageable,
+                p -> pedidoService.listarPorCliente(clienteId, p), p -> pedidoService.listarPorClienteSinTotal(clienteId, p));
         return new PedidoPageResponse(
                 result.getContent(),
-                (int) result.getTotalElements(),
-                result.getTotalPages(),
+                planificadorPaginas.totalElementos(result),
+                planificadorPaginas.totalPaginas(result),
                 result.getNumber(),
                 result.getSize()
         );
     }
 
+    @QueryMapping
+    @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
+    public Window<Pedido> pedidosConnection(ScrollSubrange subrange) {
+        ScrollPosition position = subrange.position().orElse(ScrollPosition.keyset());
+        return pedidoService.listarVentana(position, planificadorPaginas.cantidad(subrange.count()));
+    }
+
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
     public Pedido pedido(@Argument @NonNull Long id) {
@@ -95,6 +150,24 @@ public class PedidoResolver {
                 .orElseThrow(() -> new IllegalArgumentException("Pedido no encontrado con ID: " + id));
     }
 
+    // =====================
+    // CAMPOS (DataLoader, una consulta por página)
+    // =====================
+    @SchemaMapping(typeName = "Pedido", field = "cliente")
+    public CompletableFuture<Cliente> cliente(Pedido pedido, DataLoader<Long, Cliente> clientes) {
+        return clientes.load(pedido.getCliente().getId());
+    }
+
+    @SchemaMapping(typeName = "Pedido", field = "items")
+    public CompletableFuture<List<ItemPedido>> items(Pedido pedido, DataLoader<Long, List<ItemPedido>> itemsPorPedido) {
+        return itemsPorPedido.load(pedido.getId());
+    }
+
+    @SchemaMapping(typeName = "ItemPedido", field = "producto")
+    public CompletableFuture<Producto> producto(ItemPedido item, DataLoader<Long, Producto> productos) {
+        return productos.load(item.getProducto().getId());
+    }
+
     // =====================
     // MUTATIONS
     // =====================
@@ -107,6 +180,26 @@ public class PedidoResolver {
         return pedidoService.crearPedido(input.getClienteId(), input.getDireccionEntrega(), input.getObservaciones(), items);
     }
 
+    @MutationMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ImportacionPedidosResponse importarPedidos(@Argument List<CrearPedidoInput> pedidos, @Argument Integer tamanoLote) {
+        List<FilaPedidoImportacion> filas = new ArrayList<>(pedidos.size());
+        for (int i = 0; i < pedidos.size(); i++) {
+            CrearPedidoInput input = pedidos.get(i);
+            filas.add(FilaPedidoImportacion.builder()
+                    .fila(i + 1)
+                    .clienteId(input.getClienteId())
+                    .direccionEntrega(input.getDireccionEntrega())
+                    .observaciones(input.getObservaciones())
+                    .items(input.getItems())
+                    .build());
+        }
+        List<ResultadoFilaImportacion> resultados = new ArrayList<>(filas.size());
+        ImportacionPedidosResponse resumen = importacionPedidosService.importar(filas.iterator(), tamanoLote, resultados::add);
+        resumen.setFilas(resultados);
+        return resumen;
+    }
+
     @MutationMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
     public Pedido actualizarEstadoPedido(@Argument @NonNull Long id, @Argument @NonNull EstadoPedido estado) {
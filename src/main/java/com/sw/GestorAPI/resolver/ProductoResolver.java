@@ -4,11 +4,11 @@ import com.sw.GestorAPI.dto.ActualizarProductoInput;
 import com.sw.GestorAPI.dto.CrearProductoInput;
 import com.sw.GestorAPI.dto.ProductoPageResponse;
 import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.graphql.PlanificadorPaginas;
 import com.sw.GestorAPI.service.ProductoService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
@@ -23,6 +23,7 @@ import org.springframework.lang.NonNull;
 public class ProductoResolver {
 
     private final ProductoService productoService;
+    private final PlanificadorPaginas planificadorPaginas;
 
     // =====================
     // QUERIES
@@ -30,7 +31,7 @@ public class ProductoResolver {
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
     public ProductoPageResponse productos(@Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
+        Pageable pageable = planificadorPaginas.pagina(page, size);
         Page<Producto> result = productoService.listar(pageable);
         return new ProductoPageResponse(
                 result.getContent(),
@@ -44,7 +45,7 @@ public class ProductoResolver {
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
     public ProductoPageResponse productosActivos(@Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
+        Pageable pageable = planificadorPaginas.pagina(page, size);
         Page<Producto> result = productoService.listarActivos(pageable);
         return new ProductoPageResponse(
                 result.getContent(),
@@ -74,7 +75,7 @@ public class ProductoResolver {
     public ProductoPageResponse buscarProductosPorNombre(@Argument @NonNull String nombre,
                                                          @Argument Integer page,
                                                          @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
+        Pageable pageable = planificadorPaginas.pagina(page, size);
         Page<Producto> result = productoService.buscarPorNombre(nombre, pageable);
         return new ProductoPageResponse(
                 result.getContent(),
@@ -0,0 +1,61 @@
+package com.sw.GestorAPI.resolver;
+
+import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.entity.ReporteMovimientoDiario;
+import com.sw.GestorAPI.entity.ReporteVentaClienteMensual;
+import com.sw.GestorAPI.repository.ReporteAcumuladoRepository.ProductoVendido;
+import com.sw.GestorAPI.service.ReportesService;
+import lombok.RequiredArgsConstructor;
+import org.dataloader.DataLoader;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.lang.NonNull;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Controller
+@RequiredArgsConstructor
+public class ReporteResolver {
+
+    private final ReportesService reportesService;
+
+    // =====================
+    // QUERIES (ADMIN)
+    // =====================
+    @QueryMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<ReporteMovimientoDiario> movimientosProductoPorDia(@Argument @NonNull Long productoId,
+                                                                   @Argument @NonNull LocalDate desde,
+                                                                   @Argument @NonNull LocalDate hasta) {
+        return reportesService.movimientosPorDia(productoId, desde, hasta);
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<ReporteVentaClienteMensual> ventasClientePorMes(@Argument @NonNull Long clienteId,
+                                                                @Argument @NonNull LocalDate desde,
+                                                                @Argument @NonNull LocalDate hasta) {
+        return reportesService.ventasClientePorMes(clienteId, desde, hasta);
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<ProductoVendido> productosMasVendidos(@Argument @NonNull LocalDate desde,
+                                                      @Argument @NonNull LocalDate hasta,
+                                                      @Argument Integer limite) {
+        return reportesService.productosMasVendidos(desde, hasta, limite != null ? limite : 10);
+    }
+
+    // =====================
+    // CAMPOS (DataLoader, una consulta por página)
+    // =====================
+    @SchemaMapping(typeName = "ProductoVendido", field = "producto")
+    public CompletableFuture<Producto> producto(ProductoVendido vendido, DataLoader<Long, Producto> productos) {
+        return productos.load(vendido.productoId());
+    }
+}
@@ -2,23 +2,36 @@ package com.sw.GestorAPI.resolver;
 
 import com.sw.GestorAPI.dto.AsignarPedidosRutaInput;
 import com.sw.GestorAPI.dto.CrearRutaInput;
+import com.sw.GestorAPI.dto.PlanificacionRutasResponse;
 import com.sw.GestorAPI.dto.RutaEntregaPageResponse;
+import com.sw.GestorAPI.entity.Pedido;
 import com.sw.GestorAPI.entity.RutaEntrega;
+import com.sw.GestorAPI.entity.Usuario;
 import com.sw.GestorAPI.enums.EstadoRuta;
+import com.sw.GestorAPI.graphql.ConsultasParalelas;
+import com.sw.GestorAPI.graphql.PlanificadorPaginas;
 import com.sw.GestorAPI.service.RutaEntregaService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.graphql.data.query.ScrollSubrange;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
+import org.dataloader.DataLoader;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequiredArgsConstructor
@@ -26,19 +39,22 @@ import java.time.LocalDate;
 public class RutaEntregaResolver {
 
     private final RutaEntregaService rutaEntregaService;
+    private final PlanificadorPaginas planificadorPaginas;
+    private final ConsultasParalelas consultasParalelas;
 
     // =====================
     // QUERIES (ADMIN, REPARTIDOR)
     // =====================
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
-    public RutaEntregaPageResponse rutas(@Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
-        Page<RutaEntrega> result = rutaEntregaService.listar(pageable);
+    public RutaEntregaPageResponse rutas(@Argument Integer page, @Argument Integer size, DataFetchingFieldSelectionSet seleccion) {
+        Pageable pageable = planificadorPaginas.pagina(page, size);
+        Slice<RutaEntrega> result = planificadorPaginas.ejecutar(seleccion, pageable,
+                rutaEntregaService::listar, rutaEntregaService::listarSinTotal);
         return new RutaEntregaPageResponse(
                 result.getContent(),
-                (int) result.getTotalElements(),
-                result.getTotalPages(),
+                planificadorPaginas.totalElementos(result),
+                planificadorPaginas.totalPaginas(result),
                 result.getNumber(),
                 result.getSize()
         );
@@ -46,27 +62,31 @@ public class RutaEntregaResolver {
 
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
-    public RutaEntregaPageResponse rutasActivas(@Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
-        Page<RutaEntrega> result = rutaEntregaService.listarActivas(pageable);
-        return new RutaEntregaPageResponse(
-                result.getContent(),
-                (int) result.getTotalElements(),
-                result.getTotalPages(),
-                result.getNumber(),
-                result.getSize()
-        );
+    public CompletableFuture<RutaEntregaPageResponse> rutasActivas(@Argument Integer page, @Argument Integer size, DataFetchingFieldSelectionSet seleccion, DataFetchingEnvironment env) {
+        return consultasParalelas.leer(env, () -> {
+            Pageable pageable = planificadorPaginas.pagina(page, size);
+            Slice<RutaEntrega> result = planificadorPaginas.ejecutar(seleccion, pageable,
+                    rutaEntregaService::listarActivas, rutaEntregaService::listarActivasSinTotal);
+            return new RutaEntregaPageResponse(
+                    result.getContent(),
+                    planificadorPaginas.totalElementos(result),
+                    planificadorPaginas.totalPaginas(result),
+                    result.getNumber(),
+                    result.getSize()
+            );
+        });
     }
 
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
-    public RutaEntregaPageResponse rutasPorRepartidor(@Argument Long repartidorId, @Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
-        Page<RutaEntrega> result = rutaEntregaService.listarPorRepartidor(repartidorId, pageable);
+    public RutaEntregaPageResponse rutasPorRepartidor(@Argument Long repartidorId, @Argument Integer page, @Argument Integer size, DataFetchingFieldSelectionSet seleccion) {
+        Pageable pageable = planificadorPaginas.pagina(page, size);
+        Slice<RutaEntrega> result = planificadorPaginas.ejecutar(seleccion, pageable,
+                p -> rutaEntregaService.listarPorRepartidor(repartidorId, p), p -> rutaEntregaService.listarPorRepartidorSinTotal(repartidorId, p));
         return new RutaEntregaPageResponse(
                 result.getContent(),
-                (int) result.getTotalElements(),
-                result.getTotalPages(),
+                planificadorPaginas.totalElementos(result),
+                planificadorPaginas.totalPaginas(result),
                 result.getNumber(),
                 result.getSize()
         );
@@ -74,24 +94,45 @@ public class RutaEntregaResolver {
 
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
-    public RutaEntregaPageResponse rutasPorEstado(@Argument EstadoRuta estado, @Argument Integer page, @Argument Integer size) {
-        Pageable pageable = PageRequest.of(page == null ? 0 : page, size == null ? 10 : size);
-        Page<RutaEntrega> result = rutaEntregaService.listarPorEstado(estado, pageable);
+    public RutaEntregaPageResponse rutasPorEstado(@Argument EstadoRuta estado, @Argument Integer page, @Argument Integer size, DataFetchingFieldSelectionSet seleccion) {
+        Pageable pageable = planificadorPaginas.pagina(page, size);
+        Slice<RutaEntrega> result = planificadorPaginas.ejecutar(seleccion, pageable,
+                p -> rutaEntregaService.listarPorEstado(estado, p), p -> rutaEntregaService.listarPorEstadoSinTotal(estado, p));
         return new RutaEntregaPageResponse(
                 result.getContent(),
-                (int) result.getTotalElements(),
-                result.getTotalPages(),
+                planificadorPaginas.totalElementos(result),
+                planificadorPaginas.totalPaginas(result),
                 result.getNumber(),
                 result.getSize()
         );
     }
 
+    @QueryMapping
+    @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
+    public Window<RutaEntrega> rutasConnection(ScrollSubrange subrange) {
+        ScrollPosition position = subrange.position().orElse(ScrollPosition.keyset());
+        return rutaEntregaService.listarVentana(position, planificadorPaginas.cantidad(subrange.count()));
+    }
+
     @QueryMapping
     @PreAuthorize("hasAnyRole('ADMIN','REPARTIDOR')")
     public RutaEntrega ruta(@Argument Long id) {
         return rutaEntregaService.obtenerPorId(id).orElse(null);
     }
 
+    // =====================
+    // CAMPOS (DataLoader, una consulta por página)
+    // =====================
+    @SchemaMapping(typeName = "RutaEntrega", field = "repartidor")
+    public CompletableFuture<Usuario> repartidor(RutaEntrega ruta, DataLoader<Long, Usuario> usuarios) {
+        return usuarios.load(ruta.getRepartidor().getId());
+    }
+
+    @SchemaMapping(typeName = "RutaEntrega", field = "pedidos")
+    public CompletableFuture<List<Pedido>> pedidos(RutaEntrega ruta, DataLoader<Long, List<Pedido>> pedidosPorRuta) {
+        return pedidosPorRuta.load(ruta.getId());
+    }
+
     // =====================
     // MUTATIONS
     // =====================
@@ -101,6 +142,12 @@ public class RutaEntregaResolver {
         return rutaEntregaService.crearRuta(input.getRepartidorId(), input.getFechaRuta(), input.getDistanciaTotalKm(), input.getTiempoEstimadoMin(), input.getPedidosIds());
     }
 
+    @MutationMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public PlanificacionRutasResponse planificarRutasDelDia(@Argument LocalDate fecha) {
+        return rutaEntregaService.planificarRutasDelDia(fecha);
+    }
+
     @MutationMapping
     @PreAuthorize("hasRole('ADMIN')")
     public RutaEntrega asignarPedidosARuta(@Argument @Valid AsignarPedidosRutaInput input) {
@@ -0,0 +1,68 @@
+package com.sw.GestorAPI.ruteo;
+
+/**
+ * Codificación geohash: intercala los bits de longitud y latitud y los escribe en base 32, así
+ * que dos puntos con un prefijo común están en la misma celda de ese largo (5: ~4,9 x 4,9 km,
+ * 6: ~1,2 x 0,6 km, 7: ~153 x 153 m) y el orden alfabético recorre las celdas en curva Z.
+ */
+public final class Geohash {
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    private Geohash() {
+    }
+
+    public static String codificar(double latitud, double longitud, int precision) {
+        double[] rangoLatitud = {-90, 90};
+        double[] rangoLongitud = {-180, 180};
+        StringBuilder geohash = new StringBuilder(precision);
+        boolean esLongitud = true;
+        int bits = 0;
+        int valor = 0;
+        while (geohash.length() < precision) {
+            double[] rango = esLongitud ? rangoLongitud : rangoLatitud;
+            double coordenada = esLongitud ? longitud : latitud;
+            double medio = (rango[0] + rango[1]) / 2;
+            valor <<= 1;
+            if (coordenada >= medio) {
+                valor |= 1;
+                rango[0] = medio;
+            } else {
+                rango[1] = medio;
+            }
+            esLongitud = !esLongitud;
+            if (++bits == 5) {
+                geohash.append(BASE32.charAt(valor));
+                bits = 0;
+                valor = 0;
+            }
+        }
+        return geohash.toString();
+    }
+
+    /**
+     * Centro de la celda: {latitud, longitud}
+     */
+    public static double[] centro(String geohash) {
+        double[] rangoLatitud = {-90, 90};
+        double[] rangoLongitud = {-180, 180};
+        boolean esLongitud = true;
+        for (int i = 0; i < geohash.length(); i++) {
+            int valor = BASE32.indexOf(geohash.charAt(i));
+            if (valor < 0) {
+                throw new IllegalArgumentException("Geohash inválido: " + geohash);
+            }
+            for (int bit = 4; bit >= 0; bit--) {
+                double[] rango = esLongitud ? rangoLongitud : rangoLatitud;
+                double medio = (rango[0] + rango[1]) / 2;
+                if ((valor >> bit & 1) == 1) {
+                    rango[0] = medio;
+                } else {
+                    rango[1] = medio;
+                }
+                esLongitud = !esLongitud;
+            }
+        }
+        return new double[]{(rangoLatitud[0] + rangoLatitud[1]) / 2, (rangoLongitud[0] + rangoLongitud[1]) / 2};
+    }
+}
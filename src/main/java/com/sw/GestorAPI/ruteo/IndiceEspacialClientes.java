@@ -0,0 +1,230 @@
+package com.sw.GestorAPI.ruteo;
+
+import com.sw.GestorAPI.repository.ClienteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Ubicaciones de los clientes activos en una grilla de celdas de gestorapi.clientes.indice-celda-grados
+ * (como un prefijo de geohash de largo fijo) para buscar por radio o por polígono revisando solo
+ * las celdas que los cubren, sin ir a la base: el índice B-tree sobre (latitud_cliente,
+ * longitud_cliente) solo sirve para igualdad o rangos sobre la latitud.
+ *
+ * ClienteService lo actualiza al confirmar cada alta, cambio de ubicación o (des)activación. Lo
+ * escrito por otro camino se incorpora al reconstruirlo, cada gestorapi.clientes.indice-reconstruccion-ms;
+ * los cambios que llegan durante la reconstrucción se aplican también a la grilla nueva.
+ */
+@Slf4j
+@Component
+public class IndiceEspacialClientes {
+
+    private static final double KM_POR_GRADO = 111.32;
+
+    private final ClienteRepository clienteRepository;
+    private final double celdaGrados;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Se reemplazan con el lock de escritura
+    private volatile Grilla grilla;
+    private List<Consumer<Grilla>> cambiosDuranteReconstruccion;
+
+    public IndiceEspacialClientes(ClienteRepository clienteRepository,
+                                  @Value("${gestorapi.clientes.indice-celda-grados:0.005}") double celdaGrados) {
+        this.clienteRepository = clienteRepository;
+        this.celdaGrados = celdaGrados;
+    }
+
+    /**
+     * Clientes activos a radioKm o menos del punto, del más cercano al más lejano
+     */
+    public List<Cercano> cercanos(double latitud, double longitud, double radioKm) {
+        double margenLatitud = radioKm / KM_POR_GRADO;
+        double margenLongitud = radioKm / (KM_POR_GRADO * Math.max(0.01, Math.cos(Math.toRadians(latitud))));
+        List<Cercano> resultado = new ArrayList<>();
+        leer(g -> g.recorrer(latitud - margenLatitud, latitud + margenLatitud,
+                longitud - margenLongitud, longitud + margenLongitud, u -> {
+                    double d = OptimizadorRecorrido.haversineKm(latitud, longitud, u.latitud(), u.longitud());
+                    if (d <= radioKm) resultado.add(new Cercano(u.clienteId(), d));
+                }));
+        resultado.sort(Comparator.comparingDouble(Cercano::distanciaKm));
+        return resultado;
+    }
+
+    /**
+     * Ids de los clientes activos dentro del polígono (vértices en orden, sin repetir el primero)
+     */
+    public List<Long> dentroDe(double[] latitudes, double[] longitudes) {
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLng = Double.MAX_VALUE, maxLng = -Double.MAX_VALUE;
+        for (int i = 0; i < latitudes.length; i++) {
+            minLat = Math.min(minLat, latitudes[i]);
+            maxLat = Math.max(maxLat, latitudes[i]);
+            minLng = Math.min(minLng, longitudes[i]);
+            maxLng = Math.max(maxLng, longitudes[i]);
+        }
+        List<Long> resultado = new ArrayList<>();
+        double a = minLat, b = maxLat, c = minLng, d = maxLng;
+        leer(g -> g.recorrer(a, b, c, d, u -> {
+            if (contiene(latitudes, longitudes, u.latitud(), u.longitud())) resultado.add(u.clienteId());
+        }));
+        return resultado;
+    }
+
+    /**
+     * Alta o cambio del cliente: queda indexado si está activo y tiene coordenadas
+     */
+    public void actualizar(Long clienteId, Double latitud, Double longitud, boolean activo) {
+        if (!activo || latitud == null || longitud == null) {
+            cambiar(g -> g.quitar(clienteId));
+        } else {
+            cambiar(g -> g.poner(new Ubicacion(clienteId, latitud, longitud)));
+        }
+    }
+
+    public void quitar(Long clienteId) {
+        cambiar(g -> g.quitar(clienteId));
+    }
+
+    @Scheduled(fixedDelayString = "${gestorapi.clientes.indice-reconstruccion-ms:600000}")
+    public synchronized void reconstruir() {
+        lock.writeLock().lock();
+        try {
+            cambiosDuranteReconstruccion = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Grilla nueva = new Grilla();
+        try {
+            for (Object[] fila : clienteRepository.findUbicacionesActivas()) {
+                nueva.poner(new Ubicacion((Long) fila[0], (Double) fila[1], (Double) fila[2]));
+            }
+        } catch (RuntimeException e) {
+            // La grilla actual sigue en uso: una parcial dejaría las consultas vacías hasta la próxima
+            lock.writeLock().lock();
+            try {
+                cambiosDuranteReconstruccion = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            cambiosDuranteReconstruccion.forEach(cambio -> cambio.accept(nueva));
+            cambiosDuranteReconstruccion = null;
+            grilla = nueva;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Índice espacial de clientes reconstruido: {} clientes", nueva.clientes.size());
+    }
+
+    private void leer(Consumer<Grilla> lectura) {
+        if (grilla == null) reconstruir();
+        lock.readLock().lock();
+        try {
+            lectura.accept(grilla);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void cambiar(Consumer<Grilla> cambio) {
+        lock.writeLock().lock();
+        try {
+            if (grilla != null) cambio.accept(grilla);
+            if (cambiosDuranteReconstruccion != null) {
+                // Se vuelve a aplicar sobre la grilla nueva al terminar la reconstrucción
+                cambiosDuranteReconstruccion.add(cambio);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Conteo de cruces (ray casting): el rayo hacia el este corta el borde un número impar de veces
+    static boolean contiene(double[] latitudes, double[] longitudes, double latitud, double longitud) {
+        boolean dentro = false;
+        for (int i = 0, j = latitudes.length - 1; i < latitudes.length; j = i++) {
+            if ((latitudes[i] > latitud) != (latitudes[j] > latitud)
+                    && longitud < (longitudes[j] - longitudes[i]) * (latitud - latitudes[i])
+                    / (latitudes[j] - latitudes[i]) + longitudes[i]) {
+                dentro = !dentro;
+            }
+        }
+        return dentro;
+    }
+
+    private final class Grilla {
+
+        private final Map<Long, List<Ubicacion>> celdas = new HashMap<>();
+        private final Map<Long, Ubicacion> clientes = new HashMap<>();
+
+        void poner(Ubicacion ubicacion) {
+            quitar(ubicacion.clienteId());
+            clientes.put(ubicacion.clienteId(), ubicacion);
+            celdas.computeIfAbsent(celda(ubicacion.latitud(), ubicacion.longitud()), c -> new ArrayList<>(4)).add(ubicacion);
+        }
+
+        void quitar(Long clienteId) {
+            Ubicacion anterior = clientes.remove(clienteId);
+            if (anterior == null) return;
+            long clave = celda(anterior.latitud(), anterior.longitud());
+            List<Ubicacion> celda = celdas.get(clave);
+            celda.remove(anterior);
+            if (celda.isEmpty()) celdas.remove(clave);
+        }
+
+        void recorrer(double minLat, double maxLat, double minLng, double maxLng,
+                      Consumer<Ubicacion> visitar) {
+            long filaDesde = indice(minLat), filaHasta = indice(maxLat);
+            long columnaDesde = indice(minLng), columnaHasta = indice(maxLng);
+            // Un área con más celdas que clientes se recorre más rápido cliente por cliente
+            if ((filaHasta - filaDesde + 1) * (columnaHasta - columnaDesde + 1) > clientes.size()) {
+                for (Ubicacion u : clientes.values()) {
+                    if (u.latitud() >= minLat && u.latitud() <= maxLat && u.longitud() >= minLng && u.longitud() <= maxLng) {
+                        visitar.accept(u);
+                    }
+                }
+                return;
+            }
+            for (long f = filaDesde; f <= filaHasta; f++) {
+                for (long c = columnaDesde; c <= columnaHasta; c++) {
+                    List<Ubicacion> celda = celdas.get(clave(f, c));
+                    if (celda != null) celda.forEach(visitar);
+                }
+            }
+        }
+
+        private long celda(double latitud, double longitud) {
+            return clave(indice(latitud), indice(longitud));
+        }
+
+        private long indice(double grados) {
+            return (long) Math.floor(grados / celdaGrados);
+        }
+
+        private static long clave(long fila, long columna) {
+            return (fila << 32) ^ (columna & 0xFFFFFFFFL);
+        }
+    }
+
+    private record Ubicacion(Long clienteId, double latitud, double longitud) {
+    }
+
+    /**
+     * Cliente a distanciaKm del punto buscado
+     */
+    public record Cercano(Long clienteId, double distanciaKm) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.sw.GestorAPI.ruteo;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Distancias entre depósitos y clientes calculadas una vez con la {@link MetricaDistancia}
+ * configurada y reutilizadas entre planificaciones.
+ *
+ * Cada punto (un cliente por id, un depósito por coordenadas) ocupa una posición fija la primera
+ * vez que se pide. La fila de un punto es un float[] con su distancia a todas las posiciones
+ * ocupadas hasta ese momento; si después se suman puntos, solo se calcula la cola que falta. Las
+ * filas viven en una caché acotada a gestorapi.rutas.matriz-max-mb, así que solo ocupan memoria
+ * los puntos que se planifican seguido.
+ *
+ * Cuando un cliente cambia de coordenadas (clienteMovido, o al pedirlo con coordenadas distintas
+ * a las registradas) se recalcula solo su fila y se corrige su columna en las demás filas.
+ */
+@Component
+public class MatrizDistancias {
+
+    private static final int POSICIONES_INICIALES = 256;
+
+    private final MetricaDistancia metrica;
+    private final Cache<Integer, float[]> filas;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Protegidos por lock: se escriben con el de escritura y se leen con cualquiera de los dos
+    private final Map<Object, Integer> posiciones = new HashMap<>();
+    private double[] latitudes = new double[POSICIONES_INICIALES];
+    private double[] longitudes = new double[POSICIONES_INICIALES];
+    private int ocupadas;
+
+    public MatrizDistancias(MetricaDistancia metrica,
+                            @Value("${gestorapi.rutas.matriz-max-mb:64}") long maximoMb) {
+        this.metrica = metrica;
+        this.filas = Caffeine.newBuilder()
+                .maximumWeight(maximoMb * 1024 * 1024)
+                .<Integer, float[]>weigher((posicion, fila) -> 16 + fila.length * Float.BYTES)
+                .build();
+    }
+
+    /**
+     * Matriz plana (float[k * k], fila por origen) entre el depósito (nodo 0) y los puntos
+     * dados, en ese orden. Los clientes deben tener coordenadas.
+     */
+    public float[] matriz(double latitudDeposito, double longitudDeposito, List<Punto> puntos) {
+        int k = puntos.size() + 1;
+        int[] nodos = new int[k];
+        lock.writeLock().lock();
+        try {
+            nodos[0] = registrar(new Deposito(latitudDeposito, longitudDeposito), latitudDeposito, longitudDeposito);
+            for (int i = 1; i < k; i++) {
+                Punto punto = puntos.get(i - 1);
+                nodos[i] = registrar(punto.clienteId(), punto.latitud(), punto.longitud());
+            }
+            // Se baja al de lectura: los movimientos esperan, otras planificaciones no
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            float[][] filasNodos = new float[k][];
+            IntStream.range(0, k).parallel().forEach(i -> filasNodos[i] = fila(nodos[i]));
+            float[] matriz = new float[k * k];
+            for (int i = 0; i < k; i++) {
+                for (int j = 0; j < k; j++) {
+                    matriz[i * k + j] = filasNodos[i][nodos[j]];
+                }
+            }
+            return matriz;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * El cliente cambió de coordenadas: recalcula su fila y su columna en las filas en caché.
+     * Sin coordenadas solo descarta su fila.
+     */
+    public void clienteMovido(Long clienteId, Double latitud, Double longitud) {
+        lock.writeLock().lock();
+        try {
+            Integer posicion = posiciones.get(clienteId);
+            if (posicion == null) return;
+            if (latitud == null || longitud == null) {
+                filas.invalidate(posicion);
+                return;
+            }
+            mover(posicion, latitud, longitud);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Requiere el lock de escritura
+    private int registrar(Object clave, double latitud, double longitud) {
+        Integer posicion = posiciones.get(clave);
+        if (posicion != null) {
+            if (latitudes[posicion] != latitud || longitudes[posicion] != longitud) {
+                mover(posicion, latitud, longitud);
+            }
+            return posicion;
+        }
+        if (ocupadas == latitudes.length) {
+            latitudes = Arrays.copyOf(latitudes, ocupadas * 2);
+            longitudes = Arrays.copyOf(longitudes, ocupadas * 2);
+        }
+        latitudes[ocupadas] = latitud;
+        longitudes[ocupadas] = longitud;
+        posiciones.put(clave, ocupadas);
+        return ocupadas++;
+    }
+
+    // Requiere el lock de escritura. La métrica es simétrica: la columna sale de la fila nueva
+    private void mover(int posicion, double latitud, double longitud) {
+        latitudes[posicion] = latitud;
+        longitudes[posicion] = longitud;
+        filas.invalidate(posicion);
+        float[] nueva = fila(posicion);
+        filas.asMap().forEach((origen, fila) -> {
+            if (posicion < fila.length) fila[posicion] = nueva[origen];
+        });
+    }
+
+    /**
+     * Fila de la posición con todas las ocupadas, calculando solo lo que falta en caché
+     */
+    private float[] fila(int posicion) {
+        int hasta = ocupadas;
+        float[] actual = filas.getIfPresent(posicion);
+        if (actual != null && actual.length >= hasta) return actual;
+        int desde = actual != null ? actual.length : 0;
+        float[] fila = actual != null ? Arrays.copyOf(actual, hasta) : new float[hasta];
+        metrica.distancias(latitudes[posicion], longitudes[posicion], latitudes, longitudes, desde, hasta, fila);
+        filas.put(posicion, fila);
+        return fila;
+    }
+
+    /**
+     * Cliente con sus coordenadas
+     */
+    public record Punto(Long clienteId, double latitud, double longitud) {
+    }
+
+    private record Deposito(double latitud, double longitud) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.sw.GestorAPI.ruteo;
+
+/**
+ * Distancia en km entre coordenadas usada por {@link MatrizDistancias}. Se elige con
+ * gestorapi.rutas.metrica: haversine (por defecto) o grafo (red vial de un archivo local).
+ *
+ * Debe ser simétrica: al mover un cliente, MatrizDistancias recalcula su fila y copia sus valores
+ * en la columna del cliente de las demás filas.
+ */
+public interface MetricaDistancia {
+
+    /**
+     * Escribe en destino[i] la distancia desde (latitud, longitud) hasta (latitudes[i],
+     * longitudes[i]) para i en [desde, hasta)
+     */
+    void distancias(double latitud, double longitud, double[] latitudes, double[] longitudes,
+                    int desde, int hasta, float[] destino);
+}
@@ -0,0 +1,270 @@
+package com.sw.GestorAPI.ruteo;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Distancia por la red vial leída de gestorapi.rutas.grafo-vias, un CSV con nodos y tramos de
+ * doble sentido:
+ *
+ * <pre>
+ * N,&lt;id&gt;,&lt;latitud&gt;,&lt;longitud&gt;
+ * A,&lt;id desde&gt;,&lt;id hasta&gt;[,&lt;km&gt;]
+ * </pre>
+ *
+ * Sin km, el tramo mide la distancia haversine entre sus nodos. Cada coordenada se engancha al
+ * nodo más cercano (grilla de celdas de CELDA_GRADOS) y la distancia es el acceso en línea recta
+ * más el camino mínimo (Dijkstra, uno por fila) entre ambos nodos. Si no hay camino se usa la
+ * distancia haversine.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "gestorapi.rutas.metrica", havingValue = "grafo")
+public class MetricaGrafoVias implements MetricaDistancia {
+
+    private static final double CELDA_GRADOS = 0.01;
+    private static final int ANILLOS_MAXIMOS = 200;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    // Adyacencias en formato CSR: los vecinos de v están en [inicio[v], inicio[v + 1])
+    private final int[] inicio;
+    private final int[] vecinos;
+    private final float[] pesos;
+    private final Map<Long, int[]> grilla = new HashMap<>();
+    private final Cache<Coordenada, Integer> enganches = Caffeine.newBuilder().maximumSize(100_000).build();
+
+    public MetricaGrafoVias(@Value("${gestorapi.rutas.grafo-vias}") Path archivo) {
+        Map<String, Integer> indices = new HashMap<>();
+        List<double[]> nodos = new ArrayList<>();
+        List<String[]> aristas = new ArrayList<>();
+        try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                String[] campos = linea.trim().split(",");
+                if (campos[0].equals("N") && campos.length >= 4) {
+                    indices.put(campos[1].trim(), nodos.size());
+                    nodos.add(new double[]{Double.parseDouble(campos[2].trim()), Double.parseDouble(campos[3].trim())});
+                } else if (campos[0].equals("A") && campos.length >= 3) {
+                    aristas.add(campos);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el grafo vial " + archivo, e);
+        }
+        if (nodos.isEmpty()) {
+            throw new IllegalArgumentException("El grafo vial " + archivo + " no tiene nodos");
+        }
+
+        int n = nodos.size();
+        latitudes = new double[n];
+        longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            latitudes[i] = nodos.get(i)[0];
+            longitudes[i] = nodos.get(i)[1];
+            grilla.merge(celda(celdaLatitud(latitudes[i]), celdaLongitud(longitudes[i])), new int[]{i}, MetricaGrafoVias::unir);
+        }
+
+        int[] origen = new int[aristas.size() * 2];
+        int[] fin = new int[aristas.size() * 2];
+        float[] km = new float[aristas.size() * 2];
+        int m = 0;
+        for (String[] arista : aristas) {
+            Integer a = indices.get(arista[1].trim());
+            Integer b = indices.get(arista[2].trim());
+            if (a == null || b == null) {
+                throw new IllegalArgumentException("Tramo con nodo inexistente en " + archivo + ": " + String.join(",", arista));
+            }
+            float peso = arista.length >= 4 && !arista[3].isBlank()
+                    ? Float.parseFloat(arista[3].trim())
+                    : (float) OptimizadorRecorrido.haversineKm(latitudes[a], longitudes[a], latitudes[b], longitudes[b]);
+            origen[m] = a; fin[m] = b; km[m++] = peso;
+            origen[m] = b; fin[m] = a; km[m++] = peso;
+        }
+        inicio = new int[n + 1];
+        for (int i = 0; i < m; i++) inicio[origen[i] + 1]++;
+        for (int i = 0; i < n; i++) inicio[i + 1] += inicio[i];
+        vecinos = new int[m];
+        pesos = new float[m];
+        int[] siguiente = Arrays.copyOf(inicio, n);
+        for (int i = 0; i < m; i++) {
+            int posicion = siguiente[origen[i]]++;
+            vecinos[posicion] = fin[i];
+            pesos[posicion] = km[i];
+        }
+        log.info("Grafo vial cargado desde {}: {} nodos, {} tramos", archivo, n, m / 2);
+    }
+
+    @Override
+    public void distancias(double latitud, double longitud, double[] latitudesDestino, double[] longitudesDestino,
+                           int desde, int hasta, float[] destino) {
+        int nodoOrigen = enganchar(latitud, longitud);
+        float[] caminos = dijkstra(nodoOrigen);
+        double accesoOrigen = OptimizadorRecorrido.haversineKm(latitud, longitud, latitudes[nodoOrigen], longitudes[nodoOrigen]);
+        for (int i = desde; i < hasta; i++) {
+            int nodo = enganchar(latitudesDestino[i], longitudesDestino[i]);
+            if (caminos[nodo] == Float.POSITIVE_INFINITY) {
+                destino[i] = (float) OptimizadorRecorrido.haversineKm(latitud, longitud, latitudesDestino[i], longitudesDestino[i]);
+            } else {
+                destino[i] = (float) (accesoOrigen + caminos[nodo]
+                        + OptimizadorRecorrido.haversineKm(latitudesDestino[i], longitudesDestino[i], latitudes[nodo], longitudes[nodo]));
+            }
+        }
+    }
+
+    private float[] dijkstra(int origen) {
+        float[] distancia = new float[latitudes.length];
+        Arrays.fill(distancia, Float.POSITIVE_INFINITY);
+        distancia[origen] = 0;
+        MonticuloMinimo pendientes = new MonticuloMinimo();
+        pendientes.agregar(origen, 0);
+        while (!pendientes.vacio()) {
+            float actual = pendientes.claveMinima();
+            int v = pendientes.quitarMinimo();
+            if (actual > distancia[v]) continue;
+            for (int e = inicio[v]; e < inicio[v + 1]; e++) {
+                float candidata = actual + pesos[e];
+                if (candidata < distancia[vecinos[e]]) {
+                    distancia[vecinos[e]] = candidata;
+                    pendientes.agregar(vecinos[e], candidata);
+                }
+            }
+        }
+        return distancia;
+    }
+
+    private int enganchar(double latitud, double longitud) {
+        return enganches.get(new Coordenada(latitud, longitud), c -> nodoMasCercano(latitud, longitud));
+    }
+
+    /**
+     * Recorre la grilla en anillos alrededor de la celda de la coordenada; al encontrar un nodo
+     * revisa un anillo más, que puede tener uno más cercano
+     */
+    private int nodoMasCercano(double latitud, double longitud) {
+        long fila = celdaLatitud(latitud);
+        long columna = celdaLongitud(longitud);
+        int mejor = -1;
+        double mejorDistancia = Double.MAX_VALUE;
+        int anilloEncontrado = -1;
+        for (int r = 0; r <= ANILLOS_MAXIMOS && (anilloEncontrado < 0 || r <= anilloEncontrado + 1); r++) {
+            for (long f = fila - r; f <= fila + r; f++) {
+                for (long c = columna - r; c <= columna + r; c++) {
+                    if (Math.max(Math.abs(f - fila), Math.abs(c - columna)) != r) continue;
+                    int[] nodos = grilla.get(celda(f, c));
+                    if (nodos == null) continue;
+                    for (int nodo : nodos) {
+                        double d = OptimizadorRecorrido.haversineKm(latitud, longitud, latitudes[nodo], longitudes[nodo]);
+                        if (d < mejorDistancia) {
+                            mejorDistancia = d;
+                            mejor = nodo;
+                        }
+                    }
+                }
+            }
+            if (mejor >= 0 && anilloEncontrado < 0) anilloEncontrado = r;
+        }
+        if (mejor >= 0) return mejor;
+        // Coordenada muy lejos de la red: búsqueda lineal
+        for (int nodo = 0; nodo < latitudes.length; nodo++) {
+            double d = OptimizadorRecorrido.haversineKm(latitud, longitud, latitudes[nodo], longitudes[nodo]);
+            if (d < mejorDistancia) {
+                mejorDistancia = d;
+                mejor = nodo;
+            }
+        }
+        return mejor;
+    }
+
+    private static long celdaLatitud(double latitud) {
+        return (long) Math.floor(latitud / CELDA_GRADOS);
+    }
+
+    private static long celdaLongitud(double longitud) {
+        return (long) Math.floor(longitud / CELDA_GRADOS);
+    }
+
+    private static long celda(long fila, long columna) {
+        return (fila << 32) ^ (columna & 0xFFFFFFFFL);
+    }
+
+    private static int[] unir(int[] a, int[] b) {
+        int[] union = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, union, a.length, b.length);
+        return union;
+    }
+
+    private record Coordenada(double latitud, double longitud) {
+    }
+
+    /**
+     * Montículo binario de (nodo, clave) sobre arreglos; las claves viejas de un nodo se
+     * descartan al sacarlas
+     */
+    private static final class MonticuloMinimo {
+
+        private int[] nodos = new int[64];
+        private float[] claves = new float[64];
+        private int tamano;
+
+        boolean vacio() {
+            return tamano == 0;
+        }
+
+        float claveMinima() {
+            return claves[0];
+        }
+
+        void agregar(int nodo, float clave) {
+            if (tamano == nodos.length) {
+                nodos = Arrays.copyOf(nodos, tamano * 2);
+                claves = Arrays.copyOf(claves, tamano * 2);
+            }
+            int i = tamano++;
+            while (i > 0) {
+                int padre = (i - 1) / 2;
+                if (claves[padre] <= clave) break;
+                nodos[i] = nodos[padre];
+                claves[i] = claves[padre];
+                i = padre;
+            }
+            nodos[i] = nodo;
+            claves[i] = clave;
+        }
+
+        int quitarMinimo() {
+            int minimo = nodos[0];
+            int ultimo = nodos[--tamano];
+            float claveUltimo = claves[tamano];
+            int i = 0;
+            while (true) {
+                int hijo = 2 * i + 1;
+                if (hijo >= tamano) break;
+                if (hijo + 1 < tamano && claves[hijo + 1] < claves[hijo]) hijo++;
+                if (claves[hijo] >= claveUltimo) break;
+                nodos[i] = nodos[hijo];
+                claves[i] = claves[hijo];
+                i = hijo;
+            }
+            nodos[i] = ultimo;
+            claves[i] = claveUltimo;
+            return minimo;
+        }
+    }
+}
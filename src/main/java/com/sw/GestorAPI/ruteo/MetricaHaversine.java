@@ -0,0 +1,20 @@
+package com.sw.GestorAPI.ruteo;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Distancia en línea recta sobre la esfera terrestre
+ */
+@Component
+@ConditionalOnProperty(name = "gestorapi.rutas.metrica", havingValue = "haversine", matchIfMissing = true)
+public class MetricaHaversine implements MetricaDistancia {
+
+    @Override
+    public void distancias(double latitud, double longitud, double[] latitudes, double[] longitudes,
+                           int desde, int hasta, float[] destino) {
+        for (int i = desde; i < hasta; i++) {
+            destino[i] = (float) OptimizadorRecorrido.haversineKm(latitud, longitud, latitudes[i], longitudes[i]);
+        }
+    }
+}
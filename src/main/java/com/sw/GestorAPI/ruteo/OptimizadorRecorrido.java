@@ -0,0 +1,224 @@
+package com.sw.GestorAPI.ruteo;
+
+/**
+ * Orden de visita de las paradas de una ruta que parte del depósito (nodo 0).
+ *
+ * Construye un recorrido inicial por vecino más cercano y lo mejora con 2-opt (invierte un tramo
+ * cuando sus dos aristas extremas se cruzan) y Or-opt (mueve tramos de 1 a 3 paradas, también
+ * invertidos, a otra posición) hasta que ninguna jugada acorta el recorrido o se agota el tiempo.
+ *
+ * Trabaja sobre una matriz de distancias plana (float[n * n], fila por nodo origen) y arreglos de
+ * enteros, sin objetos por parada: 300 paradas se resuelven en pocos milisegundos.
+ *
+ * Sin regreso, la arista de la última parada al depósito cuesta 0: el recorrido termina en la
+ * última entrega.
+ */
+public final class OptimizadorRecorrido {
+
+    private static final double RADIO_TIERRA_KM = 6371.0088;
+    private static final float EPSILON = 1e-4f;
+    private static final int TRAMO_MAXIMO = 3;
+
+    private final float[] distancias;
+    private final int n;
+    private final boolean regreso;
+    private final long limite;
+
+    private final int[] recorrido;
+
+    private OptimizadorRecorrido(float[] distancias, int n, boolean regreso, long limiteNanos) {
+        this.distancias = distancias;
+        this.n = n;
+        this.regreso = regreso;
+        this.limite = System.nanoTime() + limiteNanos;
+        this.recorrido = new int[n];
+    }
+
+    /**
+     * Optimiza el recorrido sobre n nodos (0 es el depósito). Devuelve el orden de visita de
+     * las paradas 1..n-1 y la distancia total en las unidades de la matriz.
+     */
+    public static Resultado optimizar(float[] distancias, int n, boolean regreso, long limiteNanos) {
+        if (distancias.length < n * n) {
+            throw new IllegalArgumentException("La matriz de distancias no tiene " + n + "x" + n + " valores");
+        }
+        OptimizadorRecorrido optimizador = new OptimizadorRecorrido(distancias, n, regreso, limiteNanos);
+        optimizador.vecinoMasCercano();
+        if (n > 3) {
+            boolean mejoro;
+            do {
+                mejoro = optimizador.dosOpt();
+                mejoro |= optimizador.orOpt();
+            } while (mejoro && !optimizador.agotado());
+        }
+        int[] paradas = new int[n - 1];
+        System.arraycopy(optimizador.recorrido, 1, paradas, 0, n - 1);
+        return new Resultado(paradas, optimizador.longitud());
+    }
+
+    /**
+     * Matriz de distancias en km por haversine entre coordenadas (índice 0: depósito)
+     */
+    public static float[] matrizHaversine(double[] latitudes, double[] longitudes) {
+        int n = latitudes.length;
+        float[] matriz = new float[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                float d = (float) haversineKm(latitudes[i], longitudes[i], latitudes[j], longitudes[j]);
+                matriz[i * n + j] = d;
+                matriz[j * n + i] = d;
+            }
+        }
+        return matriz;
+    }
+
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // Distancia dirigida: sin regreso, volver al depósito no cuesta
+    private float d(int desde, int hasta) {
+        if (hasta == 0 && !regreso) return 0;
+        return distancias[desde * n + hasta];
+    }
+
+    private boolean agotado() {
+        return System.nanoTime() - limite > 0;
+    }
+
+    private void vecinoMasCercano() {
+        boolean[] visitado = new boolean[n];
+        visitado[0] = true;
+        int actual = 0;
+        for (int posicion = 1; posicion < n; posicion++) {
+            int mejor = -1;
+            float mejorDistancia = Float.MAX_VALUE;
+            for (int candidato = 1; candidato < n; candidato++) {
+                if (!visitado[candidato] && distancias[actual * n + candidato] < mejorDistancia) {
+                    mejor = candidato;
+                    mejorDistancia = distancias[actual * n + candidato];
+                }
+            }
+            recorrido[posicion] = mejor;
+            visitado[mejor] = true;
+            actual = mejor;
+        }
+    }
+
+    private double longitud() {
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            total += d(recorrido[i], recorrido[(i + 1) % n]);
+        }
+        return total;
+    }
+
+    /**
+     * Una pasada de 2-opt con primera mejora: invierte recorrido[i..j] si reemplazar las
+     * aristas (i-1, i) y (j, j+1) por (i-1, j) y (i, j+1) acorta el recorrido
+     */
+    private boolean dosOpt() {
+        boolean mejoro = false;
+        for (int i = 1; i < n - 1 && !agotado(); i++) {
+            for (int j = i + 1; j < n; j++) {
+                int a = recorrido[i - 1];
+                int b = recorrido[i];
+                int c = recorrido[j];
+                int e = recorrido[(j + 1) % n];
+                float delta = d(a, c) + d(b, e) - d(a, b) - d(c, e);
+                if (delta < -EPSILON) {
+                    invertir(i, j);
+                    mejoro = true;
+                }
+            }
+        }
+        return mejoro;
+    }
+
+    /**
+     * Una pasada de Or-opt: saca el tramo recorrido[i..i+k-1] y lo inserta, en el mismo
+     * sentido o invertido, en la arista que más acorte el recorrido
+     */
+    private boolean orOpt() {
+        boolean mejoro = false;
+        for (int k = 1; k <= TRAMO_MAXIMO && !agotado(); k++) {
+            for (int i = 1; i + k - 1 < n; i++) {
+                int fin = i + k - 1;
+                int antes = recorrido[i - 1];
+                int primero = recorrido[i];
+                int ultimo = recorrido[fin];
+                int despues = recorrido[(fin + 1) % n];
+                float ahorro = d(antes, primero) + d(ultimo, despues) - d(antes, despues);
+                if (ahorro <= EPSILON) continue;
+
+                int mejorPosicion = -1;
+                boolean mejorInvertido = false;
+                float mejorDelta = -EPSILON;
+                for (int q = 0; q < n; q++) {
+                    if (q >= i - 1 && q <= fin) continue;
+                    int c = recorrido[q];
+                    int e = recorrido[(q + 1) % n];
+                    float base = d(c, e);
+                    float directo = d(c, primero) + d(ultimo, e) - base - ahorro;
+                    float invertido = d(c, ultimo) + d(primero, e) - base - ahorro;
+                    if (directo < mejorDelta) {
+                        mejorDelta = directo;
+                        mejorPosicion = q;
+                        mejorInvertido = false;
+                    }
+                    if (invertido < mejorDelta) {
+                        mejorDelta = invertido;
+                        mejorPosicion = q;
+                        mejorInvertido = true;
+                    }
+                }
+                if (mejorPosicion >= 0) {
+                    mover(i, k, mejorPosicion, mejorInvertido);
+                    mejoro = true;
+                }
+            }
+        }
+        return mejoro;
+    }
+
+    private void invertir(int i, int j) {
+        while (i < j) {
+            int tmp = recorrido[i];
+            recorrido[i++] = recorrido[j];
+            recorrido[j--] = tmp;
+        }
+    }
+
+    // Mueve el tramo de k paradas que empieza en i para que quede justo después de la posición q
+    private void mover(int i, int k, int q, boolean invertido) {
+        int[] tramo = new int[k];
+        System.arraycopy(recorrido, i, tramo, 0, k);
+        if (invertido) {
+            for (int a = 0, b = k - 1; a < b; a++, b--) {
+                int tmp = tramo[a];
+                tramo[a] = tramo[b];
+                tramo[b] = tmp;
+            }
+        }
+        if (q > i) {
+            // El destino está después del tramo: correr hacia atrás lo que hay entre ambos
+            System.arraycopy(recorrido, i + k, recorrido, i, q - i - k + 1);
+            System.arraycopy(tramo, 0, recorrido, q - k + 1, k);
+        } else {
+            // El destino está antes: correr hacia adelante desde q+1 hasta el inicio del tramo
+            System.arraycopy(recorrido, q + 1, recorrido, q + 1 + k, i - q - 1);
+            System.arraycopy(tramo, 0, recorrido, q + 1, k);
+        }
+    }
+
+    /**
+     * paradas: nodos 1..n-1 en orden de visita. distancia: total del recorrido (con el regreso
+     * al depósito si se pidió)
+     */
+    public record Resultado(int[] paradas, double distancia) {
+    }
+}
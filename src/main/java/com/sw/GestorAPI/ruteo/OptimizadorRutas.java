@@ -0,0 +1,238 @@
+package com.sw.GestorAPI.ruteo;
+
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.entity.Usuario;
+import com.sw.GestorAPI.repository.UsuarioRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Ordena los pedidos de una ruta con {@link OptimizadorRecorrido} partiendo del depósito (la
+ * ubicación de la empresa del primer administrador que la tiene cargada) y estima distancia y
+ * tiempo: km de {@link MatrizDistancias}, a gestorapi.rutas.velocidad-kmh, más
+ * gestorapi.rutas.minutos-por-parada por entrega.
+ *
+ * Los pedidos cuyo cliente no tiene coordenadas van al final, en el orden recibido. Sin depósito,
+ * el recorrido parte del primer pedido ubicado.
+ *
+ * Para el despacho del día, {@link #planificarFlota} reparte los pedidos entre varios repartidores
+ * con {@link PlanificadorFlota} en un ForkJoinPool propio (gestorapi.rutas.hilos-planificacion),
+ * para no ocupar el pool común. Con gestorapi.rutas.agrupar-por-zona, antes agrupa los pedidos
+ * por zona de reparto ({@link ZonasReparto}) y planifica cada grupo por separado, en paralelo.
+ */
+@Component
+public class OptimizadorRutas implements DisposableBean {
+
+    private final UsuarioRepository usuarioRepository;
+    private final MatrizDistancias matrizDistancias;
+    private final boolean regreso;
+    private final double velocidadKmh;
+    private final int minutosPorParada;
+    private final long limiteNanos;
+    private final int pedidosPorRepartidor;
+    private final long limitePlanificacionNanos;
+    private final boolean agruparPorZona;
+    private final ForkJoinPool pool;
+
+    public OptimizadorRutas(UsuarioRepository usuarioRepository,
+                            MatrizDistancias matrizDistancias,
+                            @Value("${gestorapi.rutas.regreso-al-deposito:true}") boolean regreso,
+                            @Value("${gestorapi.rutas.velocidad-kmh:25}") double velocidadKmh,
+                            @Value("${gestorapi.rutas.minutos-por-parada:5}") int minutosPorParada,
+                            @Value("${gestorapi.rutas.tiempo-optimizacion:200ms}") Duration tiempoOptimizacion,
+                            @Value("${gestorapi.rutas.pedidos-por-repartidor:30}") int pedidosPorRepartidor,
+                            @Value("${gestorapi.rutas.tiempo-planificacion:5s}") Duration tiempoPlanificacion,
+                            @Value("${gestorapi.rutas.hilos-planificacion:0}") int hilos,
+                            @Value("${gestorapi.rutas.agrupar-por-zona:true}") boolean agruparPorZona) {
+        this.usuarioRepository = usuarioRepository;
+        this.matrizDistancias = matrizDistancias;
+        this.regreso = regreso;
+        this.velocidadKmh = velocidadKmh;
+        this.minutosPorParada = minutosPorParada;
+        this.limiteNanos = tiempoOptimizacion.toNanos();
+        this.pedidosPorRepartidor = pedidosPorRepartidor;
+        this.limitePlanificacionNanos = tiempoPlanificacion.toNanos();
+        this.agruparPorZona = agruparPorZona;
+        // 0: un hilo por procesador
+        this.pool = new ForkJoinPool(hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors());
+    }
+
+    public Optional<Usuario> deposito() {
+        return usuarioRepository.findAdministradoresConUbicacion(Limit.of(1)).stream().findFirst();
+    }
+
+    public PlanRuta planificar(List<Pedido> pedidos) {
+        Optional<Usuario> deposito = deposito();
+        return planificar(deposito.map(Usuario::getLatitudEmpresa).orElse(null),
+                deposito.map(Usuario::getLongitudEmpresa).orElse(null), pedidos);
+    }
+
+    public PlanRuta planificar(Double latitudDeposito, Double longitudDeposito, List<Pedido> pedidos) {
+        List<Pedido> ubicados = new ArrayList<>(pedidos.size());
+        List<Pedido> sinUbicacion = new ArrayList<>();
+        for (Pedido pedido : pedidos) {
+            (tieneUbicacion(pedido.getCliente()) ? ubicados : sinUbicacion).add(pedido);
+        }
+        if (ubicados.isEmpty()) {
+            return new PlanRuta(pedidos, null, null);
+        }
+
+        int n = ubicados.size() + 1;
+        boolean conDeposito = latitudDeposito != null && longitudDeposito != null;
+        Cliente primero = ubicados.get(0).getCliente();
+        float[] distancias = matrizDistancias.matriz(
+                conDeposito ? latitudDeposito : primero.getLatitudCliente(),
+                conDeposito ? longitudDeposito : primero.getLongitudCliente(), puntos(ubicados));
+
+        OptimizadorRecorrido.Resultado resultado = OptimizadorRecorrido.optimizar(
+                distancias, n, regreso && conDeposito, limiteNanos);
+
+        List<Pedido> ordenados = new ArrayList<>(pedidos.size());
+        for (int parada : resultado.paradas()) {
+            ordenados.add(ubicados.get(parada - 1));
+        }
+        ordenados.addAll(sinUbicacion);
+        return new PlanRuta(ordenados, Math.round(resultado.distancia() * 100) / 100.0,
+                tiempoEstimadoMin(resultado.distancia(), pedidos.size()));
+    }
+
+    /**
+     * Reparte los pedidos entre repartidores rutas (como mucho gestorapi.rutas.pedidos-por-repartidor
+     * cada una) saliendo del depósito. Quedan sin asignar los pedidos sin ubicación y, si no caben,
+     * los últimos de la lista: conviene pasarlos del más antiguo al más nuevo.
+     */
+    public PlanFlota planificarFlota(List<Pedido> pedidos, int repartidores) {
+        Usuario deposito = deposito().orElseThrow(() -> new IllegalArgumentException(
+                "Ningún administrador tiene cargada la ubicación de la empresa (depósito)"));
+        List<Pedido> ubicados = new ArrayList<>(pedidos.size());
+        List<Pedido> sinAsignar = new ArrayList<>();
+        long capacidad = (long) repartidores * pedidosPorRepartidor;
+        for (Pedido pedido : pedidos) {
+            boolean cabe = tieneUbicacion(pedido.getCliente()) && ubicados.size() < capacidad;
+            (cabe ? ubicados : sinAsignar).add(pedido);
+        }
+        if (ubicados.isEmpty() || repartidores < 1) {
+            return new PlanFlota(List.of(), pedidos);
+        }
+
+        double latitud = deposito.getLatitudEmpresa();
+        double longitud = deposito.getLongitudEmpresa();
+        List<Lote> lotes = agruparPorZona ? lotesPorZona(ubicados, repartidores) : null;
+        if (lotes == null) {
+            return new PlanFlota(planificarLote(latitud, longitud, new Lote(ubicados, repartidores)), sinAsignar);
+        }
+        List<PlanRuta> planes = pool.submit(() -> lotes.parallelStream()
+                .flatMap(lote -> planificarLote(latitud, longitud, lote).stream())
+                .toList()).join();
+        return new PlanFlota(planes, sinAsignar);
+    }
+
+    /**
+     * Junta zonas consecutivas (en orden de geohash, que deja cerca a las vecinas) mientras entren
+     * en un repartidor; una zona más grande va sola con los repartidores que necesite. Devuelve
+     * null, para planificar todo junto, si algún pedido no tiene zona, si queda un solo lote o si
+     * los lotes necesitan más repartidores de los que hay.
+     */
+    private List<Lote> lotesPorZona(List<Pedido> ubicados, int repartidores) {
+        TreeMap<String, List<Pedido>> porZona = new TreeMap<>();
+        for (Pedido pedido : ubicados) {
+            if (pedido.getZona() == null) return null;
+            porZona.computeIfAbsent(pedido.getZona(), z -> new ArrayList<>()).add(pedido);
+        }
+        List<Lote> lotes = new ArrayList<>();
+        List<Pedido> actual = new ArrayList<>();
+        int vehiculos = 0;
+        for (List<Pedido> zona : porZona.values()) {
+            if (zona.size() > pedidosPorRepartidor) {
+                int necesarios = (zona.size() + pedidosPorRepartidor - 1) / pedidosPorRepartidor;
+                lotes.add(new Lote(zona, necesarios));
+                vehiculos += necesarios;
+                continue;
+            }
+            if (actual.size() + zona.size() > pedidosPorRepartidor) {
+                lotes.add(new Lote(actual, 1));
+                vehiculos++;
+                actual = new ArrayList<>();
+            }
+            actual.addAll(zona);
+        }
+        if (!actual.isEmpty()) {
+            lotes.add(new Lote(actual, 1));
+            vehiculos++;
+        }
+        return lotes.size() > 1 && vehiculos <= repartidores ? lotes : null;
+    }
+
+    private List<PlanRuta> planificarLote(double latitud, double longitud, Lote lote) {
+        List<Pedido> pedidos = lote.pedidos();
+        int n = pedidos.size() + 1;
+        double escalaLongitud = Math.cos(Math.toRadians(latitud));
+        double[] angulos = new double[n];
+        for (int i = 1; i < n; i++) {
+            Cliente cliente = pedidos.get(i - 1).getCliente();
+            angulos[i] = Math.atan2(cliente.getLatitudCliente() - latitud,
+                    (cliente.getLongitudCliente() - longitud) * escalaLongitud);
+        }
+
+        List<PlanificadorFlota.Ruta> rutas = PlanificadorFlota.planificar(
+                matrizDistancias.matriz(latitud, longitud, puntos(pedidos)), n, angulos, lote.repartidores(),
+                pedidosPorRepartidor, regreso, limitePlanificacionNanos, pool);
+
+        List<PlanRuta> planes = new ArrayList<>(rutas.size());
+        for (PlanificadorFlota.Ruta ruta : rutas) {
+            List<Pedido> ordenados = new ArrayList<>(ruta.paradas().length);
+            for (int parada : ruta.paradas()) {
+                ordenados.add(pedidos.get(parada - 1));
+            }
+            planes.add(new PlanRuta(ordenados, Math.round(ruta.distancia() * 100) / 100.0,
+                    tiempoEstimadoMin(ruta.distancia(), ordenados.size())));
+        }
+        return planes;
+    }
+
+    public int tiempoEstimadoMin(double distanciaKm, int paradas) {
+        return (int) Math.ceil(distanciaKm / velocidadKmh * 60) + minutosPorParada * paradas;
+    }
+
+    private static List<MatrizDistancias.Punto> puntos(List<Pedido> pedidos) {
+        return pedidos.stream()
+                .map(p -> new MatrizDistancias.Punto(p.getCliente().getId(),
+                        p.getCliente().getLatitudCliente(), p.getCliente().getLongitudCliente()))
+                .toList();
+    }
+
+    private static boolean tieneUbicacion(Cliente cliente) {
+        return cliente != null && cliente.getLatitudCliente() != null && cliente.getLongitudCliente() != null;
+    }
+
+    /**
+     * Pedidos en orden de visita con la distancia (km) y el tiempo (min) estimados; ambos null
+     * si ningún pedido tiene ubicación
+     */
+    public record PlanRuta(List<Pedido> pedidos, Double distanciaKm, Integer tiempoEstimadoMin) {
+    }
+
+    private record Lote(List<Pedido> pedidos, int repartidores) {
+    }
+
+    /**
+     * Una ruta por repartidor usado (pueden sobrar repartidores) y los pedidos que no entraron
+     */
+    public record PlanFlota(List<PlanRuta> rutas, List<Pedido> sinAsignar) {
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdown();
+    }
+}
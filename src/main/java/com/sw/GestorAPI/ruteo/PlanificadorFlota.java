@@ -0,0 +1,213 @@
+package com.sw.GestorAPI.ruteo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Reparte las paradas entre varios vehículos con capacidad máxima de paradas (ruteo de vehículos
+ * con capacidad) y ordena cada ruta con {@link OptimizadorRecorrido}. Todas salen del depósito
+ * (nodo 0).
+ *
+ * Primero agrupa por barrido: ordena las paradas por ángulo alrededor del depósito y corta la
+ * secuencia en tramos de tamaño parejo, uno por vehículo. Prueba varios ángulos de arranque en
+ * paralelo y se queda con el de menor distancia total. Después, hasta agotar el tiempo, mueve
+ * paradas sueltas a la ruta donde su inserción cuesta menos de lo que ahorra sacarlas, y
+ * reoptimiza en paralelo las rutas que cambiaron.
+ *
+ * La mitad del tiempo es para el barrido y el resto para las reubicaciones.
+ */
+public final class PlanificadorFlota {
+
+    private static final int ARRANQUES = 16;
+    private static final float EPSILON = 1e-4f;
+
+    private final float[] distancias;
+    private final int n;
+    private final boolean regreso;
+    private final long limite;
+
+    private PlanificadorFlota(float[] distancias, int n, boolean regreso, long limite) {
+        this.distancias = distancias;
+        this.n = n;
+        this.regreso = regreso;
+        this.limite = limite;
+    }
+
+    /**
+     * Planifica las paradas 1..n-1 en hasta vehiculos rutas de como mucho capacidad paradas.
+     * angulos[i] es el ángulo de la parada i visto desde el depósito. Las paradas deben caber:
+     * n - 1 <= vehiculos * capacidad.
+     */
+    public static List<Ruta> planificar(float[] distancias, int n, double[] angulos, int vehiculos, int capacidad,
+                                        boolean regreso, long limiteNanos, ForkJoinPool pool) {
+        if (distancias.length < n * n || angulos.length < n) {
+            throw new IllegalArgumentException("La matriz de distancias no tiene " + n + "x" + n + " valores");
+        }
+        if (vehiculos < 1 || capacidad < 1) {
+            throw new IllegalArgumentException("Se necesita al menos un vehículo con capacidad");
+        }
+        int paradas = n - 1;
+        if (paradas > (long) vehiculos * capacidad) {
+            throw new IllegalArgumentException("Las " + paradas + " paradas superan la capacidad de la flota");
+        }
+        if (paradas == 0) return List.of();
+
+        long inicio = System.nanoTime();
+        PlanificadorFlota planificador = new PlanificadorFlota(distancias, n, regreso, inicio + limiteNanos);
+        int rutas = Math.min(vehiculos, (paradas + capacidad - 1) / capacidad);
+
+        int[] porAngulo = IntStream.rangeClosed(1, paradas).boxed()
+                .sorted(Comparator.comparingDouble(i -> angulos[i]))
+                .mapToInt(Integer::intValue).toArray();
+        long finBarrido = inicio + limiteNanos / 2;
+        int arranques = Math.min(ARRANQUES, paradas);
+        List<int[]> mejor = pool.submit(() -> IntStream.range(0, arranques).parallel()
+                .mapToObj(a -> planificador.barrido(porAngulo, a * paradas / arranques, rutas, finBarrido))
+                .min(Comparator.comparingDouble(planificador::total))
+                .orElseThrow()).join();
+
+        List<int[]> resultado = planificador.reubicar(mejor, capacidad, pool);
+        List<Ruta> planes = new ArrayList<>(resultado.size());
+        for (int[] ruta : resultado) {
+            if (ruta.length > 0) planes.add(new Ruta(ruta, planificador.longitud(ruta)));
+        }
+        return planes;
+    }
+
+    // Costo de ir de desde a hasta: sin regreso, volver al depósito no cuesta
+    private float c(int desde, int hasta) {
+        if (hasta == 0 && !regreso) return 0;
+        return distancias[desde * n + hasta];
+    }
+
+    private boolean agotado(long hasta) {
+        return System.nanoTime() - hasta > 0;
+    }
+
+    private List<int[]> barrido(int[] porAngulo, int desplazamiento, int rutas, long hasta) {
+        int paradas = porAngulo.length;
+        int base = paradas / rutas;
+        int sobrantes = paradas % rutas;
+        List<int[]> resultado = new ArrayList<>(rutas);
+        int posicion = desplazamiento;
+        for (int r = 0; r < rutas; r++) {
+            int[] tramo = new int[base + (r < sobrantes ? 1 : 0)];
+            for (int i = 0; i < tramo.length; i++) {
+                tramo[i] = porAngulo[posicion++ % paradas];
+            }
+            resultado.add(ordenar(tramo, hasta));
+        }
+        return resultado;
+    }
+
+    /**
+     * Ordena una ruta con OptimizadorRecorrido sobre la submatriz de sus paradas
+     */
+    private int[] ordenar(int[] paradas, long hasta) {
+        int k = paradas.length + 1;
+        if (k <= 2) return paradas;
+        int[] nodos = new int[k];
+        System.arraycopy(paradas, 0, nodos, 1, paradas.length);
+        float[] submatriz = new float[k * k];
+        for (int i = 0; i < k; i++) {
+            for (int j = 0; j < k; j++) {
+                submatriz[i * k + j] = distancias[nodos[i] * n + nodos[j]];
+            }
+        }
+        long restante = Math.max(0, hasta - System.nanoTime());
+        int[] orden = OptimizadorRecorrido.optimizar(submatriz, k, regreso, restante).paradas();
+        int[] resultado = new int[orden.length];
+        for (int i = 0; i < orden.length; i++) {
+            resultado[i] = nodos[orden[i]];
+        }
+        return resultado;
+    }
+
+    /**
+     * Mueve paradas entre rutas mientras alguna mudanza acorte el total y quede tiempo; las
+     * rutas tocadas se reoptimizan en paralelo al final de cada pasada
+     */
+    private List<int[]> reubicar(List<int[]> inicial, int capacidad, ForkJoinPool pool) {
+        List<List<Integer>> rutas = new ArrayList<>(inicial.size());
+        for (int[] ruta : inicial) {
+            rutas.add(new ArrayList<>(Arrays.stream(ruta).boxed().toList()));
+        }
+        boolean mejoro = true;
+        while (mejoro && !agotado(limite)) {
+            mejoro = false;
+            boolean[] tocadas = new boolean[rutas.size()];
+            for (int a = 0; a < rutas.size() && !agotado(limite); a++) {
+                List<Integer> origen = rutas.get(a);
+                for (int i = 0; i < origen.size(); i++) {
+                    int v = origen.get(i);
+                    int antes = i == 0 ? 0 : origen.get(i - 1);
+                    int despues = i == origen.size() - 1 ? 0 : origen.get(i + 1);
+                    float ahorro = c(antes, v) + c(v, despues) - c(antes, despues);
+
+                    int mejorRuta = -1;
+                    int mejorPosicion = -1;
+                    float mejorCosto = ahorro - EPSILON;
+                    for (int b = 0; b < rutas.size(); b++) {
+                        List<Integer> destino = rutas.get(b);
+                        if (b == a || destino.size() >= capacidad) continue;
+                        for (int q = 0; q <= destino.size(); q++) {
+                            int x = q == 0 ? 0 : destino.get(q - 1);
+                            int y = q == destino.size() ? 0 : destino.get(q);
+                            float costo = c(x, v) + c(v, y) - c(x, y);
+                            if (costo < mejorCosto) {
+                                mejorCosto = costo;
+                                mejorRuta = b;
+                                mejorPosicion = q;
+                            }
+                        }
+                    }
+                    if (mejorRuta >= 0) {
+                        origen.remove(i--);
+                        rutas.get(mejorRuta).add(mejorPosicion, v);
+                        tocadas[a] = true;
+                        tocadas[mejorRuta] = true;
+                        mejoro = true;
+                    }
+                }
+            }
+            if (mejoro) {
+                List<int[]> reordenadas = pool.submit(() -> IntStream.range(0, rutas.size()).parallel()
+                        .mapToObj(r -> {
+                            int[] ruta = rutas.get(r).stream().mapToInt(Integer::intValue).toArray();
+                            return tocadas[r] ? ordenar(ruta, limite) : ruta;
+                        })
+                        .toList()).join();
+                for (int r = 0; r < rutas.size(); r++) {
+                    rutas.set(r, new ArrayList<>(Arrays.stream(reordenadas.get(r)).boxed().toList()));
+                }
+            }
+        }
+        return rutas.stream().map(r -> r.stream().mapToInt(Integer::intValue).toArray()).toList();
+    }
+
+    private double total(List<int[]> rutas) {
+        double total = 0;
+        for (int[] ruta : rutas) total += longitud(ruta);
+        return total;
+    }
+
+    private double longitud(int[] ruta) {
+        if (ruta.length == 0) return 0;
+        double total = c(0, ruta[0]);
+        for (int i = 1; i < ruta.length; i++) {
+            total += c(ruta[i - 1], ruta[i]);
+        }
+        return total + c(ruta[ruta.length - 1], 0);
+    }
+
+    /**
+     * paradas: nodos de la ruta en orden de visita. distancia: total de la ruta (con el regreso
+     * al depósito si se pidió)
+     */
+    public record Ruta(int[] paradas, double distancia) {
+    }
+}
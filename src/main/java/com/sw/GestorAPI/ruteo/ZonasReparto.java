@@ -0,0 +1,193 @@
+package com.sw.GestorAPI.ruteo;
+
+import com.sw.GestorAPI.repository.ClienteRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Zonas de reparto por prefijo de geohash, adaptadas a la densidad de clientes activos: cada
+ * zona es una celda de gestorapi.zonas.precision-minima caracteres que, cuando pasa de
+ * gestorapi.zonas.clientes-por-zona clientes, se divide en sus (hasta 32) celdas hijas, hasta
+ * gestorapi.zonas.precision-maxima. El centro queda en zonas chicas y la periferia en zonas grandes.
+ *
+ * Se arma en memoria desde los clientes la primera vez que se usa y crece con cada alta o cambio
+ * de ubicación: solo la zona que se divide reparte a sus clientes. Las bajas descuentan pero no
+ * unen zonas; reconstruir() vuelve a armarla desde cero. Con los mismos clientes el resultado no
+ * depende del orden en que llegan, así que las zonas no cambian de nombre al reconstruir.
+ *
+ * La reconstrucción lee los clientes y arma las zonas nuevas sin tomar el monitor, así zonaDe()
+ * (y con él crearPedido) no espera a la consulta; los cambios que llegan mientras tanto se
+ * reaplican sobre las zonas nuevas antes de reemplazar las actuales.
+ */
+@Component
+public class ZonasReparto {
+
+    private final ClienteRepository clienteRepository;
+    private final int precisionMinima;
+    private final int precisionMaxima;
+    private final int clientesPorZona;
+
+    // Una reconstrucción a la vez; se toma antes que this, nunca al revés
+    private final Object reconstruccion = new Object();
+
+    // Protegidos por this. celdas es null hasta la primera carga y pendientes mientras no se reconstruye
+    private Celdas celdas;
+    private List<Cambio> pendientes;
+
+    public ZonasReparto(ClienteRepository clienteRepository,
+                        @Value("${gestorapi.zonas.precision-minima:5}") int precisionMinima,
+                        @Value("${gestorapi.zonas.precision-maxima:7}") int precisionMaxima,
+                        @Value("${gestorapi.zonas.clientes-por-zona:150}") int clientesPorZona) {
+        this.clienteRepository = clienteRepository;
+        this.precisionMinima = precisionMinima;
+        this.precisionMaxima = Math.max(precisionMinima, precisionMaxima);
+        this.clientesPorZona = clientesPorZona;
+    }
+
+    /**
+     * Zona de unas coordenadas (null si falta alguna)
+     */
+    public String zonaDe(Double latitud, Double longitud) {
+        if (latitud == null || longitud == null) return null;
+        String geohash = Geohash.codificar(latitud, longitud, precisionMaxima);
+        cargar();
+        synchronized (this) {
+            return celdas.zona(geohash);
+        }
+    }
+
+    /**
+     * Registra el alta, el cambio de ubicación o la (des)activación de un cliente. Devuelve la
+     * zona nueva de cada cliente que cambió (el propio, con null si salió, y los de una zona
+     * dividida).
+     */
+    public Map<Long, String> actualizar(Long clienteId, Double latitud, Double longitud, boolean activo) {
+        cargar();
+        synchronized (this) {
+            Cambio cambio = new Cambio(clienteId, latitud, longitud, activo);
+            if (pendientes != null) pendientes.add(cambio);
+            return celdas.aplicar(cambio);
+        }
+    }
+
+    /**
+     * Vuelve a armar las zonas desde los clientes activos y devuelve la zona de cada uno
+     */
+    public Map<Long, String> reconstruir() {
+        synchronized (reconstruccion) {
+            synchronized (this) {
+                pendientes = new ArrayList<>();
+            }
+            Celdas nuevas = new Celdas();
+            try {
+                for (Object[] fila : clienteRepository.findUbicacionesActivas()) {
+                    nuevas.agregar((Long) fila[0], Geohash.codificar((Double) fila[1], (Double) fila[2], precisionMaxima), null);
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pendientes = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                pendientes.forEach(nuevas::aplicar);
+                pendientes = null;
+                celdas = nuevas;
+                Map<Long, String> zonas = new HashMap<>();
+                nuevas.geohashes.forEach((id, geohash) -> zonas.put(id, nuevas.zona(geohash)));
+                return zonas;
+            }
+        }
+    }
+
+    /**
+     * Clientes por zona, en orden de geohash
+     */
+    public Map<String, Integer> clientesPorZona() {
+        cargar();
+        synchronized (this) {
+            return new TreeMap<>(celdas.clientes);
+        }
+    }
+
+    private void cargar() {
+        synchronized (this) {
+            if (celdas != null) return;
+        }
+        synchronized (reconstruccion) {
+            synchronized (this) {
+                if (celdas != null) return;
+            }
+            reconstruir();
+        }
+    }
+
+    private record Cambio(Long clienteId, Double latitud, Double longitud, boolean activo) {
+    }
+
+    private final class Celdas {
+
+        private final Map<Long, String> geohashes = new HashMap<>();
+        private final Map<String, Integer> clientes = new HashMap<>();
+        private final Set<String> divididas = new HashSet<>();
+
+        private Map<Long, String> aplicar(Cambio cambio) {
+            Map<Long, String> cambios = new HashMap<>();
+            String anterior = geohashes.remove(cambio.clienteId());
+            if (anterior != null) {
+                clientes.computeIfPresent(zona(anterior), (z, n) -> n > 1 ? n - 1 : null);
+            }
+            if (!cambio.activo() || cambio.latitud() == null || cambio.longitud() == null) {
+                cambios.put(cambio.clienteId(), null);
+                return cambios;
+            }
+            String geohash = Geohash.codificar(cambio.latitud(), cambio.longitud(), precisionMaxima);
+            cambios.put(cambio.clienteId(), agregar(cambio.clienteId(), geohash, cambios));
+            return cambios;
+        }
+
+        // Baja por las zonas divididas hasta la que contiene al geohash
+        private String zona(String geohash) {
+            String zona = geohash.substring(0, precisionMinima);
+            while (divididas.contains(zona) && zona.length() < precisionMaxima) {
+                zona = geohash.substring(0, zona.length() + 1);
+            }
+            return zona;
+        }
+
+        private String agregar(Long clienteId, String geohash, Map<Long, String> cambios) {
+            geohashes.put(clienteId, geohash);
+            String zona = zona(geohash);
+            if (clientes.merge(zona, 1, Integer::sum) > clientesPorZona && zona.length() < precisionMaxima) {
+                dividir(zona, cambios);
+            }
+            return zona(geohash);
+        }
+
+        private void dividir(String zona, Map<Long, String> cambios) {
+            divididas.add(zona);
+            clientes.remove(zona);
+            Set<String> hijas = new HashSet<>();
+            geohashes.forEach((id, geohash) -> {
+                if (!geohash.startsWith(zona)) return;
+                String hija = zona(geohash);
+                clientes.merge(hija, 1, Integer::sum);
+                hijas.add(hija);
+                if (cambios != null) cambios.put(id, hija);
+            });
+            for (String hija : hijas) {
+                if (clientes.getOrDefault(hija, 0) > clientesPorZona && hija.length() < precisionMaxima) {
+                    dividir(hija, cambios);
+                }
+            }
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.sw.GestorAPI.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.sw.GestorAPI.security.JwtService.TokenVerificado;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -16,22 +21,38 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
+/**
+ * Autentica las peticiones con el token Bearer. Cada token se parsea y verifica una sola vez:
+ * el resultado (usuario y autoridades) queda en una caché acotada hasta el exp del propio
+ * token, así que las peticiones siguientes con el mismo token no vuelven a verificar la firma.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
+    private final Cache<String, TokenAutenticado> tokensVerificados;
+
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   @Value("${jwt.cache.maximo-tokens:10000}") long maximoTokens) {
+        this.jwtService = jwtService;
+        this.tokensVerificados = Caffeine.newBuilder()
+                .maximumSize(maximoTokens)
+                .expireAfter(new HastaExpiracionDelToken())
+                .build();
+    }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
             throws ServletException, IOException {
         try {
             String path = request.getRequestURI();
-            // Solo intentamos autenticar para /graphql
-            if (!path.startsWith("/graphql")) {
+            // Solo intentamos autenticar para /graphql, los endpoints REST de /api y el actuator
+            if (!path.startsWith("/graphql") && !path.startsWith("/api/") && !path.startsWith("/actuator/")) {
                 filterChain.doFilter(request, response);
                 return;
             }
@@ -43,22 +64,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
 
             String token = authHeader.substring(7);
-            String username = jwtService.extractUsername(token);
-            String rol = jwtService.extractRol(token);
-
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Mapear rol a autoridad Spring Security
-                String authority = switch (rol) {
-                    case "ADMIN" -> "ROLE_ADMIN";
-                    case "REPARTIDOR" -> "ROLE_REPARTIDOR";
-                    default -> null;
-                };
-
-                if (authority != null && jwtService.isTokenValid(token, username)) {
+
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Un token inválido lanza JwtException y no queda en la caché
+                TokenAutenticado autenticado = tokensVerificados.get(token, this::autenticar);
+
+                if (autenticado != null) {
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                            username,
+                            autenticado.username(),
                             null,
-                            List.of(new SimpleGrantedAuthority(authority))
+                            autenticado.authorities()
                     );
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -70,4 +85,46 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Verifica el token y mapea su rol a la autoridad de Spring Security; devuelve null
+     * (no se cachea) si falta el usuario o el rol no es reconocido
+     */
+    private TokenAutenticado autenticar(String token) {
+        TokenVerificado verificado = jwtService.verificar(token);
+        if (verificado.username() == null || verificado.rol() == null) return null;
+        String authority = switch (verificado.rol()) {
+            case "ADMIN" -> "ROLE_ADMIN";
+            case "REPARTIDOR" -> "ROLE_REPARTIDOR";
+            default -> null;
+        };
+        if (authority == null) return null;
+        return new TokenAutenticado(verificado.username(), List.of(new SimpleGrantedAuthority(authority)),
+                verificado.expiracion());
+    }
+
+    private record TokenAutenticado(String username, List<GrantedAuthority> authorities, Instant expiracion) {
+    }
+
+    /**
+     * Cada entrada vence en el exp de su token, no con un TTL fijo
+     */
+    private static class HastaExpiracionDelToken implements Expiry<String, TokenAutenticado> {
+        @Override
+        public long expireAfterCreate(String token, TokenAutenticado autenticado, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), autenticado.expiracion()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, TokenAutenticado autenticado, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(token, autenticado, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, TokenAutenticado autenticado, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -1,15 +1,18 @@
 package com.sw.GestorAPI.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -28,6 +31,29 @@ public class JwtService {
     @Value("${jwt.expiration:86400000}") // 24 horas por defecto
     private long jwtExpiration;
 
+    // Se construyen una sola vez: decodificar la clave y armar el parser en cada token cuesta más que verificarlo
+    private Key signInKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void inicializarClave() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+    }
+
+    /**
+     * Verifica firma y expiración parseando el token una sola vez y devuelve los datos que
+     * necesita la autenticación. Lanza JwtException si el token no es válido o ya expiró.
+     */
+    public TokenVerificado verificar(String token) {
+        Claims claims = extractAllClaims(token);
+        return new TokenVerificado(
+                claims.getSubject(),
+                claims.get("rol", String.class),
+                claims.get("userId", Long.class),
+                claims.getExpiration().toInstant());
+    }
+
     /**
      * Extrae el email (username) del token
      */
@@ -103,19 +129,14 @@ public class JwtService {
      * Extrae todos los claims del token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     /**
      * Obtiene la clave de firma
      */
     private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signInKey;
     }
 
     /**
@@ -133,4 +154,10 @@ public class JwtService {
         Claims claims = extractAllClaims(token);
         return claims.get("rol", String.class);
     }
+
+    /**
+     * Datos de un token con firma y expiración ya verificadas
+     */
+    public record TokenVerificado(String username, String rol, Long userId, Instant expiracion) {
+    }
 }
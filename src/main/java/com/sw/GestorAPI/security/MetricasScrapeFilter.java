@@ -0,0 +1,53 @@
+package com.sw.GestorAPI.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Autentica a Prometheus en /actuator/prometheus con un token fijo (gestorapi.metricas.token-scrape),
+ * sin el vencimiento de 24 h de los JWT de usuario. Solo da el rol METRICAS, que no abre ningún
+ * otro endpoint. Con la propiedad vacía el filtro no hace nada y el endpoint queda para ADMIN.
+ */
+@Component
+public class MetricasScrapeFilter extends OncePerRequestFilter {
+
+    public static final String ENDPOINT = "/actuator/prometheus";
+
+    private final byte[] tokenScrape;
+
+    public MetricasScrapeFilter(@Value("${gestorapi.metricas.token-scrape:}") String tokenScrape) {
+        this.tokenScrape = tokenScrape.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return tokenScrape.length == 0 || !ENDPOINT.equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                // Comparación en tiempo constante: no deja adivinar el token por lo que tarda en fallar
+                && MessageDigest.isEqual(tokenScrape, authHeader.substring(7).getBytes(StandardCharsets.UTF_8))) {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    "prometheus", null, List.of(new SimpleGrantedAuthority("ROLE_METRICAS"))));
+        }
+        filterChain.doFilter(request, response);
+    }
+}
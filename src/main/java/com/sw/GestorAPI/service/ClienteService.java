@@ -1,8 +1,12 @@
 package com.sw.GestorAPI.service;
 
 import com.sw.GestorAPI.dto.ActualizarUbicacionClienteInput;
+import com.sw.GestorAPI.dto.ClienteCercanoResponse;
 import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.repository.CargaPorIdsRepository;
 import com.sw.GestorAPI.repository.ClienteRepository;
+import com.sw.GestorAPI.ruteo.IndiceEspacialClientes;
+import com.sw.GestorAPI.ruteo.MatrizDistancias;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -11,15 +15,28 @@ import org.springframework.lang.NonNull;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ClienteService {
 
+    private static final double RADIO_MAXIMO_KM = 50;
+
     private final ClienteRepository clienteRepository;
+    private final CargaPorIdsRepository cargaPorIds;
     private final PasswordEncoder passwordEncoder;
+    private final MatrizDistancias matrizDistancias;
+    private final IndiceEspacialClientes indiceEspacial;
+    private final ZonaRepartoService zonaReparto;
 
     public Page<Cliente> listar(@NonNull Pageable pageable) {
         return clienteRepository.findAll(pageable);
@@ -37,10 +54,35 @@ public class ClienteService {
         return clienteRepository.findById(id);
     }
 
+    public List<Cliente> obtenerPorIds(@NonNull Collection<Long> ids) {
+        return cargaPorIds.cargar(Cliente.class, ids);
+    }
+
     public Optional<Cliente> obtenerPorEmail(@NonNull String email) {
         return clienteRepository.findByEmail(email);
     }
 
+    /**
+     * Los limite clientes activos más cercanos a radioKm o menos del punto, del más cercano al
+     * más lejano, buscados en el índice espacial
+     */
+    public List<ClienteCercanoResponse> clientesCercanos(double latitud, double longitud, double radioKm, int limite) {
+        if (radioKm <= 0 || radioKm > RADIO_MAXIMO_KM) {
+            throw new IllegalArgumentException("El radio debe estar entre 0 y " + RADIO_MAXIMO_KM + " km");
+        }
+        List<IndiceEspacialClientes.Cercano> cercanos = indiceEspacial.cercanos(latitud, longitud, radioKm);
+        if (cercanos.size() > limite) {
+            cercanos = cercanos.subList(0, limite);
+        }
+        Map<Long, Cliente> clientes = cargaPorIds.cargar(Cliente.class,
+                        cercanos.stream().map(IndiceEspacialClientes.Cercano::clienteId).toList()).stream()
+                .collect(Collectors.toMap(Cliente::getId, Function.identity()));
+        return cercanos.stream()
+                .filter(c -> clientes.containsKey(c.clienteId()))
+                .map(c -> new ClienteCercanoResponse(clientes.get(c.clienteId()), Math.round(c.distanciaKm() * 1000) / 1000.0))
+                .toList();
+    }
+
     @Transactional
     public Cliente crearCliente(@NonNull Cliente cliente) {
         // Verificar que el email no exista
@@ -53,7 +95,9 @@ public class ClienteService {
             cliente.setPassword(passwordEncoder.encode(cliente.getPassword()));
         }
         
-        return clienteRepository.save(cliente);
+        Cliente guardado = clienteRepository.save(cliente);
+        indexar(guardado);
+        return guardado;
     }
 
     @Transactional
@@ -74,7 +118,9 @@ public class ClienteService {
         if (datos.getDireccion() != null) existente.setDireccion(datos.getDireccion());
         if (datos.getActivo() != null) existente.setActivo(datos.getActivo());
 
-        return clienteRepository.save(existente);
+        Cliente guardado = clienteRepository.save(existente);
+        indexar(guardado);
+        return guardado;
     }
 
     @Transactional
@@ -82,7 +128,9 @@ public class ClienteService {
         Cliente existente = clienteRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado con ID: " + id));
         existente.setActivo(false);
-        return clienteRepository.save(existente);
+        Cliente guardado = clienteRepository.save(existente);
+        indexar(guardado);
+        return guardado;
     }
 
     @Transactional
@@ -90,7 +138,9 @@ public class ClienteService {
         Cliente existente = clienteRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado con ID: " + id));
         existente.setActivo(true);
-        return clienteRepository.save(existente);
+        Cliente guardado = clienteRepository.save(existente);
+        indexar(guardado);
+        return guardado;
     }
 
     @Transactional
@@ -99,6 +149,10 @@ public class ClienteService {
             throw new IllegalArgumentException("Cliente no encontrado con ID: " + id);
         }
         clienteRepository.deleteById(id);
+        alConfirmar(() -> {
+            indiceEspacial.quitar(id);
+            zonaReparto.clienteActualizado(id, null, null, false);
+        });
     }
 
     public Page<Cliente> pagina(int page, int size) {
@@ -116,7 +170,35 @@ public class ClienteService {
         existente.setLongitudCliente(input.getLongitudCliente());
         existente.setReferenciaDireccion(input.getReferenciaDireccion());
 
-        return clienteRepository.save(existente);
+        Cliente guardado = clienteRepository.save(existente);
+        indexar(guardado);
+        alConfirmar(() -> matrizDistancias.clienteMovido(id, input.getLatitudCliente(), input.getLongitudCliente()));
+        return guardado;
+    }
+
+    private void indexar(Cliente cliente) {
+        Long id = cliente.getId();
+        Double latitud = cliente.getLatitudCliente();
+        Double longitud = cliente.getLongitudCliente();
+        boolean activo = Boolean.TRUE.equals(cliente.getActivo());
+        alConfirmar(() -> {
+            indiceEspacial.actualizar(id, latitud, longitud, activo);
+            zonaReparto.clienteActualizado(id, latitud, longitud, activo);
+        });
+    }
+
+    // El índice espacial, las zonas de reparto y las distancias cacheadas se corrigen al confirmar, no si la transacción se revierte
+    private void alConfirmar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
     }
 
     /**
@@ -0,0 +1,207 @@
+package com.sw.GestorAPI.service;
+
+import com.sw.GestorAPI.dto.FilaPedidoImportacion;
+import com.sw.GestorAPI.dto.ImportacionPedidosResponse;
+import com.sw.GestorAPI.dto.ItemPedidoInput;
+import com.sw.GestorAPI.dto.ResultadoFilaImportacion;
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.service.PedidoService.ItemPedidoData;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de pedidos (archivos de socios con miles de filas).
+ *
+ * Las filas se consumen de un Iterator en lotes de tamaño fijo, así que la memoria no depende
+ * del tamaño del archivo: por cada lote se cargan clientes, productos y stock en tres consultas,
+ * se validan las filas y las válidas se guardan en una sola transacción con
+ * {@link PedidoService#crearPedidos}. Si el lote falla al reservar (otro pedido consumió el
+ * stock entre la validación y el commit) se reintenta fila por fila para aislar las que fallan.
+ * El resultado de cada fila se entrega a medida que se procesa.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportacionPedidosService {
+
+    public static final int TAMANO_LOTE_MAXIMO = 1000;
+
+    private final PedidoService pedidoService;
+    private final ClienteService clienteService;
+    private final ProductoService productoService;
+    private final InventarioService inventarioService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${gestorapi.importacion.tamano-lote:200}")
+    private int tamanoLotePorDefecto;
+
+    /**
+     * Importa todas las filas y entrega el resultado de cada una a salida, en orden de fila.
+     * El resumen devuelto no incluye las filas (ya se entregaron a salida).
+     */
+    public ImportacionPedidosResponse importar(@NonNull Iterator<FilaPedidoImportacion> filas, Integer tamanoLote,
+                                               @NonNull Consumer<ResultadoFilaImportacion> salida) {
+        int tamano = tamanoLote == null ? tamanoLotePorDefecto : Math.max(1, Math.min(tamanoLote, TAMANO_LOTE_MAXIMO));
+        int[] contadores = new int[2]; // creados, fallidos
+        Consumer<ResultadoFilaImportacion> contar = resultado -> {
+            contadores[resultado.getError() == null ? 0 : 1]++;
+            salida.accept(resultado);
+        };
+
+        List<FilaPedidoImportacion> lote = new ArrayList<>(tamano);
+        while (filas.hasNext()) {
+            lote.add(filas.next());
+            if (lote.size() == tamano) {
+                procesarLote(lote, contar);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            procesarLote(lote, contar);
+        }
+
+        return new ImportacionPedidosResponse(contadores[0] + contadores[1], contadores[0], contadores[1], List.of());
+    }
+
+    private void procesarLote(List<FilaPedidoImportacion> lote, Consumer<ResultadoFilaImportacion> salida) {
+        List<ResultadoFilaImportacion> resultados = new ArrayList<>(lote.size());
+
+        // Clientes, productos y stock de todo el lote en tres consultas
+        Set<Long> clienteIds = lote.stream().map(FilaPedidoImportacion::getClienteId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> productoIds = lote.stream()
+                .filter(f -> f.getItems() != null)
+                .flatMap(f -> f.getItems().stream())
+                .map(ItemPedidoInput::getProductoId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Cliente> clientes = clienteService.obtenerPorIds(clienteIds).stream()
+                .collect(Collectors.toMap(Cliente::getId, Function.identity()));
+        Map<Long, Producto> productos = productoService.obtenerPorIds(productoIds).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        Map<Long, Integer> disponibles = new HashMap<>(inventarioService.obtenerDisponibles(productoIds));
+
+        List<FilaPedidoImportacion> validas = new ArrayList<>(lote.size());
+        List<Pedido> pedidos = new ArrayList<>(lote.size());
+        for (FilaPedidoImportacion fila : lote) {
+            try {
+                Pedido pedido = construirPedido(fila, clientes, productos);
+                reservarDisponible(pedido, disponibles);
+                validas.add(fila);
+                pedidos.add(pedido);
+            } catch (IllegalArgumentException e) {
+                resultados.add(ResultadoFilaImportacion.rechazado(fila, e.getMessage()));
+            }
+        }
+
+        if (!pedidos.isEmpty()) {
+            try {
+                List<Pedido> guardados = pedidoService.crearPedidos(pedidos);
+                for (int i = 0; i < validas.size(); i++) {
+                    resultados.add(ResultadoFilaImportacion.creado(validas.get(i), guardados.get(i).getId()));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Lote de importación revertido ({}), reintentando fila por fila", e.getMessage());
+                validas.forEach(fila -> resultados.add(crearIndividual(fila)));
+            }
+        }
+
+        // Sin esto, con open-in-view el contexto de persistencia acumularía todos los pedidos del archivo
+        entityManager.clear();
+
+        resultados.sort(Comparator.comparingInt(ResultadoFilaImportacion::getFila));
+        resultados.forEach(salida);
+    }
+
+    private Pedido construirPedido(FilaPedidoImportacion fila, Map<Long, Cliente> clientes,
+                                   Map<Long, Producto> productos) {
+        if (fila.getErrorLectura() != null) {
+            throw new IllegalArgumentException(fila.getErrorLectura());
+        }
+        if (fila.getClienteId() == null) {
+            throw new IllegalArgumentException("El cliente es obligatorio");
+        }
+        Cliente cliente = clientes.get(fila.getClienteId());
+        if (cliente == null) {
+            throw new IllegalArgumentException("Cliente no encontrado con ID: " + fila.getClienteId());
+        }
+        if (!cliente.getActivo()) {
+            throw new IllegalArgumentException("No se puede crear pedido para cliente inactivo");
+        }
+        if (!StringUtils.hasText(fila.getDireccionEntrega())) {
+            throw new IllegalArgumentException("La dirección de entrega es obligatoria");
+        }
+        return pedidoService.construirPedido(cliente, fila.getDireccionEntrega(), fila.getObservaciones(),
+                items(fila), productos);
+    }
+
+    private List<ItemPedidoData> items(FilaPedidoImportacion fila) {
+        if (fila.getItems() == null || fila.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Debe incluir al menos un item en el pedido");
+        }
+        List<ItemPedidoData> items = new ArrayList<>(fila.getItems().size());
+        for (ItemPedidoInput item : fila.getItems()) {
+            if (item.getProductoId() == null) {
+                throw new IllegalArgumentException("El producto es obligatorio");
+            }
+            if (item.getCantidad() == null || item.getCantidad() < 1) {
+                throw new IllegalArgumentException("La cantidad debe ser mayor a 0");
+            }
+            items.add(new ItemPedidoData(item.getProductoId(), item.getCantidad()));
+        }
+        return items;
+    }
+
+    /**
+     * Descuenta el pedido del stock disponible del lote, todo o nada: si algún producto no
+     * alcanza, la fila se rechaza sin consumir stock de las demás líneas
+     */
+    private void reservarDisponible(Pedido pedido, Map<Long, Integer> disponibles) {
+        Map<Long, Integer> requerido = new HashMap<>();
+        pedido.getItems().forEach(item -> requerido.merge(item.getProducto().getId(), item.getCantidad(), Integer::sum));
+
+        requerido.forEach((productoId, cantidad) -> {
+            int disponible = disponibles.getOrDefault(productoId, 0);
+            if (disponible < cantidad) {
+                Producto producto = pedido.getItems().stream()
+                        .filter(i -> i.getProducto().getId().equals(productoId))
+                        .findFirst().orElseThrow().getProducto();
+                throw new IllegalArgumentException("Stock insuficiente para producto: " + producto.getNombre() +
+                        ". Stock actual: " + disponible + ", requerido: " + cantidad);
+            }
+        });
+        requerido.forEach((productoId, cantidad) -> disponibles.merge(productoId, -cantidad, Integer::sum));
+    }
+
+    private ResultadoFilaImportacion crearIndividual(FilaPedidoImportacion fila) {
+        try {
+            Pedido pedido = pedidoService.crearPedido(fila.getClienteId(), fila.getDireccionEntrega(),
+                    fila.getObservaciones(), items(fila));
+            return ResultadoFilaImportacion.creado(fila, pedido.getId());
+        } catch (RuntimeException e) {
+            return ResultadoFilaImportacion.rechazado(fila, e.getMessage());
+        }
+    }
+}
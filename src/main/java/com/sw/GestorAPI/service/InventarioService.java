@@ -2,19 +2,37 @@ package com.sw.GestorAPI.service;
 
 import com.sw.GestorAPI.entity.Inventario;
 import com.sw.GestorAPI.entity.MovimientoInventario;
+import com.sw.GestorAPI.entity.Pedido;
 import com.sw.GestorAPI.entity.Producto;
 import com.sw.GestorAPI.enums.TipoMovimiento;
+import com.sw.GestorAPI.repository.InventarioJdbcRepository;
+import com.sw.GestorAPI.repository.InventarioJdbcRepository.Nivel;
 import com.sw.GestorAPI.repository.InventarioRepository;
 import com.sw.GestorAPI.repository.MovimientoInventarioRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,7 +40,13 @@ public class InventarioService {
 
     private final InventarioRepository inventarioRepository;
     private final MovimientoInventarioRepository movimientoRepository;
+    private final InventarioJdbcRepository inventarioJdbcRepository;
     private final ProductoService productoService;
+    private final StockEnMemoriaService stockEnMemoria;
+    private final ResumenDashboardService resumenDashboard;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public Page<Inventario> listar(@NonNull Pageable pageable) {
         return inventarioRepository.findAll(pageable);
@@ -40,15 +64,54 @@ public class InventarioService {
         return inventarioRepository.findInventariosConStockBajo(pageable);
     }
 
+    public Slice<Inventario> listarSinTotal(@NonNull Pageable pageable) {
+        return inventarioRepository.findSliceBy(pageable);
+    }
+
+    public Slice<Inventario> listarActivosSinTotal(@NonNull Pageable pageable) {
+        return inventarioRepository.findSliceByActivoTrue(pageable);
+    }
+
+    public Slice<Inventario> buscarPorNombreProductoSinTotal(@NonNull String nombre, @NonNull Pageable pageable) {
+        return inventarioRepository.findSliceByProductoNombreContainingIgnoreCase(nombre, pageable);
+    }
+
+    public Slice<Inventario> listarStockBajoSinTotal(@NonNull Pageable pageable) {
+        return inventarioRepository.findSliceInventariosConStockBajo(pageable);
+    }
+
     public Optional<Inventario> obtenerPorProductoId(@NonNull Long productoId) {
         return inventarioRepository.findByProductoId(productoId);
     }
 
+    /**
+     * Stock disponible de varios productos en una consulta (el contador en memoria para los
+     * productos que lo tienen activo). Los productos sin inventario no aparecen en el mapa.
+     */
+    public Map<Long, Integer> obtenerDisponibles(@NonNull Collection<Long> productoIds) {
+        Map<Long, Integer> disponibles = new HashMap<>(inventarioJdbcRepository.obtenerCantidades(productoIds));
+        for (Long productoId : productoIds) {
+            stockEnMemoria.cantidad(productoId).ifPresent(c -> disponibles.put(productoId, c));
+        }
+        return disponibles;
+    }
+
     public Page<MovimientoInventario> listarMovimientosPorProducto(@NonNull Long productoId,
             @NonNull Pageable pageable) {
         return movimientoRepository.findByProductoId(productoId, pageable);
     }
 
+    public Slice<MovimientoInventario> listarMovimientosPorProductoSinTotal(@NonNull Long productoId,
+            @NonNull Pageable pageable) {
+        return movimientoRepository.findSliceByProductoId(productoId, pageable);
+    }
+
+    public Window<MovimientoInventario> listarVentanaMovimientosPorProducto(@NonNull Long productoId,
+            @NonNull ScrollPosition position, int limite) {
+        return movimientoRepository.findByProductoIdOrderByFechaMovimientoDescIdDesc(productoId, position,
+                Limit.of(limite));
+    }
+
     @Transactional
     public Inventario crearInventario(@NonNull Long productoId, @NonNull Integer cantidadInicial, String ubicacion,
             @NonNull Integer stockMinimo) {
@@ -68,6 +131,7 @@ public class InventarioService {
                 .build();
 
         inventario = inventarioRepository.save(inventario);
+        resumenDashboard.stockBajoCambio(false, esStockBajo(inventario));
 
         // Registrar movimiento inicial si hay cantidad
         if (cantidadInicial > 0) {
@@ -82,78 +146,274 @@ public class InventarioService {
 
     @Transactional
     public Inventario ajustarStock(@NonNull Long productoId, @NonNull Integer delta, @NonNull String motivo) {
-        Inventario inventario = obtenerOCrearInventario(productoId);
-
-        int cantidadAnterior = inventario.getCantidad();
-        int nuevaCantidad = cantidadAnterior + delta;
-        if (nuevaCantidad < 0) {
-            throw new IllegalArgumentException("Stock insuficiente. Stock actual: " + inventario.getCantidad()
-                    + ", requerido: " + Math.abs(delta));
-        }
-
-        inventario.setCantidad(nuevaCantidad);
-        inventario = inventarioRepository.save(inventario);
+        Ajuste ajuste = ajustarCantidadAtomica(productoId, delta)
+                .orElseThrow(() -> new IllegalArgumentException("Stock insuficiente. Stock actual: "
+                        + cantidadActual(productoId) + ", requerido: " + Math.abs(delta)));
+        int nuevaCantidad = ajuste.cantidad();
+        boolean enMemoria = ajuste.enMemoria();
+        int cantidadAnterior = nuevaCantidad - delta;
 
         // Registrar movimiento
         TipoMovimiento tipo = delta > 0 ? TipoMovimiento.ENTRADA : TipoMovimiento.SALIDA;
-        registrarMovimiento(inventario.getProducto(), tipo, Math.abs(delta), motivo, null, cantidadAnterior,
-                nuevaCantidad);
-
+        registrarMovimiento(entityManager.getReference(Producto.class, productoId), tipo, Math.abs(delta), motivo,
+                null, cantidadAnterior, nuevaCantidad, !enMemoria);
+
+        Inventario inventario = inventarioRepository.findByProductoId(productoId)
+                .orElseThrow(() -> new IllegalArgumentException("Inventario no encontrado para producto: " + productoId));
+        if (enMemoria) {
+            // La fila aún no refleja el ajuste: devolver la cantidad del contador sin escribirla
+            entityManager.detach(inventario);
+            inventario.setCantidad(nuevaCantidad);
+        }
         return inventario;
     }
 
     @Transactional
     public void descontarStock(@NonNull Long productoId, @NonNull Integer cantidad, @NonNull String motivo,
             Long pedidoId) {
-        Inventario inventario = obtenerOCrearInventario(productoId);
+        Ajuste ajuste = ajustarCantidadAtomica(productoId, -cantidad)
+                .orElseThrow(() -> {
+                    Inventario inventario = obtenerOCrearInventario(productoId);
+                    return new IllegalArgumentException(
+                            "Stock insuficiente para producto: " + inventario.getProducto().getNombre() +
+                                    ". Stock actual: " + cantidadActual(productoId) + ", requerido: " + cantidad);
+                });
+
+        // Registrar movimiento de salida
+        int nuevaCantidad = ajuste.cantidad();
+        registrarMovimiento(entityManager.getReference(Producto.class, productoId), TipoMovimiento.SALIDA, cantidad,
+                motivo, pedidoId, nuevaCantidad + cantidad, nuevaCantidad, !ajuste.enMemoria());
+    }
+
+    /**
+     * Reserva el stock de todas las líneas de un pedido con un número fijo de sentencias:
+     * una consulta para los inventarios, un batch de UPDATE condicionales (cantidad >= requerida),
+     * una lectura de las cantidades resultantes y un batch de INSERT para los movimientos. Si alguna línea no tiene stock se lanza
+     * IllegalArgumentException y la transacción revierte los descuentos ya aplicados.
+     * Las líneas de productos con reserva en memoria se descuentan del contador y no tocan la
+     * fila de inventarios; su movimiento queda pendiente de volcar.
+     */
+    @Transactional
+    public void reservarStock(@NonNull List<LineaReserva> lineas, @NonNull String motivo, Long pedidoId) {
+        reservar(lineas, motivo, pedidoId);
+    }
 
-        if (!inventario.tieneStockSuficiente(cantidad)) {
-            throw new IllegalArgumentException(
-                    "Stock insuficiente para producto: " + inventario.getProducto().getNombre() +
-                            ". Stock actual: " + inventario.getCantidad() + ", requerido: " + cantidad);
+    /**
+     * Igual que {@link #reservarStock}, pero cada línea registra su movimiento con su propio
+     * pedido (LineaReserva.pedidoId): permite reservar el stock de varios pedidos a la vez
+     */
+    @Transactional
+    public void reservarStockPorLinea(@NonNull List<LineaReserva> lineas, @NonNull String motivo) {
+        reservar(lineas, motivo, null);
+    }
+
+    private void reservar(List<LineaReserva> lineas, String motivo, Long pedidoId) {
+        if (lineas.isEmpty()) return;
+
+        // Orden estable por producto para que pedidos concurrentes bloqueen filas en el mismo orden
+        List<LineaReserva> ordenadas = new ArrayList<>(lineas);
+        ordenadas.sort(Comparator.comparing(LineaReserva::getProductoId));
+
+        Map<Long, Inventario> inventarios = inventarioRepository.findByProductoIdIn(
+                        ordenadas.stream().map(LineaReserva::getProductoId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(i -> i.getProducto().getId(), Function.identity()));
+
+        // Cantidad resultante de cada línea reservada en memoria, en el orden de ordenadas
+        Map<LineaReserva, Integer> nuevaEnMemoria = new IdentityHashMap<>();
+        List<LineaReserva> enBase = new ArrayList<>(ordenadas.size());
+        for (LineaReserva linea : ordenadas) {
+            if (stockEnMemoria.estaActivo(linea.getProductoId())) {
+                int nueva = stockEnMemoria.ajustar(linea.getProductoId(), -linea.getCantidad())
+                        .orElseThrow(() -> stockInsuficiente(inventarios.get(linea.getProductoId()), linea,
+                                cantidadActual(linea.getProductoId())));
+                nuevaEnMemoria.put(linea, nueva);
+            } else {
+                enBase.add(linea);
+            }
         }
-        int cantidadAnterior = inventario.getCantidad();
-        inventario.setCantidad(cantidadAnterior - cantidad);
-        inventarioRepository.save(inventario);
 
-        // Registrar movimiento de salida
-        registrarMovimiento(inventario.getProducto(), TipoMovimiento.SALIDA, cantidad, motivo, pedidoId,
-                cantidadAnterior, inventario.getCantidad());
+        // Validación previa con el stock leído (evita el batch si ya sabemos que falla)
+        Map<Long, Integer> disponible = new HashMap<>();
+        for (LineaReserva linea : enBase) {
+            Inventario inventario = inventarios.get(linea.getProductoId());
+            int actual = disponible.computeIfAbsent(linea.getProductoId(),
+                    id -> inventario != null ? inventario.getCantidad() : 0);
+            if (inventario == null || actual < linea.getCantidad()) {
+                throw stockInsuficiente(inventario, linea, actual);
+            }
+            disponible.put(linea.getProductoId(), actual - linea.getCantidad());
+        }
+
+        Map<Long, Integer> cantidadActual = new HashMap<>();
+        if (!enBase.isEmpty()) {
+            int[] filas = inventarioJdbcRepository.descontarStock(
+                    enBase.stream().map(LineaReserva::getProductoId).toList(),
+                    enBase.stream().map(LineaReserva::getCantidad).toList());
+            List<LineaReserva> descontadas = new ArrayList<>(enBase.size());
+            for (int i = 0; i < filas.length; i++) {
+                LineaReserva linea = enBase.get(i);
+                if (filas[i] == 1) {
+                    descontadas.add(linea);
+                } else if (pasoAMemoria(linea.getProductoId())) {
+                    nuevaEnMemoria.put(linea, stockEnMemoria.ajustar(linea.getProductoId(), -linea.getCantidad())
+                            .orElseThrow(() -> stockInsuficiente(inventarios.get(linea.getProductoId()), linea,
+                                    cantidadActual(linea.getProductoId()))));
+                } else {
+                    // Otro pedido consumió el stock entre la lectura y el UPDATE
+                    throw stockInsuficiente(inventarios.get(linea.getProductoId()), linea,
+                            cantidadActual(linea.getProductoId()));
+                }
+            }
+            enBase = descontadas;
+
+            // Las filas ya están bloqueadas por esta transacción: la cantidad leída ahora es exacta y
+            // permite reconstruir anterior/nueva de cada línea aunque haya pedidos concurrentes
+            Map<Long, Nivel> niveles = inventarioJdbcRepository.obtenerNiveles(
+                    enBase.stream().map(LineaReserva::getProductoId).collect(Collectors.toSet()));
+            niveles.forEach((productoId, nivel) -> cantidadActual.put(productoId, nivel.cantidad()));
+            enBase.forEach(l -> cantidadActual.merge(l.getProductoId(), l.getCantidad(), Integer::sum));
+            niveles.forEach((productoId, nivel) -> resumenDashboard.stockAjustado(nivel,
+                    nivel.cantidad() - cantidadActual.get(productoId)));
+        }
+
+        List<MovimientoInventario> movimientos = new ArrayList<>(ordenadas.size());
+        for (LineaReserva linea : ordenadas) {
+            Long pedidoLinea = pedidoId != null ? pedidoId : linea.getPedidoId();
+            Pedido pedido = pedidoLinea != null ? entityManager.getReference(Pedido.class, pedidoLinea) : null;
+            String motivoMovimiento = pedidoLinea != null ? motivo + " (Pedido ID: " + pedidoLinea + ")" : motivo;
+            Inventario inventario = inventarios.get(linea.getProductoId());
+            Integer enMemoria = nuevaEnMemoria.get(linea);
+            int nueva;
+            if (enMemoria != null) {
+                nueva = enMemoria;
+            } else {
+                nueva = cantidadActual.get(linea.getProductoId()) - linea.getCantidad();
+                cantidadActual.put(linea.getProductoId(), nueva);
+            }
+            movimientos.add(MovimientoInventario.builder()
+                    .producto(inventario != null ? inventario.getProducto()
+                            : entityManager.getReference(Producto.class, linea.getProductoId()))
+                    .tipo(TipoMovimiento.SALIDA)
+                    .cantidad(linea.getCantidad())
+                    .motivo(motivoMovimiento)
+                    .pedido(pedido)
+                    .cantidadAnterior(nueva + linea.getCantidad())
+                    .cantidadNueva(nueva)
+                    .aplicado(enMemoria == null)
+                    .build());
+        }
+        // Con IDs por secuencia Hibernate agrupa estos INSERT en un batch JDBC
+        movimientoRepository.saveAll(movimientos);
+    }
+
+    private IllegalArgumentException stockInsuficiente(Inventario inventario, LineaReserva linea, int actual) {
+        String producto = inventario != null ? inventario.getProducto().getNombre() : "ID " + linea.getProductoId();
+        return new IllegalArgumentException("Stock insuficiente para producto: " + producto +
+                ". Stock actual: " + actual + ", requerido: " + linea.getCantidad());
     }
 
     @Transactional
     public void revertirStock(@NonNull Long productoId, @NonNull Integer cantidad, @NonNull String motivo,
             Long pedidoId) {
-        Inventario inventario = obtenerOCrearInventario(productoId);
-
-        int cantidadAnterior = inventario.getCantidad();
-        inventario.setCantidad(cantidadAnterior + cantidad);
-        inventarioRepository.save(inventario);
+        Ajuste ajuste = ajustarCantidadAtomica(productoId, cantidad)
+                .orElseThrow(() -> new IllegalArgumentException("No se pudo revertir stock del producto: " + productoId));
 
         // Registrar movimiento de entrada (reversión)
-        registrarMovimiento(inventario.getProducto(), TipoMovimiento.ENTRADA, cantidad, motivo, pedidoId,
-                cantidadAnterior, inventario.getCantidad());
+        int nuevaCantidad = ajuste.cantidad();
+        registrarMovimiento(entityManager.getReference(Producto.class, productoId), TipoMovimiento.ENTRADA, cantidad,
+                motivo, pedidoId, nuevaCantidad - cantidad, nuevaCantidad, !ajuste.enMemoria());
     }
 
     @Transactional
     public Inventario actualizarInventario(@NonNull Long productoId, String ubicacion, Integer stockMinimo) {
         Inventario inventario = obtenerOCrearInventario(productoId);
+        boolean stockBajoAntes = esStockBajo(inventario);
 
         if (ubicacion != null)
             inventario.setUbicacion(ubicacion);
         if (stockMinimo != null)
             inventario.setStockMinimo(stockMinimo);
 
+        resumenDashboard.stockBajoCambio(stockBajoAntes, esStockBajo(inventario));
         return inventarioRepository.save(inventario);
     }
 
     @Transactional
     public Inventario desactivarInventario(@NonNull Long productoId) {
         Inventario inventario = obtenerOCrearInventario(productoId);
+        resumenDashboard.stockBajoCambio(esStockBajo(inventario), false);
         inventario.setActivo(false);
         return inventarioRepository.save(inventario);
     }
 
+    /**
+     * Activa o desactiva la reserva de stock en memoria del producto (ver {@link StockEnMemoriaService})
+     */
+    @Transactional
+    public Inventario configurarReservaEnMemoria(@NonNull Long productoId, boolean activa) {
+        stockEnMemoria.comprobarHabilitado();
+        // La fila queda bloqueada hasta el commit: las ventas por base que ya la tomaron confirman
+        // antes de leer la cantidad, y las que llegan después ven la marca nueva al obtenerla
+        inventarioJdbcRepository.bloquearFila(productoId)
+                .orElseThrow(() -> new IllegalArgumentException("Inventario no encontrado para producto: " + productoId));
+        Inventario inventario = inventarioRepository.findByProductoId(productoId)
+                .orElseThrow(() -> new IllegalArgumentException("Inventario no encontrado para producto: " + productoId));
+        inventario.setReservaEnMemoria(activa);
+        inventario = inventarioRepository.saveAndFlush(inventario);
+
+        if (activa) {
+            stockEnMemoria.activar(productoId);
+        } else {
+            stockEnMemoria.desactivar(productoId);
+        }
+        return inventario;
+    }
+
+    /**
+     * Aplica delta con un UPDATE atómico (o sobre el contador en memoria si el producto lo tiene
+     * activo); si el producto aún no tiene inventario lo crea en 0 y reintenta. Devuelve la
+     * cantidad resultante y por dónde se aplicó, o vacío si no hay stock suficiente.
+     */
+    private Optional<Ajuste> ajustarCantidadAtomica(@NonNull Long productoId, int delta) {
+        if (stockEnMemoria.estaActivo(productoId)) {
+            return stockEnMemoria.ajustar(productoId, delta).map(cantidad -> new Ajuste(cantidad, true));
+        }
+        Optional<Nivel> nivel = inventarioJdbcRepository.ajustarCantidad(productoId, delta);
+        if (nivel.isEmpty() && !inventarioRepository.existsByProductoId(productoId)) {
+            Inventario creado = obtenerOCrearInventario(productoId);
+            // Que las lecturas posteriores vean la cantidad de la base y no esta instancia
+            entityManager.flush();
+            entityManager.detach(creado);
+            nivel = inventarioJdbcRepository.ajustarCantidad(productoId, delta);
+        }
+        if (nivel.isEmpty() && pasoAMemoria(productoId)) {
+            return stockEnMemoria.ajustar(productoId, delta).map(cantidad -> new Ajuste(cantidad, true));
+        }
+        nivel.ifPresent(n -> resumenDashboard.stockAjustado(n, delta));
+        return nivel.map(n -> new Ajuste(n.cantidad(), false));
+    }
+
+    /**
+     * El UPDATE por base no aplica a filas con reserva_en_memoria. Si la fila la tiene (el
+     * producto pasó a memoria mientras esta venta esperaba el bloqueo), espera el contador para
+     * repetir la operación sobre él.
+     */
+    private boolean pasoAMemoria(@NonNull Long productoId) {
+        if (!inventarioJdbcRepository.tieneReservaEnMemoria(productoId)) return false;
+        stockEnMemoria.esperarContador(productoId);
+        return true;
+    }
+
+    private record Ajuste(int cantidad, boolean enMemoria) {
+    }
+
+    private int cantidadActual(@NonNull Long productoId) {
+        Optional<Integer> enMemoria = stockEnMemoria.cantidad(productoId);
+        if (enMemoria.isPresent()) return enMemoria.get();
+        return inventarioJdbcRepository.obtenerCantidades(List.of(productoId)).getOrDefault(productoId, 0);
+    }
+
     private Inventario obtenerOCrearInventario(@NonNull Long productoId) {
         return inventarioRepository.findByProductoId(productoId)
                 .orElseGet(() -> {
@@ -162,17 +422,28 @@ public class InventarioService {
                             .orElseThrow(
                                     () -> new IllegalArgumentException("Producto no encontrado con ID: " + productoId));
 
-                    return inventarioRepository.save(Inventario.builder()
+                    Inventario creado = inventarioRepository.save(Inventario.builder()
                             .producto(producto)
                             .cantidad(0)
                             .ubicacion("Sin ubicación")
                             .stockMinimo(0)
                             .activo(true)
                             .build());
+                    resumenDashboard.stockBajoCambio(false, esStockBajo(creado));
+                    return creado;
                 });
     }
 
+    private static boolean esStockBajo(Inventario inventario) {
+        return ResumenDashboardService.esStockBajo(inventario.getCantidad(), inventario.getStockMinimo(),
+                Boolean.TRUE.equals(inventario.getActivo()));
+    }
+
     private void registrarMovimiento(@NonNull Producto producto, @NonNull TipoMovimiento tipo, @NonNull Integer cantidad, @NonNull String motivo, Long pedidoId, @NonNull Integer cantidadAnterior, @NonNull Integer cantidadNueva) {
+        registrarMovimiento(producto, tipo, cantidad, motivo, pedidoId, cantidadAnterior, cantidadNueva, true);
+    }
+
+    private void registrarMovimiento(@NonNull Producto producto, @NonNull TipoMovimiento tipo, @NonNull Integer cantidad, @NonNull String motivo, Long pedidoId, @NonNull Integer cantidadAnterior, @NonNull Integer cantidadNueva, boolean aplicado) {
 
         MovimientoInventario movimiento = MovimientoInventario.builder()
             
@@ -183,11 +454,12 @@ public class InventarioService {
                 .motivo(motivo)
                 .cantidadAnterior(cantidadAnterior)
                 .cantidadNueva(cantidadNueva)
+                .aplicado(aplicado)
                 .build();
 
         if (pedidoId != null) {
-            // Aquí podrías cargar el pedido si necesitas la relación completa
-            // Por ahora solo guardamos el ID en el motivo para simplicidad
+            // La relación permite a los reportes tratar la entrada de una cancelación como devolución
+            movimiento.setPedido(entityManager.getReference(Pedido.class, pedidoId));
             movimiento.setMotivo(motivo + " (Pedido ID: " + pedidoId + ")");
         }
 
@@ -197,4 +469,25 @@ public class InventarioService {
     public Page<Inventario> pagina(int page, int size) {
         return listar(PageRequest.of(page, size));
     }
+
+    // Línea de una reserva de stock (producto, cantidad a descontar y, opcionalmente, su pedido)
+    public static class LineaReserva {
+        private final Long productoId;
+        private final Integer cantidad;
+        private final Long pedidoId;
+
+        public LineaReserva(Long productoId, Integer cantidad) {
+            this(productoId, cantidad, null);
+        }
+
+        public LineaReserva(Long productoId, Integer cantidad, Long pedidoId) {
+            this.productoId = productoId;
+            this.cantidad = cantidad;
+            this.pedidoId = pedidoId;
+        }
+
+        public Long getProductoId() { return productoId; }
+        public Integer getCantidad() { return cantidad; }
+        public Long getPedidoId() { return pedidoId; }
+    }
 }
@@ -0,0 +1,237 @@
+package com.sw.GestorAPI.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sw.GestorAPI.dto.FilaPedidoImportacion;
+import com.sw.GestorAPI.dto.ItemPedidoInput;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Lee archivos de importación de pedidos de forma perezosa: cada llamada a next() consume
+ * solo las líneas de un pedido, nunca el archivo completo.
+ *
+ * NDJSON: un pedido por línea, con la forma de CrearPedidoInput más una referencia opcional.
+ * CSV: encabezado con las columnas referencia, clienteId, direccionEntrega, observaciones,
+ * productoId y cantidad (referencia y observaciones son opcionales); una línea por item, y las
+ * líneas consecutivas con la misma referencia forman un pedido. No admite saltos de línea
+ * dentro de un campo entre comillas.
+ */
+@Component
+@RequiredArgsConstructor
+public class LectorImportacionPedidos {
+
+    private static final List<String> COLUMNAS_OBLIGATORIAS =
+            List.of("clienteId", "direccionEntrega", "productoId", "cantidad");
+
+    private final ObjectMapper objectMapper;
+
+    public Iterator<FilaPedidoImportacion> leerNdjson(Reader reader) {
+        BufferedReader lineas = new BufferedReader(reader);
+        return new LectorPorLineas(lineas) {
+            @Override
+            protected FilaPedidoImportacion leerSiguiente() throws IOException {
+                String linea = siguienteLineaNoVacia();
+                if (linea == null) return null;
+                try {
+                    FilaPedidoImportacion fila = objectMapper.readValue(linea, FilaPedidoImportacion.class);
+                    fila.setFila(numeroLinea);
+                    return fila;
+                } catch (JsonProcessingException e) {
+                    return FilaPedidoImportacion.builder()
+                            .fila(numeroLinea)
+                            .errorLectura("JSON inválido: " + e.getOriginalMessage())
+                            .build();
+                }
+            }
+        };
+    }
+
+    public Iterator<FilaPedidoImportacion> leerCsv(Reader reader) {
+        BufferedReader lineas = new BufferedReader(reader);
+        return new LectorPorLineas(lineas) {
+            private Map<String, Integer> columnas;
+            private List<String> pendiente;
+            private int lineaPendiente;
+
+            @Override
+            protected FilaPedidoImportacion leerSiguiente() throws IOException {
+                if (columnas == null) {
+                    leerEncabezado();
+                }
+                List<String> primera;
+                int filaInicio;
+                if (pendiente != null) {
+                    primera = pendiente;
+                    filaInicio = lineaPendiente;
+                    pendiente = null;
+                } else {
+                    primera = siguienteRegistro();
+                    filaInicio = numeroLinea;
+                }
+                if (primera == null) return null;
+
+                String referencia = valor(primera, "referencia");
+                FilaPedidoImportacion fila = FilaPedidoImportacion.builder()
+                        .fila(filaInicio)
+                        .referencia(referencia)
+                        .direccionEntrega(valor(primera, "direccionEntrega"))
+                        .observaciones(valor(primera, "observaciones"))
+                        .items(new ArrayList<>())
+                        .build();
+                agregarRegistro(fila, primera);
+
+                // Las líneas siguientes con la misma referencia son items del mismo pedido
+                while (referencia != null) {
+                    List<String> siguiente = siguienteRegistro();
+                    if (siguiente == null) break;
+                    if (!referencia.equals(valor(siguiente, "referencia"))) {
+                        pendiente = siguiente;
+                        lineaPendiente = numeroLinea;
+                        break;
+                    }
+                    agregarRegistro(fila, siguiente);
+                }
+                return fila;
+            }
+
+            private void leerEncabezado() throws IOException {
+                String encabezado = siguienteLineaNoVacia();
+                columnas = new HashMap<>();
+                if (encabezado == null) return;
+                List<String> nombres = separarCampos(encabezado.replace("\uFEFF", ""));
+                for (int i = 0; i < nombres.size(); i++) {
+                    columnas.put(nombres.get(i).trim(), i);
+                }
+                for (String obligatoria : COLUMNAS_OBLIGATORIAS) {
+                    if (!columnas.containsKey(obligatoria)) {
+                        throw new IllegalArgumentException("Falta la columna obligatoria en el CSV: " + obligatoria);
+                    }
+                }
+            }
+
+            private List<String> siguienteRegistro() throws IOException {
+                String linea = siguienteLineaNoVacia();
+                return linea == null ? null : separarCampos(linea);
+            }
+
+            private void agregarRegistro(FilaPedidoImportacion fila, List<String> registro) {
+                try {
+                    Long clienteId = numero(valor(registro, "clienteId"));
+                    if (fila.getClienteId() == null) {
+                        fila.setClienteId(clienteId);
+                    }
+                    ItemPedidoInput item = new ItemPedidoInput();
+                    item.setProductoId(numero(valor(registro, "productoId")));
+                    Long cantidad = numero(valor(registro, "cantidad"));
+                    item.setCantidad(cantidad == null ? null : Math.toIntExact(cantidad));
+                    fila.getItems().add(item);
+                } catch (NumberFormatException | ArithmeticException e) {
+                    if (fila.getErrorLectura() == null) {
+                        fila.setErrorLectura("Valor numérico inválido en la línea " + numeroLinea);
+                    }
+                }
+            }
+
+            private String valor(List<String> registro, String columna) {
+                Integer indice = columnas.get(columna);
+                if (indice == null || indice >= registro.size()) return null;
+                String valor = registro.get(indice).trim();
+                return valor.isEmpty() ? null : valor;
+            }
+        };
+    }
+
+    private static Long numero(String valor) {
+        return valor == null ? null : Long.valueOf(valor);
+    }
+
+    /**
+     * Separa una línea CSV en campos, respetando comillas dobles ("" dentro de un campo es una comilla)
+     */
+    static List<String> separarCampos(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        campos.add(actual.toString());
+        return campos;
+    }
+
+    /**
+     * Iterator que lee una fila por adelantado para responder hasNext()
+     */
+    private abstract static class LectorPorLineas implements Iterator<FilaPedidoImportacion> {
+        private final BufferedReader lineas;
+        protected int numeroLinea;
+        private FilaPedidoImportacion siguiente;
+        private boolean terminado;
+
+        LectorPorLineas(BufferedReader lineas) {
+            this.lineas = lineas;
+        }
+
+        protected abstract FilaPedidoImportacion leerSiguiente() throws IOException;
+
+        protected String siguienteLineaNoVacia() throws IOException {
+            String linea;
+            do {
+                linea = lineas.readLine();
+                if (linea == null) return null;
+                numeroLinea++;
+            } while (linea.isBlank());
+            return linea;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (siguiente == null && !terminado) {
+                try {
+                    siguiente = leerSiguiente();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                terminado = siguiente == null;
+            }
+            return siguiente != null;
+        }
+
+        @Override
+        public FilaPedidoImportacion next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            FilaPedidoImportacion fila = siguiente;
+            siguiente = null;
+            return fila;
+        }
+    }
+}
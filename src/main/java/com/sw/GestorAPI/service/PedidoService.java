@@ -1,32 +1,53 @@
 package com.sw.GestorAPI.service;
 
+import com.sw.GestorAPI.dto.CoordenadaInput;
 import com.sw.GestorAPI.entity.Cliente;
 import com.sw.GestorAPI.entity.ItemPedido;
 import com.sw.GestorAPI.entity.Pedido;
 import com.sw.GestorAPI.entity.Producto;
 import com.sw.GestorAPI.enums.EstadoPedido;
+import com.sw.GestorAPI.repository.ItemPedidoRepository;
+import com.sw.GestorAPI.repository.MovimientoInventarioRepository;
 import com.sw.GestorAPI.repository.PedidoRepository;
+import com.sw.GestorAPI.ruteo.IndiceEspacialClientes;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PedidoService {
 
+    private static final int CLIENTES_POR_CONSULTA = 1000;
+
     private final PedidoRepository pedidoRepository;
+    private final ItemPedidoRepository itemPedidoRepository;
+    private final MovimientoInventarioRepository movimientoRepository;
     private final ClienteService clienteService;
     private final ProductoService productoService;
     private final InventarioService inventarioService;
+    private final ResumenDashboardService resumenDashboard;
+    private final IndiceEspacialClientes indiceEspacial;
+    private final ZonaRepartoService zonaReparto;
 
     public Page<Pedido> listar(@NonNull Pageable pageable) {
         return pedidoRepository.findAll(pageable);
@@ -48,10 +69,64 @@ public class PedidoService {
         return pedidoRepository.findPedidosEnProceso(pageable);
     }
 
+    public Slice<Pedido> listarSinTotal(@NonNull Pageable pageable) {
+        return pedidoRepository.findSliceBy(pageable);
+    }
+
+    public Slice<Pedido> listarActivosSinTotal(@NonNull Pageable pageable) {
+        return pedidoRepository.findSliceByActivoTrue(pageable);
+    }
+
+    public Slice<Pedido> listarPorEstadoSinTotal(@NonNull EstadoPedido estado, @NonNull Pageable pageable) {
+        return pedidoRepository.findSliceByEstado(estado, pageable);
+    }
+
+    public Slice<Pedido> listarPorClienteSinTotal(@NonNull Long clienteId, @NonNull Pageable pageable) {
+        return pedidoRepository.findSliceByClienteId(clienteId, pageable);
+    }
+
+    public Window<Pedido> listarVentana(@NonNull ScrollPosition position, int limite) {
+        return pedidoRepository.findByOrderByFechaPedidoDescIdDesc(position, Limit.of(limite));
+    }
+
     public Optional<Pedido> obtenerPorId(@NonNull Long id) {
         return pedidoRepository.findById(id);
     }
 
+    /**
+     * Los primeros limite pedidos PENDIENTE o EN_PROCESO de los clientes activos ubicados dentro
+     * del polígono (índice espacial), del más antiguo al más nuevo
+     */
+    public List<Pedido> listarPendientesEnZona(@NonNull List<CoordenadaInput> poligono, int limite) {
+        if (poligono.size() < 3) {
+            throw new IllegalArgumentException("El polígono necesita al menos 3 vértices");
+        }
+        double[] latitudes = new double[poligono.size()];
+        double[] longitudes = new double[poligono.size()];
+        for (int i = 0; i < poligono.size(); i++) {
+            latitudes[i] = poligono.get(i).getLatitud();
+            longitudes[i] = poligono.get(i).getLongitud();
+        }
+        List<Long> clienteIds = indiceEspacial.dentroDe(latitudes, longitudes);
+        if (clienteIds.isEmpty()) return List.of();
+        List<EstadoPedido> estados = List.of(EstadoPedido.PENDIENTE, EstadoPedido.EN_PROCESO);
+        // Por tramos, para no armar un IN con miles de parámetros; cada tramo trae como mucho limite
+        List<Pedido> pedidos = new ArrayList<>();
+        for (int desde = 0; desde < clienteIds.size(); desde += CLIENTES_POR_CONSULTA) {
+            pedidos.addAll(pedidoRepository.findByClienteIdInAndEstadoIn(
+                    clienteIds.subList(desde, Math.min(desde + CLIENTES_POR_CONSULTA, clienteIds.size())), estados,
+                    Limit.of(limite)));
+        }
+        if (clienteIds.size() > CLIENTES_POR_CONSULTA) {
+            pedidos.sort(Comparator.comparing(Pedido::getFechaPedido).thenComparing(Pedido::getId));
+        }
+        return pedidos.size() > limite ? pedidos.subList(0, limite) : pedidos;
+    }
+
+    public List<ItemPedido> listarItemsPorPedidos(@NonNull Collection<Long> pedidoIds) {
+        return itemPedidoRepository.findByPedidoIdIn(pedidoIds);
+    }
+
     @Transactional
     public Pedido crearPedido(@NonNull Long clienteId, @NonNull String direccionEntrega, String observaciones, @NonNull List<ItemPedidoData> items) {
         // Validar cliente
@@ -62,20 +137,47 @@ public class PedidoService {
             throw new IllegalArgumentException("No se puede crear pedido para cliente inactivo");
         }
 
-        // Crear pedido
+        // Cargar todos los productos del pedido en una sola consulta
+        Map<Long, Producto> productos = productoService.obtenerPorIds(
+                        items.stream().map(ItemPedidoData::getProductoId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+
+        Pedido pedido = construirPedido(cliente, direccionEntrega, observaciones, items, productos);
+        List<InventarioService.LineaReserva> reservas = pedido.getItems().stream()
+                .map(item -> new InventarioService.LineaReserva(item.getProducto().getId(), item.getCantidad()))
+                .toList();
+
+        Pedido pedidoGuardado = pedidoRepository.save(pedido);
+        resumenDashboard.pedidoCreado(pedidoGuardado);
+
+        // Descontar stock de todas las líneas en bloque, ya con el ID del pedido para los movimientos
+        inventarioService.reservarStock(reservas, "Venta - Pedido", pedidoGuardado.getId());
+
+        return pedidoGuardado;
+    }
+
+    /**
+     * Arma un pedido PENDIENTE con sus items a partir de productos ya cargados, validando que
+     * existan y estén activos. No lo guarda ni toca el stock.
+     */
+    public Pedido construirPedido(@NonNull Cliente cliente, @NonNull String direccionEntrega, String observaciones,
+                                  @NonNull List<ItemPedidoData> items, @NonNull Map<Long, Producto> productos) {
         Pedido pedido = Pedido.builder()
                 .cliente(cliente)
                 .estado(EstadoPedido.PENDIENTE)
+                .zona(zonaReparto.zonaDe(cliente))
                 .direccionEntrega(direccionEntrega)
                 .observaciones(observaciones)
                 .total(BigDecimal.ZERO)
                 .activo(true)
                 .build();
 
-        // Agregar items
         for (ItemPedidoData itemData : items) {
-            Producto producto = productoService.obtenerPorId(itemData.getProductoId())
-                    .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + itemData.getProductoId()));
+            Producto producto = productos.get(itemData.getProductoId());
+            if (producto == null) {
+                throw new IllegalArgumentException("Producto no encontrado con ID: " + itemData.getProductoId());
+            }
 
             if (!producto.getActivo()) {
                 throw new IllegalArgumentException("No se puede agregar producto inactivo: " + producto.getNombre());
@@ -89,21 +191,29 @@ public class PedidoService {
 
             item.calcularSubtotal();
             pedido.addItem(item);
+        }
+        return pedido;
+    }
 
-            // Descontar stock del inventario
-            try {
-                inventarioService.descontarStock(producto.getId(), itemData.getCantidad(), 
-                    "Venta - Pedido", null); // Se actualizará con el ID del pedido después de guardar
-            } catch (IllegalArgumentException e) {
-                throw new IllegalArgumentException("Error en producto " + producto.getNombre() + ": " + e.getMessage());
+    /**
+     * Guarda varios pedidos ya construidos en una sola transacción: los INSERT van en batch y
+     * el stock de todas sus líneas se reserva con una sola llamada a reservarStockPorLinea.
+     * Si alguna línea no tiene stock la transacción completa se revierte.
+     */
+    @Transactional
+    public List<Pedido> crearPedidos(@NonNull List<Pedido> pedidos) {
+        List<Pedido> guardados = pedidoRepository.saveAll(pedidos);
+
+        List<InventarioService.LineaReserva> reservas = new ArrayList<>();
+        for (Pedido pedido : guardados) {
+            resumenDashboard.pedidoCreado(pedido);
+            for (ItemPedido item : pedido.getItems()) {
+                reservas.add(new InventarioService.LineaReserva(
+                        item.getProducto().getId(), item.getCantidad(), pedido.getId()));
             }
         }
-
-        Pedido pedidoGuardado = pedidoRepository.save(pedido);
-
-        // Actualizar los movimientos con el ID del pedido
-        // Nota: En una implementación más robusta, se podría hacer esto de forma más elegante
-        return pedidoGuardado;
+        inventarioService.reservarStockPorLinea(reservas, "Venta - Pedido");
+        return guardados;
     }
 
     @Transactional
@@ -112,9 +222,11 @@ public class PedidoService {
                 .orElseThrow(() -> new IllegalArgumentException("Pedido no encontrado con ID: " + id));
 
         // Validar transiciones de estado
-        validarTransicionEstado(pedido.getEstado(), nuevoEstado);
+        EstadoPedido anterior = pedido.getEstado();
+        validarTransicionEstado(anterior, nuevoEstado);
 
         pedido.setEstado(nuevoEstado);
+        resumenDashboard.pedidoCambioEstado(pedido, anterior);
 
         // Si se marca como entregado, establecer fecha de entrega
         if (nuevoEstado == EstadoPedido.ENTREGADO && pedido.getFechaEntrega() == null) {
@@ -137,7 +249,9 @@ public class PedidoService {
             throw new IllegalArgumentException("El pedido ya está cancelado");
         }
 
+        EstadoPedido anterior = pedido.getEstado();
         pedido.setEstado(EstadoPedido.CANCELADO);
+        resumenDashboard.pedidoCambioEstado(pedido, anterior);
         if (motivo != null) {
             pedido.setObservaciones(pedido.getObservaciones() != null ? 
                 pedido.getObservaciones() + " | CANCELADO: " + motivo : "CANCELADO: " + motivo);
@@ -167,10 +281,12 @@ public class PedidoService {
 
     @Transactional
     public void eliminarPedido(@NonNull Long id) {
-        if (!pedidoRepository.existsById(id)) {
-            throw new IllegalArgumentException("Pedido no encontrado con ID: " + id);
-        }
-        pedidoRepository.deleteById(id);
+        Pedido pedido = pedidoRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Pedido no encontrado con ID: " + id));
+        resumenDashboard.pedidoEliminado(pedido);
+        // Los movimientos de stock del pedido se conservan (historial), sin la referencia
+        movimientoRepository.desvincularPedido(id);
+        pedidoRepository.delete(pedido);
     }
 
     public long contarPorEstado(@NonNull EstadoPedido estado) {
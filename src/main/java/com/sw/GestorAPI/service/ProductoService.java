@@ -1,8 +1,12 @@
 package com.sw.GestorAPI.service;
 
+import com.sw.GestorAPI.config.CacheConfig;
 import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.repository.CargaPorIdsRepository;
 import com.sw.GestorAPI.repository.ProductoRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -10,13 +14,26 @@ import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
-
+import java.util.Set;
+
+/**
+ * Catálogo de productos. Las lecturas por id y por SKU pasan por las cachés productos y
+ * productosPorSku (ver {@link CacheConfig}); cada mutación actualiza o desaloja las entradas
+ * del producto afectado. Las cachés guardan una copia desacoplada del contexto de
+ * persistencia, que se comparte entre peticiones: no debe modificarse.
+ */
 @Service
 @RequiredArgsConstructor
 public class ProductoService {
 
     private final ProductoRepository productoRepository;
+    private final CargaPorIdsRepository cargaPorIds;
+    private final CacheManager cacheManager;
 
     public Page<Producto> listar(@NonNull Pageable pageable) {
         return productoRepository.findAll(pageable);
@@ -31,22 +48,56 @@ public class ProductoService {
     }
 
     public Optional<Producto> obtenerPorId(@NonNull Long id) {
-        return productoRepository.findById(id);
+        Producto cacheado = porId().get(id, Producto.class);
+        if (cacheado != null) return Optional.of(cacheado);
+        Optional<Producto> producto = productoRepository.findById(id);
+        producto.ifPresent(this::cachearLeido);
+        return producto;
+    }
+
+    /**
+     * Busca en la caché cada id y carga los que falten (caché de segundo nivel o una sola consulta)
+     */
+    public List<Producto> obtenerPorIds(@NonNull Collection<Long> ids) {
+        Cache cache = porId();
+        List<Producto> productos = new ArrayList<>(ids.size());
+        Set<Long> faltantes = new LinkedHashSet<>();
+        for (Long id : ids) {
+            Producto cacheado = cache.get(id, Producto.class);
+            if (cacheado != null) {
+                productos.add(cacheado);
+            } else {
+                faltantes.add(id);
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            List<Producto> cargados = cargaPorIds.cargar(Producto.class, faltantes);
+            cargados.forEach(this::cachearLeido);
+            productos.addAll(cargados);
+        }
+        return productos;
     }
 
     public Optional<Producto> obtenerPorSku(@NonNull String sku) {
-        return productoRepository.findBySku(sku);
+        Producto cacheado = porSku().get(sku, Producto.class);
+        if (cacheado != null) return Optional.of(cacheado);
+        Optional<Producto> producto = productoRepository.findBySku(sku);
+        producto.ifPresent(this::cachearLeido);
+        return producto;
     }
 
     @Transactional
     public Producto crearProducto(@NonNull Producto producto) {
-        return productoRepository.save(producto);
+        Producto guardado = productoRepository.saveAndFlush(producto);
+        cachear(guardado);
+        return guardado;
     }
 
     @Transactional
     public Producto actualizarProducto(@NonNull Long id, @NonNull Producto datos) {
         Producto existente = productoRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + id));
+        String skuAnterior = existente.getSku();
 
         if (datos.getNombre() != null) existente.setNombre(datos.getNombre());
         if (datos.getSku() != null) existente.setSku(datos.getSku());
@@ -54,7 +105,12 @@ public class ProductoService {
         if (datos.getPrecio() != null) existente.setPrecio(datos.getPrecio());
         if (datos.getActivo() != null) existente.setActivo(datos.getActivo());
 
-        return productoRepository.save(existente);
+        Producto guardado = productoRepository.saveAndFlush(existente);
+        if (!skuAnterior.equals(guardado.getSku())) {
+            porSku().evict(skuAnterior);
+        }
+        cachear(guardado);
+        return guardado;
     }
 
     @Transactional
@@ -62,7 +118,9 @@ public class ProductoService {
         Producto existente = productoRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + id));
         existente.setActivo(false);
-        return productoRepository.save(existente);
+        Producto guardado = productoRepository.saveAndFlush(existente);
+        cachear(guardado);
+        return guardado;
     }
 
     @Transactional
@@ -70,18 +128,75 @@ public class ProductoService {
         Producto existente = productoRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + id));
         existente.setActivo(true);
-        return productoRepository.save(existente);
+        Producto guardado = productoRepository.saveAndFlush(existente);
+        cachear(guardado);
+        return guardado;
     }
 
     @Transactional
     public void eliminarProducto(@NonNull Long id) {
-        if (!productoRepository.existsById(id)) {
-            throw new IllegalArgumentException("Producto no encontrado con ID: " + id);
-        }
-        productoRepository.deleteById(id);
+        Producto existente = productoRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + id));
+        productoRepository.delete(existente);
+        porId().evict(id);
+        porSku().evict(existente.getSku());
     }
 
     public Page<Producto> pagina(int page, int size) {
         return listar(PageRequest.of(page, size));
     }
+
+    /**
+     * Guarda el producto modificado en ambas cachés. Dentro de una transacción la escritura
+     * se aplica al confirmarla, así que una mutación revertida no deja valores que nunca existieron.
+     * Las mutaciones hacen flush antes, para que la copia lleve las fechas que asigna Hibernate.
+     */
+    private void cachear(Producto producto) {
+        Producto copia = copiar(producto);
+        porId().put(copia.getId(), copia);
+        porSku().put(copia.getSku(), copia);
+    }
+
+    /**
+     * Guarda un producto recién leído sin pisar lo que ya haya: si una mutación confirmó
+     * mientras se leía, su valor prevalece sobre la lectura anterior
+     */
+    private void cachearLeido(Producto producto) {
+        Producto copia = copiar(producto);
+        porId().putIfAbsent(copia.getId(), copia);
+        porSku().putIfAbsent(copia.getSku(), copia);
+    }
+
+    /**
+     * Copia fuera del contexto de persistencia: los cambios posteriores a la entidad gestionada
+     * (en esta transacción o en otra petición que la reciba) no alcanzan a la caché
+     */
+    private static Producto copiar(Producto producto) {
+        return Producto.builder()
+                .id(producto.getId())
+                .nombre(producto.getNombre())
+                .sku(producto.getSku())
+                .descripcion(producto.getDescripcion())
+                .precio(producto.getPrecio())
+                .activo(producto.getActivo())
+                .fechaCreacion(producto.getFechaCreacion())
+                .fechaActualizacion(producto.getFechaActualizacion())
+                .build();
+    }
+
+    private Cache porId() {
+        return cache(CacheConfig.PRODUCTOS);
+    }
+
+    private Cache porSku() {
+        return cache(CacheConfig.PRODUCTOS_POR_SKU);
+    }
+
+    private Cache cache(String nombre) {
+        Cache cache = cacheManager.getCache(nombre);
+        if (cache == null) {
+            throw new IllegalStateException("Caché no configurada: " + nombre);
+        }
+        return cache;
+    }
 }
@@ -0,0 +1,211 @@
+package com.sw.GestorAPI.service;
+
+import com.sw.GestorAPI.entity.ReporteMovimientoDiario;
+import com.sw.GestorAPI.entity.ReporteVentaClienteMensual;
+import com.sw.GestorAPI.repository.ReporteAcumuladoRepository;
+import com.sw.GestorAPI.repository.ReporteAcumuladoRepository.Movimiento;
+import com.sw.GestorAPI.repository.ReporteAcumuladoRepository.ProductoVendido;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reportes de ventas y movimientos servidos desde acumulados, sin recorrer movimientos_inventario:
+ * unidades por producto y día y ventas por cliente y mes.
+ *
+ * movimientos_inventario es un registro de solo inserción, así que los acumulados se mantienen
+ * sumando los movimientos con id mayor que una marca de agua (reporte_marcas), en lotes de
+ * MOVIMIENTOS_POR_LOTE; cada lote suma y avanza la marca en la misma transacción. Las ventas salen
+ * de los movimientos de pedidos: la salida al reservar suma y la entrada al cancelar resta, con el
+ * importe proporcional de las líneas del pedido. Los movimientos anteriores a pedido_id, que solo
+ * nombran el pedido en el motivo, se vinculan al sumarlos por primera vez.
+ *
+ * Los IDs se asignan por bloques (secuencias pooled), así que un movimiento puede confirmarse
+ * después de otro con id mayor. Solo se toman movimientos con más de gestorapi.reportes.margen-segundos
+ * de antigüedad, y el recálculo nocturno rehace los últimos meses con los movimientos ya cubiertos
+ * por la marca, incluidos los que llegaron tarde.
+ */
+@Slf4j
+@Service
+public class ReportesService {
+
+    static final String MARCA = "movimientos_inventario";
+    private static final int MOVIMIENTOS_POR_LOTE = 5000;
+    private static final int DIAS_MAXIMOS = 366;
+
+    private final ReporteAcumuladoRepository acumuladoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration margen;
+    private final int diasRecalculo;
+
+    public ReportesService(ReporteAcumuladoRepository acumuladoRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${gestorapi.reportes.margen-segundos:60}") long margenSegundos,
+                           @Value("${gestorapi.reportes.dias-recalculo:35}") int diasRecalculo) {
+        this.acumuladoRepository = acumuladoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.margen = Duration.ofSeconds(margenSegundos);
+        this.diasRecalculo = diasRecalculo;
+    }
+
+    // =====================
+    // CONSULTAS (solo acumulados)
+    // =====================
+
+    public List<ReporteMovimientoDiario> movimientosPorDia(@NonNull Long productoId, @NonNull LocalDate desde,
+                                                           @NonNull LocalDate hasta) {
+        validarPeriodo(desde, hasta);
+        return acumuladoRepository.listarDiarios(productoId, desde, hasta);
+    }
+
+    public List<ReporteVentaClienteMensual> ventasClientePorMes(@NonNull Long clienteId, @NonNull LocalDate desde,
+                                                                @NonNull LocalDate hasta) {
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha desde debe ser anterior o igual a hasta");
+        }
+        return acumuladoRepository.listarMensuales(clienteId, desde, hasta);
+    }
+
+    public List<ProductoVendido> productosMasVendidos(@NonNull LocalDate desde, @NonNull LocalDate hasta, int limite) {
+        validarPeriodo(desde, hasta);
+        return acumuladoRepository.listarMasVendidos(desde, hasta, Math.max(1, Math.min(limite, 100)));
+    }
+
+    private void validarPeriodo(LocalDate desde, LocalDate hasta) {
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha desde debe ser anterior o igual a hasta");
+        }
+        if (desde.plusDays(DIAS_MAXIMOS).isBefore(hasta)) {
+            throw new IllegalArgumentException("El período no puede superar " + DIAS_MAXIMOS + " días");
+        }
+    }
+
+    // =====================
+    // MANTENIMIENTO
+    // =====================
+
+    @Scheduled(fixedDelayString = "${gestorapi.reportes.actualizacion-ms:60000}")
+    public void actualizar() {
+        actualizarAcumulados();
+    }
+
+    /**
+     * Suma a los acumulados los movimientos posteriores a la marca y devuelve cuántos procesó
+     */
+    public int actualizarAcumulados() {
+        int total = 0;
+        boolean lleno;
+        do {
+            LocalDateTime hasta = LocalDateTime.now().minus(margen);
+            Integer procesados = transactionTemplate.execute(status -> {
+                long marca = acumuladoRepository.bloquearMarca(MARCA);
+                List<Movimiento> nuevos = acumuladoRepository.leerNuevos(marca, hasta, MOVIMIENTOS_POR_LOTE);
+                if (nuevos.isEmpty()) return 0;
+                long ultimo = nuevos.get(nuevos.size() - 1).id();
+                if (nuevos.stream().anyMatch(m -> m.pedidoId() == null)
+                        && acumuladoRepository.vincularPedidosDelMotivo(marca, ultimo) > 0) {
+                    // Se relee el mismo lote, ya con el pedido (y su cliente e importe)
+                    nuevos = acumuladoRepository.leerNuevos(marca, hasta, MOVIMIENTOS_POR_LOTE).stream()
+                            .filter(m -> m.id() <= ultimo)
+                            .toList();
+                }
+
+                Acumulado acumulado = new Acumulado();
+                nuevos.forEach(acumulado::sumar);
+                acumulado.guardar();
+                acumuladoRepository.fijarMarca(MARCA, ultimo);
+                return nuevos.size();
+            });
+            int lote = procesados != null ? procesados : 0;
+            total += lote;
+            lleno = lote == MOVIMIENTOS_POR_LOTE;
+        } while (lleno);
+        return total;
+    }
+
+    @Scheduled(cron = "${gestorapi.reportes.recalculo-cron:0 30 3 * * *}")
+    public void recalcular() {
+        recalcularDesde(LocalDate.now().minusDays(diasRecalculo));
+    }
+
+    /**
+     * Rehace los acumulados desde el primer día del mes de desde con todos los movimientos que
+     * cubre la marca. Devuelve cuántos movimientos recorrió.
+     */
+    public int recalcularDesde(@NonNull LocalDate desde) {
+        LocalDate inicioMes = desde.withDayOfMonth(1);
+        Integer recorridos = transactionTemplate.execute(status -> {
+            long marca = acumuladoRepository.bloquearMarca(MARCA);
+            acumuladoRepository.borrarDesde(inicioMes);
+            Acumulado acumulado = new Acumulado();
+            int[] contador = {0};
+            acumuladoRepository.recorrerDesde(inicioMes, marca, movimiento -> {
+                acumulado.sumar(movimiento);
+                contador[0]++;
+            });
+            acumulado.guardar();
+            return contador[0];
+        });
+        log.info("Acumulados de reportes recalculados desde {}: {} movimientos", inicioMes, recorridos);
+        return recorridos != null ? recorridos : 0;
+    }
+
+    /**
+     * Deltas de un lote de movimientos, agrupados por clave de cada acumulado
+     */
+    private final class Acumulado {
+
+        private final Map<ReporteMovimientoDiario.Clave, ReporteMovimientoDiario> diarios = new HashMap<>();
+        private final Map<ReporteVentaClienteMensual.Clave, ReporteVentaClienteMensual> mensuales = new HashMap<>();
+
+        void sumar(Movimiento m) {
+            ReporteMovimientoDiario diario = diarios.computeIfAbsent(
+                    new ReporteMovimientoDiario.Clave(m.productoId(), m.fecha()),
+                    c -> new ReporteMovimientoDiario(m.productoId(), m.fecha(), 0L, 0L, 0L));
+            // Salida de un pedido: venta. Entrada de un pedido: devolución al cancelarlo
+            int signoVenta = 0;
+            if ("ENTRADA".equals(m.tipo())) {
+                diario.setUnidadesEntrada(diario.getUnidadesEntrada() + m.cantidad());
+                if (m.pedidoId() != null) signoVenta = -1;
+            } else if ("SALIDA".equals(m.tipo())) {
+                diario.setUnidadesSalida(diario.getUnidadesSalida() + m.cantidad());
+                if (m.pedidoId() != null) signoVenta = 1;
+            }
+            if (signoVenta == 0) return;
+            diario.setUnidadesVendidas(diario.getUnidadesVendidas() + (long) signoVenta * m.cantidad());
+
+            if (m.clienteId() == null) return;
+            LocalDate mes = m.fecha().withDayOfMonth(1);
+            ReporteVentaClienteMensual mensual = mensuales.computeIfAbsent(
+                    new ReporteVentaClienteMensual.Clave(m.clienteId(), mes),
+                    c -> new ReporteVentaClienteMensual(m.clienteId(), mes, 0L, BigDecimal.ZERO));
+            mensual.setUnidades(mensual.getUnidades() + (long) signoVenta * m.cantidad());
+            mensual.setIngresos(mensual.getIngresos().add(importe(m).multiply(BigDecimal.valueOf(signoVenta))));
+        }
+
+        void guardar() {
+            acumuladoRepository.sumarDiarios(diarios.values());
+            acumuladoRepository.sumarMensuales(mensuales.values());
+        }
+
+        // Parte del subtotal de las líneas del producto en el pedido que corresponde al movimiento
+        private BigDecimal importe(Movimiento m) {
+            if (m.subtotalLinea() == null || m.unidadesLinea() == 0) return BigDecimal.ZERO;
+            return m.subtotalLinea().multiply(BigDecimal.valueOf(m.cantidad()))
+                    .divide(BigDecimal.valueOf(m.unidadesLinea()), 2, RoundingMode.HALF_UP);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.sw.GestorAPI.service;
+
+import com.sw.GestorAPI.dto.DashboardResumenResponse;
+import com.sw.GestorAPI.dto.DashboardResumenResponse.ConteoPorEstado;
+import com.sw.GestorAPI.dto.DashboardResumenResponse.VentaDia;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.entity.VentaDiaria;
+import com.sw.GestorAPI.enums.EstadoPedido;
+import com.sw.GestorAPI.enums.EstadoRuta;
+import com.sw.GestorAPI.repository.InventarioJdbcRepository.Nivel;
+import com.sw.GestorAPI.repository.ResumenDashboardRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Resumen del dashboard servido desde contadores mantenidos, sin recorrer las tablas:
+ * pedidos por EstadoPedido, rutas por EstadoRuta, inventarios con stock bajo y pedidos e
+ * ingresos por día (pedidos no cancelados, por fecha del pedido).
+ *
+ * Los servicios que modifican pedidos, rutas e inventarios registran aquí sus cambios; los deltas
+ * se acumulan por transacción y se suman a contadores_dashboard y ventas_diarias justo antes del
+ * commit, en la misma transacción. Así el bloqueo de cada fila de contador dura solo el commit, y
+ * un rollback no deja nada aplicado.
+ *
+ * Una reconciliación periódica (gestorapi.dashboard.reconciliacion-ms, y al arrancar) recalcula
+ * los contadores desde las tablas de origen y registra en el log las diferencias que corrige.
+ */
+@Slf4j
+@Service
+public class ResumenDashboardService {
+
+    public static final String STOCK_BAJO = "inventarios.stock_bajo";
+    private static final String PEDIDOS = "pedidos.";
+    private static final String RUTAS = "rutas.";
+    private static final int DIAS_MAXIMOS = 366;
+
+    private final ResumenDashboardRepository resumenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int diasReconciliacion;
+
+    public ResumenDashboardService(ResumenDashboardRepository resumenRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${gestorapi.dashboard.dias-reconciliacion:90}") int diasReconciliacion) {
+        this.resumenRepository = resumenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.diasReconciliacion = diasReconciliacion;
+    }
+
+    public DashboardResumenResponse obtenerResumen(Integer dias) {
+        int periodo = Math.max(1, Math.min(dias == null ? 30 : dias, DIAS_MAXIMOS));
+        Map<String, Long> contadores = resumenRepository.leerContadores();
+
+        List<ConteoPorEstado> pedidos = new ArrayList<>();
+        for (EstadoPedido estado : EstadoPedido.values()) {
+            pedidos.add(new ConteoPorEstado(estado.name(), contadores.getOrDefault(PEDIDOS + estado, 0L)));
+        }
+        List<ConteoPorEstado> rutas = new ArrayList<>();
+        for (EstadoRuta estado : EstadoRuta.values()) {
+            rutas.add(new ConteoPorEstado(estado.name(), contadores.getOrDefault(RUTAS + estado, 0L)));
+        }
+        List<VentaDia> ventas = resumenRepository.leerVentas(LocalDate.now().minusDays(periodo - 1L)).stream()
+                .map(v -> new VentaDia(v.getFecha().toString(), v.getPedidos(), v.getIngresos()))
+                .toList();
+        return new DashboardResumenResponse(pedidos, rutas, contadores.getOrDefault(STOCK_BAJO, 0L), ventas);
+    }
+
+    // =====================
+    // CAMBIOS (dentro de la transacción que los produce)
+    // =====================
+
+    public void pedidoCreado(Pedido pedido) {
+        registrar(d -> {
+            d.contador(PEDIDOS + pedido.getEstado(), 1);
+            if (pedido.getEstado() != EstadoPedido.CANCELADO) d.venta(pedido, 1);
+        });
+    }
+
+    public void pedidoCambioEstado(Pedido pedido, EstadoPedido anterior) {
+        if (anterior == pedido.getEstado()) return;
+        registrar(d -> {
+            d.contador(PEDIDOS + anterior, -1);
+            d.contador(PEDIDOS + pedido.getEstado(), 1);
+            if (pedido.getEstado() == EstadoPedido.CANCELADO) d.venta(pedido, -1);
+        });
+    }
+
+    public void pedidoEliminado(Pedido pedido) {
+        registrar(d -> {
+            d.contador(PEDIDOS + pedido.getEstado(), -1);
+            if (pedido.getEstado() != EstadoPedido.CANCELADO) d.venta(pedido, -1);
+        });
+    }
+
+    /**
+     * Ruta creada (anterior null), eliminada (nuevo null) o que cambió de estado
+     */
+    public void rutaCambioEstado(EstadoRuta anterior, EstadoRuta nuevo) {
+        if (anterior == nuevo) return;
+        registrar(d -> {
+            if (anterior != null) d.contador(RUTAS + anterior, -1);
+            if (nuevo != null) d.contador(RUTAS + nuevo, 1);
+        });
+    }
+
+    /**
+     * Un inventario entró o salió del stock bajo (activo y cantidad <= stockMinimo)
+     */
+    public void stockBajoCambio(boolean antes, boolean despues) {
+        if (antes == despues) return;
+        registrar(d -> d.contador(STOCK_BAJO, despues ? 1 : -1));
+    }
+
+    /**
+     * Se sumó delta a un inventario, que quedó en nivel
+     */
+    public void stockAjustado(Nivel nivel, int delta) {
+        stockBajoCambio(esStockBajo(nivel.cantidad() - delta, nivel.stockMinimo(), nivel.activo()),
+                esStockBajo(nivel.cantidad(), nivel.stockMinimo(), nivel.activo()));
+    }
+
+    public static boolean esStockBajo(int cantidad, int stockMinimo, boolean activo) {
+        return activo && cantidad <= stockMinimo;
+    }
+
+    private void registrar(Consumer<Deltas> cambio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Deltas deltas = new Deltas();
+            cambio.accept(deltas);
+            deltas.aplicar();
+            return;
+        }
+        Deltas deltas = (Deltas) TransactionSynchronizationManager.getResource(this);
+        if (deltas == null) {
+            deltas = new Deltas();
+            TransactionSynchronizationManager.bindResource(this, deltas);
+            TransactionSynchronizationManager.registerSynchronization(deltas);
+        }
+        cambio.accept(deltas);
+    }
+
+    // =====================
+    // RECONCILIACIÓN
+    // =====================
+
+    @Scheduled(fixedDelayString = "${gestorapi.dashboard.reconciliacion-ms:600000}")
+    public void reconciliar() {
+        reconciliarContadores();
+    }
+
+    /**
+     * Recalcula los contadores y las ventas de los últimos gestorapi.dashboard.dias-reconciliacion
+     * días desde las tablas de origen y devuelve cuántos valores corrigió.
+     *
+     * Bloquea primero las filas de contadores: las transacciones que ya sumaron sus deltas están
+     * confirmadas y entran en el recuento, y las que no, esperan y los suman después sobre el valor
+     * reconciliado.
+     */
+    public int reconciliarContadores() {
+        LocalDate desde = LocalDate.now().minusDays(diasReconciliacion);
+        Integer corregidos = transactionTemplate.execute(status -> {
+            Map<String, Long> actuales = resumenRepository.bloquearContadores();
+            boolean inicial = actuales.isEmpty();
+
+            Map<String, Long> esperados = new TreeMap<>();
+            for (EstadoPedido estado : EstadoPedido.values()) esperados.put(PEDIDOS + estado, 0L);
+            for (EstadoRuta estado : EstadoRuta.values()) esperados.put(RUTAS + estado, 0L);
+            resumenRepository.contarPedidosPorEstado().forEach((estado, n) -> esperados.put(PEDIDOS + estado, n));
+            resumenRepository.contarRutasPorEstado().forEach((estado, n) -> esperados.put(RUTAS + estado, n));
+            esperados.put(STOCK_BAJO, resumenRepository.contarStockBajo());
+
+            int diferencias = 0;
+            for (Map.Entry<String, Long> esperado : esperados.entrySet()) {
+                long actual = actuales.getOrDefault(esperado.getKey(), 0L);
+                if (actual != esperado.getValue()) {
+                    diferencias++;
+                    if (!inicial) {
+                        log.warn("Contador del dashboard corregido: {} era {}, es {}", esperado.getKey(), actual, esperado.getValue());
+                    }
+                }
+            }
+            resumenRepository.fijarContadores(esperados);
+
+            Map<LocalDate, VentaDiaria> ventasActuales = new HashMap<>();
+            resumenRepository.leerVentas(desde).forEach(v -> ventasActuales.put(v.getFecha(), v));
+            List<VentaDiaria> ventas = resumenRepository.calcularVentas(desde);
+            for (VentaDiaria venta : ventas) {
+                VentaDiaria actual = ventasActuales.remove(venta.getFecha());
+                if (actual == null || actual.getPedidos() != venta.getPedidos().longValue()
+                        || actual.getIngresos().compareTo(venta.getIngresos()) != 0) {
+                    diferencias++;
+                    if (!inicial) log.warn("Ventas del {} corregidas: {} -> {}", venta.getFecha(), actual, venta);
+                }
+            }
+            diferencias += ventasActuales.size();
+            resumenRepository.fijarVentas(desde, ventas);
+
+            if (inicial) {
+                log.info("Contadores del dashboard inicializados desde las tablas de origen");
+            }
+            return diferencias;
+        });
+        return corregidos != null ? corregidos : 0;
+    }
+
+    /**
+     * Deltas de una transacción, que se aplican en su beforeCommit
+     */
+    private final class Deltas implements TransactionSynchronization {
+
+        private final Map<String, Long> contadores = new TreeMap<>();
+        private final Map<LocalDate, VentaDiaria> ventas = new TreeMap<>();
+
+        void contador(String clave, long delta) {
+            contadores.merge(clave, delta, Long::sum);
+        }
+
+        void venta(Pedido pedido, int signo) {
+            LocalDate fecha = pedido.getFechaPedido() != null ? pedido.getFechaPedido().toLocalDate() : LocalDate.now();
+            BigDecimal total = pedido.getTotal() != null ? pedido.getTotal() : BigDecimal.ZERO;
+            VentaDiaria venta = ventas.computeIfAbsent(fecha, f -> new VentaDiaria(f, 0L, BigDecimal.ZERO));
+            venta.setPedidos(venta.getPedidos() + signo);
+            venta.setIngresos(signo > 0 ? venta.getIngresos().add(total) : venta.getIngresos().subtract(total));
+        }
+
+        void aplicar() {
+            contadores.values().removeIf(delta -> delta == 0);
+            resumenRepository.sumarContadores(contadores);
+            resumenRepository.sumarVentas(ventas.values());
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            aplicar();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ResumenDashboardService.this);
+        }
+    }
+}
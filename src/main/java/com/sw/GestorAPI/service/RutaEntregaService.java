@@ -1,23 +1,36 @@
 package com.sw.GestorAPI.service;
 
+import com.sw.GestorAPI.dto.PlanificacionRutasResponse;
 import com.sw.GestorAPI.entity.Pedido;
 import com.sw.GestorAPI.entity.RutaEntrega;
+import com.sw.GestorAPI.entity.Usuario;
 import com.sw.GestorAPI.enums.EstadoPedido;
 import com.sw.GestorAPI.enums.EstadoRuta;
+import com.sw.GestorAPI.enums.Rol;
 import com.sw.GestorAPI.repository.PedidoRepository;
 import com.sw.GestorAPI.repository.RutaEntregaRepository;
+import com.sw.GestorAPI.repository.UsuarioRepository;
+import com.sw.GestorAPI.ruteo.OptimizadorRutas;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +38,9 @@ public class RutaEntregaService {
 
     private final RutaEntregaRepository rutaEntregaRepository;
     private final PedidoRepository pedidoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final ResumenDashboardService resumenDashboard;
+    private final OptimizadorRutas optimizadorRutas;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -45,14 +61,47 @@ public class RutaEntregaService {
         return rutaEntregaRepository.findByEstado(estado, pageable);
     }
 
+    public Slice<RutaEntrega> listarSinTotal(Pageable pageable) {
+        return rutaEntregaRepository.findSliceBy(pageable);
+    }
+
+    public Slice<RutaEntrega> listarActivasSinTotal(Pageable pageable) {
+        return rutaEntregaRepository.findSliceByActivoTrue(pageable);
+    }
+
+    public Slice<RutaEntrega> listarPorRepartidorSinTotal(Long repartidorId, Pageable pageable) {
+        return rutaEntregaRepository.findSliceByRepartidorId(repartidorId, pageable);
+    }
+
+    public Slice<RutaEntrega> listarPorEstadoSinTotal(EstadoRuta estado, Pageable pageable) {
+        return rutaEntregaRepository.findSliceByEstado(estado, pageable);
+    }
+
+    public Window<RutaEntrega> listarVentana(ScrollPosition position, int limite) {
+        return rutaEntregaRepository.findByOrderByFechaRutaDescIdDesc(position, Limit.of(limite));
+    }
+
     public java.util.Optional<RutaEntrega> obtenerPorId(Long id) {
         return rutaEntregaRepository.findById(id);
     }
 
+    public Map<Long, List<Pedido>> listarPedidosPorRutas(Collection<Long> rutaIds) {
+        Map<Long, List<Pedido>> resultado = new HashMap<>();
+        for (Object[] fila : rutaEntregaRepository.findPedidosByRutaIdIn(rutaIds)) {
+            resultado.computeIfAbsent((Long) fila[0], k -> new ArrayList<>()).add((Pedido) fila[1]);
+        }
+        return resultado;
+    }
+
     public Page<RutaEntrega> listarPorRepartidorYEstado(Long repartidorId, EstadoRuta estado, Pageable pageable) {
         return rutaEntregaRepository.findByRepartidorIdAndEstado(repartidorId, estado, pageable);
     }
 
+    /**
+     * Crea la ruta con sus pedidos en el orden de visita calculado por OptimizadorRutas, y la
+     * distancia y el tiempo estimados de ese recorrido. Los valores recibidos solo se guardan si
+     * ningún pedido tiene ubicación.
+     */
     @Transactional
     public RutaEntrega crearRuta(Long repartidorId, LocalDate fechaRuta, Double distanciaTotalKm, Integer tiempoEstimadoMin, List<Long> pedidosIds) {
         if (repartidorId == null) throw new IllegalArgumentException("Repartidor obligatorio");
@@ -68,16 +117,67 @@ public class RutaEntregaService {
                 .build();
 
         if (pedidosIds != null && !pedidosIds.isEmpty()) {
-            List<Pedido> pedidos = pedidoRepository.findAllById(pedidosIds);
+            List<Pedido> pedidos = pedidoRepository.findConClienteByIdIn(pedidosIds);
             for (Pedido p : pedidos) {
                 if (p.getEstado() == EstadoPedido.CANCELADO || p.getEstado() == EstadoPedido.ENTREGADO) {
                     throw new IllegalArgumentException("El pedido " + p.getId() + " no puede asignarse a una ruta (estado: " + p.getEstado() + ")");
                 }
-                ruta.addPedido(p);
+            }
+            OptimizadorRutas.PlanRuta plan = optimizadorRutas.planificar(pedidos);
+            plan.pedidos().forEach(ruta::addPedido);
+            if (plan.distanciaKm() != null) {
+                ruta.setDistanciaTotalKm(plan.distanciaKm());
+                ruta.setTiempoEstimadoMin(plan.tiempoEstimadoMin());
             }
         }
 
-        return rutaEntregaRepository.save(ruta);
+        RutaEntrega guardada = rutaEntregaRepository.save(ruta);
+        resumenDashboard.rutaCambioEstado(null, guardada.getEstado());
+        return guardada;
+    }
+
+    /**
+     * Arma las rutas PLANIFICADA de la fecha: reparte los pedidos EN_PROCESO que no están en
+     * ninguna ruta vigente entre los repartidores activos sin ruta ese día (OptimizadorRutas.planificarFlota,
+     * acotado por gestorapi.rutas.tiempo-planificacion). Los pedidos que no entran, por falta de
+     * ubicación o de capacidad, se devuelven sin asignar.
+     * Los repartidores se bloquean antes de leer quién tiene ruta: una segunda planificación
+     * simultánea espera a que la primera confirme y ve sus rutas y pedidos ya asignados.
+     */
+    @Transactional
+    public PlanificacionRutasResponse planificarRutasDelDia(LocalDate fecha) {
+        if (fecha == null) throw new IllegalArgumentException("Fecha de ruta obligatoria");
+
+        List<Usuario> activos = usuarioRepository.findByRolAndActivoTrueOrderById(Rol.REPARTIDOR);
+        Set<Long> conRuta = Set.copyOf(rutaEntregaRepository.findRepartidorIdsConRuta(fecha));
+        List<Usuario> repartidores = activos.stream()
+                .filter(u -> !conRuta.contains(u.getId()))
+                .toList();
+        if (repartidores.isEmpty()) {
+            throw new IllegalArgumentException("No hay repartidores disponibles para el " + fecha);
+        }
+
+        List<Pedido> pendientes = pedidoRepository.findSinRutaConCliente(EstadoPedido.EN_PROCESO);
+        OptimizadorRutas.PlanFlota plan = optimizadorRutas.planificarFlota(pendientes, repartidores.size());
+
+        List<RutaEntrega> rutas = new ArrayList<>(plan.rutas().size());
+        for (int i = 0; i < plan.rutas().size(); i++) {
+            OptimizadorRutas.PlanRuta planRuta = plan.rutas().get(i);
+            RutaEntrega ruta = RutaEntrega.builder()
+                    .repartidor(repartidores.get(i))
+                    .estado(EstadoRuta.PLANIFICADA)
+                    .fechaRuta(fecha)
+                    .distanciaTotalKm(planRuta.distanciaKm())
+                    .tiempoEstimadoMin(planRuta.tiempoEstimadoMin())
+                    .activo(true)
+                    .build();
+            planRuta.pedidos().forEach(ruta::addPedido);
+            rutas.add(ruta);
+        }
+
+        List<RutaEntrega> guardadas = rutaEntregaRepository.saveAll(rutas);
+        guardadas.forEach(r -> resumenDashboard.rutaCambioEstado(null, r.getEstado()));
+        return new PlanificacionRutasResponse(guardadas, plan.sinAsignar());
     }
 
     @Transactional
@@ -109,8 +209,10 @@ public class RutaEntregaService {
     public RutaEntrega actualizarEstado(Long rutaId, EstadoRuta nuevoEstado) {
         RutaEntrega ruta = rutaEntregaRepository.findById(rutaId)
                 .orElseThrow(() -> new IllegalArgumentException("Ruta no encontrada con ID: " + rutaId));
-        validarTransicionEstado(ruta.getEstado(), nuevoEstado);
+        EstadoRuta anterior = ruta.getEstado();
+        validarTransicionEstado(anterior, nuevoEstado);
         ruta.setEstado(nuevoEstado);
+        resumenDashboard.rutaCambioEstado(anterior, nuevoEstado);
         return rutaEntregaRepository.save(ruta);
     }
 
@@ -124,7 +226,10 @@ public class RutaEntregaService {
 
     @Transactional
     public void eliminarRuta(Long rutaId) {
-        rutaEntregaRepository.deleteById(rutaId);
+        rutaEntregaRepository.findById(rutaId).ifPresent(ruta -> {
+            resumenDashboard.rutaCambioEstado(ruta.getEstado(), null);
+            rutaEntregaRepository.delete(ruta);
+        });
     }
 
     public Page<RutaEntrega> pagina(int page, int size) {
@@ -0,0 +1,255 @@
+package com.sw.GestorAPI.service;
+
+import com.sw.GestorAPI.repository.InventarioJdbcRepository;
+import com.sw.GestorAPI.repository.InventarioJdbcRepository.MovimientoPendiente;
+import com.sw.GestorAPI.repository.InventarioRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stock en memoria para productos de alta demanda (inventarios.reserva_en_memoria = true).
+ *
+ * Cada producto activo tiene su propio contador atómico: las reservas se aceptan o rechazan
+ * con un compare-and-set, sin pasar por la fila de inventarios, y cada una deja su
+ * MovimientoInventario con aplicado = false dentro de la transacción del pedido. Un proceso
+ * periódico suma esos movimientos a inventarios.cantidad por lotes y los marca como aplicados.
+ * Al arrancar, el contador se reconstruye como inventarios.cantidad + movimientos pendientes,
+ * así que una caída entre el commit del pedido y el volcado no pierde reservas.
+ *
+ * Los contadores viven en este proceso, así que solo una instancia puede llevarlos: la que tiene
+ * gestorapi.stock-en-memoria.habilitado=true. Las demás no cargan contadores, no vuelcan y
+ * rechazan las ventas de productos con reserva_en_memoria (el UPDATE por base no toca esas
+ * filas), en lugar de vender cada una el stock completo.
+ */
+@Slf4j
+@Service
+public class StockEnMemoriaService {
+
+    private static final int MOVIMIENTOS_POR_VOLCADO = 5000;
+    private static final long ESPERA_CONTADOR_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final InventarioRepository inventarioRepository;
+    private final InventarioJdbcRepository inventarioJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ResumenDashboardService resumenDashboard;
+    private final boolean habilitado;
+
+    private final Map<Long, AtomicInteger> contadores = new ConcurrentHashMap<>();
+
+    // No synchronized: el volcado hace E/S y no debe retener un monitor mientras espera a la base
+    private final ReentrantLock volcando = new ReentrantLock();
+
+    // Se marca al confirmar una reserva: evita consultar la base en cada ciclo sin actividad
+    private volatile boolean hayReservasSinVolcar;
+
+    public StockEnMemoriaService(InventarioRepository inventarioRepository,
+                                 InventarioJdbcRepository inventarioJdbcRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 ResumenDashboardService resumenDashboard,
+                                 @Value("${gestorapi.stock-en-memoria.habilitado:false}") boolean habilitado) {
+        this.inventarioRepository = inventarioRepository;
+        this.inventarioJdbcRepository = inventarioJdbcRepository;
+        // Cada lote en su propia transacción, también cuando se vuelca al confirmar una desactivación
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.resumenDashboard = resumenDashboard;
+        this.habilitado = habilitado;
+    }
+
+    /**
+     * Falla si esta instancia no es la que lleva los contadores (gestorapi.stock-en-memoria.habilitado)
+     */
+    public void comprobarHabilitado() {
+        if (!habilitado) {
+            throw new IllegalStateException("La reserva de stock en memoria no está habilitada en esta instancia");
+        }
+    }
+
+    public boolean estaActivo(@NonNull Long productoId) {
+        return contadores.containsKey(productoId);
+    }
+
+    public Optional<Integer> cantidad(@NonNull Long productoId) {
+        AtomicInteger contador = contadores.get(productoId);
+        return contador != null ? Optional.of(contador.get()) : Optional.empty();
+    }
+
+    /**
+     * Suma delta al contador del producto si el resultado no queda negativo y devuelve la
+     * cantidad resultante, o vacío si no hay stock suficiente. Si la transacción en curso
+     * termina sin commit, el delta se devuelve al contador.
+     */
+    public Optional<Integer> ajustar(@NonNull Long productoId, int delta) {
+        AtomicInteger contador = contadores.get(productoId);
+        if (contador == null) {
+            throw new IllegalStateException("El producto " + productoId + " no tiene reserva en memoria activa");
+        }
+
+        int actual;
+        int nueva;
+        do {
+            actual = contador.get();
+            nueva = actual + delta;
+            if (nueva < 0) return Optional.empty();
+        } while (!contador.compareAndSet(actual, nueva));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            hayReservasSinVolcar = true;
+        } else {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        hayReservasSinVolcar = true;
+                    } else {
+                        contador.addAndGet(-delta);
+                    }
+                }
+            });
+        }
+        return Optional.of(nueva);
+    }
+
+    /**
+     * Empieza a aceptar reservas del producto en memoria, partiendo de su cantidad real. Se llama
+     * dentro de la transacción que bloqueó la fila de inventario y marcó reserva_en_memoria: las
+     * ventas por base anteriores ya confirmaron y las posteriores esperan la fila y luego no la
+     * tocan, así que la cantidad leída es exacta. El contador se publica al confirmar.
+     */
+    public void activar(@NonNull Long productoId) {
+        comprobarHabilitado();
+        Integer cantidad = inventarioJdbcRepository.obtenerCantidadesConPendientes(List.of(productoId)).get(productoId);
+        if (cantidad == null) {
+            throw new IllegalArgumentException("Inventario no encontrado para producto: " + productoId);
+        }
+        AtomicInteger contador = new AtomicInteger(cantidad);
+        alConfirmar(() -> contadores.put(productoId, contador));
+    }
+
+    /**
+     * Deja de aceptar reservas en memoria y vuelca lo pendiente a inventarios (al confirmar, si
+     * hay una transacción en curso). Las reservas en memoria que confirman después se vuelcan
+     * en el siguiente ciclo.
+     */
+    public void desactivar(@NonNull Long productoId) {
+        alConfirmar(() -> {
+            if (contadores.remove(productoId) != null) {
+                volcarPendientes();
+            }
+        });
+    }
+
+    /**
+     * Espera a que el contador del producto esté publicado. Lo usa el camino por base cuando su
+     * UPDATE no aplicó porque la fila ya tiene reserva_en_memoria: la activación ya confirmó y su
+     * afterCommit (o cargar(), si la instancia está arrancando) lo publica enseguida.
+     */
+    public void esperarContador(@NonNull Long productoId) {
+        if (!habilitado) {
+            throw new IllegalStateException("El producto " + productoId
+                    + " reserva stock en memoria en otra instancia; esta no tiene la reserva en memoria habilitada");
+        }
+        long limite = System.nanoTime() + ESPERA_CONTADOR_NANOS;
+        while (!contadores.containsKey(productoId)) {
+            if (System.nanoTime() > limite) {
+                throw new IllegalStateException("Sin contador en memoria para el producto " + productoId);
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private static void alConfirmar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        if (!habilitado) {
+            List<Long> productoIds = inventarioRepository.findProductoIdsConReservaEnMemoria();
+            if (!productoIds.isEmpty()) {
+                log.warn("{} productos tienen reserva de stock en memoria, pero esta instancia no la tiene habilitada: "
+                        + "sus ventas solo las acepta la instancia con gestorapi.stock-en-memoria.habilitado=true",
+                        productoIds.size());
+            }
+            return;
+        }
+        // Primero se aplica lo que quedó pendiente de la ejecución anterior
+        volcarPendientes();
+        List<Long> productoIds = inventarioRepository.findProductoIdsConReservaEnMemoria();
+        inventarioJdbcRepository.obtenerCantidadesConPendientes(productoIds)
+                .forEach((id, cantidad) -> contadores.put(id, new AtomicInteger(cantidad)));
+        if (!productoIds.isEmpty()) {
+            log.info("Reserva de stock en memoria activa para {} productos", productoIds.size());
+        }
+    }
+
+    /**
+     * Suma a inventarios los movimientos pendientes, agrupados por producto, en lotes de
+     * MOVIMIENTOS_POR_VOLCADO. Cada lote es una transacción: el UPDATE de cantidades y la
+     * marca de aplicado se confirman juntos.
+     */
+    @Scheduled(fixedDelayString = "${gestorapi.stock-en-memoria.volcado-ms:200}")
+    public void volcar() {
+        if (!hayReservasSinVolcar) return;
+        hayReservasSinVolcar = false;
+        volcarPendientes();
+    }
+
+    private void volcarPendientes() {
+        volcando.lock();
+        try {
+            boolean lleno;
+            do {
+                Integer procesados = transactionTemplate.execute(status -> {
+                    List<MovimientoPendiente> pendientes =
+                            inventarioJdbcRepository.obtenerMovimientosPendientes(MOVIMIENTOS_POR_VOLCADO);
+                    if (pendientes.isEmpty()) return 0;
+
+                    Map<Long, Integer> deltas = new HashMap<>();
+                    List<Long> ids = new ArrayList<>(pendientes.size());
+                    for (MovimientoPendiente pendiente : pendientes) {
+                        deltas.merge(pendiente.productoId(), pendiente.delta(), Integer::sum);
+                        ids.add(pendiente.id());
+                    }
+                    inventarioJdbcRepository.aplicarPendientes(deltas, ids);
+                    inventarioJdbcRepository.obtenerNiveles(deltas.keySet()).forEach((productoId, nivel) ->
+                            resumenDashboard.stockAjustado(nivel, deltas.get(productoId)));
+                    return pendientes.size();
+                });
+                lleno = procesados != null && procesados == MOVIMIENTOS_POR_VOLCADO;
+            } while (lleno);
+        } finally {
+            volcando.unlock();
+        }
+    }
+}
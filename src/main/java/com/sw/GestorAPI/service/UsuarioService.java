@@ -3,6 +3,7 @@ package com.sw.GestorAPI.service;
 import com.sw.GestorAPI.dto.ActualizarUbicacionEmpresaInput;
 import com.sw.GestorAPI.entity.Usuario;
 import com.sw.GestorAPI.enums.Rol;
+import com.sw.GestorAPI.repository.CargaPorIdsRepository;
 import com.sw.GestorAPI.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,6 +11,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +25,7 @@ import java.util.Optional;
 public class UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
+    private final CargaPorIdsRepository cargaPorIds;
     private final PasswordEncoder passwordEncoder;
 
     /**
@@ -102,6 +105,16 @@ public class UsuarioService {
         return usuarioRepository.findById(id);
     }
 
+    /**
+     * Obtiene varios usuarios por sus IDs: los que estén en la caché de segundo nivel no se consultan
+     * 
+     * @param ids IDs de los usuarios
+     * @return Lista de usuarios encontrados
+     */
+    public List<Usuario> obtenerUsuariosPorIds(Collection<Long> ids) {
+        return cargaPorIds.cargar(Usuario.class, ids);
+    }
+
     /**
      * Obtiene un usuario por email
      * 
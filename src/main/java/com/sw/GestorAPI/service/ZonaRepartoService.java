@@ -0,0 +1,137 @@
+package com.sw.GestorAPI.service;
+
+import com.sw.GestorAPI.dto.ZonaRepartoResponse;
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.enums.EstadoPedido;
+import com.sw.GestorAPI.repository.PedidoRepository;
+import com.sw.GestorAPI.ruteo.Geohash;
+import com.sw.GestorAPI.ruteo.ZonasReparto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Etiqueta los pedidos pendientes (PENDIENTE, EN_PROCESO) con la zona de reparto de su cliente
+ * (ver {@link ZonasReparto}) para agruparlos por zona antes de armar rutas.
+ *
+ * El pedido recibe la zona al crearse. Cuando un cliente se muda, o su zona se divide al sumar
+ * clientes, ClienteService avisa al confirmar y se reetiquetan solo los pedidos pendientes de los
+ * clientes que cambiaron. Cada gestorapi.zonas.reconstruccion-ms las zonas se rearman desde cero
+ * (lo que también une las que quedaron chicas) y se corrigen las etiquetas que difieren.
+ */
+@Slf4j
+@Service
+public class ZonaRepartoService {
+
+    static final List<EstadoPedido> PENDIENTES = List.of(EstadoPedido.PENDIENTE, EstadoPedido.EN_PROCESO);
+    private static final int IDS_POR_ACTUALIZACION = 1000;
+
+    private final ZonasReparto zonas;
+    private final PedidoRepository pedidoRepository;
+    private final TransactionTemplate transaccionPropia;
+
+    public ZonaRepartoService(ZonasReparto zonas, PedidoRepository pedidoRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.zonas = zonas;
+        this.pedidoRepository = pedidoRepository;
+        // Se llama también desde afterCommit, donde la transacción del llamador ya terminó
+        this.transaccionPropia = new TransactionTemplate(transactionManager);
+        this.transaccionPropia.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String zonaDe(@NonNull Cliente cliente) {
+        return zonas.zonaDe(cliente.getLatitudCliente(), cliente.getLongitudCliente());
+    }
+
+    /**
+     * Zonas con clientes activos o pedidos pendientes, en orden de geohash
+     */
+    public List<ZonaRepartoResponse> listarZonas() {
+        Map<String, Integer> clientes = zonas.clientesPorZona();
+        Map<String, Long> pendientes = new TreeMap<>();
+        for (Object[] fila : pedidoRepository.contarPorZona(PENDIENTES)) {
+            pendientes.put((String) fila[0], (Long) fila[1]);
+        }
+        TreeMap<String, Boolean> todas = new TreeMap<>();
+        clientes.keySet().forEach(z -> todas.put(z, true));
+        pendientes.keySet().forEach(z -> todas.put(z, true));
+        List<ZonaRepartoResponse> resultado = new ArrayList<>(todas.size());
+        for (String zona : todas.keySet()) {
+            double[] centro = Geohash.centro(zona);
+            resultado.add(new ZonaRepartoResponse(zona, centro[0], centro[1],
+                    clientes.getOrDefault(zona, 0), pendientes.getOrDefault(zona, 0L)));
+        }
+        return resultado;
+    }
+
+    public List<Pedido> listarPendientesPorZona(@NonNull String zona) {
+        return pedidoRepository.findByZonaAndEstadoIn(zona, PENDIENTES);
+    }
+
+    /**
+     * Registra el cambio del cliente y reetiqueta los pedidos pendientes de los clientes cuya zona
+     * cambió. Los de un cliente que sale (inactivo o sin ubicación) conservan su zona.
+     */
+    public void clienteActualizado(Long clienteId, Double latitud, Double longitud, boolean activo) {
+        Map<String, List<Long>> porZona = new HashMap<>();
+        zonas.actualizar(clienteId, latitud, longitud, activo).forEach((id, zona) -> {
+            if (zona != null) porZona.computeIfAbsent(zona, z -> new ArrayList<>()).add(id);
+        });
+        if (porZona.isEmpty()) return;
+        transaccionPropia.executeWithoutResult(status -> porZona.forEach((zona, clienteIds) -> {
+            for (int desde = 0; desde < clienteIds.size(); desde += IDS_POR_ACTUALIZACION) {
+                pedidoRepository.actualizarZonaPorClientes(zona,
+                        clienteIds.subList(desde, Math.min(desde + IDS_POR_ACTUALIZACION, clienteIds.size())), PENDIENTES);
+            }
+        }));
+    }
+
+    @Scheduled(fixedDelayString = "${gestorapi.zonas.reconstruccion-ms:3600000}")
+    public void reconstruir() {
+        reconstruirZonas();
+    }
+
+    /**
+     * Rearma las zonas y corrige la zona de los pedidos pendientes que no coincide. Devuelve
+     * cuántos pedidos reetiquetó.
+     */
+    public int reconstruirZonas() {
+        Map<Long, String> zonaPorCliente = zonas.reconstruir();
+        Integer corregidos = transaccionPropia.execute(status -> {
+            Map<String, List<Long>> porZona = new HashMap<>();
+            for (Object[] fila : pedidoRepository.findZonasByEstadoIn(PENDIENTES)) {
+                String esperada = zonaPorCliente.get((Long) fila[1]);
+                // Cliente inactivo o sin ubicación: se deja la zona que tenga
+                if (esperada != null && !Objects.equals(esperada, fila[2])) {
+                    porZona.computeIfAbsent(esperada, z -> new ArrayList<>()).add((Long) fila[0]);
+                }
+            }
+            int total = 0;
+            for (Map.Entry<String, List<Long>> zona : porZona.entrySet()) {
+                List<Long> ids = zona.getValue();
+                for (int desde = 0; desde < ids.size(); desde += IDS_POR_ACTUALIZACION) {
+                    total += pedidoRepository.actualizarZona(zona.getKey(),
+                            ids.subList(desde, Math.min(desde + IDS_POR_ACTUALIZACION, ids.size())));
+                }
+            }
+            return total;
+        });
+        int total = corregidos != null ? corregidos : 0;
+        if (total > 0) {
+            log.info("Zonas de reparto reconstruidas: {} pedidos pendientes reetiquetados", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,20 @@
+-- Orden de visita de los pedidos de cada ruta (@OrderColumn de RutaEntrega.pedidos).
+-- La tabla no guardaba el orden en que se asignaron los pedidos, así que las filas existentes
+-- se numeran por pedido_id: un orden reproducible, pero arbitrario respecto del recorrido.
+-- Después la columna pasa a NOT NULL y (ruta_id, orden) a único, como en el esquema que
+-- genera Hibernate. En una base nueva la tabla aún no existe: la crea Hibernate.
+DO $$
+BEGIN
+    IF to_regclass('ruta_pedidos') IS NOT NULL THEN
+        ALTER TABLE ruta_pedidos ADD COLUMN IF NOT EXISTS orden INTEGER;
+        UPDATE ruta_pedidos rp
+        SET orden = numeradas.posicion
+        FROM (SELECT ctid, ROW_NUMBER() OVER (PARTITION BY ruta_id ORDER BY pedido_id, ctid) - 1 AS posicion
+              FROM ruta_pedidos) numeradas
+        WHERE rp.ctid = numeradas.ctid AND rp.orden IS NULL;
+        ALTER TABLE ruta_pedidos ALTER COLUMN orden SET NOT NULL;
+        IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_ruta_pedidos_ruta_orden') THEN
+            ALTER TABLE ruta_pedidos ADD CONSTRAINT uk_ruta_pedidos_ruta_orden UNIQUE (ruta_id, orden);
+        END IF;
+    END IF;
+END $$;
@@ -0,0 +1,12 @@
+-- Zona de reparto (prefijo de geohash del cliente) de los pedidos pendientes.
+-- En una base nueva la tabla aún no existe: la crea Hibernate con la columna y el índice
+DO $$
+BEGIN
+    IF to_regclass('pedidos') IS NOT NULL THEN
+        ALTER TABLE pedidos ADD COLUMN IF NOT EXISTS zona VARCHAR(12);
+
+        CREATE INDEX IF NOT EXISTS idx_pedido_zona ON pedidos (zona);
+
+        COMMENT ON COLUMN pedidos.zona IS 'Zona de reparto asignada por ZonaRepartoService mientras el pedido está PENDIENTE o EN_PROCESO';
+    END IF;
+END $$;
@@ -0,0 +1,17 @@
+-- Reservas de stock en memoria para productos de alta demanda.
+-- En una base nueva las tablas aún no existen: Hibernate las crea con las columnas. El índice
+-- parcial de los movimientos pendientes lo crea afterMigrate.sql
+DO $$
+BEGIN
+    IF to_regclass('inventarios') IS NOT NULL THEN
+        ALTER TABLE inventarios ADD COLUMN IF NOT EXISTS reserva_en_memoria BOOLEAN NOT NULL DEFAULT FALSE;
+        COMMENT ON COLUMN inventarios.reserva_en_memoria IS 'Si las reservas de este producto se aceptan en memoria y se vuelcan por lotes';
+    END IF;
+
+    IF to_regclass('movimientos_inventario') IS NOT NULL THEN
+        -- Movimientos cuyo delta aún no se volcó a inventarios.cantidad
+        ALTER TABLE movimientos_inventario ADD COLUMN IF NOT EXISTS aplicado BOOLEAN NOT NULL DEFAULT TRUE;
+
+        COMMENT ON COLUMN movimientos_inventario.aplicado IS 'FALSE mientras el delta no se haya sumado a inventarios.cantidad';
+    END IF;
+END $$;
@@ -0,0 +1,31 @@
+-- Secuencias para la generación de IDs con el optimizador pooled de Hibernate
+-- (allocationSize = 50): cada nextval reserva un bloque de 50 IDs, lo que permite
+-- agrupar los INSERT en batches JDBC (con IDENTITY Hibernate no puede hacerlo).
+--
+-- Hibernate toma el valor devuelto como el final del bloque (valor - 49 .. valor),
+-- por eso cada secuencia arranca en MAX(id) + 50: el primer bloque empieza justo
+-- después del último ID existente.
+--
+-- Cada columna id deja de ser IDENTITY y toma su secuencia como valor por defecto, para que
+-- los INSERT que no indican id (seed_database.py, SQL manual) también salgan de la secuencia
+-- y no de un generador propio que invadiría los bloques reservados por la aplicación.
+
+DO $$
+DECLARE
+    tabla TEXT;
+    inicio BIGINT;
+BEGIN
+    FOREACH tabla IN ARRAY ARRAY['clientes', 'productos', 'inventarios', 'movimientos_inventario',
+                                 'pedidos', 'items_pedido', 'rutas_entrega', 'usuarios'] LOOP
+        inicio := 50;
+        IF to_regclass(tabla) IS NOT NULL THEN
+            EXECUTE format('SELECT COALESCE(MAX(id), 0) + 50 FROM %I', tabla) INTO inicio;
+        END IF;
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH %s INCREMENT BY 50', tabla || '_seq', inicio);
+        IF to_regclass(tabla) IS NOT NULL THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', tabla);
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', tabla, tabla || '_seq');
+            EXECUTE format('ALTER SEQUENCE %I OWNED BY %I.id', tabla || '_seq', tabla);
+        END IF;
+    END LOOP;
+END $$;
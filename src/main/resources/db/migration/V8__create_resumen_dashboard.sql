@@ -0,0 +1,17 @@
+-- Agregados del dashboard mantenidos por la aplicación en la misma transacción que cada
+-- cambio (ver ResumenDashboardService). Claves: pedidos.<EstadoPedido>, rutas.<EstadoRuta>
+-- e inventarios.stock_bajo
+CREATE TABLE IF NOT EXISTS contadores_dashboard (
+    clave VARCHAR(64) PRIMARY KEY,
+    valor BIGINT NOT NULL DEFAULT 0
+);
+
+-- Pedidos no cancelados e ingresos por día de fecha_pedido
+CREATE TABLE IF NOT EXISTS ventas_diarias (
+    fecha    DATE PRIMARY KEY,
+    pedidos  BIGINT NOT NULL DEFAULT 0,
+    ingresos NUMERIC(14, 2) NOT NULL DEFAULT 0
+);
+
+COMMENT ON TABLE contadores_dashboard IS 'Contadores del dashboard; la reconciliación periódica los corrige contra las tablas de origen';
+COMMENT ON TABLE ventas_diarias IS 'Pedidos no cancelados e ingresos por día; se mantiene junto con pedidos';
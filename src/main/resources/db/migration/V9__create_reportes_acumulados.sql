@@ -0,0 +1,34 @@
+-- Acumulados de reportes, mantenidos por ReportesService a partir de movimientos_inventario:
+-- cada actualización suma los movimientos con id mayor que la marca de agua y avanza la marca
+-- en la misma transacción
+
+-- Unidades por producto y día (unidades_vendidas: salidas de pedidos menos sus devoluciones)
+CREATE TABLE IF NOT EXISTS reporte_movimientos_diarios (
+    producto_id       BIGINT NOT NULL,
+    fecha             DATE   NOT NULL,
+    unidades_entrada  BIGINT NOT NULL DEFAULT 0,
+    unidades_salida   BIGINT NOT NULL DEFAULT 0,
+    unidades_vendidas BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (producto_id, fecha)
+);
+
+-- Unidades vendidas e ingresos por cliente y mes (mes: primer día del mes)
+CREATE TABLE IF NOT EXISTS reporte_ventas_clientes_mensuales (
+    cliente_id BIGINT NOT NULL,
+    mes        DATE   NOT NULL,
+    unidades   BIGINT NOT NULL DEFAULT 0,
+    ingresos   NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (cliente_id, mes)
+);
+
+-- Último id de movimientos_inventario incluido en los acumulados
+CREATE TABLE IF NOT EXISTS reporte_marcas (
+    nombre    VARCHAR(64) PRIMARY KEY,
+    ultimo_id BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_reporte_movimientos_fecha ON reporte_movimientos_diarios (fecha);
+
+COMMENT ON TABLE reporte_movimientos_diarios IS 'Acumulado diario de movimientos_inventario por producto';
+COMMENT ON TABLE reporte_ventas_clientes_mensuales IS 'Acumulado mensual de ventas por cliente, desde los movimientos de pedidos';
+COMMENT ON TABLE reporte_marcas IS 'Marcas de agua (último id procesado) de los acumulados de reportes';
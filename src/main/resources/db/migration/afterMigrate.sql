@@ -0,0 +1,11 @@
+-- Se ejecuta al final de cada migrate: lo que Hibernate no sabe declarar, para las tablas que
+-- ya existen (en una base vacía FlywayConfig lo repite cuando Hibernate terminó de crearlas)
+DO $$
+BEGIN
+    IF to_regclass('movimientos_inventario') IS NOT NULL THEN
+        -- Índice parcial: el volcado de StockEnMemoriaService y la reconstrucción de los
+        -- contadores solo leen los movimientos pendientes
+        CREATE INDEX IF NOT EXISTS idx_movimiento_pendiente
+            ON movimientos_inventario (producto_id) WHERE aplicado = FALSE;
+    END IF;
+END $$;
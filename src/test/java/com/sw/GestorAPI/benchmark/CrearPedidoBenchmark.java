@@ -0,0 +1,105 @@
+package com.sw.GestorAPI.benchmark;
+
+import com.sw.GestorAPI.GestorApiApplication;
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.Inventario;
+import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.repository.ClienteRepository;
+import com.sw.GestorAPI.repository.InventarioRepository;
+import com.sw.GestorAPI.repository.ProductoRepository;
+import com.sw.GestorAPI.service.PedidoService;
+import com.sw.GestorAPI.service.PedidoService.ItemPedidoData;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PedidoService.crearPedido con 50 líneas contra H2 (modo PostgreSQL, perfil test). Contra la
+ * base remota cada sentencia es un viaje de red, así que además del tiempo se imprime, al
+ * final de cada iteración, cuántas sentencias preparó Hibernate por pedido.
+ *
+ * Ejecutar con: mvn -Pgestorapi-benchmarks verify
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CrearPedidoBenchmark {
+
+    private static final int LINEAS = 50;
+
+    private ConfigurableApplicationContext contexto;
+    private PedidoService pedidoService;
+    private Statistics statistics;
+    private Long clienteId;
+    private List<ItemPedidoData> lineas;
+    private long pedidos;
+
+    @Setup
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(GestorApiApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run();
+        pedidoService = contexto.getBean(PedidoService.class);
+        statistics = contexto.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        clienteId = contexto.getBean(ClienteRepository.class).save(Cliente.builder()
+                .nombre("Cliente").email("benchmark@test.com").password("secreto").build()).getId();
+        ProductoRepository productoRepository = contexto.getBean(ProductoRepository.class);
+        InventarioRepository inventarioRepository = contexto.getBean(InventarioRepository.class);
+        lineas = new ArrayList<>();
+        for (int i = 0; i < LINEAS; i++) {
+            Producto producto = productoRepository.save(Producto.builder()
+                    .nombre("Producto " + i).sku("BENCH-" + i).precio(new BigDecimal("3.50")).build());
+            inventarioRepository.save(Inventario.builder()
+                    .producto(producto).cantidad(1_000_000).ubicacion("A-" + i).stockMinimo(0).build());
+            lineas.add(new ItemPedidoData(producto.getId(), 1 + i % 3));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void reiniciarConteo() {
+        statistics.clear();
+        pedidos = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void imprimirSentencias() {
+        System.out.printf("%n%.1f sentencias preparadas/pedido%n",
+                (double) statistics.getPrepareStatementCount() / Math.max(1, pedidos));
+    }
+
+    @TearDown
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Long crearPedido() {
+        pedidos++;
+        return pedidoService.crearPedido(clienteId, "Calle 1", null, lineas).getId();
+    }
+}
@@ -0,0 +1,80 @@
+package com.sw.GestorAPI.benchmark;
+
+import com.sw.GestorAPI.GestorApiApplication;
+import com.sw.GestorAPI.entity.Inventario;
+import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.repository.InventarioRepository;
+import com.sw.GestorAPI.repository.ProductoRepository;
+import com.sw.GestorAPI.service.InventarioService;
+import com.sw.GestorAPI.service.StockEnMemoriaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InventarioService.descontarStock contra H2 (modo PostgreSQL, perfil test), con la
+ * aplicación completa levantada: incluye transacción, UPDATE atómico y movimiento. Con
+ * enMemoria=true el mismo SKU caliente reserva sobre el contador de StockEnMemoriaService.
+ *
+ * Ejecutar con: mvn -Pgestorapi-benchmarks verify
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(32)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DescontarStockBenchmark {
+
+    @Param({"false", "true"})
+    private boolean enMemoria;
+
+    private ConfigurableApplicationContext contexto;
+    private InventarioService inventarioService;
+    private Long productoId;
+
+    @Setup
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(GestorApiApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run();
+        inventarioService = contexto.getBean(InventarioService.class);
+
+        Producto producto = contexto.getBean(ProductoRepository.class).save(Producto.builder()
+                .nombre("Producto benchmark").sku("SKU-JMH").precio(new BigDecimal("1.00")).build());
+        contexto.getBean(InventarioRepository.class).save(Inventario.builder()
+                .producto(producto).cantidad(Integer.MAX_VALUE).ubicacion("JMH").stockMinimo(0).build());
+        productoId = producto.getId();
+        if (enMemoria) inventarioService.configurarReservaEnMemoria(productoId, true);
+    }
+
+    @TearDown
+    public void cerrar() {
+        // Vuelca las reservas pendientes antes de cerrar el contexto
+        contexto.getBean(StockEnMemoriaService.class).desactivar(productoId);
+        contexto.close();
+    }
+
+    @Benchmark
+    public void descontarStock() {
+        inventarioService.descontarStock(productoId, 1, "Benchmark", null);
+    }
+}
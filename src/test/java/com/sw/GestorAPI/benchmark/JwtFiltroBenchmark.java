@@ -0,0 +1,102 @@
+package com.sw.GestorAPI.benchmark;
+
+import com.sw.GestorAPI.security.JwtAuthenticationFilter;
+import com.sw.GestorAPI.security.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por petición de la autenticación JWT: el filtro anterior (cuatro parseos del token,
+ * reconstruyendo la clave en cada uno) y el filtro actual con el token ya en caché. La
+ * verificación de la primera petición de un token la mide JwtServiceBenchmark.verificar.
+ *
+ * Ejecutar con: mvn -Pgestorapi-benchmarks verify
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtFiltroBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final FilterChain CADENA = (request, response) -> { };
+
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filtro;
+    private MockHttpServletRequest request;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "SECRET_KEY", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "inicializarClave");
+        token = jwtService.generateToken("admin@test.com", 1L, "ADMIN");
+
+        filtro = new JwtAuthenticationFilter(jwtService, 10_000);
+        request = new MockHttpServletRequest("POST", "/graphql");
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+
+    /**
+     * Lo que hacía el filtro antes: extractUsername, extractRol e isTokenValid (que vuelve a
+     * parsear para el usuario y para la expiración), cada parseo con su propia clave
+     */
+    @Benchmark
+    public Authentication filtroAnterior() {
+        String username = parsearComoAntes(token).getSubject();
+        String rol = parsearComoAntes(token).get("rol", String.class);
+        boolean valido = parsearComoAntes(token).getSubject().equals(username)
+                && !parsearComoAntes(token).getExpiration().before(new Date());
+        if (!valido || !"ADMIN".equals(rol)) throw new IllegalStateException("Token inválido");
+
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                username, null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        return authentication;
+    }
+
+    @Benchmark
+    public Authentication filtroConCache() throws Exception {
+        filtro.doFilter(request, new MockHttpServletResponse(), CADENA);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    private static Claims parsearComoAntes(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
@@ -0,0 +1,53 @@
+package com.sw.GestorAPI.benchmark;
+
+import com.sw.GestorAPI.security.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generación y verificación de tokens con JwtService.
+ *
+ * Ejecutar con: mvn -Pgestorapi-benchmarks verify
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "SECRET_KEY",
+                "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "inicializarClave");
+        token = jwtService.generateToken("admin@test.com", 1L, "ADMIN");
+    }
+
+    @Benchmark
+    public String generar() {
+        return jwtService.generateToken("admin@test.com", 1L, "ADMIN");
+    }
+
+    @Benchmark
+    public JwtService.TokenVerificado verificar() {
+        return jwtService.verificar(token);
+    }
+}
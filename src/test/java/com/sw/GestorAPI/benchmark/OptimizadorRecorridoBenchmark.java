@@ -0,0 +1,56 @@
+package com.sw.GestorAPI.benchmark;
+
+import com.sw.GestorAPI.ruteo.OptimizadorRecorrido;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OptimizadorRecorrido sobre paradas al azar en un radio de ~20 km, sin límite de tiempo: mide
+ * cuánto tarda en converger 2-opt / Or-opt.
+ *
+ * Ejecutar con: mvn -Pgestorapi-benchmarks verify
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OptimizadorRecorridoBenchmark {
+
+    @Param({"50", "300"})
+    private int paradas;
+
+    private float[] distancias;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        double[] latitudes = new double[paradas + 1];
+        double[] longitudes = new double[paradas + 1];
+        latitudes[0] = -17.78;
+        longitudes[0] = -63.18;
+        for (int i = 1; i <= paradas; i++) {
+            latitudes[i] = -17.78 + (random.nextDouble() - 0.5) * 0.36;
+            longitudes[i] = -63.18 + (random.nextDouble() - 0.5) * 0.36;
+        }
+        distancias = OptimizadorRecorrido.matrizHaversine(latitudes, longitudes);
+    }
+
+    @Benchmark
+    public double optimizar() {
+        return OptimizadorRecorrido.optimizar(distancias, paradas + 1, true, Long.MAX_VALUE / 2).distancia();
+    }
+}
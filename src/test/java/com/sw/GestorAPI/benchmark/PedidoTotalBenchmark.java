@@ -0,0 +1,59 @@
+package com.sw.GestorAPI.benchmark;
+
+import com.sw.GestorAPI.entity.ItemPedido;
+import com.sw.GestorAPI.entity.Pedido;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pedido.recalcularTotal sobre listas de items de distintos tamaños.
+ *
+ * Ejecutar con: mvn -Pgestorapi-benchmarks verify
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PedidoTotalBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int items;
+
+    private Pedido pedido;
+
+    @Setup
+    public void preparar() {
+        // Se arma la lista directamente: addItem recalcula el total en cada inserción
+        List<ItemPedido> lista = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            BigDecimal precio = BigDecimal.valueOf(100 + i % 900, 2);
+            int cantidad = 1 + i % 5;
+            lista.add(ItemPedido.builder().cantidad(cantidad).precioUnitario(precio)
+                    .subtotal(precio.multiply(BigDecimal.valueOf(cantidad))).build());
+        }
+        pedido = new Pedido();
+        pedido.setItems(lista);
+    }
+
+    @Benchmark
+    public BigDecimal recalcularTotal() {
+        pedido.recalcularTotal();
+        return pedido.getTotal();
+    }
+}
@@ -0,0 +1,120 @@
+package com.sw.GestorAPI.benchmark;
+
+import com.sw.GestorAPI.dto.PedidoPageResponse;
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.ItemPedido;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.entity.Producto;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.graphql.execution.ConnectionTypeDefinitionConfigurer;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ejecución de la consulta pedidos sobre el schema real, con data fetchers que devuelven
+ * datos en memoria: mide solo el coste de graphql-java (parseo, validación y resolución de
+ * campos), sin base de datos ni DataLoaders.
+ *
+ * Ejecutar con: mvn -Pgestorapi-benchmarks verify
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PedidosGraphQLBenchmark {
+
+    private static final String CONSULTA = """
+            query($size: Int) { pedidos(page: 0, size: $size) {
+                totalElements totalPages
+                content {
+                    id estado total direccionEntrega fechaPedido
+                    cliente { id nombre email }
+                    items { cantidad precioUnitario subtotal producto { id sku nombre precio } }
+                }
+            } }""";
+
+    @Param({"10", "100"})
+    private int pedidos;
+
+    private GraphQL graphQL;
+
+    @Setup
+    public void preparar() throws Exception {
+        TypeDefinitionRegistry registry;
+        try (Reader schema = new InputStreamReader(Objects.requireNonNull(
+                getClass().getResourceAsStream("/graphql/schema.graphqls")), StandardCharsets.UTF_8)) {
+            registry = new SchemaParser().parse(schema);
+        }
+        // Los tipos *Connection los genera Spring GraphQL al arrancar, no están en el archivo
+        new ConnectionTypeDefinitionConfigurer().configure(registry);
+
+        PedidoPageResponse pagina = new PedidoPageResponse(datos(), pedidos * 10, 10, 0, pedidos);
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", tipo -> tipo.dataFetcher("pedidos", env -> pagina))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(registry, wiring);
+        graphQL = GraphQL.newGraphQL(schema).build();
+
+        ExecutionResult prueba = ejecutar();
+        if (!prueba.getErrors().isEmpty()) {
+            throw new IllegalStateException("La consulta del benchmark falla: " + prueba.getErrors());
+        }
+    }
+
+    @Benchmark
+    public ExecutionResult ejecutar() {
+        return graphQL.execute(builder -> builder.query(CONSULTA)
+                .variables(Map.of("size", pedidos)));
+    }
+
+    private List<Pedido> datos() {
+        List<Producto> productos = new ArrayList<>();
+        for (long i = 1; i <= 20; i++) {
+            productos.add(Producto.builder().id(i).nombre("Producto " + i).sku("SKU-" + i)
+                    .precio(new BigDecimal("12.50")).fechaCreacion(LocalDateTime.now()).build());
+        }
+        List<Pedido> lista = new ArrayList<>(pedidos);
+        for (long i = 1; i <= pedidos; i++) {
+            Cliente cliente = Cliente.builder().id(i).nombre("Cliente " + i).email("cliente" + i + "@test.com")
+                    .fechaCreacion(LocalDateTime.now()).build();
+            Pedido pedido = Pedido.builder().id(i).cliente(cliente).direccionEntrega("Calle " + i)
+                    .fechaPedido(LocalDateTime.now()).items(new ArrayList<>()).build();
+            for (int j = 0; j < 3; j++) {
+                Producto producto = productos.get((int) ((i + j) % productos.size()));
+                pedido.addItem(ItemPedido.builder().id(i * 10 + j).producto(producto).cantidad(2)
+                        .precioUnitario(producto.getPrecio())
+                        .subtotal(producto.getPrecio().multiply(BigDecimal.valueOf(2))).build());
+            }
+            lista.add(pedido);
+        }
+        return lista;
+    }
+}
@@ -0,0 +1,69 @@
+package com.sw.GestorAPI.config;
+
+import com.sw.GestorAPI.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * health e info son públicos; metrics y prometheus solo responden a un ADMIN y caches no se expone.
+ * Prometheus lee /actuator/prometheus con el token de scrape, que no abre el resto del actuator.
+ */
+@SpringBootTest(properties = "gestorapi.metricas.token-scrape=" + ActuatorSeguridadTests.TOKEN_SCRAPE)
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class ActuatorSeguridadTests {
+
+    static final String TOKEN_SCRAPE = "scrape-de-prueba";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    void metricasSoloParaAdministradores() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", bearer("REPARTIDOR")))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", bearer("ADMIN")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", bearer("ADMIN")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/caches").header("Authorization", bearer("ADMIN")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void prometheusLeeConElTokenDeScrape() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + TOKEN_SCRAPE))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("jvm_memory_used_bytes")))
+                // Las cachés del catálogo y la de documentos GraphQL conviven bajo cache_*
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"productosPorSku\"")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"documentosGraphQL\"")));
+
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer otro-token"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + TOKEN_SCRAPE))
+                .andExpect(status().isForbidden());
+    }
+
+    private String bearer(String rol) {
+        return "Bearer " + jwtService.generateToken("actuator-" + rol.toLowerCase(), 1L, rol);
+    }
+}
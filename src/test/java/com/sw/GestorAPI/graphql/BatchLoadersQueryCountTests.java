@@ -0,0 +1,208 @@
+package com.sw.GestorAPI.graphql;
+
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.Inventario;
+import com.sw.GestorAPI.entity.ItemPedido;
+import com.sw.GestorAPI.entity.MovimientoInventario;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.entity.RutaEntrega;
+import com.sw.GestorAPI.entity.Usuario;
+import com.sw.GestorAPI.enums.Rol;
+import com.sw.GestorAPI.enums.TipoMovimiento;
+import com.sw.GestorAPI.repository.ClienteRepository;
+import com.sw.GestorAPI.repository.InventarioRepository;
+import com.sw.GestorAPI.repository.MovimientoInventarioRepository;
+import com.sw.GestorAPI.repository.PedidoRepository;
+import com.sw.GestorAPI.repository.ProductoRepository;
+import com.sw.GestorAPI.repository.RutaEntregaRepository;
+import com.sw.GestorAPI.repository.UsuarioRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que las asociaciones de una página se resuelvan con un número constante de
+ * consultas (página + count + una consulta IN por asociación), sin importar cuántas filas haya.
+ */
+@SpringBootTest
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+class BatchLoadersQueryCountTests {
+
+    private static final int FILAS = 12;
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private InventarioRepository inventarioRepository;
+
+    @Autowired
+    private MovimientoInventarioRepository movimientoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private RutaEntregaRepository rutaEntregaRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin@test.com", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+        sembrarDatos();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        rutaEntregaRepository.deleteAll();
+        movimientoRepository.deleteAll();
+        inventarioRepository.deleteAll();
+        pedidoRepository.deleteAll();
+        productoRepository.deleteAll();
+        clienteRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    void pedidosResuelveClienteItemsYProductoEnConsultasConstantes() {
+        graphQlTester.document("""
+                        { pedidos(page: 0, size: 50) {
+                            totalElements
+                            content { id cliente { nombre } items { cantidad producto { sku } } }
+                        } }""")
+                .execute()
+                .path("pedidos.content").entityList(Object.class).hasSize(FILAS);
+
+        // pedidos + count + clientes + items + productos
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    void pedidosSinTotalesNoEjecutaConteo() {
+        graphQlTester.document("{ pedidos(page: 0, size: 50) { content { id estado total } } }")
+                .execute()
+                .path("pedidos.content").entityList(Object.class).hasSize(FILAS);
+
+        // solo el SELECT de la página: sin COUNT(*) ni asociaciones
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void inventariosResuelveProductoEnConsultasConstantes() {
+        graphQlTester.document("{ inventarios(page: 0, size: 50) { totalElements content { cantidad producto { sku } } } }")
+                .execute()
+                .path("inventarios.content").entityList(Object.class).hasSize(FILAS);
+
+        // inventarios + count + productos
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void movimientosResuelveProductoEnConsultasConstantes() {
+        Long productoId = productoRepository.findAll().get(0).getId();
+        statistics.clear();
+
+        graphQlTester.document("{ movimientosPorProducto(productoId: " + productoId + ", page: 0, size: 50) { content { cantidad producto { sku } } } }")
+                .execute()
+                .path("movimientosPorProducto.content").entityList(Object.class).hasSize(FILAS);
+
+        // movimientos + count + productos
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void rutasResuelveRepartidorYPedidosEnConsultasConstantes() {
+        graphQlTester.document("""
+                        { rutas(page: 0, size: 50) {
+                            content { id repartidor { nombreCompleto } pedidos { id cliente { nombre } } }
+                        } }""")
+                .execute()
+                .path("rutas.content").entityList(Object.class).hasSize(FILAS);
+
+        // rutas + count + usuarios + pedidos por ruta + clientes
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+    }
+
+    private void sembrarDatos() {
+        List<Producto> productos = new ArrayList<>();
+        List<Pedido> pedidos = new ArrayList<>();
+        for (int i = 0; i < FILAS; i++) {
+            Producto producto = productoRepository.save(Producto.builder()
+                    .nombre("Producto " + i).sku("SKU-" + i).precio(new BigDecimal("10.00")).build());
+            productos.add(producto);
+
+            inventarioRepository.save(Inventario.builder()
+                    .producto(producto).cantidad(100).ubicacion("A-" + i).stockMinimo(5).build());
+
+            Cliente cliente = clienteRepository.save(Cliente.builder()
+                    .nombre("Cliente " + i).email("cliente" + i + "@test.com").password("secreto").build());
+
+            Pedido pedido = Pedido.builder().cliente(cliente).direccionEntrega("Calle " + i).build();
+            pedido.addItem(item(producto, 1));
+            pedido.addItem(item(productos.get(i / 2), 2));
+            pedidos.add(pedidoRepository.save(pedido));
+        }
+
+        for (int i = 0; i < FILAS; i++) {
+            movimientoRepository.save(MovimientoInventario.builder()
+                    .producto(productos.get(0)).tipo(TipoMovimiento.ENTRADA).cantidad(i + 1)
+                    .motivo("Reposición").cantidadAnterior(0).cantidadNueva(i + 1).build());
+
+            Usuario repartidor = usuarioRepository.save(Usuario.builder()
+                    .nombreCompleto("Repartidor " + i).email("repartidor" + i + "@test.com")
+                    .password("secreto").rol(Rol.REPARTIDOR).build());
+
+            RutaEntrega ruta = RutaEntrega.builder().repartidor(repartidor).fechaRuta(LocalDate.now()).build();
+            ruta.addPedido(pedidos.get(i));
+            ruta.addPedido(pedidos.get((i + 1) % FILAS));
+            rutaEntregaRepository.save(ruta);
+        }
+    }
+
+    private ItemPedido item(Producto producto, int cantidad) {
+        ItemPedido item = ItemPedido.builder()
+                .producto(producto)
+                .cantidad(cantidad)
+                .precioUnitario(producto.getPrecio())
+                .build();
+        item.calcularSubtotal();
+        return item;
+    }
+}
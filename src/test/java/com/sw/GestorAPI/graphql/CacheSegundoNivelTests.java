@@ -0,0 +1,159 @@
+package com.sw.GestorAPI.graphql;
+
+import com.sw.GestorAPI.config.CacheConfig;
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.ItemPedido;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.repository.ClienteRepository;
+import com.sw.GestorAPI.repository.ItemPedidoRepository;
+import com.sw.GestorAPI.repository.PedidoRepository;
+import com.sw.GestorAPI.repository.ProductoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que productos y clientes se sirvan desde la caché de segundo nivel de Hibernate
+ * una vez cargados, sin volver a consultarlos en cada petición
+ */
+@SpringBootTest
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+class CacheSegundoNivelTests {
+
+    private static final String PEDIDO = """
+            query($id: ID!) { pedido(id: $id) {
+                id cliente { nombre } items { cantidad producto { sku nombre } }
+            } }""";
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ItemPedidoRepository itemPedidoRepository;
+
+    private Statistics statistics;
+    private Pedido pedido;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin@test.com", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        Cliente cliente = clienteRepository.save(Cliente.builder()
+                .nombre("Cliente L2").email("l2@test.com").password("secreto").build());
+        Pedido nuevo = Pedido.builder().cliente(cliente).direccionEntrega("Calle 1").build();
+        for (int i = 0; i < 3; i++) {
+            Producto producto = productoRepository.save(Producto.builder()
+                    .nombre("Producto L2 " + i).sku("SKU-L2-" + i).precio(new BigDecimal("3.00")).build());
+            nuevo.addItem(ItemPedido.builder().producto(producto).cantidad(1)
+                    .precioUnitario(producto.getPrecio()).subtotal(producto.getPrecio()).build());
+        }
+        pedido = pedidoRepository.save(nuevo);
+        entityManagerFactory.getCache().evictAll();
+        limpiarCacheDeProductos();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        pedidoRepository.deleteAll();
+        productoRepository.deleteAll();
+        clienteRepository.deleteAll();
+    }
+
+    @Test
+    void pedidoRepetidoNoVuelveAConsultarProductosNiCliente() {
+        consultarPedido();
+        long productosCargados = statistics.getEntityStatistics(Producto.class.getName()).getLoadCount();
+        assertThat(productosCargados).isEqualTo(3);
+
+        // Sin la caché del servicio, los productos solo pueden salir de la de segundo nivel
+        limpiarCacheDeProductos();
+        statistics.clear();
+        consultarPedido();
+
+        assertThat(statistics.getEntityStatistics(Producto.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(Cliente.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics("producto").getHitCount()).isEqualTo(3);
+        // pedido + items
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void asociacionItemPedidoProductoSeResuelveDesdeLaCache() {
+        consultarPedido();
+        statistics.clear();
+
+        List<String> skus = new TransactionTemplate(transactionManager).execute(status ->
+                itemPedidoRepository.findByPedidoIdIn(List.of(pedido.getId())).stream()
+                        .map(item -> item.getProducto().getSku())
+                        .toList());
+
+        assertThat(skus).containsExactlyInAnyOrder("SKU-L2-0", "SKU-L2-1", "SKU-L2-2");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findBySkuUsaLaCacheDeConsultas() {
+        productoRepository.findBySku("SKU-L2-0");
+        statistics.clear();
+
+        assertThat(productoRepository.findBySku("SKU-L2-0")).isPresent();
+
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    private void consultarPedido() {
+        graphQlTester.document(PEDIDO)
+                .variable("id", pedido.getId())
+                .execute()
+                .path("pedido.items").entityList(Object.class).hasSize(3);
+    }
+
+    private void limpiarCacheDeProductos() {
+        Objects.requireNonNull(cacheManager.getCache(CacheConfig.PRODUCTOS)).clear();
+        Objects.requireNonNull(cacheManager.getCache(CacheConfig.PRODUCTOS_POR_SKU)).clear();
+    }
+}
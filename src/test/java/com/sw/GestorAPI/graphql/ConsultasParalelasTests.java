@@ -0,0 +1,159 @@
+package com.sw.GestorAPI.graphql;
+
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.Inventario;
+import com.sw.GestorAPI.entity.ItemPedido;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.entity.RutaEntrega;
+import com.sw.GestorAPI.entity.Usuario;
+import com.sw.GestorAPI.enums.Rol;
+import com.sw.GestorAPI.repository.ClienteRepository;
+import com.sw.GestorAPI.repository.InventarioRepository;
+import com.sw.GestorAPI.repository.PedidoRepository;
+import com.sw.GestorAPI.repository.ProductoRepository;
+import com.sw.GestorAPI.repository.RutaEntregaRepository;
+import com.sw.GestorAPI.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los campos raíz del dashboard se ejecutan a la vez, cada uno en su transacción de solo lectura
+ */
+@SpringBootTest
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+class ConsultasParalelasTests {
+
+    private static final int FILAS = 3;
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private ConsultasParalelas consultasParalelas;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private InventarioRepository inventarioRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private RutaEntregaRepository rutaEntregaRepository;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin-dashboard@test.com", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+        sembrarDatos();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        rutaEntregaRepository.deleteAll();
+        inventarioRepository.deleteAll();
+        pedidoRepository.deleteAll();
+        productoRepository.deleteAll();
+        clienteRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    void dashboardResuelveTodosLosCamposYSusAsociaciones() {
+        GraphQlTester.Response respuesta = graphQlTester.document("""
+                        query Dashboard {
+                          pendientes: pedidosPorEstado(estado: PENDIENTE) { totalElements content { cliente { nombre } items { producto { sku } } } }
+                          entregados: pedidosPorEstado(estado: ENTREGADO) { totalElements }
+                          inventariosStockBajo { content { cantidad producto { sku } } }
+                          rutasActivas { content { repartidor { nombreCompleto } pedidos { id } } }
+                          clientesActivos { totalElements }
+                        }""")
+                .execute();
+
+        respuesta.errors().verify();
+        respuesta.path("pendientes.totalElements").entity(Integer.class).isEqualTo(FILAS);
+        respuesta.path("pendientes.content[0].items[0].producto.sku").entity(String.class).satisfies(
+                sku -> assertThat(sku).startsWith("DASH-"));
+        respuesta.path("entregados.totalElements").entity(Integer.class).isEqualTo(0);
+        respuesta.path("inventariosStockBajo.content").entityList(Object.class).hasSize(FILAS);
+        respuesta.path("rutasActivas.content[0].repartidor.nombreCompleto").entity(String.class).isEqualTo("Repartidor dashboard");
+        respuesta.path("rutasActivas.content[0].pedidos").entityList(Object.class).hasSize(FILAS);
+        respuesta.path("clientesActivos.totalElements").entity(Integer.class).isEqualTo(FILAS);
+    }
+
+    @Test
+    void camposEnParaleloTardanLoQueElMasLento() {
+        long inicio = System.nanoTime();
+        CompletableFuture<String> uno = consultasParalelas.enParalelo(this::consultaLenta);
+        CompletableFuture<String> dos = consultasParalelas.enParalelo(this::consultaLenta);
+        CompletableFuture<String> tres = consultasParalelas.enParalelo(this::consultaLenta);
+        List<String> resultados = List.of(uno.join(), dos.join(), tres.join());
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+
+        assertThat(milisegundos).isLessThan(3 * 300);
+        assertThat(resultados).allSatisfy(resultado -> assertThat(resultado).startsWith("graphql-consulta-").endsWith(":solo-lectura"));
+        assertThat(resultados).doesNotHaveDuplicates();
+    }
+
+    private String consultaLenta() {
+        try {
+            Thread.sleep(300);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Thread.currentThread().getName()
+                + (TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? ":solo-lectura" : ":escritura");
+    }
+
+    private void sembrarDatos() {
+        Usuario repartidor = usuarioRepository.save(Usuario.builder()
+                .nombreCompleto("Repartidor dashboard").email("repartidor-dashboard@test.com")
+                .password("secreto").rol(Rol.REPARTIDOR).build());
+        RutaEntrega ruta = RutaEntrega.builder().repartidor(repartidor).fechaRuta(LocalDate.now()).build();
+
+        for (int i = 0; i < FILAS; i++) {
+            Producto producto = productoRepository.save(Producto.builder()
+                    .nombre("Producto " + i).sku("DASH-" + i).precio(new BigDecimal("10.00")).build());
+            inventarioRepository.save(Inventario.builder()
+                    .producto(producto).cantidad(1).ubicacion("D-" + i).stockMinimo(5).build());
+
+            Cliente cliente = clienteRepository.save(Cliente.builder()
+                    .nombre("Cliente " + i).email("dashboard" + i + "@test.com").password("secreto").build());
+            Pedido pedido = Pedido.builder().cliente(cliente).direccionEntrega("Calle " + i).build();
+            ItemPedido item = ItemPedido.builder().producto(producto).cantidad(1)
+                    .precioUnitario(producto.getPrecio()).build();
+            item.calcularSubtotal();
+            pedido.addItem(item);
+            ruta.addPedido(pedidoRepository.save(pedido));
+        }
+        rutaEntregaRepository.save(ruta);
+    }
+}
@@ -0,0 +1,116 @@
+package com.sw.GestorAPI.graphql;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Caché de documentos, Automatic Persisted Queries y modo de consultas registradas
+ */
+class DocumentosPreparadosTests {
+
+    private static final String CONSULTA = "{ hola }";
+    private static final String OTRA = "{ hola adios: hola }";
+
+    private final AtomicInteger resoluciones = new AtomicInteger();
+
+    @Test
+    void consultaRepetidaSeParseaUnaVez() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GraphQL graphQL = graphQL(new DocumentosPreparados(new ObjectMapper(), registry, 100, false, sinManifiesto()));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(graphQL.execute(CONSULTA).getErrors()).isEmpty();
+        }
+
+        assertThat(registry.get("cache.gets").tag("cache", "documentosGraphQL").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "documentosGraphQL").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void hashDesconocidoPideElTextoYLuegoBastaElHash() {
+        GraphQL graphQL = graphQL(new DocumentosPreparados(new ObjectMapper(), new SimpleMeterRegistry(), 100, false, sinManifiesto()));
+        String hash = DocumentosPreparados.sha256(CONSULTA);
+
+        assertThat(graphQL.execute(persistida("", hash)).getErrors())
+                .singleElement().satisfies(error -> assertThat(error.getMessage()).isEqualTo("PersistedQueryNotFound"));
+
+        assertThat(graphQL.execute(persistida(CONSULTA, hash)).getErrors()).isEmpty();
+
+        ExecutionResult soloHash = graphQL.execute(persistida("", hash));
+        assertThat(soloHash.getErrors()).isEmpty();
+        assertThat(soloHash.<Map<String, Object>>getData()).containsEntry("hola", "mundo");
+    }
+
+    @Test
+    void hashQueNoCorrespondeAlTextoSeRechaza() {
+        GraphQL graphQL = graphQL(new DocumentosPreparados(new ObjectMapper(), new SimpleMeterRegistry(), 100, false, sinManifiesto()));
+
+        assertThat(graphQL.execute(persistida(OTRA, DocumentosPreparados.sha256(CONSULTA))).getErrors())
+                .singleElement().satisfies(error -> assertThat(error.getMessage()).isEqualTo("PersistedQueryIdInvalid"));
+        assertThat(resoluciones).hasValue(0);
+    }
+
+    @Test
+    void soloRegistradasRechazaLoQueNoEstaEnElManifiesto() {
+        String manifiesto = """
+                {"format": "apollo-persisted-query-manifest", "version": 1, "operations": [
+                  {"id": "%s", "name": "Hola", "type": "query", "body": "%s"}
+                ]}""".formatted(DocumentosPreparados.sha256(CONSULTA), CONSULTA);
+        GraphQL graphQL = graphQL(new DocumentosPreparados(new ObjectMapper(), new SimpleMeterRegistry(), 100, true,
+                new ByteArrayResource(manifiesto.getBytes(StandardCharsets.UTF_8))));
+
+        // El cliente no necesita registrar el texto: el servidor ya lo tiene
+        assertThat(graphQL.execute(persistida("", DocumentosPreparados.sha256(CONSULTA))).getErrors()).isEmpty();
+        assertThat(graphQL.execute(CONSULTA).getErrors()).isEmpty();
+
+        assertThat(graphQL.execute(persistida(OTRA, DocumentosPreparados.sha256(OTRA))).getErrors())
+                .singleElement().satisfies(error -> assertThat(error.getMessage()).isEqualTo("PersistedQueryNotFound"));
+        assertThat(graphQL.execute(OTRA).getErrors())
+                .singleElement().satisfies(error -> assertThat(error.getMessage()).startsWith("Consulta no registrada"));
+        assertThat(resoluciones).hasValue(2);
+    }
+
+    private GraphQL graphQL(DocumentosPreparados documentos) {
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", tipo -> tipo.dataFetcher("hola", env -> {
+                    resoluciones.incrementAndGet();
+                    return "mundo";
+                }))
+                .build();
+        return GraphQL.newGraphQL(new SchemaGenerator().makeExecutableSchema(
+                        new SchemaParser().parse("type Query { hola: String }"), wiring))
+                .preparsedDocumentProvider(documentos)
+                .build();
+    }
+
+    private static ExecutionInput persistida(String consulta, String hash) {
+        return ExecutionInput.newExecutionInput(consulta)
+                .extensions(Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)))
+                .build();
+    }
+
+    private static ByteArrayResource sinManifiesto() {
+        return new ByteArrayResource(new byte[0]) {
+            @Override
+            public boolean exists() {
+                return false;
+            }
+        };
+    }
+}
@@ -0,0 +1,119 @@
+package com.sw.GestorAPI.graphql;
+
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.ItemPedido;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.repository.ClienteRepository;
+import com.sw.GestorAPI.repository.PedidoRepository;
+import com.sw.GestorAPI.repository.ProductoRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cada operación registra su latencia y las sentencias SQL y entidades que necesitó
+ */
+@SpringBootTest
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+class InstrumentacionMetricasTests {
+
+    private static final String PEDIDO = """
+            query DetallePedido($id: ID!) { pedido(id: $id) {
+                id cliente { nombre } items { cantidad producto { sku } }
+            } }""";
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    private Pedido pedido;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin@test.com", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        Cliente cliente = clienteRepository.save(Cliente.builder()
+                .nombre("Cliente Métricas").email("metricas@test.com").password("secreto").build());
+        Producto producto = productoRepository.save(Producto.builder()
+                .nombre("Producto Métricas").sku("SKU-MET-1").precio(new BigDecimal("2.00")).build());
+        Pedido nuevo = Pedido.builder().cliente(cliente).direccionEntrega("Calle 1").build();
+        nuevo.addItem(ItemPedido.builder().producto(producto).cantidad(2)
+                .precioUnitario(producto.getPrecio()).subtotal(new BigDecimal("4.00")).build());
+        pedido = pedidoRepository.save(nuevo);
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        pedidoRepository.deleteAll();
+        productoRepository.deleteAll();
+        clienteRepository.deleteAll();
+    }
+
+    @Test
+    void registraLatenciaSentenciasYEntidadesPorOperacion() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        graphQlTester.document(PEDIDO)
+                .variable("id", pedido.getId())
+                .execute()
+                .path("pedido.items").entityList(Object.class).hasSize(1);
+
+        Timer operacion = registry.find(InstrumentacionMetricas.OPERACION)
+                .tags("operacion", "DetallePedido", "tipo", "query", "resultado", "ok").timer();
+        assertThat(operacion).isNotNull();
+        assertThat(operacion.count()).isEqualTo(1);
+
+        DistributionSummary sentencias = registry.find(InstrumentacionMetricas.OPERACION + ".sentencias")
+                .tag("operacion", "DetallePedido").summary();
+        assertThat(sentencias).isNotNull();
+        assertThat((long) sentencias.max()).isEqualTo(statistics.getPrepareStatementCount()).isPositive();
+
+        DistributionSummary entidades = registry.find(InstrumentacionMetricas.OPERACION + ".entidades")
+                .tag("operacion", "DetallePedido").summary();
+        assertThat(entidades).isNotNull();
+        // pedido, item, cliente y producto
+        assertThat(entidades.max()).isEqualTo(4);
+
+        assertThat(registry.find(InstrumentacionMetricas.CAMPO).tags("tipo", "Query", "campo", "pedido").timer())
+                .isNotNull();
+    }
+}
@@ -0,0 +1,113 @@
+package com.sw.GestorAPI.graphql;
+
+import graphql.introspection.IntrospectionQuery;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Las consultas demasiado costosas y las que exceden el presupuesto del cliente se rechazan
+ * antes de ejecutarse; los tamaños de página se recortan al máximo
+ */
+@SpringBootTest(properties = "gestorapi.graphql.presupuesto-por-minuto=300")
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+class PresupuestoConsultasTests {
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        autenticar("admin-presupuesto@test.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void consultaDemasiadoCostosaSeRechazaSinTocarLaBase() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // 1 + 100 * (content 1 + pedidos (1 + 5 * (items (1 + 5 * producto) + cliente))) = 3701
+        graphQlTester.document("""
+                        { rutas(size: 10000) { content { pedidos { items { producto { sku } } cliente { nombre } } } } }""")
+                .execute()
+                .errors()
+                .expect(error -> error.getMessage().startsWith("La consulta es demasiado costosa (3701"))
+                .verify();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void sizeSeRecortaAlMaximo() {
+        graphQlTester.document("{ productos(size: 5000) { size } }")
+                .execute()
+                .path("productos.size").entity(Integer.class).isEqualTo(100);
+    }
+
+    @Test
+    void presupuestoPorMinutoEsPorCliente() {
+        // 1 + 100 * (content 1 + cliente 1) = 201 de los 300 por minuto
+        String pedidos = "{ pedidos(size: 100) { content { id cliente { nombre } } } }";
+
+        graphQlTester.document(pedidos).execute().errors().verify();
+        graphQlTester.document(pedidos)
+                .execute()
+                .errors()
+                .expect(error -> error.getMessage().startsWith("Se agotó el presupuesto de consultas por minuto"))
+                .verify();
+
+        autenticar("otro-cliente@test.com");
+        graphQlTester.document(pedidos).execute().errors().verify();
+    }
+
+    @Test
+    void limiteCuentaComoTamanoDePagina() {
+        autenticar("cliente-limite@test.com");
+
+        // 1 + 100 * (items (1 + 5 * producto) + cliente) = 701, más que los 300 por minuto
+        graphQlTester.document("""
+                        { pedidosPendientesEnZona(poligono: [{latitud: 0, longitud: 0}, {latitud: 0, longitud: 1}, {latitud: 1, longitud: 1}], limite: 5000) {
+                            items { producto { sku } } cliente { nombre } } }""")
+                .execute()
+                .errors()
+                .expect(error -> error.getMessage().startsWith("Se agotó el presupuesto de consultas por minuto"))
+                .verify();
+    }
+
+    @Test
+    void introspeccionNoCuentaParaElCostoNiExcedeLaProfundidad() {
+        graphQlTester.document(IntrospectionQuery.INTROSPECTION_QUERY)
+                .execute()
+                .errors().verify()
+                .path("__schema.queryType.name").entity(String.class).isEqualTo("Query");
+    }
+
+    private static void autenticar(String usuario) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                usuario, null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+    }
+}
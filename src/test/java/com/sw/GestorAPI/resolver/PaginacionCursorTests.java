@@ -0,0 +1,83 @@
+package com.sw.GestorAPI.resolver;
+
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.repository.ClienteRepository;
+import com.sw.GestorAPI.repository.PedidoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recorre pedidosConnection página a página con el cursor endCursor y comprueba que
+ * no se repiten ni se pierden filas, aun cuando varios pedidos comparten fechaPedido.
+ */
+@SpringBootTest
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+class PaginacionCursorTests {
+
+    private static final int PEDIDOS = 25;
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin@test.com", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+        Cliente cliente = clienteRepository.save(Cliente.builder()
+                .nombre("Cliente").email("cursor@test.com").password("secreto").build());
+        for (int i = 0; i < PEDIDOS; i++) {
+            pedidoRepository.save(Pedido.builder().cliente(cliente).direccionEntrega("Calle " + i).build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        pedidoRepository.deleteAll();
+        clienteRepository.deleteAll();
+    }
+
+    @Test
+    void pedidosConnectionRecorreTodasLasPaginasSinDuplicados() {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        boolean hayMas = true;
+
+        while (hayMas) {
+            String after = cursor == null ? "" : ", after: \"" + cursor + "\"";
+            GraphQlTester.Response respuesta = graphQlTester.document(
+                            "{ pedidosConnection(first: 10" + after + ") { edges { node { id } } pageInfo { hasNextPage endCursor } } }")
+                    .execute();
+
+            ids.addAll(respuesta.path("pedidosConnection.edges[*].node.id").entityList(Long.class).get());
+            hayMas = respuesta.path("pedidosConnection.pageInfo.hasNextPage").entity(Boolean.class).get();
+            cursor = respuesta.path("pedidosConnection.pageInfo.endCursor").entity(String.class).get();
+        }
+
+        assertThat(ids).hasSize(PEDIDOS).doesNotHaveDuplicates();
+        assertThat(ids).isSortedAccordingTo(Comparator.reverseOrder());
+    }
+}
@@ -0,0 +1,41 @@
+package com.sw.GestorAPI.ruteo;
+
+import com.sw.GestorAPI.repository.ClienteRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Si la reconstrucción falla al leer los clientes, el índice sigue respondiendo con la grilla
+ * anterior y los cambios posteriores se aplican sobre ella.
+ */
+class IndiceEspacialClientesTests {
+
+    private static final double LAT = -17.78;
+    private static final double LNG = -63.18;
+
+    @Test
+    void reconstruccionFallidaConservaLaGrillaActual() {
+        ClienteRepository clienteRepository = mock(ClienteRepository.class);
+        List<Object[]> filas = new ArrayList<>();
+        filas.add(new Object[]{1L, LAT, LNG});
+        when(clienteRepository.findUbicacionesActivas())
+                .thenReturn(filas)
+                .thenThrow(new IllegalStateException("timeout"));
+        IndiceEspacialClientes indice = new IndiceEspacialClientes(clienteRepository, 0.005);
+        assertThat(indice.cercanos(LAT, LNG, 1.0)).extracting(IndiceEspacialClientes.Cercano::clienteId)
+                .containsExactly(1L);
+
+        assertThatThrownBy(indice::reconstruir).isInstanceOf(IllegalStateException.class);
+        indice.actualizar(2L, LAT + 0.001, LNG, true);
+
+        assertThat(indice.cercanos(LAT, LNG, 1.0)).extracting(IndiceEspacialClientes.Cercano::clienteId)
+                .containsExactly(1L, 2L);
+    }
+}
@@ -0,0 +1,90 @@
+package com.sw.GestorAPI.ruteo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * Las filas se calculan una vez, al sumar puntos solo se completa la cola y al mover un cliente
+ * se recalculan solo su fila y su columna.
+ */
+class MatrizDistanciasTests {
+
+    private static final double LAT = -17.78;
+    private static final double LNG = -63.18;
+
+    @Test
+    void reutilizaFilasYCorrigeSoloAlClienteMovido() {
+        MetricaContada metrica = new MetricaContada();
+        MatrizDistancias matriz = new MatrizDistancias(metrica, 16);
+        List<MatrizDistancias.Punto> puntos = List.of(
+                new MatrizDistancias.Punto(1L, LAT + 0.01, LNG),
+                new MatrizDistancias.Punto(2L, LAT, LNG + 0.02),
+                new MatrizDistancias.Punto(3L, LAT - 0.03, LNG - 0.01));
+
+        float[] primera = matriz.matriz(LAT, LNG, puntos);
+        assertThat(metrica.calculadas).hasValue(16);
+        assertThat(matriz.matriz(LAT, LNG, puntos)).containsExactly(primera);
+        assertThat(metrica.calculadas).hasValue(16);
+
+        // Un cliente nuevo: su fila entera y una entrada más en las filas pedidas (depósito y 1)
+        metrica.calculadas.set(0);
+        matriz.matriz(LAT, LNG, List.of(puntos.get(0), new MatrizDistancias.Punto(4L, LAT + 0.05, LNG + 0.05)));
+        assertThat(metrica.calculadas).hasValue(5 + 2);
+
+        metrica.calculadas.set(0);
+        matriz.clienteMovido(2L, LAT + 0.04, LNG);
+        assertThat(metrica.calculadas).hasValue(5);
+        // Solo falta completar la fila de 3, que no se pidió con el cliente 4
+        float[] movida = matriz.matriz(LAT, LNG, List.of(puntos.get(0),
+                new MatrizDistancias.Punto(2L, LAT + 0.04, LNG), puntos.get(2)));
+        assertThat(metrica.calculadas).hasValue(5 + 1);
+        assertThat((double) movida[2]).isCloseTo(OptimizadorRecorrido.haversineKm(LAT, LNG, LAT + 0.04, LNG), offset(1e-4));
+        assertThat((double) movida[2 * 4 + 1])
+                .isCloseTo(OptimizadorRecorrido.haversineKm(LAT + 0.04, LNG, LAT + 0.01, LNG), offset(1e-4));
+        assertThat(movida[3]).isEqualTo(primera[3]);
+    }
+
+    @Test
+    void grafoViasSigueLosTramos(@TempDir Path directorio) throws IOException {
+        // Dos esquinas de un cuadrado unidas solo por los otros dos lados
+        Path archivo = directorio.resolve("grafo.csv");
+        Files.writeString(archivo, """
+                N,a,-17.78,-63.18
+                N,b,-17.78,-63.17
+                N,c,-17.77,-63.17
+                N,d,-17.77,-63.18
+                A,a,b
+                A,b,c
+                A,c,d
+                """);
+        MatrizDistancias matriz = new MatrizDistancias(new MetricaGrafoVias(archivo), 16);
+
+        float[] distancias = matriz.matriz(-17.78, -63.18, List.of(new MatrizDistancias.Punto(1L, -17.77, -63.18)));
+
+        double lado = OptimizadorRecorrido.haversineKm(-17.78, -63.18, -17.78, -63.17);
+        double alto = OptimizadorRecorrido.haversineKm(-17.78, -63.17, -17.77, -63.17);
+        assertThat((double) distancias[1]).isCloseTo(2 * lado + alto, offset(1e-3));
+        assertThat((double) distancias[2]).isCloseTo(distancias[1], offset(1e-3));
+    }
+
+    private static final class MetricaContada extends MetricaHaversine {
+
+        final AtomicInteger calculadas = new AtomicInteger();
+
+        @Override
+        public void distancias(double latitud, double longitud, double[] latitudes, double[] longitudes,
+                               int desde, int hasta, float[] destino) {
+            calculadas.addAndGet(hasta - desde);
+            super.distancias(latitud, longitud, latitudes, longitudes, desde, hasta, destino);
+        }
+    }
+}
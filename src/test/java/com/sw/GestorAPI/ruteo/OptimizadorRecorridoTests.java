@@ -0,0 +1,113 @@
+package com.sw.GestorAPI.ruteo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * El orden de visita es una permutación de las paradas, resuelve casos con óptimo conocido y
+ * nunca empeora el recorrido de vecino más cercano.
+ */
+class OptimizadorRecorridoTests {
+
+    @Test
+    void puntosEnCirculoSeRecorrenPorElPerimetro() {
+        int paradas = 40;
+        double[] x = new double[paradas + 1];
+        double[] y = new double[paradas + 1];
+        // Depósito y paradas sobre un círculo de radio 1, entregados en desorden
+        int[] desorden = barajar(paradas, new Random(7));
+        for (int i = 1; i <= paradas; i++) {
+            double angulo = 2 * Math.PI * desorden[i - 1] / (paradas + 1);
+            x[i] = Math.cos(angulo);
+            y[i] = Math.sin(angulo);
+        }
+        x[0] = 1;
+        y[0] = 0;
+
+        OptimizadorRecorrido.Resultado resultado = OptimizadorRecorrido.optimizar(
+                euclidea(x, y), paradas + 1, true, TimeUnit.SECONDS.toNanos(1));
+
+        double perimetro = 2 * (paradas + 1) * Math.sin(Math.PI / (paradas + 1));
+        assertThat(resultado.distancia()).isCloseTo(perimetro, offset(1e-3));
+        assertPermutacion(resultado.paradas(), paradas);
+    }
+
+    @Test
+    void trescientasParadasMejoranAlVecinoMasCercanoDentroDelLimite() {
+        int paradas = 300;
+        Random random = new Random(42);
+        double[] latitudes = new double[paradas + 1];
+        double[] longitudes = new double[paradas + 1];
+        latitudes[0] = -17.78;
+        longitudes[0] = -63.18;
+        for (int i = 1; i <= paradas; i++) {
+            latitudes[i] = -17.78 + (random.nextDouble() - 0.5) * 0.36;
+            longitudes[i] = -63.18 + (random.nextDouble() - 0.5) * 0.36;
+        }
+        float[] distancias = OptimizadorRecorrido.matrizHaversine(latitudes, longitudes);
+
+        // Con límite 0 solo corre la construcción por vecino más cercano
+        double vecino = OptimizadorRecorrido.optimizar(distancias, paradas + 1, true, 0).distancia();
+        long inicio = System.nanoTime();
+        OptimizadorRecorrido.Resultado resultado = OptimizadorRecorrido.optimizar(
+                distancias, paradas + 1, true, TimeUnit.MILLISECONDS.toNanos(500));
+        long transcurrido = System.nanoTime() - inicio;
+
+        assertThat(transcurrido).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        assertThat(resultado.distancia()).isLessThan(vecino);
+        assertPermutacion(resultado.paradas(), paradas);
+    }
+
+    @Test
+    void sinRegresoNoCuentaLaVueltaAlDeposito() {
+        // Paradas en línea recta desde el depósito: sin regreso basta con recorrerla una vez
+        double[] x = {0, 3, 1, 4, 2};
+        double[] y = new double[5];
+
+        OptimizadorRecorrido.Resultado ida = OptimizadorRecorrido.optimizar(
+                euclidea(x, y), 5, false, TimeUnit.SECONDS.toNanos(1));
+        OptimizadorRecorrido.Resultado idaYVuelta = OptimizadorRecorrido.optimizar(
+                euclidea(x, y), 5, true, TimeUnit.SECONDS.toNanos(1));
+
+        assertThat(ida.paradas()).containsExactly(2, 4, 1, 3);
+        assertThat(ida.distancia()).isEqualTo(4.0);
+        assertThat(idaYVuelta.distancia()).isEqualTo(8.0);
+    }
+
+    private static float[] euclidea(double[] x, double[] y) {
+        int n = x.length;
+        float[] matriz = new float[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matriz[i * n + j] = (float) Math.hypot(x[i] - x[j], y[i] - y[j]);
+            }
+        }
+        return matriz;
+    }
+
+    private static int[] barajar(int paradas, Random random) {
+        int[] valores = new int[paradas];
+        for (int i = 0; i < paradas; i++) valores[i] = i + 1;
+        for (int i = paradas - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = valores[i];
+            valores[i] = valores[j];
+            valores[j] = tmp;
+        }
+        return valores;
+    }
+
+    private static void assertPermutacion(int[] orden, int paradas) {
+        int[] ordenado = orden.clone();
+        Arrays.sort(ordenado);
+        for (int i = 0; i < paradas; i++) {
+            assertThat(ordenado[i]).isEqualTo(i + 1);
+        }
+    }
+}
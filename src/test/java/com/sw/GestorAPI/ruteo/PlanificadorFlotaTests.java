@@ -0,0 +1,59 @@
+package com.sw.GestorAPI.ruteo;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Con el volumen de un día (500 pedidos, 25 repartidores) el plan respeta la capacidad, visita
+ * cada parada una sola vez y termina dentro del límite de tiempo.
+ */
+class PlanificadorFlotaTests {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void cerrar() {
+        POOL.shutdown();
+    }
+
+    @Test
+    void quinientasParadasEntreVeinticincoRepartidores() {
+        int paradas = 500;
+        int capacidad = 30;
+        Random random = new Random(42);
+        double[] latitudes = new double[paradas + 1];
+        double[] longitudes = new double[paradas + 1];
+        double[] angulos = new double[paradas + 1];
+        latitudes[0] = -17.78;
+        longitudes[0] = -63.18;
+        for (int i = 1; i <= paradas; i++) {
+            latitudes[i] = -17.78 + (random.nextDouble() - 0.5) * 0.36;
+            longitudes[i] = -63.18 + (random.nextDouble() - 0.5) * 0.36;
+            angulos[i] = Math.atan2(latitudes[i] - latitudes[0], longitudes[i] - longitudes[0]);
+        }
+        float[] distancias = OptimizadorRecorrido.matrizHaversine(latitudes, longitudes);
+
+        long inicio = System.nanoTime();
+        List<PlanificadorFlota.Ruta> rutas = PlanificadorFlota.planificar(distancias, paradas + 1, angulos,
+                25, capacidad, true, TimeUnit.SECONDS.toNanos(2), POOL);
+        long transcurrido = System.nanoTime() - inicio;
+
+        assertThat(transcurrido).isLessThan(TimeUnit.SECONDS.toNanos(3));
+        assertThat(rutas).hasSizeLessThanOrEqualTo(25);
+        int[] visitas = new int[paradas + 1];
+        for (PlanificadorFlota.Ruta ruta : rutas) {
+            assertThat(ruta.paradas().length).isBetween(1, capacidad);
+            for (int parada : ruta.paradas()) visitas[parada]++;
+        }
+        for (int i = 1; i <= paradas; i++) {
+            assertThat(visitas[i]).as("visitas a la parada %d", i).isEqualTo(1);
+        }
+    }
+}
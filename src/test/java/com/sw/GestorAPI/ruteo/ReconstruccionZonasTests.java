@@ -0,0 +1,50 @@
+package com.sw.GestorAPI.ruteo;
+
+import com.sw.GestorAPI.repository.ClienteRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mientras la reconstrucción lee los clientes, zonaDe() responde con las zonas actuales y los
+ * cambios que llegan no se pierden al reemplazarlas.
+ */
+class ReconstruccionZonasTests {
+
+    private static final double LAT = -17.78;
+    private static final double LNG = -63.18;
+
+    @Test
+    void zonaDeNoEsperaALaConsultaDeLaReconstruccion() throws Exception {
+        ClienteRepository clienteRepository = mock(ClienteRepository.class);
+        CountDownLatch consultando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        List<Object[]> filas = new ArrayList<>();
+        filas.add(new Object[]{1L, LAT, LNG});
+        when(clienteRepository.findUbicacionesActivas()).thenReturn(filas).thenAnswer(invocacion -> {
+            consultando.countDown();
+            liberar.await(10, TimeUnit.SECONDS);
+            return filas;
+        });
+        ZonasReparto zonas = new ZonasReparto(clienteRepository, 5, 7, 150);
+        assertThat(zonas.zonaDe(LAT, LNG)).isEqualTo("6sg4f");
+
+        CompletableFuture<?> reconstruccion = CompletableFuture.runAsync(zonas::reconstruir);
+        assertThat(consultando.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> zona = CompletableFuture.supplyAsync(() -> zonas.zonaDe(LAT, LNG));
+        assertThat(zona.get(5, TimeUnit.SECONDS)).isEqualTo("6sg4f");
+        zonas.actualizar(2L, LAT + 0.5, LNG + 0.5, true);
+
+        liberar.countDown();
+        reconstruccion.get(10, TimeUnit.SECONDS);
+        assertThat(zonas.clientesPorZona()).containsEntry("6sg4f", 1).containsEntry("6sgmt", 1);
+    }
+}
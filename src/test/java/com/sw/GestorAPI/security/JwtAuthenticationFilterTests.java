@@ -0,0 +1,88 @@
+package com.sw.GestorAPI.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Solo los tokens válidos quedan en la caché del filtro, y ni siquiera esos autentican después
+ * de su exp.
+ */
+class JwtAuthenticationFilterTests {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final FilterChain CADENA = (request, response) -> { };
+
+    private final JwtService jwtService = jwtService(3_600_000L);
+    private final JwtAuthenticationFilter filtro = new JwtAuthenticationFilter(jwtService, 100);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void tokensInvalidosNoSeCachean() throws Exception {
+        String valido = jwtService.generateToken("admin@test.com", 1L, "ADMIN");
+        String firmaAlterada = valido.substring(0, valido.length() - 2)
+                + (valido.endsWith("AA") ? "BB" : "AA");
+        String rolDesconocido = jwtService.generateToken("otro@test.com", 2L, "CLIENTE");
+        String vencido = jwtService(-60_000L).generateToken("admin@test.com", 1L, "ADMIN");
+
+        for (String token : new String[]{firmaAlterada, rolDesconocido, vencido, "no-es-un-jwt"}) {
+            assertThat(filtrar(token)).as(token).isNull();
+            assertThat(filtrar(token)).as(token).isNull();
+        }
+        assertThat(tokensEnCache()).isZero();
+
+        assertThat(filtrar(valido).getName()).isEqualTo("admin@test.com");
+        assertThat(tokensEnCache()).isEqualTo(1);
+    }
+
+    @Test
+    void tokenCacheadoSeRechazaDespuesDeSuExp() throws Exception {
+        // exp se guarda en segundos: vence en uno a dos segundos
+        String token = jwtService(2_000L).generateToken("admin@test.com", 1L, "ADMIN");
+        Instant expiracion = jwtService.verificar(token).expiracion();
+
+        assertThat(filtrar(token).getName()).isEqualTo("admin@test.com");
+        assertThat(tokensEnCache()).isEqualTo(1);
+
+        Thread.sleep(Math.max(0, Duration.between(Instant.now(), expiracion).toMillis()) + 100);
+        assertThat(filtrar(token)).isNull();
+        assertThat(tokensEnCache()).isZero();
+    }
+
+    private Authentication filtrar(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/graphql");
+        request.addHeader("Authorization", "Bearer " + token);
+        SecurityContextHolder.clearContext();
+        filtro.doFilter(request, new MockHttpServletResponse(), CADENA);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private long tokensEnCache() {
+        Cache<?, ?> cache = (Cache<?, ?>) ReflectionTestUtils.getField(filtro, "tokensVerificados");
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private static JwtService jwtService(long expiracionMs) {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "SECRET_KEY", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", expiracionMs);
+        jwtService.inicializarClave();
+        return jwtService;
+    }
+}
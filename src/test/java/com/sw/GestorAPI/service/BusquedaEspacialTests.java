@@ -0,0 +1,112 @@
+package com.sw.GestorAPI.service;
+
+import com.sw.GestorAPI.dto.ActualizarUbicacionClienteInput;
+import com.sw.GestorAPI.dto.CoordenadaInput;
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.enums.EstadoPedido;
+import com.sw.GestorAPI.repository.ClienteRepository;
+import com.sw.GestorAPI.repository.PedidoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * clientesCercanos y pedidosPendientesEnZona responden desde el índice espacial, que sigue las
+ * altas, cambios de ubicación y desactivaciones hechas por ClienteService.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BusquedaEspacialTests {
+
+    private static final double LAT = -17.78;
+    private static final double LNG = -63.18;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    private Cliente centro;
+    private Cliente norte;
+    private Cliente lejos;
+
+    @BeforeEach
+    void setUp() {
+        centro = crear("centro", LAT, LNG);
+        norte = crear("norte", LAT + 0.01, LNG);
+        lejos = crear("lejos", LAT + 0.5, LNG + 0.5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pedidoRepository.deleteAll();
+        clienteRepository.findAll().forEach(c -> clienteService.eliminarCliente(c.getId()));
+    }
+
+    @Test
+    void cercanosSigueLosCambiosDeClienteService() {
+        assertThat(cercanos(2)).containsExactly(centro.getId(), norte.getId());
+        assertThat(clienteService.clientesCercanos(LAT, LNG, 2, 1)).singleElement()
+                .satisfies(c -> assertThat(c.getCliente().getId()).isEqualTo(centro.getId()));
+        assertThat(clienteService.clientesCercanos(LAT, LNG, 2, 10).get(1).getDistanciaKm()).isBetween(1.1, 1.12);
+
+        clienteService.actualizarUbicacionCliente(lejos.getId(), new ActualizarUbicacionClienteInput(
+                "Nueva", LAT - 0.005, LNG, null));
+        clienteService.desactivarCliente(norte.getId());
+        assertThat(cercanos(2)).containsExactly(centro.getId(), lejos.getId());
+
+        clienteService.activarCliente(norte.getId());
+        assertThat(cercanos(2)).contains(norte.getId());
+        assertThatThrownBy(() -> clienteService.clientesCercanos(LAT, LNG, 500, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void pendientesEnZonaSoloDeClientesDentroDelPoligono() {
+        Pedido pendiente = pedidoService.crearPedido(centro.getId(), "Calle", null, List.of());
+        Pedido cancelado = pedidoService.crearPedido(centro.getId(), "Calle", null, List.of());
+        pedidoService.cancelarPedido(cancelado.getId(), "prueba");
+        Pedido enProceso = pedidoService.crearPedido(norte.getId(), "Calle", null, List.of());
+        pedidoService.actualizarEstado(enProceso.getId(), EstadoPedido.EN_PROCESO);
+        pedidoService.crearPedido(lejos.getId(), "Calle", null, List.of());
+
+        // Triángulo que cubre centro y norte
+        List<CoordenadaInput> zona = List.of(
+                new CoordenadaInput(LAT - 0.01, LNG - 0.01),
+                new CoordenadaInput(LAT + 0.02, LNG),
+                new CoordenadaInput(LAT - 0.01, LNG + 0.01));
+
+        assertThat(pedidoService.listarPendientesEnZona(zona, 10)).extracting(Pedido::getId)
+                .containsExactly(pendiente.getId(), enProceso.getId());
+        assertThat(pedidoService.listarPendientesEnZona(zona, 1)).extracting(Pedido::getId)
+                .containsExactly(pendiente.getId());
+        assertThatThrownBy(() -> pedidoService.listarPendientesEnZona(zona.subList(0, 2), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<Long> cercanos(double radioKm) {
+        return clienteService.clientesCercanos(LAT, LNG, radioKm, 10).stream()
+                .map(c -> c.getCliente().getId()).toList();
+    }
+
+    private Cliente crear(String nombre, double latitud, double longitud) {
+        return clienteService.crearCliente(Cliente.builder().nombre(nombre).email(nombre + "@espacial.test")
+                .password("secreto").latitudCliente(latitud).longitudCliente(longitud).build());
+    }
+}
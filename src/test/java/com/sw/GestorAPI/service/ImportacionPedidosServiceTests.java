@@ -0,0 +1,142 @@
+package com.sw.GestorAPI.service;
+
+import com.sw.GestorAPI.dto.ImportacionPedidosResponse;
+import com.sw.GestorAPI.dto.ResultadoFilaImportacion;
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.Inventario;
+import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.repository.ClienteRepository;
+import com.sw.GestorAPI.repository.InventarioRepository;
+import com.sw.GestorAPI.repository.ItemPedidoRepository;
+import com.sw.GestorAPI.repository.MovimientoInventarioRepository;
+import com.sw.GestorAPI.repository.PedidoRepository;
+import com.sw.GestorAPI.repository.ProductoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Importa archivos CSV y NDJSON con filas válidas e inválidas mezcladas y comprueba el
+ * reporte por fila, los pedidos creados y el stock descontado.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ImportacionPedidosServiceTests {
+
+    @Autowired
+    private ImportacionPedidosService importacionPedidosService;
+
+    @Autowired
+    private LectorImportacionPedidos lector;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private InventarioRepository inventarioRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ItemPedidoRepository itemPedidoRepository;
+
+    @Autowired
+    private MovimientoInventarioRepository movimientoRepository;
+
+    private Cliente cliente;
+    private Producto producto;
+    private Producto escaso;
+
+    @BeforeEach
+    void setUp() {
+        cliente = clienteRepository.save(Cliente.builder()
+                .nombre("Socio").email("socio@test.com").password("secreto").build());
+        producto = guardarProducto("IMP-1", 1000);
+        escaso = guardarProducto("IMP-2", 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        movimientoRepository.deleteAll();
+        itemPedidoRepository.deleteAll();
+        pedidoRepository.deleteAll();
+        inventarioRepository.deleteAll();
+        productoRepository.deleteAll();
+        clienteRepository.deleteAll();
+    }
+
+    @Test
+    void importaCsvAgrupandoLineasPorReferenciaYReportaCadaFila() {
+        String csv = String.join("\n",
+                "referencia,clienteId,direccionEntrega,observaciones,productoId,cantidad",
+                "A-1," + cliente.getId() + ",\"Calle 1, depto 2\",,"  + producto.getId() + ",2",
+                "A-1," + cliente.getId() + ",\"Calle 1, depto 2\",," + escaso.getId() + ",2",
+                "A-2,999999,Calle 2,," + producto.getId() + ",1",
+                "A-3," + cliente.getId() + ",Calle 3,," + escaso.getId() + ",2",
+                "A-4," + cliente.getId() + ",Calle 4,urgente," + producto.getId() + ",x",
+                "A-5," + cliente.getId() + ",Calle 5,," + producto.getId() + ",5");
+
+        List<ResultadoFilaImportacion> filas = new ArrayList<>();
+        ImportacionPedidosResponse resumen = importacionPedidosService.importar(
+                lector.leerCsv(new StringReader(csv)), 2, filas::add);
+
+        assertThat(resumen.getTotal()).isEqualTo(5);
+        assertThat(resumen.getCreados()).isEqualTo(2);
+        assertThat(filas).extracting(ResultadoFilaImportacion::getReferencia)
+                .containsExactly("A-1", "A-2", "A-3", "A-4", "A-5");
+        assertThat(filas.get(0).getPedidoId()).isNotNull();
+        assertThat(filas.get(1).getError()).startsWith("Cliente no encontrado");
+        // A-1 ya consumió 2 de las 3 unidades
+        assertThat(filas.get(2).getError()).startsWith("Stock insuficiente");
+        assertThat(filas.get(3).getError()).startsWith("Valor numérico inválido");
+        assertThat(filas.get(4).getPedidoId()).isNotNull();
+
+        assertThat(pedidoRepository.count()).isEqualTo(2);
+        assertThat(itemPedidoRepository.count()).isEqualTo(3);
+        assertThat(inventarioRepository.findByProductoId(producto.getId()).orElseThrow().getCantidad()).isEqualTo(993);
+        assertThat(inventarioRepository.findByProductoId(escaso.getId()).orElseThrow().getCantidad()).isEqualTo(1);
+    }
+
+    @Test
+    void importaNdjsonYRechazaLineasMalFormadas() {
+        String ndjson = String.join("\n",
+                "{\"referencia\":\"N-1\",\"clienteId\":" + cliente.getId() + ",\"direccionEntrega\":\"Calle 1\","
+                        + "\"items\":[{\"productoId\":" + producto.getId() + ",\"cantidad\":4}]}",
+                "{esto no es json",
+                "",
+                "{\"referencia\":\"N-3\",\"clienteId\":" + cliente.getId() + ",\"items\":[]}");
+
+        List<ResultadoFilaImportacion> filas = new ArrayList<>();
+        ImportacionPedidosResponse resumen = importacionPedidosService.importar(
+                lector.leerNdjson(new StringReader(ndjson)), null, filas::add);
+
+        assertThat(resumen.getCreados()).isEqualTo(1);
+        assertThat(resumen.getFallidos()).isEqualTo(2);
+        assertThat(filas).extracting(ResultadoFilaImportacion::getFila).containsExactly(1, 2, 4);
+        assertThat(filas.get(1).getError()).startsWith("JSON inválido");
+        assertThat(filas.get(2).getError()).isEqualTo("La dirección de entrega es obligatoria");
+        assertThat(inventarioRepository.findByProductoId(producto.getId()).orElseThrow().getCantidad()).isEqualTo(996);
+    }
+
+    private Producto guardarProducto(String sku, int cantidad) {
+        Producto guardado = productoRepository.save(Producto.builder()
+                .nombre("Producto " + sku).sku(sku).precio(new BigDecimal("2.00")).build());
+        inventarioRepository.save(Inventario.builder()
+                .producto(guardado).cantidad(cantidad).ubicacion("B-1").stockMinimo(0).build());
+        return guardado;
+    }
+}
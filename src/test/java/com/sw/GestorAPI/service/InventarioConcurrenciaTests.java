@@ -0,0 +1,262 @@
+package com.sw.GestorAPI.service;
+
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.Inventario;
+import com.sw.GestorAPI.entity.MovimientoInventario;
+import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.repository.ClienteRepository;
+import com.sw.GestorAPI.repository.InventarioJdbcRepository;
+import com.sw.GestorAPI.repository.InventarioRepository;
+import com.sw.GestorAPI.repository.ItemPedidoRepository;
+import com.sw.GestorAPI.repository.MovimientoInventarioRepository;
+import com.sw.GestorAPI.repository.PedidoRepository;
+import com.sw.GestorAPI.repository.ProductoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Lanza miles de descuentos concurrentes sobre un mismo SKU y comprueba que el stock
+ * nunca queda negativo ni se vende más de lo que había (sin lost updates). Activar la reserva
+ * en memoria mientras hay ventas por base en curso no deja ninguna fuera del contador.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InventarioConcurrenciaTests {
+
+    private static final int STOCK_INICIAL = 300;
+    private static final int INTENTOS = 2000;
+    private static final int HILOS = 16;
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private StockEnMemoriaService stockEnMemoria;
+
+    @Autowired
+    private InventarioJdbcRepository inventarioJdbcRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private InventarioRepository inventarioRepository;
+
+    @Autowired
+    private MovimientoInventarioRepository movimientoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ItemPedidoRepository itemPedidoRepository;
+
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() {
+        producto = productoRepository.save(Producto.builder()
+                .nombre("Producto caliente").sku("SKU-HOT").precio(new BigDecimal("5.00")).build());
+        inventarioRepository.save(Inventario.builder()
+                .producto(producto).cantidad(STOCK_INICIAL).ubicacion("A-1").stockMinimo(0).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockEnMemoria.desactivar(producto.getId());
+        movimientoRepository.deleteAll();
+        itemPedidoRepository.deleteAll();
+        pedidoRepository.deleteAll();
+        inventarioRepository.deleteAll();
+        productoRepository.deleteAll();
+        clienteRepository.deleteAll();
+    }
+
+    @Test
+    void descuentosConcurrentesNoVendenMasQueElStock() throws Exception {
+        int exitos = ejecutarEnParalelo(() -> {
+            inventarioService.descontarStock(producto.getId(), 1, "Venta", null);
+            return true;
+        });
+
+        assertThat(exitos).isEqualTo(STOCK_INICIAL);
+        assertStockAgotadoYMovimientosConsistentes();
+    }
+
+    @Test
+    void pedidosConcurrentesNoVendenMasQueElStock() throws Exception {
+        Cliente cliente = clienteRepository.save(Cliente.builder()
+                .nombre("Cliente").email("concurrencia@test.com").password("secreto").build());
+
+        int exitos = ejecutarEnParalelo(() -> {
+            pedidoService.crearPedido(cliente.getId(), "Calle 1", null,
+                    List.of(new PedidoService.ItemPedidoData(producto.getId(), 1)));
+            return true;
+        });
+
+        assertThat(exitos).isEqualTo(STOCK_INICIAL);
+        assertThat(pedidoRepository.count()).isEqualTo(STOCK_INICIAL);
+        assertStockAgotadoYMovimientosConsistentes();
+    }
+
+    @Test
+    void reservasEnMemoriaNoVendenMasQueElStockYSeVuelcanAInventarios() throws Exception {
+        inventarioService.configurarReservaEnMemoria(producto.getId(), true);
+
+        int exitos = ejecutarEnParalelo(() -> {
+            inventarioService.descontarStock(producto.getId(), 1, "Venta", null);
+            return true;
+        });
+        assertThat(exitos).isEqualTo(STOCK_INICIAL);
+
+        // Haya volcado o no, la cantidad reconstruida (fila + movimientos pendientes) ya es la real
+        assertThat(inventarioJdbcRepository.obtenerCantidadesConPendientes(List.of(producto.getId())))
+                .containsEntry(producto.getId(), 0);
+
+        stockEnMemoria.volcar();
+
+        assertStockAgotadoYMovimientosConsistentes();
+        assertThat(movimientoRepository.findAll()).allSatisfy(m -> assertThat(m.getAplicado()).isTrue());
+    }
+
+    @Test
+    void activarEsperaALaVentaPorBaseQueTieneLaFila() throws Exception {
+        CountDownLatch vendido = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+        CompletableFuture<?> venta = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    inventarioService.descontarStock(producto.getId(), 10, "Venta", null);
+                    vendido.countDown();
+                    esperar(confirmar);
+                }));
+        assertThat(vendido.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<?> activacion = CompletableFuture.runAsync(() ->
+                inventarioService.configurarReservaEnMemoria(producto.getId(), true));
+        // La activación espera la fila que tiene la venta sin confirmar
+        Thread.sleep(200);
+        confirmar.countDown();
+        venta.get(10, TimeUnit.SECONDS);
+        activacion.get(10, TimeUnit.SECONDS);
+
+        assertThat(stockEnMemoria.cantidad(producto.getId())).contains(STOCK_INICIAL - 10);
+    }
+
+    @Test
+    void ventaPorBaseBloqueadaPorLaActivacionSeRepiteEnMemoria() throws Exception {
+        CountDownLatch activado = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+        CompletableFuture<?> activacion = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    inventarioService.configurarReservaEnMemoria(producto.getId(), true);
+                    activado.countDown();
+                    esperar(confirmar);
+                }));
+        assertThat(activado.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // El contador aún no está publicado: la venta va por base y espera la fila
+        assertThat(stockEnMemoria.estaActivo(producto.getId())).isFalse();
+        CompletableFuture<?> venta = CompletableFuture.runAsync(() ->
+                inventarioService.descontarStock(producto.getId(), 1, "Venta", null));
+        Thread.sleep(200);
+        confirmar.countDown();
+        activacion.get(10, TimeUnit.SECONDS);
+        venta.get(10, TimeUnit.SECONDS);
+
+        assertThat(stockEnMemoria.cantidad(producto.getId())).contains(STOCK_INICIAL - 1);
+        assertThat(movimientoRepository.findAll()).singleElement()
+                .satisfies(m -> assertThat(m.getAplicado()).isFalse());
+    }
+
+    @Test
+    void instanciaSinReservaEnMemoriaNoAceptaVentasDeProductosEnMemoria() {
+        StockEnMemoriaService otraInstancia = new StockEnMemoriaService(inventarioRepository, inventarioJdbcRepository,
+                transactionManager, mock(ResumenDashboardService.class), false);
+
+        assertThatThrownBy(otraInstancia::comprobarHabilitado).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> otraInstancia.esperarContador(producto.getId()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("otra instancia");
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Ejecuta la operación INTENTOS veces en HILOS hilos y devuelve cuántas tuvieron éxito;
+     * los rechazos por stock insuficiente son el resultado esperado una vez agotado el stock
+     */
+    private int ejecutarEnParalelo(Callable<Boolean> operacion) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<Boolean>> resultados = new ArrayList<>();
+            for (int i = 0; i < INTENTOS; i++) {
+                resultados.add(executor.submit(() -> {
+                    try {
+                        return operacion.call();
+                    } catch (IllegalArgumentException e) {
+                        assertThat(e.getMessage()).startsWith("Stock insuficiente");
+                        return false;
+                    }
+                }));
+            }
+            int exitos = 0;
+            for (Future<Boolean> resultado : resultados) {
+                if (resultado.get()) exitos++;
+            }
+            return exitos;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void assertStockAgotadoYMovimientosConsistentes() {
+        Inventario inventario = inventarioRepository.findByProductoId(producto.getId()).orElseThrow();
+        assertThat(inventario.getCantidad()).isZero();
+
+        // Cada venta registró un movimiento y cada uno vio una cantidad anterior distinta
+        List<MovimientoInventario> movimientos = movimientoRepository.findAll();
+        assertThat(movimientos).hasSize(STOCK_INICIAL);
+        assertThat(movimientos).allSatisfy(m ->
+                assertThat(m.getCantidadNueva()).isEqualTo(m.getCantidadAnterior() - 1));
+        assertThat(movimientos).extracting(MovimientoInventario::getCantidadAnterior)
+                .containsExactlyInAnyOrderElementsOf(IntStream.rangeClosed(1, STOCK_INICIAL).boxed().toList());
+    }
+}
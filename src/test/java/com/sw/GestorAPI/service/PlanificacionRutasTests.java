@@ -0,0 +1,161 @@
+package com.sw.GestorAPI.service;
+
+import com.sw.GestorAPI.dto.PlanificacionRutasResponse;
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.entity.RutaEntrega;
+import com.sw.GestorAPI.entity.Usuario;
+import com.sw.GestorAPI.enums.EstadoPedido;
+import com.sw.GestorAPI.enums.EstadoRuta;
+import com.sw.GestorAPI.enums.Rol;
+import com.sw.GestorAPI.repository.ClienteRepository;
+import com.sw.GestorAPI.repository.PedidoRepository;
+import com.sw.GestorAPI.repository.RutaEntregaRepository;
+import com.sw.GestorAPI.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * planificarRutasDelDia reparte los pedidos EN_PROCESO sin ruta entre los repartidores libres y
+ * deja fuera los pedidos sin ubicación y a los repartidores que ya tienen ruta ese día.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PlanificacionRutasTests {
+
+    @Autowired
+    private RutaEntregaService rutaEntregaService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private ResumenDashboardService resumenDashboardService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private RutaEntregaRepository rutaEntregaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private final List<Long> enProceso = new ArrayList<>();
+    private Long sinUbicacion;
+    private Long enRuta;
+
+    @BeforeEach
+    void setUp() {
+        usuarioRepository.save(Usuario.builder().nombreCompleto("Admin").email("admin-planificacion@test.com")
+                .password("secreto").rol(Rol.ADMIN).latitudEmpresa(-17.78).longitudEmpresa(-63.18).build());
+        Usuario ocupado = null;
+        for (int i = 0; i < 3; i++) {
+            ocupado = usuarioRepository.save(Usuario.builder().nombreCompleto("Repartidor " + i)
+                    .email("repartidor-" + i + "@planificacion.test").password("secreto").rol(Rol.REPARTIDOR).build());
+        }
+        for (int i = 0; i < 12; i++) {
+            // Cuatro grupos de clientes, uno por punto cardinal alrededor del depósito
+            double angulo = Math.PI / 2 * (i % 4);
+            Cliente cliente = clienteRepository.save(Cliente.builder().nombre("Cliente " + i)
+                    .email("cliente-" + i + "@planificacion.test").password("secreto")
+                    .latitudCliente(-17.78 + 0.05 * Math.sin(angulo) + 0.001 * i)
+                    .longitudCliente(-63.18 + 0.05 * Math.cos(angulo)).build());
+            enProceso.add(crearEnProceso(cliente));
+        }
+        Cliente sinCoordenadas = clienteRepository.save(Cliente.builder().nombre("Sin ubicación")
+                .email("sin-ubicacion@planificacion.test").password("secreto").build());
+        sinUbicacion = crearEnProceso(sinCoordenadas);
+
+        // Un pedido ya en una ruta del día: ni él ni su repartidor entran en la planificación
+        enRuta = crearEnProceso(sinCoordenadas);
+        rutaEntregaService.crearRuta(ocupado.getId(), LocalDate.now(), null, null, List.of(enRuta));
+        resumenDashboardService.reconciliarContadores();
+    }
+
+    @AfterEach
+    void tearDown() {
+        rutaEntregaRepository.deleteAll();
+        pedidoRepository.deleteAll();
+        clienteRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    void repartePedidosEntreRepartidoresLibres() {
+        PlanificacionRutasResponse plan = rutaEntregaService.planificarRutasDelDia(LocalDate.now());
+
+        assertThat(plan.getRutas()).hasSize(1);
+        assertThat(plan.getPedidosSinAsignar()).extracting(Pedido::getId).containsExactly(sinUbicacion);
+        RutaEntrega ruta = plan.getRutas().get(0);
+        assertThat(ruta.getEstado()).isEqualTo(EstadoRuta.PLANIFICADA);
+        assertThat(ruta.getDistanciaTotalKm()).isPositive();
+
+        Map<Long, List<Pedido>> pedidos = rutaEntregaService.listarPedidosPorRutas(List.of(ruta.getId()));
+        assertThat(pedidos.get(ruta.getId())).extracting(Pedido::getId)
+                .containsExactlyInAnyOrderElementsOf(enProceso)
+                .doesNotContain(enRuta);
+        assertThat(resumenDashboardService.reconciliarContadores()).isZero();
+    }
+
+    @Test
+    void sinRepartidoresLibresNoPlanifica() {
+        rutaEntregaService.planificarRutasDelDia(LocalDate.now());
+        // El repartidor restante sin ruta recibe los pedidos pendientes (ninguno con ubicación)
+        PlanificacionRutasResponse segunda = rutaEntregaService.planificarRutasDelDia(LocalDate.now());
+        assertThat(segunda.getRutas()).isEmpty();
+
+        usuarioRepository.findByRolAndActivoTrue(Rol.REPARTIDOR).forEach(r ->
+                rutaEntregaService.crearRuta(r.getId(), LocalDate.now(), null, null, List.of()));
+        assertThatThrownBy(() -> rutaEntregaService.planificarRutasDelDia(LocalDate.now()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void planificacionesSimultaneasNoRepitenPedidosNiRepartidores() throws Exception {
+        CountDownLatch salida = new CountDownLatch(1);
+        List<CompletableFuture<PlanificacionRutasResponse>> planes = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            planes.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    salida.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rutaEntregaService.planificarRutasDelDia(LocalDate.now());
+            }));
+        }
+        salida.countDown();
+        CompletableFuture.allOf(planes.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        List<RutaEntrega> rutas = rutaEntregaRepository.findAll();
+        assertThat(rutas).extracting(r -> r.getRepartidor().getId()).doesNotHaveDuplicates();
+        List<Long> asignados = rutaEntregaService.listarPedidosPorRutas(rutas.stream().map(RutaEntrega::getId).toList())
+                .values().stream().flatMap(List::stream).map(Pedido::getId).toList();
+        assertThat(asignados).doesNotHaveDuplicates().containsAll(enProceso);
+    }
+
+    private Long crearEnProceso(Cliente cliente) {
+        Pedido pedido = pedidoService.crearPedido(cliente.getId(), "Calle", null, List.of());
+        pedidoService.actualizarEstado(pedido.getId(), EstadoPedido.EN_PROCESO);
+        return pedido.getId();
+    }
+}
@@ -0,0 +1,99 @@
+package com.sw.GestorAPI.service;
+
+import com.sw.GestorAPI.config.CacheConfig;
+import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.repository.ProductoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Las lecturas repetidas del catálogo no van a la base y cada mutación se refleja
+ * en la caché por id y por SKU
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductoServiceCacheTests {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Statistics statistics;
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        producto = productoService.crearProducto(Producto.builder()
+                .nombre("Tornillo").sku("SKU-CACHE-1").precio(new BigDecimal("1.50")).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.findAll().forEach(p -> productoService.eliminarProducto(p.getId()));
+    }
+
+    @Test
+    void lecturasRepetidasNoConsultanLaBase() {
+        statistics.clear();
+        for (int i = 0; i < 10; i++) {
+            assertThat(productoService.obtenerPorId(producto.getId())).isPresent();
+            assertThat(productoService.obtenerPorSku("SKU-CACHE-1")).isPresent();
+            assertThat(productoService.obtenerPorIds(List.of(producto.getId()))).hasSize(1);
+        }
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void mutacionesActualizanODesalojanLaCache() {
+        productoService.actualizarProducto(producto.getId(),
+                Producto.builder().sku("SKU-CACHE-2").precio(new BigDecimal("2.00")).build());
+
+        assertThat(productoService.obtenerPorSku("SKU-CACHE-1")).isEmpty();
+        assertThat(productoService.obtenerPorSku("SKU-CACHE-2")).get()
+                .extracting(Producto::getPrecio).isEqualTo(new BigDecimal("2.00"));
+
+        productoService.desactivarProducto(producto.getId());
+        assertThat(productoService.obtenerPorId(producto.getId())).get()
+                .extracting(Producto::getActivo).isEqualTo(false);
+
+        productoService.eliminarProducto(producto.getId());
+        assertThat(productoService.obtenerPorId(producto.getId())).isEmpty();
+        assertThat(productoService.obtenerPorSku("SKU-CACHE-2")).isEmpty();
+    }
+
+    @Test
+    void laCacheGuardaUnaCopiaDelProductoLeido() {
+        cacheManager.getCache(CacheConfig.PRODUCTOS).evict(producto.getId());
+        Producto leido = productoService.obtenerPorId(producto.getId()).orElseThrow();
+        leido.setNombre("Modificado sin guardar");
+        producto.setPrecio(new BigDecimal("9.99"));
+
+        Producto cacheado = productoService.obtenerPorId(producto.getId()).orElseThrow();
+        assertThat(cacheado).isNotSameAs(leido);
+        assertThat(cacheado.getNombre()).isEqualTo("Tornillo");
+        assertThat(productoService.obtenerPorSku("SKU-CACHE-1")).get()
+                .extracting(Producto::getPrecio).isEqualTo(new BigDecimal("1.50"));
+    }
+}
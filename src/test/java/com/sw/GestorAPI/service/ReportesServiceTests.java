@@ -0,0 +1,145 @@
+package com.sw.GestorAPI.service;
+
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.entity.ReporteMovimientoDiario;
+import com.sw.GestorAPI.entity.ReporteVentaClienteMensual;
+import com.sw.GestorAPI.repository.ClienteRepository;
+import com.sw.GestorAPI.repository.InventarioRepository;
+import com.sw.GestorAPI.repository.ItemPedidoRepository;
+import com.sw.GestorAPI.repository.MovimientoInventarioRepository;
+import com.sw.GestorAPI.repository.PedidoRepository;
+import com.sw.GestorAPI.repository.ProductoRepository;
+import com.sw.GestorAPI.repository.ReporteAcumuladoRepository.ProductoVendido;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los acumulados de reportes suman ventas, devoluciones por cancelación y entradas a partir de
+ * movimientos_inventario, y el recálculo desde cero llega a los mismos valores.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReportesServiceTests {
+
+    @Autowired
+    private ReportesService reportesService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private InventarioRepository inventarioRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ItemPedidoRepository itemPedidoRepository;
+
+    @Autowired
+    private MovimientoInventarioRepository movimientoRepository;
+
+    private Cliente cliente;
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() {
+        cliente = clienteRepository.save(Cliente.builder()
+                .nombre("Cliente reportes").email("reportes@test.com").password("secreto").build());
+        producto = productoRepository.save(Producto.builder()
+                .nombre("Producto reportes").sku("REP-1").precio(new BigDecimal("12.50")).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        movimientoRepository.deleteAll();
+        itemPedidoRepository.deleteAll();
+        pedidoRepository.deleteAll();
+        inventarioRepository.deleteAll();
+        productoRepository.deleteAll();
+        clienteRepository.deleteAll();
+    }
+
+    @Test
+    void acumulaVentasDevolucionesYEntradas() {
+        LocalDate hoy = LocalDate.now();
+        inventarioService.crearInventario(producto.getId(), 100, "R-1", 0);
+        pedidoService.crearPedido(cliente.getId(), "Calle 1", null,
+                List.of(new PedidoService.ItemPedidoData(producto.getId(), 3)));
+        Pedido cancelado = pedidoService.crearPedido(cliente.getId(), "Calle 2", null,
+                List.of(new PedidoService.ItemPedidoData(producto.getId(), 2)));
+        pedidoService.cancelarPedido(cancelado.getId(), "prueba");
+
+        reportesService.actualizarAcumulados();
+        verificar(hoy);
+        assertThat(reportesService.actualizarAcumulados()).isZero();
+
+        assertThat(reportesService.recalcularDesde(hoy)).isGreaterThanOrEqualTo(4);
+        verificar(hoy);
+    }
+
+    @Test
+    void vinculaLosMovimientosQueSoloNombranElPedidoEnElMotivo() {
+        LocalDate hoy = LocalDate.now();
+        inventarioService.crearInventario(producto.getId(), 100, "R-1", 0);
+        Pedido historico = pedidoService.crearPedido(cliente.getId(), "Calle 1", null,
+                List.of(new PedidoService.ItemPedidoData(producto.getId(), 3)));
+        Pedido eliminado = pedidoService.crearPedido(cliente.getId(), "Calle 2", null,
+                List.of(new PedidoService.ItemPedidoData(producto.getId(), 4)));
+        pedidoService.eliminarPedido(eliminado.getId());
+        // Como los escribía la versión anterior: sin pedido_id, con "(Pedido ID: N)" en el motivo
+        movimientoRepository.desvincularPedido(historico.getId());
+        assertThat(movimientoRepository.findByPedidoIdOrderByFechaMovimientoDesc(historico.getId())).isEmpty();
+
+        reportesService.actualizarAcumulados();
+
+        assertThat(movimientoRepository.findByPedidoIdOrderByFechaMovimientoDesc(historico.getId())).hasSize(1);
+        assertThat(reportesService.movimientosPorDia(producto.getId(), hoy, hoy)).singleElement()
+                .satisfies(d -> {
+                    assertThat(d.getUnidadesSalida()).isEqualTo(7);
+                    assertThat(d.getUnidadesVendidas()).isEqualTo(3);
+                });
+        assertThat(reportesService.ventasClientePorMes(cliente.getId(), hoy, hoy)).singleElement()
+                .satisfies(m -> assertThat(m.getIngresos()).isEqualByComparingTo("37.50"));
+    }
+
+    private void verificar(LocalDate hoy) {
+        List<ReporteMovimientoDiario> diarios = reportesService.movimientosPorDia(producto.getId(), hoy, hoy);
+        assertThat(diarios).singleElement().satisfies(d -> {
+            assertThat(d.getUnidadesEntrada()).isEqualTo(102);
+            assertThat(d.getUnidadesSalida()).isEqualTo(5);
+            assertThat(d.getUnidadesVendidas()).isEqualTo(3);
+        });
+
+        List<ReporteVentaClienteMensual> mensuales = reportesService.ventasClientePorMes(cliente.getId(), hoy, hoy);
+        assertThat(mensuales).singleElement().satisfies(m -> {
+            assertThat(m.getMes()).isEqualTo(hoy.withDayOfMonth(1));
+            assertThat(m.getUnidades()).isEqualTo(3);
+            assertThat(m.getIngresos()).isEqualByComparingTo("37.50");
+        });
+
+        assertThat(reportesService.productosMasVendidos(hoy, hoy, 100))
+                .contains(new ProductoVendido(producto.getId(), 3));
+    }
+}
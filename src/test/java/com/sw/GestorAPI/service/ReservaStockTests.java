@@ -0,0 +1,190 @@
+package com.sw.GestorAPI.service;
+
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.Inventario;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.repository.ClienteRepository;
+import com.sw.GestorAPI.repository.InventarioRepository;
+import com.sw.GestorAPI.repository.ItemPedidoRepository;
+import com.sw.GestorAPI.repository.MovimientoInventarioRepository;
+import com.sw.GestorAPI.repository.PedidoRepository;
+import com.sw.GestorAPI.repository.ProductoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.lang.NonNull;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * La reserva de un pedido usa las mismas sentencias con 3 líneas que con 40, revierte el pedido
+ * entero si una línea no tiene stock, y sus movimientos no impiden eliminar el pedido.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservaStockTests {
+
+    private static final int PRODUCTOS = 40;
+
+    // Sentencias preparadas en cualquier conexión (JPA y JdbcTemplate), sin las de la secuencia de IDs
+    private static final AtomicInteger SENTENCIAS = new AtomicInteger();
+
+    @TestConfiguration
+    static class ContarSentencias {
+
+        @Bean
+        static BeanPostProcessor contarSentenciasDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String nombre) {
+                    if (!(bean instanceof DataSource dataSource) || bean instanceof DelegatingDataSource) return bean;
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public @NonNull Connection getConnection() throws SQLException {
+                            return contar(super.getConnection());
+                        }
+                    };
+                }
+            };
+        }
+
+        private static Connection contar(Connection conexion) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, metodo, args) -> {
+                        if (metodo.getName().equals("prepareStatement") || metodo.getName().equals("prepareCall")) {
+                            String sql = ((String) args[0]).toLowerCase(Locale.ROOT);
+                            if (!sql.contains("next value for") && !sql.contains("nextval")) SENTENCIAS.incrementAndGet();
+                        }
+                        try {
+                            return metodo.invoke(conexion, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private InventarioRepository inventarioRepository;
+
+    @Autowired
+    private MovimientoInventarioRepository movimientoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ItemPedidoRepository itemPedidoRepository;
+
+    private final List<Producto> productos = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PRODUCTOS; i++) {
+            Producto producto = productoRepository.save(Producto.builder()
+                    .nombre("Producto " + i).sku("SKU-RES-" + i).precio(new BigDecimal("2.50")).build());
+            inventarioRepository.save(Inventario.builder()
+                    .producto(producto).cantidad(100).ubicacion("B-1").stockMinimo(0).build());
+            productos.add(producto);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        movimientoRepository.deleteAll();
+        itemPedidoRepository.deleteAll();
+        pedidoRepository.deleteAll();
+        inventarioRepository.deleteAll();
+        productoRepository.deleteAll();
+        clienteRepository.deleteAll();
+        productos.clear();
+    }
+
+    @Test
+    void reservaConSentenciasConstantes() {
+        // La primera llamada calienta cachés y secuencias
+        inventarioService.reservarStock(lineas(PRODUCTOS, 1), "Calentamiento", null);
+
+        SENTENCIAS.set(0);
+        inventarioService.reservarStock(lineas(3, 1), "Pocas líneas", null);
+        int pocas = SENTENCIAS.get();
+
+        SENTENCIAS.set(0);
+        inventarioService.reservarStock(lineas(PRODUCTOS, 1), "Muchas líneas", null);
+        assertThat(SENTENCIAS.get()).isEqualTo(pocas).isPositive();
+
+        assertThat(inventarioRepository.findByProductoId(productos.get(0).getId()).orElseThrow().getCantidad())
+                .isEqualTo(97);
+        assertThat(inventarioRepository.findByProductoId(productos.get(PRODUCTOS - 1).getId()).orElseThrow().getCantidad())
+                .isEqualTo(98);
+    }
+
+    @Test
+    void unaLineaSinStockRevierteTodoElPedido() {
+        List<InventarioService.LineaReserva> lineas = new ArrayList<>(lineas(5, 10));
+        lineas.add(new InventarioService.LineaReserva(productos.get(5).getId(), 101));
+
+        assertThatThrownBy(() -> inventarioService.reservarStock(lineas, "Sin stock", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Stock insuficiente");
+
+        assertThat(inventarioRepository.findAll()).allSatisfy(i -> assertThat(i.getCantidad()).isEqualTo(100));
+        assertThat(movimientoRepository.count()).isZero();
+    }
+
+    @Test
+    void eliminarPedidoConItemsConservaSusMovimientos() {
+        Cliente cliente = clienteRepository.save(Cliente.builder()
+                .nombre("Cliente").email("reserva@test.com").password("secreto").build());
+        Pedido pedido = pedidoService.crearPedido(cliente.getId(), "Calle 1", null, List.of(
+                new PedidoService.ItemPedidoData(productos.get(0).getId(), 2),
+                new PedidoService.ItemPedidoData(productos.get(1).getId(), 1)));
+        assertThat(movimientoRepository.findByPedidoIdOrderByFechaMovimientoDesc(pedido.getId())).hasSize(2);
+
+        pedidoService.eliminarPedido(pedido.getId());
+
+        assertThat(pedidoRepository.existsById(pedido.getId())).isFalse();
+        assertThat(movimientoRepository.findAll()).hasSize(2).allSatisfy(m -> {
+            assertThat(m.getPedido()).isNull();
+            assertThat(m.getMotivo()).contains("(Pedido ID: " + pedido.getId() + ")");
+        });
+    }
+
+    private List<InventarioService.LineaReserva> lineas(int cantidadProductos, int cantidad) {
+        return productos.subList(0, cantidadProductos).stream()
+                .map(p -> new InventarioService.LineaReserva(p.getId(), cantidad))
+                .toList();
+    }
+}
@@ -0,0 +1,178 @@
+package com.sw.GestorAPI.service;
+
+import com.sw.GestorAPI.dto.DashboardResumenResponse;
+import com.sw.GestorAPI.dto.DashboardResumenResponse.ConteoPorEstado;
+import com.sw.GestorAPI.dto.DashboardResumenResponse.VentaDia;
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.entity.Producto;
+import com.sw.GestorAPI.entity.Usuario;
+import com.sw.GestorAPI.enums.EstadoPedido;
+import com.sw.GestorAPI.enums.Rol;
+import com.sw.GestorAPI.repository.ClienteRepository;
+import com.sw.GestorAPI.repository.InventarioRepository;
+import com.sw.GestorAPI.repository.ItemPedidoRepository;
+import com.sw.GestorAPI.repository.MovimientoInventarioRepository;
+import com.sw.GestorAPI.repository.PedidoRepository;
+import com.sw.GestorAPI.repository.ProductoRepository;
+import com.sw.GestorAPI.repository.RutaEntregaRepository;
+import com.sw.GestorAPI.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Los contadores del dashboard siguen a pedidos, rutas e inventarios modificados por los servicios
+ * y coinciden con lo que recalcula la reconciliación desde las tablas de origen.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ResumenDashboardTests {
+
+    @Autowired
+    private ResumenDashboardService resumenDashboardService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private RutaEntregaService rutaEntregaService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private InventarioRepository inventarioRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ItemPedidoRepository itemPedidoRepository;
+
+    @Autowired
+    private MovimientoInventarioRepository movimientoRepository;
+
+    @Autowired
+    private RutaEntregaRepository rutaEntregaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private Cliente cliente;
+    private Producto producto;
+    private Usuario repartidor;
+
+    @BeforeEach
+    void setUp() {
+        cliente = clienteRepository.save(Cliente.builder()
+                .nombre("Cliente dashboard").email("resumen@test.com").password("secreto").build());
+        producto = productoRepository.save(Producto.builder()
+                .nombre("Producto dashboard").sku("RES-1").precio(new BigDecimal("10.00")).build());
+        repartidor = usuarioRepository.save(Usuario.builder()
+                .nombreCompleto("Repartidor resumen").email("repartidor-resumen@test.com")
+                .password("secreto").rol(Rol.REPARTIDOR).build());
+        // Otros tests escriben por los repositorios, sin pasar por los contadores
+        resumenDashboardService.reconciliarContadores();
+    }
+
+    @AfterEach
+    void tearDown() {
+        rutaEntregaRepository.deleteAll();
+        movimientoRepository.deleteAll();
+        itemPedidoRepository.deleteAll();
+        pedidoRepository.deleteAll();
+        inventarioRepository.deleteAll();
+        productoRepository.deleteAll();
+        clienteRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    void contadoresSiguenLosCambiosYCoincidenConLaReconciliacion() {
+        DashboardResumenResponse antes = resumenDashboardService.obtenerResumen(1);
+
+        inventarioService.crearInventario(producto.getId(), 10, "R-1", 5);
+        Pedido entregable = pedidoService.crearPedido(cliente.getId(), "Calle 1", null,
+                List.of(new PedidoService.ItemPedidoData(producto.getId(), 6)));
+        Pedido cancelable = pedidoService.crearPedido(cliente.getId(), "Calle 2", null,
+                List.of(new PedidoService.ItemPedidoData(producto.getId(), 1)));
+        pedidoService.actualizarEstado(entregable.getId(), EstadoPedido.EN_PROCESO);
+        pedidoService.cancelarPedido(cancelable.getId(), "prueba");
+        rutaEntregaService.crearRuta(repartidor.getId(), LocalDate.now(), null, null, List.of(entregable.getId()));
+
+        // Sin stock: la transacción se revierte y no deja deltas aplicados
+        assertThatThrownBy(() -> pedidoService.crearPedido(cliente.getId(), "Calle 3", null,
+                List.of(new PedidoService.ItemPedidoData(producto.getId(), 100))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        DashboardResumenResponse despues = resumenDashboardService.obtenerResumen(1);
+        assertThat(conteo(despues.getPedidosPorEstado(), "PENDIENTE")).isEqualTo(conteo(antes.getPedidosPorEstado(), "PENDIENTE"));
+        assertThat(conteo(despues.getPedidosPorEstado(), "EN_PROCESO")).isEqualTo(conteo(antes.getPedidosPorEstado(), "EN_PROCESO") + 1);
+        assertThat(conteo(despues.getPedidosPorEstado(), "CANCELADO")).isEqualTo(conteo(antes.getPedidosPorEstado(), "CANCELADO") + 1);
+        assertThat(conteo(despues.getRutasPorEstado(), "PLANIFICADA")).isEqualTo(conteo(antes.getRutasPorEstado(), "PLANIFICADA") + 1);
+        // 10 - 6 - 1 = 3 <= 5, y la cancelación lo devuelve a 4: sigue bajo
+        assertThat(despues.getInventariosStockBajo()).isEqualTo(antes.getInventariosStockBajo() + 1);
+
+        VentaDia hoy = venta(despues);
+        VentaDia hoyAntes = venta(antes);
+        assertThat(hoy.getPedidos()).isEqualTo(hoyAntes.getPedidos() + 1);
+        assertThat(hoy.getIngresos()).isEqualByComparingTo(hoyAntes.getIngresos().add(new BigDecimal("60.00")));
+
+        inventarioService.ajustarStock(producto.getId(), 10, "Reposición");
+        assertThat(resumenDashboardService.obtenerResumen(1).getInventariosStockBajo())
+                .isEqualTo(antes.getInventariosStockBajo());
+
+        // Con líneas y movimientos de stock que lo referencian
+        Pedido eliminable = pedidoService.crearPedido(cliente.getId(), "Calle 4", null,
+                List.of(new PedidoService.ItemPedidoData(producto.getId(), 2)));
+        DashboardResumenResponse conEliminable = resumenDashboardService.obtenerResumen(1);
+        assertThat(conteo(conEliminable.getPedidosPorEstado(), "PENDIENTE")).isEqualTo(conteo(antes.getPedidosPorEstado(), "PENDIENTE") + 1);
+        assertThat(venta(conEliminable).getPedidos()).isEqualTo(hoyAntes.getPedidos() + 2);
+
+        pedidoService.eliminarPedido(eliminable.getId());
+        DashboardResumenResponse tras = resumenDashboardService.obtenerResumen(1);
+        assertThat(conteo(tras.getPedidosPorEstado(), "PENDIENTE")).isEqualTo(conteo(antes.getPedidosPorEstado(), "PENDIENTE"));
+        assertThat(venta(tras).getPedidos()).isEqualTo(hoyAntes.getPedidos() + 1);
+        assertThat(venta(tras).getIngresos()).isEqualByComparingTo(hoyAntes.getIngresos().add(new BigDecimal("60.00")));
+
+        assertThat(resumenDashboardService.reconciliarContadores()).isZero();
+    }
+
+    @Test
+    void reconciliacionCorrigeLoEscritoFueraDeLosServicios() {
+        Pedido pedido = pedidoService.crearPedido(cliente.getId(), "Calle 1", null, List.of());
+        // Borrado directo por el repositorio: el contador queda desfasado hasta reconciliar
+        pedidoRepository.deleteById(pedido.getId());
+
+        assertThat(resumenDashboardService.reconciliarContadores()).isEqualTo(2);
+        assertThat(resumenDashboardService.reconciliarContadores()).isZero();
+    }
+
+    private static long conteo(List<ConteoPorEstado> conteos, String estado) {
+        return conteos.stream().filter(c -> c.getEstado().equals(estado))
+                .mapToLong(ConteoPorEstado::getCantidad).findFirst().orElseThrow();
+    }
+
+    private static VentaDia venta(DashboardResumenResponse resumen) {
+        String hoy = LocalDate.now().toString();
+        return resumen.getVentasPorDia().stream().filter(v -> v.getFecha().equals(hoy)).findFirst()
+                .orElse(new VentaDia(hoy, 0, BigDecimal.ZERO));
+    }
+}
@@ -0,0 +1,97 @@
+package com.sw.GestorAPI.service;
+
+import com.sw.GestorAPI.dto.ActualizarUbicacionClienteInput;
+import com.sw.GestorAPI.dto.ZonaRepartoResponse;
+import com.sw.GestorAPI.entity.Cliente;
+import com.sw.GestorAPI.entity.Pedido;
+import com.sw.GestorAPI.repository.ClienteRepository;
+import com.sw.GestorAPI.repository.PedidoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los pedidos nacen con la zona de su cliente; al dividirse una zona o mudarse un cliente se
+ * reetiquetan sus pedidos pendientes, y la reconstrucción vuelve a unir las zonas que quedaron chicas.
+ */
+@SpringBootTest(properties = "gestorapi.zonas.clientes-por-zona=2")
+@ActiveProfiles("test")
+class ZonasRepartoTests {
+
+    // Las tres coordenadas comparten la celda 6sg4f y caen en celdas de largo 6 distintas
+    private static final double LAT = -17.78;
+    private static final double LNG = -63.18;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private ZonaRepartoService zonaRepartoService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @BeforeEach
+    void setUp() {
+        zonaRepartoService.reconstruirZonas();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pedidoRepository.deleteAll();
+        clienteRepository.findAll().forEach(c -> clienteService.eliminarCliente(c.getId()));
+    }
+
+    @Test
+    void divideLaZonaLlenaYReetiquetaLosPendientes() {
+        Cliente centro = crear("centro", LAT, LNG);
+        Cliente norte = crear("norte", LAT + 0.02, LNG);
+        Pedido pedidoCentro = pedidoService.crearPedido(centro.getId(), "Calle", null, List.of());
+        Pedido pedidoNorte = pedidoService.crearPedido(norte.getId(), "Calle", null, List.of());
+        assertThat(pedidoCentro.getZona()).isEqualTo("6sg4f");
+
+        // El tercer cliente divide 6sg4f
+        crear("este", LAT + 0.006, LNG + 0.006);
+        assertThat(zona(pedidoCentro)).isEqualTo("6sg4f7");
+        assertThat(zona(pedidoNorte)).isEqualTo("6sg4fq");
+        assertThat(pedidosPendientes("6sg4f7")).isEqualTo(1);
+        assertThat(zonaRepartoService.listarPendientesPorZona("6sg4fq")).extracting(Pedido::getId)
+                .containsExactly(pedidoNorte.getId());
+
+        clienteService.actualizarUbicacionCliente(norte.getId(), new ActualizarUbicacionClienteInput(
+                "Lejos", LAT + 0.5, LNG + 0.5, null));
+        assertThat(zona(pedidoNorte)).isEqualTo("6sgmt");
+
+        // Quedan dos clientes en 6sg4f: la reconstrucción la vuelve a unir
+        assertThat(zonaRepartoService.reconstruirZonas()).isEqualTo(1);
+        assertThat(zona(pedidoCentro)).isEqualTo("6sg4f");
+        assertThat(zonaRepartoService.reconstruirZonas()).isZero();
+    }
+
+    private String zona(Pedido pedido) {
+        return pedidoRepository.findById(pedido.getId()).orElseThrow().getZona();
+    }
+
+    private long pedidosPendientes(String zona) {
+        return zonaRepartoService.listarZonas().stream().filter(z -> z.getZona().equals(zona))
+                .mapToLong(ZonaRepartoResponse::getPedidosPendientes).sum();
+    }
+
+    private Cliente crear(String nombre, double latitud, double longitud) {
+        return clienteService.crearCliente(Cliente.builder().nombre(nombre).email(nombre + "@zonas.test")
+                .password("secreto").latitudCliente(latitud).longitudCliente(longitud).build());
+    }
+}